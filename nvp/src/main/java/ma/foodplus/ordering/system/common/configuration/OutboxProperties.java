@@ -0,0 +1,41 @@
+package ma.foodplus.ordering.system.common.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Transactional outbox settings bound from {@code foodplus.outbox.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "foodplus.outbox")
+public class OutboxProperties {
+
+    /**
+     * Whether this instance relays events; events are always written to the outbox.
+     */
+    private boolean enabled = true;
+    private Duration pollInterval = Duration.ofSeconds(1);
+    /**
+     * Events locked and delivered per transaction.
+     */
+    private int batchSize = 200;
+    /**
+     * Upper bound on batches drained per poll, so a large backlog does not starve the scheduler thread.
+     */
+    private int maxBatchesPerPoll = 20;
+    /**
+     * Deliveries attempted before an event is marked FAILED and no longer retried.
+     */
+    private int maxAttempts = 10;
+    /**
+     * Delay before the first retry; each further attempt waits one more multiple of it.
+     */
+    private Duration retryBackoff = Duration.ofSeconds(30);
+    /**
+     * How long processed events are kept before they are deleted.
+     */
+    private Duration retention = Duration.ofDays(7);
+    private String cleanupCron = "0 30 3 * * *";
+}
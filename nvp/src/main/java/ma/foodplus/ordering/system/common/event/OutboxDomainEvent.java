@@ -0,0 +1,19 @@
+package ma.foodplus.ordering.system.common.event;
+
+import ma.foodplus.ordering.system.domain.event.DomainEvent;
+
+/**
+ * A {@link DomainEvent} that is written to the outbox. The event itself is serialized to JSON as the payload.
+ *
+ * @param <T> the aggregate the event is about
+ */
+public interface OutboxDomainEvent<T> extends DomainEvent<T> {
+
+    String aggregateType();
+
+    String aggregateId();
+
+    default String eventType() {
+        return getClass().getSimpleName();
+    }
+}
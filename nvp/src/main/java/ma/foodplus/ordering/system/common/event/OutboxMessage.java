@@ -0,0 +1,15 @@
+package ma.foodplus.ordering.system.common.event;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.ZonedDateTime;
+
+/**
+ * An outbox event as handed to the sinks. Delivery is at least once: the same {@code id} may be delivered
+ * again after a failure or a crash, so consumers must be idempotent.
+ *
+ * @param attempt 1 on the first delivery
+ */
+public record OutboxMessage(Long id, String aggregateType, String aggregateId, String eventType,
+                            JsonNode payload, ZonedDateTime createdAt, int attempt) {
+}
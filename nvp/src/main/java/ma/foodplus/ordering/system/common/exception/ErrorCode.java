@@ -32,7 +32,8 @@ public enum ErrorCode {
     VALIDATION_ERROR(9001, "Validation error"),
     DATABASE_ERROR(9002, "Database error"),
     CACHE_ERROR(9003, "Cache error"),
-    EXTERNAL_SERVICE_ERROR(9004, "External service error");
+    EXTERNAL_SERVICE_ERROR(9004, "External service error"),
+    CONCURRENT_MODIFICATION(9005, "Resource was modified concurrently");
 
     private final int code;
     private final String message;
@@ -0,0 +1,38 @@
+package ma.foodplus.ordering.system.common.repository;
+
+import ma.foodplus.ordering.system.common.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks the oldest due pending events. Rows locked by another relay are skipped rather than waited for,
+     * so several instances drain disjoint batches concurrently.
+     */
+    @Query(value = "SELECT * FROM outbox WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+                   "ORDER BY id LIMIT :batchSize FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("now") ZonedDateTime now, @Param("batchSize") int batchSize);
+
+    /**
+     * Locks one event if it is still pending and due, or returns nothing, also when another relay holds it.
+     */
+    @Query(value = "SELECT * FROM outbox WHERE id = :id AND status = 'PENDING' AND next_attempt_at <= :now " +
+                   "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<OutboxEvent> lockIfDue(@Param("id") Long id, @Param("now") ZonedDateTime now);
+
+    long countByStatus(OutboxEvent.Status status);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = :status AND e.processedAt < :before")
+    int deleteByStatusAndProcessedAtBefore(@Param("status") OutboxEvent.Status status,
+                                           @Param("before") ZonedDateTime before);
+}
@@ -0,0 +1,32 @@
+package ma.foodplus.ordering.system.common.service;
+
+import lombok.RequiredArgsConstructor;
+import ma.foodplus.ordering.system.common.event.OutboxMessage;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Republishes outbox events in-process as {@link OutboxMessage} application events, so consumers such as
+ * cache invalidation, audit or analytics can subscribe with {@code @EventListener} and run on the relay
+ * thread instead of the request path.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApplicationEventOutboxSink implements OutboxSink {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @Override
+    public String getName() {
+        return "application-events";
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> messages) {
+        for (OutboxMessage message : messages) {
+            applicationEventPublisher.publishEvent(message);
+        }
+    }
+}
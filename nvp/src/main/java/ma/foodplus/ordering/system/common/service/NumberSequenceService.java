@@ -0,0 +1,214 @@
+package ma.foodplus.ordering.system.common.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Human-readable, unique document numbers such as {@code B2C-20261019-000123457}: a prefix, the issue date,
+ * the zero-padded sequence number and a Luhn check digit over the date and number digits.
+ * <p>
+ * Numbers come from PostgreSQL sequences whose {@code INCREMENT BY} is the block size: one {@code nextval}
+ * leases the block {@code [value, value + increment)} to this node, which then hands numbers out of memory
+ * with an atomic increment. The increment is read in the same statement as {@code nextval}, so a raised increment
+ * applies from the next lease. The next block is fetched in the background once three quarters of the current
+ * one are used, so a burst of orders rarely waits on the database. Numbers of a block that is not used up
+ * before shutdown are skipped: numbers are unique and increasing per node, not gap-free.
+ */
+@Slf4j
+@Service
+public class NumberSequenceService {
+
+    public static final String METRICS_PREFIX = "foodplus.numbering";
+
+    public enum Sequence {
+        ORDER_NUMBER("order_number_seq", "ORD"),
+        BULK_ORDER_REFERENCE("bulk_order_reference_seq", "BLK"),
+        STOCK_TRANSFER_REFERENCE("stock_transfer_reference_seq", "TRF");
+
+        private final String sequenceName;
+        private final String defaultPrefix;
+
+        Sequence(String sequenceName, String defaultPrefix) {
+            this.sequenceName = sequenceName;
+            this.defaultPrefix = defaultPrefix;
+        }
+
+        public String getDefaultPrefix() {
+            return defaultPrefix;
+        }
+    }
+
+    private static final int NUMBER_DIGITS = 8;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<Sequence, Allocator> allocators = new EnumMap<>(Sequence.class);
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "number-sequence-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public NumberSequenceService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        for (Sequence sequence : Sequence.values()) {
+            allocators.put(sequence, new Allocator(sequence));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    /**
+     * @return the next number of the sequence with its default prefix
+     */
+    public String next(Sequence sequence) {
+        return next(sequence, sequence.getDefaultPrefix());
+    }
+
+    public String next(Sequence sequence, String prefix) {
+        return format(prefix, LocalDate.now(), allocators.get(sequence).next());
+    }
+
+    static String format(String prefix, LocalDate date, long number) {
+        String day = date.format(DateTimeFormatter.BASIC_ISO_DATE);
+        String digits = Long.toString(number);
+        StringBuilder formatted = new StringBuilder(prefix.length() + day.length() + NUMBER_DIGITS + 3)
+                .append(prefix).append('-').append(day).append('-');
+        for (int i = digits.length(); i < NUMBER_DIGITS; i++) {
+            formatted.append('0');
+        }
+        formatted.append(digits);
+        formatted.append(luhnCheckDigit(formatted, prefix.length() + 1));
+        return formatted.toString();
+    }
+
+    /**
+     * Luhn check digit of the decimal digits of {@code text} from {@code from}, other characters ignored.
+     */
+    private static char luhnCheckDigit(CharSequence text, int from) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = text.length() - 1; i >= from; i--) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                continue;
+            }
+            int digit = c - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+
+    /**
+     * A leased range {@code [cursor, end)}; the cursor is shared by every thread drawing from it.
+     */
+    private record Block(AtomicLong cursor, long end, long prefetchAt) {
+
+        static final Block EMPTY = new Block(new AtomicLong(), 0, -1);
+
+        static Block of(long start, long size) {
+            return new Block(new AtomicLong(start), start + size, start + size * 3 / 4);
+        }
+    }
+
+    private final class Allocator {
+
+        private final Sequence sequence;
+        private final Counter blocksLeased;
+        private final AtomicReference<CompletableFuture<Block>> prefetched = new AtomicReference<>();
+        private volatile Block current = Block.EMPTY;
+
+        private Allocator(Sequence sequence) {
+            this.sequence = sequence;
+            this.blocksLeased = Counter.builder(METRICS_PREFIX + ".blocks")
+                    .tag("sequence", sequence.sequenceName)
+                    .description("Number blocks leased from the database")
+                    .register(meterRegistry);
+        }
+
+        long next() {
+            while (true) {
+                Block block = current;
+                long value = block.cursor().getAndIncrement();
+                if (value < block.end()) {
+                    if (value == block.prefetchAt()) {
+                        prefetch();
+                    }
+                    return value;
+                }
+                // Block used up: one thread installs the next one, the others retry on it
+                synchronized (this) {
+                    if (current == block) {
+                        current = takeNextBlock();
+                    }
+                }
+            }
+        }
+
+        private void prefetch() {
+            CompletableFuture<Block> future = new CompletableFuture<>();
+            if (prefetched.compareAndSet(null, future)) {
+                try {
+                    prefetchExecutor.execute(() -> {
+                        try {
+                            future.complete(lease());
+                        } catch (RuntimeException e) {
+                            future.completeExceptionally(e);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        }
+
+        private Block takeNextBlock() {
+            CompletableFuture<Block> future = prefetched.getAndSet(null);
+            if (future != null) {
+                try {
+                    return future.join();
+                } catch (CompletionException | CancellationException e) {
+                    log.warn("Prefetch of {} failed, leasing synchronously: {}", sequence.sequenceName, e.getMessage());
+                }
+            }
+            return lease();
+        }
+
+        private Block lease() {
+            Block block = jdbcTemplate.queryForObject(
+                    "SELECT nextval(s.seqrelid) AS start_value, s.seqincrement AS block_size " +
+                    "FROM pg_sequence s WHERE s.seqrelid = ?::regclass",
+                    (rs, rowNum) -> Block.of(rs.getLong("start_value"), Math.max(rs.getLong("block_size"), 1)),
+                    sequence.sequenceName);
+            blocksLeased.increment();
+            return block;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package ma.foodplus.ordering.system.common.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import ma.foodplus.ordering.system.common.event.OutboxDomainEvent;
+import ma.foodplus.ordering.system.common.model.OutboxEvent;
+import ma.foodplus.ordering.system.common.repository.OutboxEventRepository;
+import ma.foodplus.ordering.system.domain.event.publisher.DomainEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Writes domain events to the outbox table. It must be called inside the transaction that makes the
+ * change, so the event is committed or rolled back together with it; {@link OutboxRelay} delivers it later.
+ */
+@Service
+public class OutboxEventPublisher implements DomainEventPublisher<OutboxDomainEvent<?>> {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final Counter appended;
+
+    public OutboxEventPublisher(OutboxEventRepository outboxEventRepository,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.appended = Counter.builder(OutboxRelay.METRICS_PREFIX + ".appended")
+                .description("Events written to the outbox")
+                .register(meterRegistry);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(OutboxDomainEvent<?> domainEvent) {
+        ZonedDateTime now = ZonedDateTime.now();
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(domainEvent.aggregateType())
+                .aggregateId(domainEvent.aggregateId())
+                .eventType(domainEvent.eventType())
+                .payload(objectMapper.valueToTree(domainEvent))
+                .status(OutboxEvent.Status.PENDING)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build());
+        appended.increment();
+    }
+}
@@ -0,0 +1,221 @@
+package ma.foodplus.ordering.system.common.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.common.configuration.OutboxProperties;
+import ma.foodplus.ordering.system.common.event.OutboxMessage;
+import ma.foodplus.ordering.system.common.model.OutboxEvent;
+import ma.foodplus.ordering.system.common.repository.OutboxEventRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox into the {@link OutboxSink}s.
+ * <p>
+ * Each batch is one transaction: the oldest due pending events are locked with
+ * {@code FOR UPDATE SKIP LOCKED}, delivered to every sink, and marked PROCESSED, or rescheduled with a
+ * linear backoff when a sink fails them, before the locks are released by the commit. An event is only
+ * marked after its delivery, so a crash in between redelivers it: delivery is at least once. Events that
+ * fail {@code max-attempts} times are marked FAILED and left in the table for inspection.
+ * <p>
+ * When the batch transaction itself fails, because a sink or listener marked it rollback-only or the
+ * marking failed, nothing of it is recorded. Its events are then relayed again one per transaction, and an
+ * event whose own transaction fails has the attempt recorded in a separate one, so a poison event uses up
+ * its attempts and ends FAILED instead of blocking every batch it lands in.
+ */
+@Slf4j
+@Service
+public class OutboxRelay {
+
+    public static final String METRICS_PREFIX = "foodplus.outbox";
+
+    private static final Duration PENDING_GAUGE_INTERVAL = Duration.ofSeconds(10);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSink> sinks;
+    private final OutboxProperties settings;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter delivered;
+    private final Counter retried;
+    private final Counter failed;
+    private final Timer batchTimer;
+    private final Timer deliveryLag;
+    private final AtomicLong pending = new AtomicLong();
+    private volatile long pendingRefreshedAt;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       List<OutboxSink> sinks,
+                       OutboxProperties settings,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.settings = settings;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.delivered = Counter.builder(METRICS_PREFIX + ".delivered")
+                .description("Events delivered to every sink")
+                .register(meterRegistry);
+        this.retried = Counter.builder(METRICS_PREFIX + ".failures").tag("outcome", "retry")
+                .description("Failed deliveries that will be retried")
+                .register(meterRegistry);
+        this.failed = Counter.builder(METRICS_PREFIX + ".failures").tag("outcome", "failed")
+                .description("Failed deliveries that exhausted their attempts")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder(METRICS_PREFIX + ".batch")
+                .description("Time to lock, deliver and mark one batch")
+                .register(meterRegistry);
+        this.deliveryLag = Timer.builder(METRICS_PREFIX + ".lag")
+                .description("Time from writing an event to delivering it")
+                .register(meterRegistry);
+        Gauge.builder(METRICS_PREFIX + ".pending", pending, AtomicLong::get)
+                .description("Pending events, refreshed while the relay polls")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${foodplus.outbox.poll-interval:1s}")
+    public void drain() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        int batchSize = Math.max(1, settings.getBatchSize());
+        int total = 0;
+        for (int batch = 0; batch < Math.max(1, settings.getMaxBatchesPerPoll()); batch++) {
+            List<Long> lockedIds = new ArrayList<>(batchSize);
+            int relayed;
+            try {
+                relayed = batchTimer.record(() -> transactionTemplate.execute(status ->
+                        relay(outboxEventRepository.lockNextBatch(ZonedDateTime.now(), batchSize), lockedIds)));
+            } catch (RuntimeException e) {
+                log.warn("Outbox batch of {} rolled back, relaying its events one by one: {}",
+                        lockedIds.size(), e.getMessage());
+                lockedIds.forEach(this::relayIsolated);
+                relayed = lockedIds.size();
+            }
+            total += relayed;
+            if (relayed < batchSize) {
+                break;
+            }
+        }
+        refreshPending(total > 0);
+    }
+
+    @Scheduled(cron = "${foodplus.outbox.cleanup-cron:0 30 3 * * *}")
+    public void deleteProcessed() {
+        ZonedDateTime before = ZonedDateTime.now().minus(settings.getRetention());
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteByStatusAndProcessedAtBefore(OutboxEvent.Status.PROCESSED, before));
+        log.info("Deleted {} outbox events processed before {}", deleted, before);
+    }
+
+    /**
+     * Relays one event in a transaction of its own. When that transaction fails too, the attempt and its
+     * error are recorded in a further transaction.
+     */
+    private void relayIsolated(Long id) {
+        try {
+            transactionTemplate.execute(status ->
+                    relay(outboxEventRepository.lockIfDue(id, ZonedDateTime.now()).stream().toList(), new ArrayList<>()));
+        } catch (RuntimeException e) {
+            String error = "relay: " + e.getMessage();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Optional<OutboxEvent> event = outboxEventRepository.lockIfDue(id, ZonedDateTime.now());
+                    event.ifPresent(locked -> {
+                        locked.setAttempts(locked.getAttempts() + 1);
+                        markFailedAttempt(locked, error, ZonedDateTime.now());
+                    });
+                });
+            } catch (RuntimeException recordFailure) {
+                log.error("Could not record the failed attempt of outbox event {}: {}", id, recordFailure.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Delivers the locked events to every sink and marks them. Their ids are added to {@code lockedIds} before
+     * delivery, so the caller knows the batch when the transaction fails.
+     */
+    private int relay(List<OutboxEvent> events, List<Long> lockedIds) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+        for (OutboxEvent event : events) {
+            lockedIds.add(event.getId());
+        }
+        List<OutboxMessage> messages = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            messages.add(new OutboxMessage(event.getId(), event.getAggregateType(), event.getAggregateId(),
+                    event.getEventType(), event.getPayload(), event.getCreatedAt(), event.getAttempts() + 1));
+        }
+
+        Map<Long, String> errors = new HashMap<>();
+        for (OutboxSink sink : sinks) {
+            try {
+                sink.deliver(messages);
+            } catch (RuntimeException batchFailure) {
+                log.debug("Outbox sink {} failed a batch of {}, retrying one by one", sink.getName(), messages.size());
+                for (OutboxMessage message : messages) {
+                    try {
+                        sink.deliver(List.of(message));
+                    } catch (RuntimeException e) {
+                        errors.putIfAbsent(message.id(), sink.getName() + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        ZonedDateTime processedAt = ZonedDateTime.now();
+        for (OutboxEvent event : events) {
+            event.setAttempts(event.getAttempts() + 1);
+            String error = errors.get(event.getId());
+            if (error == null) {
+                event.setStatus(OutboxEvent.Status.PROCESSED);
+                event.setProcessedAt(processedAt);
+                event.setLastError(null);
+                delivered.increment();
+                deliveryLag.record(Duration.between(event.getCreatedAt(), processedAt));
+            } else {
+                markFailedAttempt(event, error, processedAt);
+            }
+        }
+        return events.size();
+    }
+
+    /**
+     * Marks the event FAILED once its attempts, already counted, reach {@code max-attempts}, or reschedules it.
+     */
+    private void markFailedAttempt(OutboxEvent event, String error, ZonedDateTime now) {
+        event.setLastError(error);
+        if (event.getAttempts() >= settings.getMaxAttempts()) {
+            event.setStatus(OutboxEvent.Status.FAILED);
+            failed.increment();
+            log.error("Outbox event {} ({} {}) failed after {} attempts: {}",
+                    event.getId(), event.getEventType(), event.getAggregateId(), event.getAttempts(), error);
+        } else {
+            event.setNextAttemptAt(now.plus(settings.getRetryBackoff().multipliedBy(event.getAttempts())));
+            retried.increment();
+        }
+    }
+
+    private void refreshPending(boolean relayed) {
+        long nowMillis = System.currentTimeMillis();
+        if (relayed || nowMillis - pendingRefreshedAt >= PENDING_GAUGE_INTERVAL.toMillis()) {
+            pendingRefreshedAt = nowMillis;
+            pending.set(outboxEventRepository.countByStatus(OutboxEvent.Status.PENDING));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ma.foodplus.ordering.system.common.service;
+
+import ma.foodplus.ordering.system.common.event.OutboxMessage;
+
+import java.util.List;
+
+/**
+ * Destination of the events drained by {@link OutboxRelay}. Every sink bean receives every batch.
+ * <p>
+ * Delivery is at least once: a batch is delivered again if any sink fails it or the relay dies before
+ * committing, so sinks must be idempotent on {@link OutboxMessage#id()}. Sinks run inside the relay
+ * transaction that holds the row locks; work that must not be rolled back with it belongs in its own
+ * transaction.
+ */
+public interface OutboxSink {
+
+    String getName();
+
+    /**
+     * @throws RuntimeException to have the whole batch retried; the relay then retries the events one by
+     *                          one to isolate the failing ones
+     */
+    void deliver(List<OutboxMessage> messages);
+}
@@ -4,6 +4,7 @@ import ma.foodplus.ordering.system.common.exception.BaseException;
 import ma.foodplus.ordering.system.common.exception.ErrorCode;
 import ma.foodplus.ordering.system.order.exception.OrderItemNotFoundException;
 import ma.foodplus.ordering.system.order.exception.OrderNotFoundException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -29,6 +30,19 @@ public class GlobalExceptionHandler {
         return createErrorResponse(HttpStatus.NOT_FOUND, ex);
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        // Someone else committed a change first: the client reloads and decides whether to reapply its edit
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now().format(TIMESTAMP_FORMATTER));
+        body.put("status", HttpStatus.CONFLICT.value());
+        body.put("error", HttpStatus.CONFLICT.getReasonPhrase());
+        body.put("errorCode", ErrorCode.CONCURRENT_MODIFICATION.getCode());
+        body.put("message", ErrorCode.CONCURRENT_MODIFICATION.getMessage());
+
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(BaseException.class)
     public ResponseEntity<Map<String, Object>> handleBaseException(BaseException ex) {
         return createErrorResponse(HttpStatus.BAD_REQUEST, ex);
@@ -73,6 +87,7 @@ public class GlobalExceptionHandler {
                  CUSTOMER_INVALID_ADDRESS, CUSTOMER_INVALID_PHONE,
                  CUSTOMER_INVALID_EMAIL -> 
                 HttpStatus.BAD_REQUEST;
+            case CONCURRENT_MODIFICATION -> HttpStatus.CONFLICT;
             case SYSTEM_ERROR, DATABASE_ERROR, CACHE_ERROR, EXTERNAL_SERVICE_ERROR -> 
                 HttpStatus.INTERNAL_SERVER_ERROR;
             default -> HttpStatus.BAD_REQUEST;
@@ -0,0 +1,24 @@
+package ma.foodplus.ordering.system.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * The mapper used by MVC, the outbox and the order pipeline. It is a plain {@link ObjectMapper} with
+ * java.time support: dates are written as epoch timestamps and unknown properties are rejected, as the
+ * API and the stored outbox payloads expect. Defining it makes Boot's auto-configured mapper back off.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    @Primary
+    public ObjectMapper objectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        return mapper;
+    }
+}
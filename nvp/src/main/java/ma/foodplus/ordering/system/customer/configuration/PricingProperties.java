@@ -0,0 +1,28 @@
+package ma.foodplus.ordering.system.customer.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Customer pricing settings bound from {@code foodplus.pricing.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "foodplus.pricing")
+public class PricingProperties {
+
+    private Activation activation = new Activation();
+
+    @Data
+    public static class Activation {
+        /**
+         * Whether the scheduler activates due price changes; manual runs through the API are always allowed.
+         */
+        private boolean enabled = true;
+        private String cron = "0 */15 * * * *";
+        private int parallelism = 4;
+        /**
+         * Pending contract lines per chunk. Each chunk is one UPDATE and one transaction.
+         */
+        private int chunkSize = 2_000;
+    }
+}
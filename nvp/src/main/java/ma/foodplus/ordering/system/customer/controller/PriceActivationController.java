@@ -0,0 +1,56 @@
+package ma.foodplus.ordering.system.customer.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import ma.foodplus.ordering.system.customer.model.PriceActivationChunk;
+import ma.foodplus.ordering.system.customer.model.PriceActivationRun;
+import ma.foodplus.ordering.system.customer.service.PriceActivationService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/price-activations")
+@RequiredArgsConstructor
+@Tag(name = "Price Activation", description = "APIs for activating scheduled customer price changes")
+public class PriceActivationController {
+
+    private final PriceActivationService priceActivationService;
+
+    @PostMapping
+    @Operation(summary = "Apply all pending customer price changes effective at the given time (default: now)")
+    public ResponseEntity<PriceActivationRun> activate(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime effectiveAt,
+            @RequestParam(defaultValue = "api") String triggeredBy) {
+        ZonedDateTime at = effectiveAt != null ? effectiveAt : ZonedDateTime.now();
+        return ResponseEntity.ok(priceActivationService.activate(at, triggeredBy));
+    }
+
+    @PostMapping("/{runId}/resume")
+    @Operation(summary = "Re-apply the chunks of a run that did not complete")
+    public ResponseEntity<PriceActivationRun> resume(@PathVariable Long runId) {
+        return ResponseEntity.ok(priceActivationService.resume(runId));
+    }
+
+    @GetMapping
+    @Operation(summary = "Get the most recent activation runs")
+    public ResponseEntity<List<PriceActivationRun>> getRecentRuns() {
+        return ResponseEntity.ok(priceActivationService.getRecentRuns());
+    }
+
+    @GetMapping("/{runId}")
+    @Operation(summary = "Get an activation run")
+    public ResponseEntity<PriceActivationRun> getRun(@PathVariable Long runId) {
+        return ResponseEntity.ok(priceActivationService.getRun(runId));
+    }
+
+    @GetMapping("/{runId}/chunks")
+    @Operation(summary = "Get the per-chunk audit of an activation run")
+    public ResponseEntity<List<PriceActivationChunk>> getChunks(@PathVariable Long runId) {
+        return ResponseEntity.ok(priceActivationService.getChunks(runId));
+    }
+}
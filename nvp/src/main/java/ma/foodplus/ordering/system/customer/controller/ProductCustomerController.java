@@ -4,6 +4,8 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import ma.foodplus.ordering.system.customer.dto.BulkProductCustomerOperationDTO.OperationType;
+import ma.foodplus.ordering.system.customer.dto.BulkProductCustomerOperationResponseDTO;
 import ma.foodplus.ordering.system.customer.dto.ProductCustomerDTO;
 import ma.foodplus.ordering.system.customer.dto.ProductCustomerPriceHistoryDTO;
 import ma.foodplus.ordering.system.customer.dto.ProductCustomerStatisticsDTO;
@@ -15,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/v1/product-customers")
@@ -127,30 +130,52 @@ public class ProductCustomerController {
     // Bulk operations
     @PatchMapping("/bulk/prices")
     @Operation(summary = "Update prices for multiple product-customer relationships")
-    public ResponseEntity<List<ProductCustomerDTO>> updateBulkPrices(
+    public ResponseEntity<BulkProductCustomerOperationResponseDTO> updateBulkPrices(
             @RequestParam List<Long> ids,
             @RequestParam Double newPrice) {
-        return ResponseEntity.ok(productCustomerService.updateBulkPrices(ids, newPrice));
+        int updated = productCustomerService.updateBulkPrices(ids, newPrice);
+        return ResponseEntity.ok(bulkResponse(OperationType.UPDATE_PRICE, distinctCount(ids), updated));
     }
 
     @PatchMapping("/bulk/discounts")
     @Operation(summary = "Update discounts for multiple product-customer relationships")
-    public ResponseEntity<List<ProductCustomerDTO>> updateBulkDiscounts(
+    public ResponseEntity<BulkProductCustomerOperationResponseDTO> updateBulkDiscounts(
             @RequestParam List<Long> ids,
             @RequestParam Double newDiscount) {
-        return ResponseEntity.ok(productCustomerService.updateBulkDiscounts(ids, newDiscount));
+        int updated = productCustomerService.updateBulkDiscounts(ids, newDiscount);
+        return ResponseEntity.ok(bulkResponse(OperationType.UPDATE_DISCOUNT, distinctCount(ids), updated));
+    }
+
+    @PatchMapping("/customer/{customerId}/category/{category}/prices")
+    @Operation(summary = "Update the price of every product of a customer category")
+    public ResponseEntity<BulkProductCustomerOperationResponseDTO> updateCategoryPrices(
+            @PathVariable Long customerId,
+            @PathVariable String category,
+            @RequestParam BigDecimal newPrice) {
+        int updated = productCustomerService.updateCategoryPrices(customerId, category, newPrice);
+        return ResponseEntity.ok(bulkResponse(OperationType.UPDATE_PRICE, updated, updated));
+    }
+
+    @PatchMapping("/customer/{customerId}/category/{category}/discounts")
+    @Operation(summary = "Update the discount of every product of a customer category")
+    public ResponseEntity<BulkProductCustomerOperationResponseDTO> updateCategoryDiscounts(
+            @PathVariable Long customerId,
+            @PathVariable String category,
+            @RequestParam BigDecimal newDiscount) {
+        int updated = productCustomerService.updateCategoryDiscounts(customerId, category, newDiscount);
+        return ResponseEntity.ok(bulkResponse(OperationType.UPDATE_DISCOUNT, updated, updated));
     }
 
     @PutMapping("/bulk/deactivate")
-    public ResponseEntity<Void> deactivateProductCustomers(@RequestParam List<Long> ids) {
-        productCustomerService.deactivateProductCustomers(ids);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<BulkProductCustomerOperationResponseDTO> deactivateProductCustomers(@RequestParam List<Long> ids) {
+        int updated = productCustomerService.deactivateProductCustomers(ids);
+        return ResponseEntity.ok(bulkResponse(OperationType.DEACTIVATE, distinctCount(ids), updated));
     }
 
     @PutMapping("/bulk/activate")
-    public ResponseEntity<Void> activateProductCustomers(@RequestParam List<Long> ids) {
-        productCustomerService.activateProductCustomers(ids);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<BulkProductCustomerOperationResponseDTO> activateProductCustomers(@RequestParam List<Long> ids) {
+        int updated = productCustomerService.activateProductCustomers(ids);
+        return ResponseEntity.ok(bulkResponse(OperationType.ACTIVATE, distinctCount(ids), updated));
     }
 
     // Statistics and history
@@ -219,6 +244,14 @@ public class ProductCustomerController {
         return ResponseEntity.ok(productCustomerService.getProductPricesForCustomer(customerId));
     }
 
+    @PostMapping("/customer/{customerId}/net-prices")
+    @Operation(summary = "Get the customer's net contract prices for a set of products")
+    public ResponseEntity<Map<Long, BigDecimal>> getNetPricesForCustomer(
+            @PathVariable Long customerId,
+            @RequestBody List<Long> productIds) {
+        return ResponseEntity.ok(productCustomerService.getNetPricesForCustomer(customerId, productIds));
+    }
+
     // Product-specific operations
     @GetMapping("/product/{productId}/active-discounts")
     @Operation(summary = "Get product-customer relationships with active discounts")
@@ -255,4 +288,20 @@ public class ProductCustomerController {
             @RequestParam BigDecimal newDiscount) {
         return ResponseEntity.ok(productCustomerService.isDiscountChangeValid(id, newDiscount));
     }
-}
\ No newline at end of file
+
+    /**
+     * Bulk updates touch each row once, so repeated ids are not counted as failures.
+     */
+    private static int distinctCount(List<Long> ids) {
+        return (int) ids.stream().filter(Objects::nonNull).distinct().count();
+    }
+
+    private BulkProductCustomerOperationResponseDTO bulkResponse(OperationType operationType, int requested, int updated) {
+        return BulkProductCustomerOperationResponseDTO.builder()
+                .operationType(operationType)
+                .totalProcessed(requested)
+                .successful(updated)
+                .failed(Math.max(0, requested - updated))
+                .build();
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.time.ZonedDateTime;
 
 @Data
 public class ProductCustomerDTO {
@@ -23,4 +24,5 @@ public class ProductCustomerDTO {
     private BigDecimal remise;
     private BigDecimal prixVenNouv;
     private BigDecimal remiseNouv;
+    private ZonedDateTime newPriceEffectiveAt;
 } 
\ No newline at end of file
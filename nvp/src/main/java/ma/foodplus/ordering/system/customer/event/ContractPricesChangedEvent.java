@@ -0,0 +1,46 @@
+package ma.foodplus.ordering.system.customer.event;
+
+import ma.foodplus.ordering.system.common.event.OutboxDomainEvent;
+import ma.foodplus.ordering.system.customer.model.Customer;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Written to the outbox when contract prices or discounts of a customer change outside a price activation run.
+ * Category-wide updates name the category instead of the rows, which they never load.
+ */
+public record ContractPricesChangedEvent(Long customerId, Change change, List<Long> productCustomerIds,
+                                         String category, ZonedDateTime occurredAt)
+        implements OutboxDomainEvent<Customer> {
+
+    public enum Change {
+        CREATED,
+        UPDATED,
+        DELETED,
+        PRICE,
+        DISCOUNT,
+        PENDING_APPLIED,
+        PENDING_REVERTED,
+        ACTIVATED,
+        DEACTIVATED
+    }
+
+    public static ContractPricesChangedEvent ofRows(Long customerId, Change change, List<Long> productCustomerIds) {
+        return new ContractPricesChangedEvent(customerId, change, productCustomerIds, null, ZonedDateTime.now());
+    }
+
+    public static ContractPricesChangedEvent ofCategory(Long customerId, Change change, String category) {
+        return new ContractPricesChangedEvent(customerId, change, List.of(), category, ZonedDateTime.now());
+    }
+
+    @Override
+    public String aggregateType() {
+        return "Customer";
+    }
+
+    @Override
+    public String aggregateId() {
+        return String.valueOf(customerId);
+    }
+}
@@ -0,0 +1,8 @@
+package ma.foodplus.ordering.system.customer.event;
+
+/**
+ * Published when a customer's data or group memberships change. Listeners that cache
+ * customer-derived data should react after the surrounding transaction commits.
+ */
+public record CustomerChangedEvent(Long customerId) {
+}
@@ -0,0 +1,25 @@
+package ma.foodplus.ordering.system.customer.event;
+
+import ma.foodplus.ordering.system.common.event.OutboxDomainEvent;
+import ma.foodplus.ordering.system.customer.model.PriceActivationRun;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Written to the outbox when a chunk of a price activation run applies pending contract prices.
+ */
+public record CustomerPricesActivatedEvent(Long runId, int chunkIndex, ZonedDateTime effectiveAt,
+                                           int rowsApplied, List<Long> customerIds)
+        implements OutboxDomainEvent<PriceActivationRun> {
+
+    @Override
+    public String aggregateType() {
+        return "PriceActivationRun";
+    }
+
+    @Override
+    public String aggregateId() {
+        return String.valueOf(runId);
+    }
+}
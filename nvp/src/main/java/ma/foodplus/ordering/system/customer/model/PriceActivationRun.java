@@ -0,0 +1,52 @@
+package ma.foodplus.ordering.system.customer.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.ZonedDateTime;
+
+/**
+ * One activation of the customer price changes that are effective at {@link #effectiveAt}.
+ * The work is split into {@link PriceActivationChunk}s so an interrupted run can be resumed.
+ */
+@Entity
+@Table(name = "price_activation_runs")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceActivationRun {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "effective_at", nullable = false)
+    private ZonedDateTime effectiveAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "triggered_by", nullable = false)
+    private String triggeredBy;
+
+    @Column(name = "total_chunks", nullable = false)
+    private int totalChunks;
+
+    @Column(name = "rows_applied", nullable = false)
+    private int rowsApplied;
+
+    @Column(name = "started_at", nullable = false)
+    private ZonedDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private ZonedDateTime finishedAt;
+}
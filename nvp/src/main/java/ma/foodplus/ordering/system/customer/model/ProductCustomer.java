@@ -71,6 +71,9 @@ public class ProductCustomer {
     @Column(name = "remise_nouv", precision = 24, scale = 6)
     private BigDecimal remiseNouv;
 
+    @Column(name = "new_price_effective_at")
+    private ZonedDateTime newPriceEffectiveAt;
+
     @Column(name = "created_at")
     private ZonedDateTime createdAt;
 
@@ -57,9 +57,17 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
            "LOWER(c.ice) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
     Page<Customer> searchCustomers(@Param("searchTerm") String searchTerm, Pageable pageable);
     
-    // Top customers query
-    @Query("SELECT c FROM Customer c ORDER BY c.totalSpent DESC")
-    List<Customer> findTopByOrderByTotalSpentDesc(int limit);
+    // Top customers query; the limit comes from the pageable
+    @Query("SELECT c FROM Customer c WHERE c.totalSpent IS NOT NULL ORDER BY c.totalSpent DESC, c.id ASC")
+    List<Customer> findTopBySpending(Pageable pageable);
+
+    // Dashboard aggregates, one row per customer type
+    @Query("SELECT c.customerType AS customerType, COUNT(c) AS customerCount, " +
+           "SUM(CASE WHEN c.isVip = true THEN 1 ELSE 0 END) AS vipCount, " +
+           "SUM(CASE WHEN c.active = true THEN 1 ELSE 0 END) AS activeCount, " +
+           "SUM(c.averageOrderValue) AS averageOrderValueSum " +
+           "FROM Customer c GROUP BY c.customerType")
+    List<TypeAggregate> aggregateByCustomerType();
     
     // Product preferences query
     @Query("SELECT DISTINCT c FROM Customer c " +
@@ -85,4 +93,45 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     @Query(value = "DELETE FROM customer_group_members " +
            "WHERE customer_id = :customerId AND group_id = :groupId", nativeQuery = true)
     void removeCustomerFromGroup(@Param("customerId") Long customerId, @Param("groupId") Long groupId);
-} 
\ No newline at end of file
+
+    // Order rollups, applied in place so concurrent updates of the same customer are not lost
+    @Modifying
+    @Query(value = "UPDATE customers SET loyalty_points = COALESCE(loyalty_points, 0) + :points " +
+           "WHERE id = :customerId", nativeQuery = true)
+    int addLoyaltyPoints(@Param("customerId") Long customerId, @Param("points") int points);
+
+    @Modifying
+    @Query(value = "UPDATE customers SET total_orders = COALESCE(total_orders, 0) + 1, " +
+           "total_spent = COALESCE(total_spent, 0) + :orderValue, " +
+           "average_order_value = ROUND((COALESCE(total_spent, 0) + :orderValue) / (COALESCE(total_orders, 0) + 1), 2), " +
+           "last_order_date = GREATEST(last_order_date, :orderDate) " +
+           "WHERE id = :customerId", nativeQuery = true)
+    int recordOrder(@Param("customerId") Long customerId, @Param("orderValue") BigDecimal orderValue,
+                    @Param("orderDate") ZonedDateTime orderDate);
+
+    @Query("SELECT c.id AS id, c.customerType AS customerType, t.id AS categoryTarifId, c.isVip AS vip, " +
+           "c.totalSpent AS totalSpent, c.active AS active " +
+           "FROM Customer c LEFT JOIN c.cateTarif t " +
+           "WHERE c.id = :customerId")
+    Optional<PromoProfileRow> findPromoProfileRow(@Param("customerId") Long customerId);
+
+    @Query(value = "SELECT group_id FROM customer_group_members WHERE customer_id = :customerId", nativeQuery = true)
+    List<Long> findGroupIdsByCustomerId(@Param("customerId") Long customerId);
+
+    interface TypeAggregate {
+        CustomerType getCustomerType();
+        Long getCustomerCount();
+        Long getVipCount();
+        Long getActiveCount();
+        BigDecimal getAverageOrderValueSum();
+    }
+
+    interface PromoProfileRow {
+        Long getId();
+        CustomerType getCustomerType();
+        Long getCategoryTarifId();
+        Boolean getVip();
+        BigDecimal getTotalSpent();
+        Boolean getActive();
+    }
+}
@@ -0,0 +1,32 @@
+package ma.foodplus.ordering.system.customer.repository;
+
+import jakarta.persistence.LockModeType;
+import ma.foodplus.ordering.system.customer.model.PriceActivationChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PriceActivationChunkRepository extends JpaRepository<PriceActivationChunk, Long> {
+
+    List<PriceActivationChunk> findByRunIdOrderByChunkIndexAsc(Long runId);
+
+    List<PriceActivationChunk> findByRunIdAndStatusNotOrderByChunkIndexAsc(Long runId, PriceActivationChunk.Status status);
+
+    /**
+     * Reloads the chunk with its row locked until commit, so its outcome is written over its current state.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM PriceActivationChunk c WHERE c.id = :id")
+    Optional<PriceActivationChunk> lockById(@Param("id") Long id);
+
+    long countByRunIdAndStatusNot(Long runId, PriceActivationChunk.Status status);
+
+    @Query("SELECT COALESCE(SUM(c.rowsApplied), 0) FROM PriceActivationChunk c WHERE c.runId = :runId")
+    long sumRowsAppliedByRunId(@Param("runId") Long runId);
+}
@@ -0,0 +1,15 @@
+package ma.foodplus.ordering.system.customer.repository;
+
+import ma.foodplus.ordering.system.customer.model.PriceActivationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PriceActivationRunRepository extends JpaRepository<PriceActivationRun, Long> {
+
+    List<PriceActivationRun> findByStatusOrderByIdAsc(PriceActivationRun.Status status);
+
+    List<PriceActivationRun> findTop20ByOrderByIdDesc();
+}
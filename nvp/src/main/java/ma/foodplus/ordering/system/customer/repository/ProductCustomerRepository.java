@@ -1,13 +1,16 @@
 package ma.foodplus.ordering.system.customer.repository;
 
 import ma.foodplus.ordering.system.customer.model.ProductCustomer;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -73,4 +76,90 @@ public interface ProductCustomerRepository extends JpaRepository<ProductCustomer
            "AND (LOWER(pc.product.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
            "OR LOWER(pc.category) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
     List<ProductCustomer> searchByCustomerIdAndTerm(@Param("customerId") Long customerId, @Param("searchTerm") String searchTerm);
-}
\ No newline at end of file
+
+    @Query("SELECT pc.product.id AS productId, pc.category AS category, pc.prixTTC AS prixTTC, pc.remise AS remise, " +
+           "pc.prixVenNouv AS prixVenNouv, pc.remiseNouv AS remiseNouv, pc.active AS active " +
+           "FROM ProductCustomer pc " +
+           "WHERE pc.customer.id = :customerId")
+    List<PriceRow> findPriceRowsByCustomerId(@Param("customerId") Long customerId);
+
+    @Query("SELECT pc.customer.id FROM ProductCustomer pc " +
+           "WHERE pc.active = true " +
+           "GROUP BY pc.customer.id " +
+           "ORDER BY MAX(pc.updatedAt) DESC")
+    List<Long> findCustomerIdsByRecentPriceActivity(Pageable pageable);
+
+    @Query("SELECT pc.id AS id, pc.customer.id AS customerId FROM ProductCustomer pc WHERE pc.id IN :ids")
+    List<OwnerRow> findOwnersByIds(@Param("ids") Collection<Long> ids);
+
+    // Set-based updates: no entity is loaded, so updatedAt is set explicitly instead of through @PreUpdate.
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductCustomer pc SET pc.prixTTC = :price, pc.updatedAt = :now WHERE pc.id IN :ids")
+    int updatePricesByIds(@Param("ids") Collection<Long> ids, @Param("price") BigDecimal price,
+                          @Param("now") ZonedDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductCustomer pc SET pc.remise = :discount, pc.updatedAt = :now WHERE pc.id IN :ids")
+    int updateDiscountsByIds(@Param("ids") Collection<Long> ids, @Param("discount") BigDecimal discount,
+                             @Param("now") ZonedDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductCustomer pc SET pc.active = :active, pc.updatedAt = :now WHERE pc.id IN :ids")
+    int updateActiveByIds(@Param("ids") Collection<Long> ids, @Param("active") boolean active,
+                          @Param("now") ZonedDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductCustomer pc SET pc.prixTTC = :price, pc.updatedAt = :now " +
+           "WHERE pc.customer.id = :customerId AND pc.category = :category")
+    int updatePricesByCustomerIdAndCategory(@Param("customerId") Long customerId, @Param("category") String category,
+                                            @Param("price") BigDecimal price, @Param("now") ZonedDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductCustomer pc SET pc.remise = :discount, pc.updatedAt = :now " +
+           "WHERE pc.customer.id = :customerId AND pc.category = :category")
+    int updateDiscountsByCustomerIdAndCategory(@Param("customerId") Long customerId, @Param("category") String category,
+                                               @Param("discount") BigDecimal discount, @Param("now") ZonedDateTime now);
+
+    // Scheduled price activation: a row is due once it has a pending price or discount effective at or before :effectiveAt.
+    // Pending changes without an effective date, written before scheduling existed, are due at once.
+
+    @Query("SELECT pc.id FROM ProductCustomer pc " +
+           "WHERE (pc.prixVenNouv IS NOT NULL OR pc.remiseNouv IS NOT NULL) " +
+           "AND (pc.newPriceEffectiveAt IS NULL OR pc.newPriceEffectiveAt <= :effectiveAt) " +
+           "ORDER BY pc.id")
+    List<Long> findIdsWithPendingChangesDueAt(@Param("effectiveAt") ZonedDateTime effectiveAt);
+
+    @Query("SELECT DISTINCT pc.customer.id FROM ProductCustomer pc " +
+           "WHERE pc.id BETWEEN :firstId AND :lastId " +
+           "AND (pc.prixVenNouv IS NOT NULL OR pc.remiseNouv IS NOT NULL) " +
+           "AND (pc.newPriceEffectiveAt IS NULL OR pc.newPriceEffectiveAt <= :effectiveAt)")
+    List<Long> findCustomerIdsWithPendingChangesDueAt(@Param("firstId") Long firstId, @Param("lastId") Long lastId,
+                                                      @Param("effectiveAt") ZonedDateTime effectiveAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductCustomer pc SET " +
+           "pc.prixTTC = COALESCE(pc.prixVenNouv, pc.prixTTC), " +
+           "pc.remise = COALESCE(pc.remiseNouv, pc.remise), " +
+           "pc.prixVenNouv = NULL, pc.remiseNouv = NULL, pc.newPriceEffectiveAt = NULL, pc.updatedAt = :now " +
+           "WHERE pc.id BETWEEN :firstId AND :lastId " +
+           "AND (pc.prixVenNouv IS NOT NULL OR pc.remiseNouv IS NOT NULL) " +
+           "AND (pc.newPriceEffectiveAt IS NULL OR pc.newPriceEffectiveAt <= :effectiveAt)")
+    int applyPendingChangesDueAt(@Param("firstId") Long firstId, @Param("lastId") Long lastId,
+                                 @Param("effectiveAt") ZonedDateTime effectiveAt, @Param("now") ZonedDateTime now);
+
+    interface OwnerRow {
+        Long getId();
+        Long getCustomerId();
+    }
+
+    interface PriceRow {
+        Long getProductId();
+        String getCategory();
+        BigDecimal getPrixTTC();
+        BigDecimal getRemise();
+        BigDecimal getPrixVenNouv();
+        BigDecimal getRemiseNouv();
+        Boolean getActive();
+    }
+}
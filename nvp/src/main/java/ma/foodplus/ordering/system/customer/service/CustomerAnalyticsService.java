@@ -0,0 +1,150 @@
+package ma.foodplus.ordering.system.customer.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.customer.dto.CustomerDTO;
+import ma.foodplus.ordering.system.customer.mapper.CustomerMapper;
+import ma.foodplus.ordering.system.customer.model.CustomerType;
+import ma.foodplus.ordering.system.customer.repository.CustomerRepository;
+import ma.foodplus.ordering.system.product.configuration.CacheProperties;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+/**
+ * Customer dashboard figures computed by grouped SQL aggregates instead of loading the customer table.
+ * All type-level figures come from a single GROUP BY query; results are cached for a short TTL
+ * ({@code foodplus.cache.customer-analytics}).
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class CustomerAnalyticsService {
+
+    public static final String CACHE_NAME = "customerAnalytics";
+
+    /**
+     * Upper bound on the top-spenders list, whatever the requested limit.
+     */
+    public static final int MAX_TOP_CUSTOMERS = 1_000;
+
+    private static final String KEY_AGGREGATES = "aggregates";
+    private static final String KEY_TOP_PREFIX = "top:";
+
+    private final CustomerRepository customerRepository;
+    private final CustomerMapper customerMapper;
+    private final Cache<String, Object> results;
+
+    public CustomerAnalyticsService(CustomerRepository customerRepository,
+                                    CustomerMapper customerMapper,
+                                    CacheProperties cacheProperties,
+                                    MeterRegistry meterRegistry) {
+        this.customerRepository = customerRepository;
+        this.customerMapper = customerMapper;
+        CacheProperties.LocalCacheSpec settings = cacheProperties.getCustomerAnalytics();
+        this.results = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxSize())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, CACHE_NAME);
+    }
+
+    public Map<String, Object> getStatistics() {
+        List<CustomerRepository.TypeAggregate> aggregates = aggregates();
+        long total = 0;
+        long vip = 0;
+        long active = 0;
+        BigDecimal averageOrderValueSum = BigDecimal.ZERO;
+        for (CustomerRepository.TypeAggregate aggregate : aggregates) {
+            total += count(aggregate.getCustomerCount());
+            vip += count(aggregate.getVipCount());
+            active += count(aggregate.getActiveCount());
+            averageOrderValueSum = averageOrderValueSum.add(sum(aggregate.getAverageOrderValueSum()));
+        }
+
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("totalCustomers", total);
+        statistics.put("b2bCustomers", customerCount(aggregates, CustomerType.B2B));
+        statistics.put("b2cCustomers", customerCount(aggregates, CustomerType.B2C));
+        statistics.put("vipCustomers", vip);
+        statistics.put("activeCustomers", active);
+        statistics.put("averageOrderValue", average(averageOrderValueSum, total));
+        return statistics;
+    }
+
+    public Map<String, Integer> getDistributionByType() {
+        List<CustomerRepository.TypeAggregate> aggregates = aggregates();
+        Map<String, Integer> distribution = new HashMap<>();
+        for (CustomerType type : CustomerType.values()) {
+            distribution.put(type.name(), (int) customerCount(aggregates, type));
+        }
+        return distribution;
+    }
+
+    /**
+     * Average of {@code averageOrderValue} per type; customers without a value count as zero.
+     */
+    public Map<String, BigDecimal> getAverageOrderValueByType() {
+        List<CustomerRepository.TypeAggregate> aggregates = aggregates();
+        Map<String, BigDecimal> averages = new HashMap<>();
+        for (CustomerType type : CustomerType.values()) {
+            CustomerRepository.TypeAggregate aggregate = forType(aggregates, type);
+            averages.put(type.name(), aggregate == null ? BigDecimal.ZERO
+                    : average(sum(aggregate.getAverageOrderValueSum()), count(aggregate.getCustomerCount())));
+        }
+        return averages;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<CustomerDTO> getTopCustomersBySpending(int limit) {
+        int boundedLimit = Math.min(limit, MAX_TOP_CUSTOMERS);
+        if (boundedLimit <= 0) {
+            return List.of();
+        }
+        return (List<CustomerDTO>) results.get(KEY_TOP_PREFIX + boundedLimit, key ->
+                customerRepository.findTopBySpending(PageRequest.of(0, boundedLimit)).stream()
+                        .map(customerMapper::toDTO)
+                        .toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CustomerRepository.TypeAggregate> aggregates() {
+        return (List<CustomerRepository.TypeAggregate>) results.get(KEY_AGGREGATES,
+                key -> List.copyOf(customerRepository.aggregateByCustomerType()));
+    }
+
+    private static CustomerRepository.TypeAggregate forType(List<CustomerRepository.TypeAggregate> aggregates,
+                                                            CustomerType type) {
+        for (CustomerRepository.TypeAggregate aggregate : aggregates) {
+            if (aggregate.getCustomerType() == type) {
+                return aggregate;
+            }
+        }
+        return null;
+    }
+
+    private static long customerCount(List<CustomerRepository.TypeAggregate> aggregates, CustomerType type) {
+        CustomerRepository.TypeAggregate aggregate = forType(aggregates, type);
+        return aggregate == null ? 0 : count(aggregate.getCustomerCount());
+    }
+
+    private static long count(Long value) {
+        return value != null ? value : 0;
+    }
+
+    private static BigDecimal sum(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal average(BigDecimal sum, long count) {
+        return count == 0 ? BigDecimal.ZERO : sum.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,165 @@
+package ma.foodplus.ordering.system.customer.service;
+
+import ma.foodplus.ordering.system.customer.repository.ProductCustomerRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+/**
+ * Immutable snapshot of one customer's contract prices, keyed by product id.
+ * Product ids are kept in a sorted {@code long[]} with a parallel entry array, so a lookup is a
+ * binary search without boxing and the whole matrix is two arrays regardless of the catalogue size.
+ */
+public final class CustomerPriceMatrix {
+
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+
+    /**
+     * One contract line. Net prices follow {@code ProductCustomer#calculateDiscountedPrice} and
+     * {@code ProductCustomer#calculateNewDiscountedPrice}.
+     */
+    public record Entry(long productId, String category, BigDecimal prixTTC, BigDecimal remise,
+                        BigDecimal prixVenNouv, BigDecimal remiseNouv, boolean active) {
+
+        public BigDecimal netPrice() {
+            return discounted(prixTTC, remise);
+        }
+
+        public BigDecimal pendingNetPrice() {
+            return prixVenNouv == null ? netPrice() : discounted(prixVenNouv, remiseNouv);
+        }
+
+        public boolean hasPendingChange() {
+            return prixVenNouv != null || remiseNouv != null;
+        }
+
+        private static BigDecimal discounted(BigDecimal price, BigDecimal discount) {
+            if (price == null || discount == null || discount.compareTo(BigDecimal.ZERO) == 0) {
+                return price;
+            }
+            return price.multiply(BigDecimal.ONE.subtract(discount.divide(HUNDRED, 6, RoundingMode.HALF_UP)));
+        }
+    }
+
+    private final long customerId;
+    private final long[] productIds;
+    private final Entry[] entries;
+
+    private CustomerPriceMatrix(long customerId, long[] productIds, Entry[] entries) {
+        this.customerId = customerId;
+        this.productIds = productIds;
+        this.entries = entries;
+    }
+
+    /**
+     * Builds the matrix from the rows of {@link ProductCustomerRepository#findPriceRowsByCustomerId}.
+     * If a product appears twice, an active row wins over an inactive one, then the later row wins.
+     */
+    public static CustomerPriceMatrix build(long customerId, List<ProductCustomerRepository.PriceRow> rows) {
+        Entry[] sorted = rows.stream()
+                .filter(row -> row.getProductId() != null)
+                .map(row -> new Entry(row.getProductId(), row.getCategory(), row.getPrixTTC(), row.getRemise(),
+                        row.getPrixVenNouv(), row.getRemiseNouv(), Boolean.TRUE.equals(row.getActive())))
+                .sorted(Comparator.comparingLong(Entry::productId))
+                .toArray(Entry[]::new);
+
+        long[] ids = new long[sorted.length];
+        Entry[] entries = new Entry[sorted.length];
+        int size = 0;
+        for (Entry entry : sorted) {
+            if (size > 0 && ids[size - 1] == entry.productId()) {
+                if (entry.active() || !entries[size - 1].active()) {
+                    entries[size - 1] = entry;
+                }
+                continue;
+            }
+            ids[size] = entry.productId();
+            entries[size] = entry;
+            size++;
+        }
+        return new CustomerPriceMatrix(customerId, Arrays.copyOf(ids, size), Arrays.copyOf(entries, size));
+    }
+
+    public long getCustomerId() {
+        return customerId;
+    }
+
+    public int size() {
+        return productIds.length;
+    }
+
+    /**
+     * @return the contract line for the product, active or not, or null if the customer has none.
+     */
+    public Entry get(long productId) {
+        int index = Arrays.binarySearch(productIds, productId);
+        return index >= 0 ? entries[index] : null;
+    }
+
+    /**
+     * @return the net price of the product for this customer, or null without an active contract line.
+     */
+    public BigDecimal netPrice(long productId) {
+        Entry entry = get(productId);
+        return entry != null && entry.active() ? entry.netPrice() : null;
+    }
+
+    /**
+     * Net prices for the given products; products without an active contract line are left out.
+     */
+    public Map<Long, BigDecimal> netPrices(Collection<Long> productIds) {
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        for (Long productId : productIds) {
+            if (productId == null) {
+                continue;
+            }
+            BigDecimal price = netPrice(productId);
+            if (price != null) {
+                prices.put(productId, price);
+            }
+        }
+        return prices;
+    }
+
+    /**
+     * Gross prices ({@code prixTTC}) of all active contract lines.
+     */
+    public Map<Long, BigDecimal> activePrices() {
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        for (Entry entry : entries) {
+            if (entry.active() && entry.prixTTC() != null) {
+                prices.put(entry.productId(), entry.prixTTC());
+            }
+        }
+        return prices;
+    }
+
+    public Map<String, BigDecimal> averagePricesByCategory() {
+        return averageByCategory(false);
+    }
+
+    /**
+     * Average discount per category over the lines that have a positive discount.
+     */
+    public Map<String, BigDecimal> averageDiscountsByCategory() {
+        return averageByCategory(true);
+    }
+
+    private Map<String, BigDecimal> averageByCategory(boolean discounts) {
+        Map<String, BigDecimal> sums = new HashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (Entry entry : entries) {
+            BigDecimal value = discounts ? entry.remise() : entry.prixTTC();
+            if (value == null || (discounts && value.signum() <= 0)) {
+                continue;
+            }
+            sums.merge(entry.category(), value, BigDecimal::add);
+            counts.merge(entry.category(), 1, Integer::sum);
+        }
+        Map<String, BigDecimal> averages = new HashMap<>();
+        sums.forEach((category, sum) ->
+                averages.put(category, sum.divide(BigDecimal.valueOf(counts.get(category)), 6, RoundingMode.HALF_UP)));
+        return averages;
+    }
+}
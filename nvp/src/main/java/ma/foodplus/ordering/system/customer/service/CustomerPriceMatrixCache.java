@@ -0,0 +1,102 @@
+package ma.foodplus.ordering.system.customer.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.customer.repository.ProductCustomerRepository;
+import ma.foodplus.ordering.system.product.configuration.CacheProperties;
+import ma.foodplus.ordering.system.product.configuration.LocalCacheInvalidationBus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Size-bounded in-process cache of {@link CustomerPriceMatrix} per customer. A matrix is built from a
+ * single query on first use and dropped after commit whenever one of the customer's contract lines changes,
+ * on this instance and, through the {@link LocalCacheInvalidationBus}, on the others.
+ */
+@Slf4j
+@Component
+public class CustomerPriceMatrixCache {
+
+    public static final String CACHE_NAME = "customerPriceMatrix";
+
+    private final ProductCustomerRepository productCustomerRepository;
+    private final LocalCacheInvalidationBus invalidationBus;
+    private final Cache<Long, CustomerPriceMatrix> matrices;
+
+    public CustomerPriceMatrixCache(ProductCustomerRepository productCustomerRepository,
+                                    CacheProperties cacheProperties,
+                                    LocalCacheInvalidationBus invalidationBus,
+                                    MeterRegistry meterRegistry) {
+        this.productCustomerRepository = productCustomerRepository;
+        this.invalidationBus = invalidationBus;
+        CacheProperties.LocalCacheSpec settings = cacheProperties.getPriceMatrix();
+        this.matrices = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxSize())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, matrices, CACHE_NAME);
+        invalidationBus.subscribe(CACHE_NAME, this::applyRemoteInvalidation);
+    }
+
+    public CustomerPriceMatrix get(Long customerId) {
+        return matrices.get(customerId, this::load);
+    }
+
+    public boolean isCached(Long customerId) {
+        return matrices.getIfPresent(customerId) != null;
+    }
+
+    public void invalidate(Long customerId) {
+        if (customerId != null) {
+            invalidate(Set.of(customerId));
+        }
+    }
+
+    /**
+     * Drops the matrices of the given customers. Inside a transaction the drop happens again after commit,
+     * so a matrix rebuilt concurrently from the pre-commit rows does not survive, and is then broadcast to
+     * the other instances.
+     */
+    public void invalidate(Collection<Long> customerIds) {
+        if (customerIds.isEmpty()) {
+            return;
+        }
+        Set<Long> snapshot = Set.copyOf(customerIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    matrices.invalidateAll(snapshot);
+                }
+            });
+        }
+        matrices.invalidateAll(snapshot);
+        invalidationBus.publishAfterCommit(CACHE_NAME, snapshot);
+    }
+
+    private void applyRemoteInvalidation(List<String> customerIds) {
+        if (customerIds.isEmpty()) {
+            matrices.invalidateAll();
+        } else {
+            matrices.invalidateAll(customerIds.stream().map(Long::valueOf).toList());
+        }
+    }
+
+    private CustomerPriceMatrix load(Long customerId) {
+        long start = System.nanoTime();
+        CustomerPriceMatrix matrix = CustomerPriceMatrix.build(customerId,
+                productCustomerRepository.findPriceRowsByCustomerId(customerId));
+        log.debug("Built price matrix for customer {} with {} products in {} ms",
+                customerId, matrix.size(), (System.nanoTime() - start) / 1_000_000);
+        return matrix;
+    }
+}
@@ -0,0 +1,43 @@
+package ma.foodplus.ordering.system.customer.service;
+
+import lombok.RequiredArgsConstructor;
+import ma.foodplus.ordering.system.customer.repository.ProductCustomerRepository;
+import ma.foodplus.ordering.system.product.configuration.CacheProperties;
+import ma.foodplus.ordering.system.product.service.CacheWarmer;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Pre-builds price matrices for the customers whose contract prices changed most recently,
+ * one customer (one query) per chunk.
+ */
+@Component
+@RequiredArgsConstructor
+public class CustomerPriceMatrixWarmer implements CacheWarmer {
+
+    private final ProductCustomerRepository productCustomerRepository;
+    private final CustomerPriceMatrixCache priceMatrixCache;
+    private final CacheProperties cacheProperties;
+
+    @Override
+    public String getName() {
+        return CustomerPriceMatrixCache.CACHE_NAME;
+    }
+
+    @Override
+    public List<Runnable> planChunks() {
+        int limit = cacheProperties.getWarmup().getTopCustomers();
+        if (limit <= 0) {
+            return List.of();
+        }
+        return productCustomerRepository.findCustomerIdsByRecentPriceActivity(PageRequest.of(0, limit)).stream()
+                .<Runnable>map(customerId -> () -> {
+                    if (!priceMatrixCache.isCached(customerId)) {
+                        priceMatrixCache.get(customerId);
+                    }
+                })
+                .toList();
+    }
+}
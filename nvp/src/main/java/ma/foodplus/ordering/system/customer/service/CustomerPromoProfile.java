@@ -0,0 +1,92 @@
+package ma.foodplus.ordering.system.customer.service;
+
+import ma.foodplus.ordering.system.customer.model.CustomerType;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The customer attributes promotion eligibility depends on, in a compact immutable form.
+ * Group ids are a sorted {@code long[]} so membership is a binary search.
+ */
+public final class CustomerPromoProfile {
+
+    private final long customerId;
+    private final CustomerType customerType;
+    private final Long categoryTarifId;
+    private final long[] groupIds;
+    private final int loyaltyLevel;
+    private final BigDecimal totalSpent;
+    private final boolean vip;
+    private final boolean active;
+
+    public CustomerPromoProfile(long customerId, CustomerType customerType, Long categoryTarifId,
+                                Collection<Long> groupIds, BigDecimal totalSpent, boolean vip, boolean active) {
+        this.customerId = customerId;
+        this.customerType = customerType;
+        this.categoryTarifId = categoryTarifId;
+        this.groupIds = groupIds.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        this.totalSpent = totalSpent != null ? totalSpent : BigDecimal.ZERO;
+        this.loyaltyLevel = loyaltyLevelFor(totalSpent);
+        this.vip = vip;
+        this.active = active;
+    }
+
+    /**
+     * Loyalty level 0-5 from the amount spent.
+     */
+    public static int loyaltyLevelFor(BigDecimal totalSpent) {
+        if (totalSpent == null || totalSpent.compareTo(BigDecimal.ZERO) == 0) {
+            return 0;
+        }
+        if (totalSpent.compareTo(new BigDecimal("100000")) >= 0) {
+            return 5;
+        } else if (totalSpent.compareTo(new BigDecimal("50000")) >= 0) {
+            return 4;
+        } else if (totalSpent.compareTo(new BigDecimal("25000")) >= 0) {
+            return 3;
+        } else if (totalSpent.compareTo(new BigDecimal("10000")) >= 0) {
+            return 2;
+        } else if (totalSpent.compareTo(new BigDecimal("5000")) >= 0) {
+            return 1;
+        }
+        return 0;
+    }
+
+    public long getCustomerId() {
+        return customerId;
+    }
+
+    public CustomerType getCustomerType() {
+        return customerType;
+    }
+
+    public Long getCategoryTarifId() {
+        return categoryTarifId;
+    }
+
+    public boolean isInGroup(long groupId) {
+        return Arrays.binarySearch(groupIds, groupId) >= 0;
+    }
+
+    public int getGroupCount() {
+        return groupIds.length;
+    }
+
+    public int getLoyaltyLevel() {
+        return loyaltyLevel;
+    }
+
+    public BigDecimal getTotalSpent() {
+        return totalSpent;
+    }
+
+    public boolean isVip() {
+        return vip;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+}
@@ -0,0 +1,83 @@
+package ma.foodplus.ordering.system.customer.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.customer.event.CustomerChangedEvent;
+import ma.foodplus.ordering.system.customer.exception.CustomerNotFoundException;
+import ma.foodplus.ordering.system.customer.repository.CustomerRepository;
+import ma.foodplus.ordering.system.product.configuration.CacheProperties;
+import ma.foodplus.ordering.system.product.configuration.LocalCacheInvalidationBus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Size-bounded in-process cache of {@link CustomerPromoProfile} per customer, built from one projection
+ * query and one group-membership query, and dropped on {@link CustomerChangedEvent} after commit, on this
+ * instance and, through the {@link LocalCacheInvalidationBus}, on the others.
+ */
+@Slf4j
+@Component
+public class CustomerPromoProfileCache {
+
+    public static final String CACHE_NAME = "customerPromoProfile";
+
+    private final CustomerRepository customerRepository;
+    private final LocalCacheInvalidationBus invalidationBus;
+    private final Cache<Long, CustomerPromoProfile> profiles;
+
+    public CustomerPromoProfileCache(CustomerRepository customerRepository,
+                                     CacheProperties cacheProperties,
+                                     LocalCacheInvalidationBus invalidationBus,
+                                     MeterRegistry meterRegistry) {
+        this.customerRepository = customerRepository;
+        this.invalidationBus = invalidationBus;
+        CacheProperties.LocalCacheSpec settings = cacheProperties.getPromoProfile();
+        this.profiles = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxSize())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, profiles, CACHE_NAME);
+        invalidationBus.subscribe(CACHE_NAME, this::applyRemoteInvalidation);
+    }
+
+    /**
+     * @throws CustomerNotFoundException if the customer does not exist
+     */
+    public CustomerPromoProfile get(Long customerId) {
+        return profiles.get(customerId, this::load);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        profiles.invalidate(event.customerId());
+        invalidationBus.publish(CACHE_NAME, List.of(event.customerId()));
+    }
+
+    private void applyRemoteInvalidation(List<String> customerIds) {
+        if (customerIds.isEmpty()) {
+            profiles.invalidateAll();
+        } else {
+            profiles.invalidateAll(customerIds.stream().map(Long::valueOf).toList());
+        }
+    }
+
+    private CustomerPromoProfile load(Long customerId) {
+        CustomerRepository.PromoProfileRow row = customerRepository.findPromoProfileRow(customerId)
+                .orElseThrow(() -> new CustomerNotFoundException("Customer not found with id: " + customerId));
+        return new CustomerPromoProfile(
+                row.getId(),
+                row.getCustomerType(),
+                row.getCategoryTarifId(),
+                customerRepository.findGroupIdsByCustomerId(customerId),
+                row.getTotalSpent(),
+                Boolean.TRUE.equals(row.getVip()),
+                Boolean.TRUE.equals(row.getActive()));
+    }
+}
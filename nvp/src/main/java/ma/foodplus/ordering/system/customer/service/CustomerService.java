@@ -136,4 +136,9 @@ public interface CustomerService {
     Map<String, BigDecimal> getAverageOrderValueByCustomerType();
 
     Page<CustomerDTO> getAllCustomers(Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Cached snapshot of the attributes promotion eligibility depends on.
+     */
+    CustomerPromoProfile getPromoProfile(Long customerId);
+}
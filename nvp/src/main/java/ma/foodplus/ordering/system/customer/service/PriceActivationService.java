@@ -0,0 +1,312 @@
+package ma.foodplus.ordering.system.customer.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.common.service.OutboxEventPublisher;
+import ma.foodplus.ordering.system.customer.configuration.PricingProperties;
+import ma.foodplus.ordering.system.customer.event.CustomerPricesActivatedEvent;
+import ma.foodplus.ordering.system.customer.model.PriceActivationChunk;
+import ma.foodplus.ordering.system.customer.model.PriceActivationRun;
+import ma.foodplus.ordering.system.customer.repository.PriceActivationChunkRepository;
+import ma.foodplus.ordering.system.customer.repository.PriceActivationRunRepository;
+import ma.foodplus.ordering.system.customer.repository.ProductCustomerRepository;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Applies every pending customer price change ({@code prixVenNouv} / {@code remiseNouv}) whose
+ * {@code newPriceEffectiveAt} has been reached or is unset.
+ * <p>
+ * A run first splits the due contract lines into id ranges, persisted as {@link PriceActivationChunk}s,
+ * then applies the chunks in parallel, each with one set-based UPDATE in its own transaction. Completed
+ * chunks are never re-applied and the UPDATE only touches rows that are still pending, so an interrupted
+ * run is resumed simply by applying its remaining chunks again. Price matrices are invalidated once per
+ * customer and chunk, after the chunk commits.
+ * <p>
+ * Only one instance activates at a time: a run is executed while holding a PostgreSQL session advisory lock
+ * on a dedicated connection, which the database also releases if the instance dies. Each chunk's outcome is
+ * written on the chunk row reloaded under a row lock. Scheduled activations run on their own coordinator
+ * thread, so a long run does not hold up the other scheduled jobs.
+ */
+@Slf4j
+@Service
+public class PriceActivationService {
+
+    /**
+     * Key of the advisory lock held by the instance running an activation.
+     */
+    private static final long ACTIVATION_LOCK_KEY = 0x7072_6963_6561_6374L;
+    private static final String IN_PROGRESS = "A price activation run is already in progress";
+
+    private final ProductCustomerRepository productCustomerRepository;
+    private final PriceActivationRunRepository runRepository;
+    private final PriceActivationChunkRepository chunkRepository;
+    private final CustomerPriceMatrixCache priceMatrixCache;
+    private final OutboxEventPublisher outboxEventPublisher;
+    private final PricingProperties.Activation settings;
+    private final TransactionTemplate transactionTemplate;
+    private final DataSource dataSource;
+    private final ExecutorService executor;
+    private final ThreadPoolExecutor coordinator;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public PriceActivationService(ProductCustomerRepository productCustomerRepository,
+                                  PriceActivationRunRepository runRepository,
+                                  PriceActivationChunkRepository chunkRepository,
+                                  CustomerPriceMatrixCache priceMatrixCache,
+                                  OutboxEventPublisher outboxEventPublisher,
+                                  PricingProperties pricingProperties,
+                                  PlatformTransactionManager transactionManager,
+                                  DataSource dataSource) {
+        this.productCustomerRepository = productCustomerRepository;
+        this.runRepository = runRepository;
+        this.chunkRepository = chunkRepository;
+        this.priceMatrixCache = priceMatrixCache;
+        this.outboxEventPublisher = outboxEventPublisher;
+        this.settings = pricingProperties.getActivation();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dataSource = dataSource;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, settings.getParallelism()), runnable -> {
+            Thread thread = new Thread(runnable, "price-activation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // No queue: a scheduled activation that finds the previous one still running is skipped
+        this.coordinator = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>(),
+                Thread.ofPlatform().daemon().name("price-activation-coordinator").factory(),
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * Resumes runs interrupted by a restart, then activates the changes due now, on the coordinator thread.
+     */
+    @Scheduled(cron = "${foodplus.pricing.activation.cron:0 */15 * * * *}")
+    public void activateDuePriceChanges() {
+        if (!settings.isEnabled() || running.get()) {
+            return;
+        }
+        coordinator.execute(() -> {
+            try {
+                exclusively(() -> {
+                    for (PriceActivationRun run :
+                            runRepository.findByStatusOrderByIdAsc(PriceActivationRun.Status.RUNNING)) {
+                        log.info("Resuming interrupted price activation run {}", run.getId());
+                        execute(run);
+                    }
+                    PriceActivationRun run = plan(ZonedDateTime.now(), "scheduler", false);
+                    return run != null ? execute(run) : null;
+                });
+            } catch (IllegalStateException e) {
+                log.debug("Scheduled price activation skipped: {}", e.getMessage());
+            } catch (Exception e) {
+                log.error("Scheduled price activation failed", e);
+            }
+        });
+    }
+
+    /**
+     * Activates, synchronously, the changes effective at or before {@code effectiveAt}.
+     *
+     * @throws IllegalStateException when an activation is running on this or another instance
+     */
+    public PriceActivationRun activate(ZonedDateTime effectiveAt, String triggeredBy) {
+        return exclusively(() -> execute(plan(effectiveAt, triggeredBy, true)));
+    }
+
+    /**
+     * Re-applies the chunks of a run that did not complete.
+     *
+     * @throws IllegalStateException when an activation is running on this or another instance
+     */
+    public PriceActivationRun resume(Long runId) {
+        PriceActivationRun run = getRun(runId);
+        if (run.getStatus() == PriceActivationRun.Status.COMPLETED) {
+            return run;
+        }
+        return exclusively(() -> {
+            // Reread under the lock: the run may have been finished by the instance that held it
+            PriceActivationRun current = getRun(runId);
+            return current.getStatus() == PriceActivationRun.Status.COMPLETED ? current : execute(current);
+        });
+    }
+
+    public PriceActivationRun getRun(Long runId) {
+        return runRepository.findById(runId)
+                .orElseThrow(() -> new EntityNotFoundException("Price activation run not found with id: " + runId));
+    }
+
+    public List<PriceActivationRun> getRecentRuns() {
+        return runRepository.findTop20ByOrderByIdDesc();
+    }
+
+    public List<PriceActivationChunk> getChunks(Long runId) {
+        return chunkRepository.findByRunIdOrderByChunkIndexAsc(runId);
+    }
+
+    /**
+     * @return the persisted run, or null when nothing is due and {@code recordEmptyRun} is false
+     */
+    private PriceActivationRun plan(ZonedDateTime effectiveAt, String triggeredBy, boolean recordEmptyRun) {
+        return transactionTemplate.execute(status -> {
+            List<Long> dueIds = productCustomerRepository.findIdsWithPendingChangesDueAt(effectiveAt);
+            if (dueIds.isEmpty() && !recordEmptyRun) {
+                return null;
+            }
+            int chunkSize = Math.max(1, settings.getChunkSize());
+            int totalChunks = (dueIds.size() + chunkSize - 1) / chunkSize;
+
+            PriceActivationRun run = runRepository.save(PriceActivationRun.builder()
+                    .effectiveAt(effectiveAt)
+                    .status(totalChunks == 0 ? PriceActivationRun.Status.COMPLETED : PriceActivationRun.Status.RUNNING)
+                    .triggeredBy(triggeredBy)
+                    .totalChunks(totalChunks)
+                    .startedAt(ZonedDateTime.now())
+                    .finishedAt(totalChunks == 0 ? ZonedDateTime.now() : null)
+                    .build());
+
+            List<PriceActivationChunk> chunks = new ArrayList<>(totalChunks);
+            for (int index = 0; index < totalChunks; index++) {
+                int from = index * chunkSize;
+                int to = Math.min(from + chunkSize, dueIds.size());
+                chunks.add(PriceActivationChunk.builder()
+                        .runId(run.getId())
+                        .chunkIndex(index)
+                        .firstId(dueIds.get(from))
+                        .lastId(dueIds.get(to - 1))
+                        .status(PriceActivationChunk.Status.PENDING)
+                        .build());
+            }
+            chunkRepository.saveAll(chunks);
+            if (totalChunks > 0) {
+                log.info("Planned price activation run {} effective at {}: {} contract lines in {} chunks",
+                        run.getId(), effectiveAt, dueIds.size(), totalChunks);
+            }
+            return run;
+        });
+    }
+
+    /**
+     * Runs {@code work} while holding the activation lock of this instance and of the database.
+     *
+     * @throws IllegalStateException when either is held already
+     */
+    private <T> T exclusively(Supplier<T> work) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException(IN_PROGRESS);
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            if (!advisoryLock(connection, "SELECT pg_try_advisory_lock(?)")) {
+                throw new IllegalStateException(IN_PROGRESS);
+            }
+            try {
+                return work.get();
+            } finally {
+                advisoryLock(connection, "SELECT pg_advisory_unlock(?)");
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Could not take the price activation lock", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, ACTIVATION_LOCK_KEY);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    private PriceActivationRun execute(PriceActivationRun run) {
+        List<PriceActivationChunk> chunks = chunkRepository.findByRunIdAndStatusNotOrderByChunkIndexAsc(
+                run.getId(), PriceActivationChunk.Status.COMPLETED);
+        CompletableFuture.allOf(chunks.stream()
+                .map(chunk -> CompletableFuture.runAsync(() -> applyChunk(run, chunk), executor))
+                .toArray(CompletableFuture[]::new))
+                .join();
+        return finish(run.getId());
+    }
+
+    private void applyChunk(PriceActivationRun run, PriceActivationChunk planned) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                PriceActivationChunk chunk = chunkRepository.lockById(planned.getId())
+                        .filter(current -> current.getStatus() != PriceActivationChunk.Status.COMPLETED)
+                        .orElse(null);
+                if (chunk == null) {
+                    return;
+                }
+                chunk.setAttempts(chunk.getAttempts() + 1);
+                chunk.setStartedAt(ZonedDateTime.now());
+                List<Long> customerIds = productCustomerRepository.findCustomerIdsWithPendingChangesDueAt(
+                        chunk.getFirstId(), chunk.getLastId(), run.getEffectiveAt());
+                int applied = productCustomerRepository.applyPendingChangesDueAt(
+                        chunk.getFirstId(), chunk.getLastId(), run.getEffectiveAt(), ZonedDateTime.now());
+                chunk.setStatus(PriceActivationChunk.Status.COMPLETED);
+                chunk.setRowsApplied(applied);
+                chunk.setCustomersAffected(customerIds.size());
+                chunk.setFinishedAt(ZonedDateTime.now());
+                chunk.setErrorMessage(null);
+                priceMatrixCache.invalidate(customerIds);
+                if (applied > 0) {
+                    outboxEventPublisher.publish(new CustomerPricesActivatedEvent(run.getId(), chunk.getChunkIndex(),
+                            run.getEffectiveAt(), applied, customerIds));
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Price activation run {} chunk {} failed: {}", run.getId(), planned.getChunkIndex(), e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> chunkRepository.lockById(planned.getId())
+                    .filter(chunk -> chunk.getStatus() != PriceActivationChunk.Status.COMPLETED)
+                    .ifPresent(chunk -> {
+                        chunk.setAttempts(chunk.getAttempts() + 1);
+                        chunk.setStatus(PriceActivationChunk.Status.FAILED);
+                        chunk.setFinishedAt(ZonedDateTime.now());
+                        chunk.setErrorMessage(e.getMessage());
+                    }));
+        }
+    }
+
+    private PriceActivationRun finish(Long runId) {
+        return transactionTemplate.execute(status -> {
+            PriceActivationRun run = getRun(runId);
+            long remaining = chunkRepository.countByRunIdAndStatusNot(runId, PriceActivationChunk.Status.COMPLETED);
+            run.setStatus(remaining == 0 ? PriceActivationRun.Status.COMPLETED : PriceActivationRun.Status.FAILED);
+            run.setRowsApplied((int) chunkRepository.sumRowsAppliedByRunId(runId));
+            run.setFinishedAt(ZonedDateTime.now());
+            log.info("Price activation run {} {}: {} contract lines updated, {} chunks left",
+                    runId, run.getStatus(), run.getRowsApplied(), remaining);
+            return runRepository.save(run);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        executor.shutdownNow();
+    }
+}
@@ -4,6 +4,7 @@ import ma.foodplus.ordering.system.customer.dto.ProductCustomerDTO;
 import ma.foodplus.ordering.system.customer.dto.ProductCustomerPriceHistoryDTO;
 import ma.foodplus.ordering.system.customer.dto.ProductCustomerStatisticsDTO;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -21,10 +22,12 @@ public interface ProductCustomerService {
     void updateProductCustomerDiscount(Long id, Double newDiscount);
     void applyNewPrices(Long id);
     void revertNewPrices(Long id);
-    List<ProductCustomerDTO> updateBulkPrices(List<Long> ids, Double newPrice);
-    List<ProductCustomerDTO> updateBulkDiscounts(List<Long> ids, Double newDiscount);
-    void deactivateProductCustomers(List<Long> ids);
-    void activateProductCustomers(List<Long> ids);
+    int updateBulkPrices(List<Long> ids, Double newPrice);
+    int updateBulkDiscounts(List<Long> ids, Double newDiscount);
+    int updateCategoryPrices(Long customerId, String category, BigDecimal newPrice);
+    int updateCategoryDiscounts(Long customerId, String category, BigDecimal newDiscount);
+    int deactivateProductCustomers(List<Long> ids);
+    int activateProductCustomers(List<Long> ids);
     List<ProductCustomerPriceHistoryDTO> getPriceHistory(Long id);
     ProductCustomerStatisticsDTO getProductCustomerStatistics(Long customerId);
     Map<String, BigDecimal> getAveragePricesByCategory(Long customerId);
@@ -41,4 +44,5 @@ public interface ProductCustomerService {
     List<ProductCustomerDTO> getProductCustomersWithActiveDiscounts(Long productId);
     List<ProductCustomerDTO> getProductCustomersWithPendingPriceChanges(Long productId);
     Map<Long, BigDecimal> getProductPricesForCustomer(Long customerId);
+    Map<Long, BigDecimal> getNetPricesForCustomer(Long customerId, Collection<Long> productIds);
 } 
\ No newline at end of file
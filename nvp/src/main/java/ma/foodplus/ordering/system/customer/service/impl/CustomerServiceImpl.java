@@ -3,6 +3,7 @@ package ma.foodplus.ordering.system.customer.service.impl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ma.foodplus.ordering.system.customer.dto.CustomerDTO;
+import ma.foodplus.ordering.system.customer.event.CustomerChangedEvent;
 import ma.foodplus.ordering.system.customer.exception.CustomerNotFoundException;
 import ma.foodplus.ordering.system.customer.mapper.CustomerMapper;
 import ma.foodplus.ordering.system.customer.model.Customer;
@@ -10,14 +11,17 @@ import ma.foodplus.ordering.system.customer.model.CustomerGroup;
 import ma.foodplus.ordering.system.customer.model.CustomerType;
 import ma.foodplus.ordering.system.customer.repository.CustomerGroupRepository;
 import ma.foodplus.ordering.system.customer.repository.CustomerRepository;
+import ma.foodplus.ordering.system.customer.service.CustomerAnalyticsService;
+import ma.foodplus.ordering.system.customer.service.CustomerPromoProfile;
+import ma.foodplus.ordering.system.customer.service.CustomerPromoProfileCache;
 import ma.foodplus.ordering.system.customer.service.CustomerService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -31,6 +35,9 @@ public class CustomerServiceImpl implements CustomerService {
     private final CustomerRepository customerRepository;
     private final CustomerGroupRepository customerGroupRepository;
     private final CustomerMapper customerMapper;
+    private final CustomerPromoProfileCache promoProfileCache;
+    private final CustomerAnalyticsService customerAnalyticsService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public CustomerDTO createCustomer(CustomerDTO customerDTO) {
@@ -39,6 +46,7 @@ public class CustomerServiceImpl implements CustomerService {
         customer.setCreatedAt(ZonedDateTime.now());
         customer.setActive(true);
         customer = customerRepository.save(customer);
+        eventPublisher.publishEvent(new CustomerChangedEvent(customer.getId()));
         return customerMapper.toDTO(customer);
     }
 
@@ -51,6 +59,7 @@ public class CustomerServiceImpl implements CustomerService {
         customerMapper.updateEntityFromDTO(customerDTO, customer);
         customer.setUpdatedAt(ZonedDateTime.now());
         customer = customerRepository.save(customer);
+        eventPublisher.publishEvent(new CustomerChangedEvent(id));
         return customerMapper.toDTO(customer);
     }
 
@@ -61,6 +70,7 @@ public class CustomerServiceImpl implements CustomerService {
             throw new CustomerNotFoundException("Customer not found with id: " + id);
         }
         customerRepository.deleteById(id);
+        eventPublisher.publishEvent(new CustomerChangedEvent(id));
     }
 
     @Override
@@ -172,6 +182,7 @@ public class CustomerServiceImpl implements CustomerService {
                 .orElseThrow(() -> new CustomerNotFoundException("Customer not found with id: " + id));
         customer.setCreditLimit(newLimit);
         customerRepository.save(customer);
+        eventPublisher.publishEvent(new CustomerChangedEvent(id));
     }
 
     @Override
@@ -181,6 +192,7 @@ public class CustomerServiceImpl implements CustomerService {
                 .orElseThrow(() -> new CustomerNotFoundException("Customer not found with id: " + id));
         customer.setCreditScore(newScore);
         customerRepository.save(customer);
+        eventPublisher.publishEvent(new CustomerChangedEvent(id));
     }
 
     @Override
@@ -204,6 +216,7 @@ public class CustomerServiceImpl implements CustomerService {
         
         // Add customer to group using native query
         customerRepository.addCustomerToGroup(customerId, groupId);
+        eventPublisher.publishEvent(new CustomerChangedEvent(customerId));
         
         log.info("Successfully added customer {} to group {}", customerId, groupId);
     }
@@ -229,6 +242,7 @@ public class CustomerServiceImpl implements CustomerService {
         
         // Remove customer from group using native query
         customerRepository.removeCustomerFromGroup(customerId, groupId);
+        eventPublisher.publishEvent(new CustomerChangedEvent(customerId));
         
         log.info("Successfully removed customer {} from group {}", customerId, groupId);
     }
@@ -240,6 +254,7 @@ public class CustomerServiceImpl implements CustomerService {
                 .orElseThrow(() -> new CustomerNotFoundException("Customer not found with id: " + id));
         customer.setLoyaltyPoints(points);
         customerRepository.save(customer);
+        eventPublisher.publishEvent(new CustomerChangedEvent(id));
     }
 
     @Override
@@ -249,6 +264,7 @@ public class CustomerServiceImpl implements CustomerService {
                 .orElseThrow(() -> new CustomerNotFoundException("Customer not found with id: " + id));
         customer.setVip(isVip);
         customerRepository.save(customer);
+        eventPublisher.publishEvent(new CustomerChangedEvent(id));
     }
 
     @Override
@@ -278,39 +294,14 @@ public class CustomerServiceImpl implements CustomerService {
     @Override
     @Transactional(readOnly = true)
     public Map<String, Object> getCustomerStatistics() {
-        Map<String, Object> statistics = new HashMap<>();
-        
-        // Total customers
-        statistics.put("totalCustomers", customerRepository.count());
-        
-        // Customers by type
-        statistics.put("b2bCustomers", customerRepository.countByCustomerType(CustomerType.B2B));
-        statistics.put("b2cCustomers", customerRepository.countByCustomerType(CustomerType.B2C));
-        
-        // VIP customers
-        statistics.put("vipCustomers", customerRepository.countByIsVipTrue());
-        
-        // Active customers
-        statistics.put("activeCustomers", customerRepository.countByActiveTrue());
-        
-        // Average order value
-        BigDecimal avgOrderValue = customerRepository.findAll().stream()
-                .map(Customer::getAverageOrderValue)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(BigDecimal.valueOf(customerRepository.count()), 2, RoundingMode.HALF_UP);
-        statistics.put("averageOrderValue", avgOrderValue);
-        
-        return statistics;
+        return customerAnalyticsService.getStatistics();
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<CustomerDTO> getTopCustomersBySpending(int limit) {
         log.info("Getting top {} customers by spending", limit);
-        return customerRepository.findTopByOrderByTotalSpentDesc(limit).stream()
-                .map(customerMapper::toDTO)
-                .collect(Collectors.toList());
+        return customerAnalyticsService.getTopCustomersBySpending(limit);
     }
 
     @Override
@@ -325,43 +316,13 @@ public class CustomerServiceImpl implements CustomerService {
     @Override
     @Transactional(readOnly = true)
     public Map<String, Integer> getCustomerDistributionByType() {
-        Map<String, Integer> distribution = new HashMap<>();
-        distribution.put("B2B", (int) customerRepository.countByCustomerType(CustomerType.B2B));
-        distribution.put("B2C", (int) customerRepository.countByCustomerType(CustomerType.B2C));
-        return distribution;
+        return customerAnalyticsService.getDistributionByType();
     }
 
     @Override
     @Transactional(readOnly = true)
     public Map<String, BigDecimal> getAverageOrderValueByCustomerType() {
-        Map<String, BigDecimal> averages = new HashMap<>();
-        
-        long b2bCount = customerRepository.countByCustomerType(CustomerType.B2B);
-        long b2cCount = customerRepository.countByCustomerType(CustomerType.B2C);
-        
-        BigDecimal b2bAvg = BigDecimal.ZERO;
-        BigDecimal b2cAvg = BigDecimal.ZERO;
-        
-        if (b2bCount > 0) {
-            b2bAvg = customerRepository.findByCustomerType(CustomerType.B2B).stream()
-                    .map(Customer::getAverageOrderValue)
-                    .filter(Objects::nonNull)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add)
-                    .divide(BigDecimal.valueOf(b2bCount), 2, RoundingMode.HALF_UP);
-        }
-        
-        if (b2cCount > 0) {
-            b2cAvg = customerRepository.findByCustomerType(CustomerType.B2C).stream()
-                    .map(Customer::getAverageOrderValue)
-                    .filter(Objects::nonNull)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add)
-                    .divide(BigDecimal.valueOf(b2cCount), 2, RoundingMode.HALF_UP);
-        }
-        
-        averages.put("B2B", b2bAvg);
-        averages.put("B2C", b2cAvg);
-        
-        return averages;
+        return customerAnalyticsService.getAverageOrderValueByType();
     }
 
     @Override
@@ -416,6 +377,7 @@ public class CustomerServiceImpl implements CustomerService {
                 .orElseThrow(() -> new CustomerNotFoundException("Customer not found with id: " + id));
         customer.setActive(true);
         customerRepository.save(customer);
+        eventPublisher.publishEvent(new CustomerChangedEvent(id));
     }
 
     @Override
@@ -425,6 +387,7 @@ public class CustomerServiceImpl implements CustomerService {
                 .orElseThrow(() -> new CustomerNotFoundException("Customer not found with id: " + id));
         customer.setActive(false);
         customerRepository.save(customer);
+        eventPublisher.publishEvent(new CustomerChangedEvent(id));
     }
 
     @Override
@@ -465,29 +428,25 @@ public class CustomerServiceImpl implements CustomerService {
     @Override
     @Transactional(readOnly = true)
     public boolean isCustomerInGroup(Long customerId, Long groupId) {
-        log.info("Checking if customer {} is in group {}", customerId, groupId);
-        Customer customer = customerRepository.findById(customerId)
-                .orElseThrow(() -> new CustomerNotFoundException("Customer not found with id: " + customerId));
-        return customer.getCustomerGroups().stream()
-                .anyMatch(group -> group.getId().equals(groupId));
+        return groupId != null && promoProfileCache.get(customerId).isInGroup(groupId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public int getCustomerLoyaltyLevel(Long customerId) {
-        log.info("Getting customer loyalty level for ID: {}", customerId);
-        Customer customer = customerRepository.findById(customerId)
-                .orElseThrow(() -> new CustomerNotFoundException("Customer not found with id: " + customerId));
-        return calculateLoyaltyLevel(customer);
+        return promoProfileCache.get(customerId).getLoyaltyLevel();
     }
 
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getCustomerTotalSpent(Long customerId) {
-        log.info("Getting total spent for customer ID: {}", customerId);
-        Customer customer = customerRepository.findById(customerId)
-                .orElseThrow(() -> new CustomerNotFoundException("Customer not found with id: " + customerId));
-        return customer.getTotalSpent();
+        return promoProfileCache.get(customerId).getTotalSpent();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CustomerPromoProfile getPromoProfile(Long customerId) {
+        return promoProfileCache.get(customerId);
     }
 
     @Override
@@ -497,6 +456,7 @@ public class CustomerServiceImpl implements CustomerService {
                 .orElseThrow(() -> new CustomerNotFoundException("Customer not found with id: " + id));
         customer.setLoyaltyPoints(customer.getLoyaltyPoints() + points);
         customer = customerRepository.save(customer);
+        eventPublisher.publishEvent(new CustomerChangedEvent(id));
         return customerMapper.toDTO(customer);
     }
 
@@ -507,22 +467,6 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     private int calculateLoyaltyLevel(Customer customer) {
-        if (customer.getTotalSpent() == null || customer.getTotalSpent().compareTo(BigDecimal.ZERO) == 0) {
-            return 0;
-        }
-
-        BigDecimal totalSpent = customer.getTotalSpent();
-        if (totalSpent.compareTo(new BigDecimal("100000")) >= 0) {
-            return 5;
-        } else if (totalSpent.compareTo(new BigDecimal("50000")) >= 0) {
-            return 4;
-        } else if (totalSpent.compareTo(new BigDecimal("25000")) >= 0) {
-            return 3;
-        } else if (totalSpent.compareTo(new BigDecimal("10000")) >= 0) {
-            return 2;
-        } else if (totalSpent.compareTo(new BigDecimal("5000")) >= 0) {
-            return 1;
-        }
-        return 0;
+        return CustomerPromoProfile.loyaltyLevelFor(customer.getTotalSpent());
     }
 } 
\ No newline at end of file
@@ -1,12 +1,16 @@
 package ma.foodplus.ordering.system.customer.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import ma.foodplus.ordering.system.common.service.OutboxEventPublisher;
 import ma.foodplus.ordering.system.customer.dto.ProductCustomerDTO;
 import ma.foodplus.ordering.system.customer.dto.ProductCustomerPriceHistoryDTO;
 import ma.foodplus.ordering.system.customer.dto.ProductCustomerStatisticsDTO;
+import ma.foodplus.ordering.system.customer.event.ContractPricesChangedEvent;
+import ma.foodplus.ordering.system.customer.event.ContractPricesChangedEvent.Change;
 import ma.foodplus.ordering.system.customer.mapper.ProductCustomerMapper;
 import ma.foodplus.ordering.system.customer.model.ProductCustomer;
 import ma.foodplus.ordering.system.customer.repository.ProductCustomerRepository;
+import ma.foodplus.ordering.system.customer.service.CustomerPriceMatrixCache;
 import ma.foodplus.ordering.system.customer.service.ProductCustomerService;
 import ma.foodplus.ordering.system.customer.service.ProductCustomerValidationService;
 import org.springframework.stereotype.Service;
@@ -23,9 +27,16 @@ import java.util.stream.Collectors;
 @Transactional
 public class ProductCustomerServiceImpl implements ProductCustomerService {
 
+    /**
+     * Ids per set-based UPDATE statement, well below PostgreSQL's bind parameter limit.
+     */
+    private static final int BULK_CHUNK_SIZE = 1_000;
+
     private final ProductCustomerRepository productCustomerRepository;
     private final ProductCustomerMapper productCustomerMapper;
     private final ProductCustomerValidationService validationService;
+    private final CustomerPriceMatrixCache priceMatrixCache;
+    private final OutboxEventPublisher outboxEventPublisher;
 
     @Override
     public ProductCustomerDTO createProductCustomer(ProductCustomerDTO productCustomerDTO) {
@@ -37,6 +48,7 @@ public class ProductCustomerServiceImpl implements ProductCustomerService {
         
         ProductCustomer productCustomer = productCustomerMapper.toEntity(productCustomerDTO);
         productCustomer = productCustomerRepository.save(productCustomer);
+        pricesChanged(productCustomer, Change.CREATED);
         return productCustomerMapper.toDTO(productCustomer);
     }
 
@@ -45,17 +57,22 @@ public class ProductCustomerServiceImpl implements ProductCustomerService {
         ProductCustomer productCustomer = productCustomerRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Product customer not found with id: " + id));
         
+        Long previousCustomerId = customerIdOf(productCustomer);
         productCustomerMapper.updateEntityFromDTO(productCustomerDTO, productCustomer);
         productCustomer = productCustomerRepository.save(productCustomer);
+        if (previousCustomerId != null && !previousCustomerId.equals(customerIdOf(productCustomer))) {
+            pricesChanged(previousCustomerId, productCustomer.getId(), Change.DELETED);
+        }
+        pricesChanged(productCustomer, Change.UPDATED);
         return productCustomerMapper.toDTO(productCustomer);
     }
 
     @Override
     public void deleteProductCustomer(Long id) {
-        if (!productCustomerRepository.existsById(id)) {
-            throw new EntityNotFoundException("Product customer not found with id: " + id);
-        }
-        productCustomerRepository.deleteById(id);
+        ProductCustomer productCustomer = productCustomerRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Product customer not found with id: " + id));
+        productCustomerRepository.delete(productCustomer);
+        pricesChanged(productCustomer, Change.DELETED);
     }
 
     @Override
@@ -115,6 +132,7 @@ public class ProductCustomerServiceImpl implements ProductCustomerService {
         
         productCustomer.setPrixTTC(BigDecimal.valueOf(newPrice));
         productCustomerRepository.save(productCustomer);
+        pricesChanged(productCustomer, Change.PRICE);
     }
 
     @Override
@@ -124,6 +142,7 @@ public class ProductCustomerServiceImpl implements ProductCustomerService {
         
         productCustomer.setRemise(BigDecimal.valueOf(newDiscount));
         productCustomerRepository.save(productCustomer);
+        pricesChanged(productCustomer, Change.DISCOUNT);
     }
 
     @Override
@@ -182,30 +201,37 @@ public class ProductCustomerServiceImpl implements ProductCustomerService {
     }
 
     @Override
-    public List<ProductCustomerDTO> updateBulkPrices(List<Long> ids, Double newPrice) {
-        List<ProductCustomer> productCustomers = productCustomerRepository.findAllById(ids);
-        productCustomers.forEach(pc -> pc.setPrixTTC(BigDecimal.valueOf(newPrice)));
-        return productCustomerRepository.saveAll(productCustomers).stream()
-                .map(productCustomerMapper::toDTO)
-                .collect(Collectors.toList());
+    public int updateBulkPrices(List<Long> ids, Double newPrice) {
+        BigDecimal price = requireValidPrice(newPrice != null ? BigDecimal.valueOf(newPrice) : null);
+        return updateInChunks(ids, Change.PRICE,
+                (chunk, now) -> productCustomerRepository.updatePricesByIds(chunk, price, now));
     }
 
     @Override
+    public int updateCategoryPrices(Long customerId, String category, BigDecimal newPrice) {
+        requireValidPrice(newPrice);
+        int updated = productCustomerRepository.updatePricesByCustomerIdAndCategory(
+                customerId, category, newPrice, ZonedDateTime.now());
+        categoryPricesChanged(customerId, category, Change.PRICE, updated);
+        return updated;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Map<Long, BigDecimal> getProductPricesForCustomer(Long customerId) {
-        return productCustomerRepository.findProductPricesForCustomer(customerId).stream()
-                .collect(Collectors.toMap(
-                    map -> (Long) map.get("productId"),
-                    map -> (BigDecimal) map.get("price")
-                ));
+        return priceMatrixCache.get(customerId).activePrices();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> getNetPricesForCustomer(Long customerId, Collection<Long> productIds) {
+        return priceMatrixCache.get(customerId).netPrices(productIds);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Map<String, BigDecimal> getAveragePricesByCategory(Long customerId) {
-        return productCustomerRepository.findAveragePricesByCategory(customerId).stream()
-                .collect(Collectors.toMap(
-                    map -> (String) map.get("category"),
-                    map -> (BigDecimal) map.get("averagePrice")
-                ));
+        return priceMatrixCache.get(customerId).averagePricesByCategory();
     }
 
     @Override
@@ -224,21 +250,25 @@ public class ProductCustomerServiceImpl implements ProductCustomerService {
     }
 
     @Override
-    public List<ProductCustomerDTO> updateBulkDiscounts(List<Long> ids, Double newDiscount) {
-        List<ProductCustomer> productCustomers = productCustomerRepository.findAllById(ids);
-        productCustomers.forEach(pc -> pc.setRemise(BigDecimal.valueOf(newDiscount)));
-        return productCustomerRepository.saveAll(productCustomers).stream()
-                .map(productCustomerMapper::toDTO)
-                .collect(Collectors.toList());
+    public int updateBulkDiscounts(List<Long> ids, Double newDiscount) {
+        BigDecimal discount = requireValidDiscount(newDiscount != null ? BigDecimal.valueOf(newDiscount) : null);
+        return updateInChunks(ids, Change.DISCOUNT,
+                (chunk, now) -> productCustomerRepository.updateDiscountsByIds(chunk, discount, now));
+    }
+
+    @Override
+    public int updateCategoryDiscounts(Long customerId, String category, BigDecimal newDiscount) {
+        requireValidDiscount(newDiscount);
+        int updated = productCustomerRepository.updateDiscountsByCustomerIdAndCategory(
+                customerId, category, newDiscount, ZonedDateTime.now());
+        categoryPricesChanged(customerId, category, Change.DISCOUNT, updated);
+        return updated;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Map<String, BigDecimal> getAverageDiscountsByCategory(Long customerId) {
-        return productCustomerRepository.findAverageDiscountsByCategory(customerId).stream()
-                .collect(Collectors.toMap(
-                    map -> (String) map.get("category"),
-                    map -> (BigDecimal) map.get("averageDiscount")
-                ));
+        return priceMatrixCache.get(customerId).averageDiscountsByCategory();
     }
 
     @Override
@@ -249,10 +279,9 @@ public class ProductCustomerServiceImpl implements ProductCustomerService {
     }
 
     @Override
-    public void deactivateProductCustomers(List<Long> ids) {
-        List<ProductCustomer> productCustomers = productCustomerRepository.findAllById(ids);
-        productCustomers.forEach(pc -> pc.setActive(false));
-        productCustomerRepository.saveAll(productCustomers);
+    public int deactivateProductCustomers(List<Long> ids) {
+        return updateInChunks(ids, Change.DEACTIVATED,
+                (chunk, now) -> productCustomerRepository.updateActiveByIds(chunk, false, now));
     }
 
     @Override
@@ -260,7 +289,10 @@ public class ProductCustomerServiceImpl implements ProductCustomerService {
         ProductCustomer productCustomer = productCustomerRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Product customer not found with id: " + id));
         productCustomer.setPrixVenNouv(null);
+        productCustomer.setRemiseNouv(null);
+        productCustomer.setNewPriceEffectiveAt(null);
         productCustomerRepository.save(productCustomer);
+        pricesChanged(productCustomer, Change.PENDING_REVERTED);
     }
 
     @Override
@@ -274,10 +306,18 @@ public class ProductCustomerServiceImpl implements ProductCustomerService {
     public void applyNewPrices(Long id) {
         ProductCustomer productCustomer = productCustomerRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Product customer not found with id: " + id));
-        if (productCustomer.getPrixVenNouv() != null) {
-            productCustomer.setPrixTTC(productCustomer.getPrixVenNouv());
+        if (productCustomer.getPrixVenNouv() != null || productCustomer.getRemiseNouv() != null) {
+            if (productCustomer.getPrixVenNouv() != null) {
+                productCustomer.setPrixTTC(productCustomer.getPrixVenNouv());
+            }
+            if (productCustomer.getRemiseNouv() != null) {
+                productCustomer.setRemise(productCustomer.getRemiseNouv());
+            }
             productCustomer.setPrixVenNouv(null);
+            productCustomer.setRemiseNouv(null);
+            productCustomer.setNewPriceEffectiveAt(null);
             productCustomerRepository.save(productCustomer);
+            pricesChanged(productCustomer, Change.PENDING_APPLIED);
         }
     }
 
@@ -289,9 +329,84 @@ public class ProductCustomerServiceImpl implements ProductCustomerService {
     }
 
     @Override
-    public void activateProductCustomers(List<Long> ids) {
-        List<ProductCustomer> productCustomers = productCustomerRepository.findAllById(ids);
-        productCustomers.forEach(pc -> pc.setActive(true));
-        productCustomerRepository.saveAll(productCustomers);
+    public int activateProductCustomers(List<Long> ids) {
+        return updateInChunks(ids, Change.ACTIVATED,
+                (chunk, now) -> productCustomerRepository.updateActiveByIds(chunk, true, now));
+    }
+
+    private static Long customerIdOf(ProductCustomer productCustomer) {
+        return productCustomer.getCustomer() != null ? productCustomer.getCustomer().getId() : null;
+    }
+
+    /**
+     * Invalidates the price matrix of the row's customer and writes the change to the outbox.
+     */
+    private void pricesChanged(ProductCustomer productCustomer, Change change) {
+        Long customerId = customerIdOf(productCustomer);
+        if (customerId != null) {
+            pricesChanged(customerId, productCustomer.getId(), change);
+        }
+    }
+
+    private void pricesChanged(Long customerId, Long productCustomerId, Change change) {
+        priceMatrixCache.invalidate(customerId);
+        outboxEventPublisher.publish(ContractPricesChangedEvent.ofRows(customerId, change, List.of(productCustomerId)));
+    }
+
+    private void categoryPricesChanged(Long customerId, String category, Change change, int updated) {
+        priceMatrixCache.invalidate(customerId);
+        if (updated > 0) {
+            outboxEventPublisher.publish(ContractPricesChangedEvent.ofCategory(customerId, change, category));
+        }
+    }
+
+    /**
+     * Runs a set-based update per chunk of distinct ids, then invalidates the price matrices of the
+     * customers owning those rows and writes one change per customer to the outbox. Owners are resolved
+     * with a scalar query rather than by loading the entities.
+     *
+     * @return the number of rows updated
+     */
+    private int updateInChunks(List<Long> ids, Change change, BulkUpdate update) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        ZonedDateTime now = ZonedDateTime.now();
+        Map<Long, List<Long>> idsByCustomer = new LinkedHashMap<>();
+        int updated = 0;
+        for (int from = 0; from < distinctIds.size(); from += BULK_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + BULK_CHUNK_SIZE, distinctIds.size()));
+            for (ProductCustomerRepository.OwnerRow owner : productCustomerRepository.findOwnersByIds(chunk)) {
+                if (owner.getCustomerId() != null) {
+                    idsByCustomer.computeIfAbsent(owner.getCustomerId(), customerId -> new ArrayList<>()).add(owner.getId());
+                }
+            }
+            updated += update.apply(chunk, now);
+        }
+        priceMatrixCache.invalidate(idsByCustomer.keySet());
+        idsByCustomer.forEach((customerId, rowIds) ->
+                outboxEventPublisher.publish(ContractPricesChangedEvent.ofRows(customerId, change, rowIds)));
+        return updated;
+    }
+
+    /**
+     * Set-based updates skip the entity's bean validation, so the bulk paths check its price and discount
+     * constraints themselves before writing anything.
+     */
+    private static BigDecimal requireValidPrice(BigDecimal price) {
+        if (price == null || price.signum() <= 0) {
+            throw new IllegalArgumentException("Price must be greater than 0");
+        }
+        return price;
+    }
+
+    private static BigDecimal requireValidDiscount(BigDecimal discount) {
+        if (discount == null || discount.signum() < 0) {
+            throw new IllegalArgumentException("Discount cannot be negative");
+        }
+        return discount;
+    }
+
+    @FunctionalInterface
+    private interface BulkUpdate {
+        int apply(List<Long> ids, ZonedDateTime now);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,58 @@
+package ma.foodplus.ordering.system.inventory.event;
+
+import ma.foodplus.ordering.system.common.event.OutboxDomainEvent;
+import ma.foodplus.ordering.system.inventory.model.ProductStock;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+/**
+ * Written to the outbox when the on-hand or reserved quantity of a stock line changes.
+ */
+public record StockChangedEvent(Long stockId, Long productId, Long depotId, Reason reason,
+                                BigDecimal previousQuantity, BigDecimal quantity,
+                                BigDecimal previousReservedQuantity, BigDecimal reservedQuantity,
+                                ZonedDateTime occurredAt) implements OutboxDomainEvent<ProductStock> {
+
+    public enum Reason {
+        CREATED,
+        QUANTITY_UPDATE,
+        TRANSFER_OUT,
+        TRANSFER_IN,
+        RESERVATION,
+        RELEASE,
+        CONSUMPTION,
+        DELETED
+    }
+
+    /**
+     * The change of {@code stock} from the given quantities to its current ones.
+     */
+    public static StockChangedEvent of(ProductStock stock, Reason reason,
+                                       BigDecimal previousQuantity, BigDecimal previousReservedQuantity) {
+        return new StockChangedEvent(stock.getId(), stock.getProductId(),
+                stock.getDepot() != null ? stock.getDepot().getId() : null, reason,
+                previousQuantity, stock.getQuantity(), previousReservedQuantity, stock.getReservedQuantity(),
+                ZonedDateTime.now());
+    }
+
+    /**
+     * The removal of {@code stock}: its current quantities drop to zero.
+     */
+    public static StockChangedEvent deleted(ProductStock stock) {
+        return new StockChangedEvent(stock.getId(), stock.getProductId(),
+                stock.getDepot() != null ? stock.getDepot().getId() : null, Reason.DELETED,
+                stock.getQuantity(), BigDecimal.ZERO, stock.getReservedQuantity(), BigDecimal.ZERO,
+                ZonedDateTime.now());
+    }
+
+    @Override
+    public String aggregateType() {
+        return "ProductStock";
+    }
+
+    @Override
+    public String aggregateId() {
+        return String.valueOf(stockId);
+    }
+}
@@ -1,8 +1,10 @@
 package ma.foodplus.ordering.system.inventory.repository;
 
+import jakarta.persistence.LockModeType;
 import ma.foodplus.ordering.system.inventory.model.ProductStock;
 import ma.foodplus.ordering.system.inventory.model.ProductStock.QualityStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,6 +12,7 @@ import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -81,6 +84,13 @@ public interface ProductStockRepository extends JpaRepository<ProductStock, Long
            "LOWER(ps.qualityNotes) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
     List<ProductStock> searchProductStocks(@Param("searchTerm") String searchTerm);
 
+    /**
+     * Sum the positive stock of each product across all depots, one row per product that has any
+     */
+    @Query("SELECT ps.productId AS productId, SUM(ps.quantity) AS quantity FROM ProductStock ps " +
+           "WHERE ps.productId IN :productIds AND ps.quantity > 0 GROUP BY ps.productId")
+    List<ProductStockTotal> sumAvailableQuantityByProductIds(@Param("productIds") Collection<Long> productIds);
+
     /**
      * Find all stock entries for a product with quantity greater than the specified value
      */
@@ -95,4 +105,23 @@ public interface ProductStockRepository extends JpaRepository<ProductStock, Long
      * Find the first stock entry for a product ordered by last updated descending
      */
     ProductStock findFirstByProductIdOrderByUpdatedAtDesc(Long productId);
-} 
\ No newline at end of file
+
+    /**
+     * Stock rows of a product with unreserved quantity, locked for update in id order so concurrent
+     * reservations of the product wait for each other instead of overbooking it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ps FROM ProductStock ps WHERE ps.productId = :productId " +
+           "AND ps.quantity > ps.reservedQuantity ORDER BY ps.id")
+    List<ProductStock> lockUnreservedByProductId(@Param("productId") Long productId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ps FROM ProductStock ps WHERE ps.id IN :ids ORDER BY ps.id")
+    List<ProductStock> lockAllById(@Param("ids") Collection<Long> ids);
+
+    interface ProductStockTotal {
+        Long getProductId();
+
+        BigDecimal getQuantity();
+    }
+}
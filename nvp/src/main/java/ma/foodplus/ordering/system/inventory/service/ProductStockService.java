@@ -37,7 +37,10 @@ public interface ProductStockService {
     StockTransferResponse transferStock(Long id, StockTransferRequest request);
     List<StockMovementResponse> getStockMovementHistory(Long id, LocalDate startDate, LocalDate endDate);
     void reserveStock(Long id, Double quantity);
+    void reserveStock(Long id, BigDecimal quantity);
     void releaseReservedStock(Long id, Double quantity);
+    void releaseReservedStock(Long id, BigDecimal quantity);
+    void consumeReservedStock(Long id, BigDecimal quantity);
     
     // Quality Management
     ProductStockResponse updateQualityStatus(Long id, ProductStock.QualityStatus newStatus);
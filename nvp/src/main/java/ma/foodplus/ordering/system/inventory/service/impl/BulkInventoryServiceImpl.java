@@ -2,6 +2,8 @@ package ma.foodplus.ordering.system.inventory.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.common.service.OutboxEventPublisher;
+import ma.foodplus.ordering.system.inventory.event.StockChangedEvent;
 import ma.foodplus.ordering.system.inventory.model.ProductStock;
 import ma.foodplus.ordering.system.inventory.repository.ProductStockRepository;
 import ma.foodplus.ordering.system.inventory.service.BulkInventoryService;
@@ -19,6 +21,7 @@ import java.util.List;
 public class BulkInventoryServiceImpl implements BulkInventoryService {
 
     private final ProductStockRepository productStockRepository;
+    private final OutboxEventPublisher outboxEventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -102,8 +105,14 @@ public class BulkInventoryServiceImpl implements BulkInventoryService {
             int availableInStock = stock.getQuantity().intValue();
             int toReserve = Math.min(remainingToReserve, availableInStock);
 
-            stock.setReservedQuantity(stock.getReservedQuantity().add(BigDecimal.valueOf(toReserve)));
+            if (toReserve <= 0) {
+                continue;
+            }
+            BigDecimal reservedBefore = stock.getReservedQuantity();
+            stock.setReservedQuantity(reservedBefore.add(BigDecimal.valueOf(toReserve)));
             productStockRepository.save(stock);
+            outboxEventPublisher.publish(StockChangedEvent.of(stock, StockChangedEvent.Reason.RESERVATION,
+                    stock.getQuantity(), reservedBefore));
 
             remainingToReserve -= toReserve;
         }
@@ -131,8 +140,14 @@ public class BulkInventoryServiceImpl implements BulkInventoryService {
             int reservedInStock = stock.getReservedQuantity().intValue();
             int toRelease = Math.min(remainingToRelease, reservedInStock);
 
-            stock.setReservedQuantity(stock.getReservedQuantity().subtract(BigDecimal.valueOf(toRelease)));
+            if (toRelease <= 0) {
+                continue;
+            }
+            BigDecimal reservedBefore = stock.getReservedQuantity();
+            stock.setReservedQuantity(reservedBefore.subtract(BigDecimal.valueOf(toRelease)));
             productStockRepository.save(stock);
+            outboxEventPublisher.publish(StockChangedEvent.of(stock, StockChangedEvent.Reason.RELEASE,
+                    stock.getQuantity(), reservedBefore));
 
             remainingToRelease -= toRelease;
         }
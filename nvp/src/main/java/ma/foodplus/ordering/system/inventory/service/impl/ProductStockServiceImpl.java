@@ -2,12 +2,15 @@ package ma.foodplus.ordering.system.inventory.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.common.service.NumberSequenceService;
+import ma.foodplus.ordering.system.common.service.OutboxEventPublisher;
 import ma.foodplus.ordering.system.customer.dto.CustomerDTO;
 import ma.foodplus.ordering.system.customer.service.CustomerService;
 import ma.foodplus.ordering.system.inventory.dto.request.BulkProductStockRequest;
 import ma.foodplus.ordering.system.inventory.dto.request.ProductStockRequest;
 import ma.foodplus.ordering.system.inventory.dto.request.StockTransferRequest;
 import ma.foodplus.ordering.system.inventory.dto.response.*;
+import ma.foodplus.ordering.system.inventory.event.StockChangedEvent;
 import ma.foodplus.ordering.system.inventory.exception.ResourceNotFoundException;
 import ma.foodplus.ordering.system.inventory.mapper.ProductStockMapper;
 import ma.foodplus.ordering.system.inventory.model.Depot;
@@ -42,6 +45,8 @@ public class ProductStockServiceImpl implements ProductStockService {
     private final CustomerService customerService;
     private final PromotionService promotionService;
     private final DepotRepository depotRepository;
+    private final OutboxEventPublisher outboxEventPublisher;
+    private final NumberSequenceService numberSequenceService;
 
     @Override
     @Transactional
@@ -49,6 +54,7 @@ public class ProductStockServiceImpl implements ProductStockService {
         log.info("Creating new product stock: {}", request);
         ProductStock productStock = productStockMapper.toEntity(request);
         productStock = productStockRepository.save(productStock);
+        publishStockChange(productStock, StockChangedEvent.Reason.CREATED, BigDecimal.ZERO, BigDecimal.ZERO);
         return productStockMapper.toResponse(productStock);
     }
 
@@ -59,8 +65,13 @@ public class ProductStockServiceImpl implements ProductStockService {
         ProductStock productStock = productStockRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product stock not found with id: " + id));
         
+        BigDecimal quantityBefore = productStock.getQuantity();
+        BigDecimal reservedBefore = productStock.getReservedQuantity();
         productStockMapper.updateEntityFromRequest(request, productStock);
         productStock = productStockRepository.save(productStock);
+        if (changed(quantityBefore, productStock.getQuantity()) || changed(reservedBefore, productStock.getReservedQuantity())) {
+            publishStockChange(productStock, StockChangedEvent.Reason.QUANTITY_UPDATE, quantityBefore, reservedBefore);
+        }
         return productStockMapper.toResponse(productStock);
     }
 
@@ -68,10 +79,10 @@ public class ProductStockServiceImpl implements ProductStockService {
     @Transactional
     public void deleteProductStock(Long id) {
         log.info("Deleting product stock with id: {}", id);
-        if (!productStockRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Product stock not found with id: " + id);
-        }
-        productStockRepository.deleteById(id);
+        ProductStock productStock = productStockRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product stock not found with id: " + id));
+        productStockRepository.delete(productStock);
+        outboxEventPublisher.publish(StockChangedEvent.deleted(productStock));
     }
 
     @Override
@@ -166,12 +177,18 @@ public class ProductStockServiceImpl implements ProductStockService {
                 });
 
         // Update quantities
+        BigDecimal sourceQuantityBefore = sourceStock.getQuantity();
+        BigDecimal destinationQuantityBefore = destinationStock.getQuantity();
         sourceStock.setQuantity(sourceStock.getQuantity().subtract(request.getQuantity()));
         destinationStock.setQuantity(destinationStock.getQuantity().add(request.getQuantity()));
 
         // Save changes
         productStockRepository.save(sourceStock);
         productStockRepository.save(destinationStock);
+        publishStockChange(sourceStock, StockChangedEvent.Reason.TRANSFER_OUT,
+                sourceQuantityBefore, sourceStock.getReservedQuantity());
+        publishStockChange(destinationStock, StockChangedEvent.Reason.TRANSFER_IN,
+                destinationQuantityBefore, destinationStock.getReservedQuantity());
 
         // Create transfer response
         StockTransferResponse response = new StockTransferResponse();
@@ -182,7 +199,10 @@ public class ProductStockServiceImpl implements ProductStockService {
         response.setQuantity(request.getQuantity());
         response.setStatus(StockTransferResponse.TransferStatus.COMPLETED);
         response.setReason(request.getReason());
-        response.setReferenceNumber(request.getReferenceNumber());
+        String referenceNumber = request.getReferenceNumber();
+        response.setReferenceNumber(referenceNumber == null || referenceNumber.isBlank()
+                ? numberSequenceService.next(NumberSequenceService.Sequence.STOCK_TRANSFER_REFERENCE)
+                : referenceNumber);
         response.setActualTransferDate(ZonedDateTime.now());
 
         return response;
@@ -278,8 +298,11 @@ public class ProductStockServiceImpl implements ProductStockService {
         ProductStock productStock = productStockRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product stock not found with id: " + id));
         
+        BigDecimal quantityBefore = productStock.getQuantity();
         productStock.setQuantity(newQuantity);
         productStock = productStockRepository.save(productStock);
+        publishStockChange(productStock, StockChangedEvent.Reason.QUANTITY_UPDATE,
+                quantityBefore, productStock.getReservedQuantity());
         return productStockMapper.toResponse(productStock);
     }
 
@@ -309,26 +332,73 @@ public class ProductStockServiceImpl implements ProductStockService {
 
     @Override
     public void reserveStock(Long id, Double quantity) {
+        reserveStock(id, BigDecimal.valueOf(quantity));
+    }
+
+    @Override
+    public void reserveStock(Long id, BigDecimal quantity) {
         ProductStock stock = productStockRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product stock not found"));
-        BigDecimal newReservedQuantity = stock.getReservedQuantity().add(BigDecimal.valueOf(quantity));
+        BigDecimal newReservedQuantity = stock.getReservedQuantity().add(quantity);
         if (newReservedQuantity.compareTo(stock.getQuantity()) > 0) {
             throw new RuntimeException("Cannot reserve more than available quantity");
         }
+        BigDecimal reservedBefore = stock.getReservedQuantity();
         stock.setReservedQuantity(newReservedQuantity);
         productStockRepository.save(stock);
+        publishStockChange(stock, StockChangedEvent.Reason.RESERVATION, stock.getQuantity(), reservedBefore);
     }
 
     @Override
     public void releaseReservedStock(Long id, Double quantity) {
+        releaseReservedStock(id, BigDecimal.valueOf(quantity));
+    }
+
+    @Override
+    public void releaseReservedStock(Long id, BigDecimal quantity) {
         ProductStock stock = productStockRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product stock not found"));
-        BigDecimal newReservedQuantity = stock.getReservedQuantity().subtract(BigDecimal.valueOf(quantity));
+        BigDecimal newReservedQuantity = stock.getReservedQuantity().subtract(quantity);
         if (newReservedQuantity.compareTo(BigDecimal.ZERO) < 0) {
             throw new RuntimeException("Cannot release more than reserved quantity");
         }
+        BigDecimal reservedBefore = stock.getReservedQuantity();
+        stock.setReservedQuantity(newReservedQuantity);
+        productStockRepository.save(stock);
+        publishStockChange(stock, StockChangedEvent.Reason.RELEASE, stock.getQuantity(), reservedBefore);
+    }
+
+    /**
+     * Takes reserved stock out of the line for good, as when the order holding it is delivered: the on-hand
+     * and reserved quantities both go down.
+     */
+    @Override
+    public void consumeReservedStock(Long id, BigDecimal quantity) {
+        ProductStock stock = productStockRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product stock not found"));
+        BigDecimal newReservedQuantity = stock.getReservedQuantity().subtract(quantity);
+        BigDecimal newQuantity = stock.getQuantity().subtract(quantity);
+        if (newReservedQuantity.compareTo(BigDecimal.ZERO) < 0 || newQuantity.compareTo(BigDecimal.ZERO) < 0) {
+            throw new RuntimeException("Cannot consume more than reserved quantity");
+        }
+        BigDecimal quantityBefore = stock.getQuantity();
+        BigDecimal reservedBefore = stock.getReservedQuantity();
+        stock.setQuantity(newQuantity);
         stock.setReservedQuantity(newReservedQuantity);
         productStockRepository.save(stock);
+        publishStockChange(stock, StockChangedEvent.Reason.CONSUMPTION, quantityBefore, reservedBefore);
+    }
+
+    /**
+     * Writes the stock change to the outbox in the surrounding transaction.
+     */
+    private void publishStockChange(ProductStock stock, StockChangedEvent.Reason reason,
+                                    BigDecimal previousQuantity, BigDecimal previousReservedQuantity) {
+        outboxEventPublisher.publish(StockChangedEvent.of(stock, reason, previousQuantity, previousReservedQuantity));
+    }
+
+    private static boolean changed(BigDecimal before, BigDecimal after) {
+        return before == null ? after != null : after == null || before.compareTo(after) != 0;
     }
 
     @Override
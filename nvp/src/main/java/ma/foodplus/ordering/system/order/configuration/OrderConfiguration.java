@@ -0,0 +1,9 @@
+package ma.foodplus.ordering.system.order.configuration;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(OrderProperties.class)
+public class OrderConfiguration {
+}
@@ -0,0 +1,70 @@
+package ma.foodplus.ordering.system.order.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Order settings bound from {@code foodplus.order.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "foodplus.order")
+public class OrderProperties {
+
+    private Concurrency concurrency = new Concurrency();
+    private Pipeline pipeline = new Pipeline();
+
+    @Data
+    public static class Concurrency {
+        /**
+         * Attempts of a commutative edit (notes, contact details) that keeps losing to concurrent changes
+         * before the conflict is returned to the client.
+         */
+        private int maxAttempts = 3;
+        /**
+         * Pause before the second attempt, doubled before each further one.
+         */
+        private Duration retryBackoff = Duration.ofMillis(20);
+    }
+
+    /**
+     * Follow-up work of status changes, run after commit by {@code OrderPipeline}.
+     */
+    @Data
+    public static class Pipeline {
+        /**
+         * Whether this instance runs the follow-up work; relayed status changes are queued either way.
+         */
+        private boolean enabled = true;
+        /**
+         * Wait of an idle stage before it looks for due tasks again; status changes relayed by this
+         * instance wake it up at once.
+         */
+        private Duration pollInterval = Duration.ofMillis(500);
+        /**
+         * How long done tasks are kept before they are deleted.
+         */
+        private Duration retention = Duration.ofDays(7);
+        private String cleanupCron = "0 45 3 * * *";
+        private Stage reservation = new Stage();
+        private Stage loyalty = new Stage();
+        private Stage customerStats = new Stage();
+    }
+
+    @Data
+    public static class Stage {
+        /**
+         * Worker threads, each running one task at a time.
+         */
+        private int threads = 2;
+        /**
+         * Attempts of a failing task before it is marked FAILED.
+         */
+        private int maxAttempts = 5;
+        /**
+         * Pause before the second attempt, doubled before each further one.
+         */
+        private Duration retryBackoff = Duration.ofMillis(100);
+    }
+}
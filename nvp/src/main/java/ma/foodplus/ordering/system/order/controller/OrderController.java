@@ -2,10 +2,14 @@ package ma.foodplus.ordering.system.order.controller;
 
 import ma.foodplus.ordering.system.order.dto.OrderDto;
 import ma.foodplus.ordering.system.order.dto.OrderItemDto;
+import ma.foodplus.ordering.system.order.dto.OrderSummaryPageDto;
 import ma.foodplus.ordering.system.order.model.OrderStatus;
 import ma.foodplus.ordering.system.order.model.OrderType;
 import ma.foodplus.ordering.system.order.service.OrderService;
+import ma.foodplus.ordering.system.order.service.OrderSummaryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -15,9 +19,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import ma.foodplus.ordering.system.common.dto.ErrorResponse;
+import ma.foodplus.ordering.system.common.exception.BaseException;
+import ma.foodplus.ordering.system.common.exception.ErrorCode;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
 import java.util.List;
 
 @RestController
@@ -26,10 +33,12 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderSummaryService orderSummaryService;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderSummaryService orderSummaryService) {
         this.orderService = orderService;
+        this.orderSummaryService = orderSummaryService;
     }
 
     @PostMapping
@@ -39,7 +48,7 @@ public class OrderController {
     public ResponseEntity<OrderDto> createOrder(
             @Parameter(description = "ID of the customer placing the order", required = true) @RequestParam Long customerId,
             @Parameter(description = "Type of order (B2B or B2C)", required = true) @RequestParam OrderType orderType) {
-        return ResponseEntity.ok(orderService.createOrder(customerId, orderType));
+        return versioned(orderService.createOrder(customerId, orderType));
     }
 
     @GetMapping("/{id}")
@@ -47,19 +56,27 @@ public class OrderController {
     @ApiResponse(responseCode = "200", description = "Order found", content = @Content(schema = @Schema(implementation = OrderDto.class)))
     @ApiResponse(responseCode = "404", description = "Order not found", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     public ResponseEntity<OrderDto> getOrderById(@Parameter(description = "Order ID", required = true) @PathVariable Long id) {
-        return ResponseEntity.ok(orderService.getOrderById(id));
+        return versioned(orderService.getOrderById(id));
     }
 
+    /**
+     * @deprecated returns every order with its items in one response; use {@link #getOrderSummariesByCustomerId}
+     */
+    @Deprecated
     @GetMapping("/customer/{customerId}")
-    @Operation(summary = "Get orders by customer ID", description = "Retrieves all orders for a given customer.")
+    @Operation(summary = "Get orders by customer ID", deprecated = true, description = "Retrieves all orders for a given customer. Deprecated: use /summaries/customer/{customerId}, which pages through summaries.")
     @ApiResponse(responseCode = "200", description = "Orders found", content = @Content(schema = @Schema(implementation = OrderDto.class)))
     @ApiResponse(responseCode = "404", description = "No orders found for customer", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     public ResponseEntity<List<OrderDto>> getOrdersByCustomerId(@Parameter(description = "Customer ID", required = true) @PathVariable Long customerId) {
         return ResponseEntity.ok(orderService.getOrdersByCustomerId(customerId));
     }
 
+    /**
+     * @deprecated returns every order with its items in one response; use {@link #getOrderSummariesByStatus}
+     */
+    @Deprecated
     @GetMapping("/status/{status}")
-    @Operation(summary = "Get orders by status", description = "Retrieves all orders with a specific status (e.g., PENDING, COMPLETED, CANCELLED).")
+    @Operation(summary = "Get orders by status", deprecated = true, description = "Retrieves all orders with a specific status (e.g., PENDING, COMPLETED, CANCELLED). Deprecated: use /summaries/status/{status}, which pages through summaries.")
     @ApiResponse(responseCode = "200", description = "Orders found", content = @Content(schema = @Schema(implementation = OrderDto.class)))
     @ApiResponse(responseCode = "404", description = "No orders found for status", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     public ResponseEntity<List<OrderDto>> getOrdersByStatus(@Parameter(description = "Order status", required = true, example = "PENDING") @PathVariable OrderStatus status) {
@@ -86,7 +103,8 @@ public class OrderController {
                 description = "Order item to add. Required fields: productId, unitPrice, quantity",
                 required = true,
                 content = @Content(schema = @Schema(implementation = OrderItemDto.class))
-            ) @RequestBody OrderItemDto itemDto) {
+            ) @RequestBody OrderItemDto itemDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (itemDto.getProductId() == null) {
             throw new IllegalArgumentException("Product ID is required");
         }
@@ -96,7 +114,32 @@ public class OrderController {
         if (itemDto.getQuantity() == null || itemDto.getQuantity() <= 0) {
             throw new IllegalArgumentException("Quantity must be greater than 0");
         }
-        return ResponseEntity.ok(orderService.addItemToOrder(orderId, itemDto));
+        return versioned(orderService.addItemToOrder(orderId, itemDto, expectedVersion(ifMatch)));
+    }
+
+    @PostMapping("/{orderId}/items/bulk")
+    @Operation(summary = "Add items to order", description = "Adds several items to an existing order with a single totals update.")
+    @ApiResponse(responseCode = "200", description = "Items added to order", content = @Content(schema = @Schema(implementation = OrderDto.class)))
+    @ApiResponse(responseCode = "404", description = "Order not found", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    public ResponseEntity<OrderDto> addItemsToOrder(
+            @Parameter(description = "Order ID", required = true) @PathVariable Long orderId,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "Order items to add. Required fields of each: productId, unitPrice, quantity",
+                required = true
+            ) @RequestBody List<OrderItemDto> itemDtos,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        for (OrderItemDto itemDto : itemDtos) {
+            if (itemDto.getProductId() == null) {
+                throw new IllegalArgumentException("Product ID is required");
+            }
+            if (itemDto.getUnitPrice() == null) {
+                throw new IllegalArgumentException("Unit price is required");
+            }
+            if (itemDto.getQuantity() == null || itemDto.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be greater than 0");
+            }
+        }
+        return versioned(orderService.addItemsToOrder(orderId, itemDtos, expectedVersion(ifMatch)));
     }
 
     @DeleteMapping("/{orderId}/items/{itemId}")
@@ -105,8 +148,9 @@ public class OrderController {
     @ApiResponse(responseCode = "404", description = "Order or item not found", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     public ResponseEntity<OrderDto> removeItemFromOrder(
             @Parameter(description = "Order ID", required = true) @PathVariable Long orderId,
-            @Parameter(description = "Order item ID", required = true) @PathVariable Long itemId) {
-        return ResponseEntity.ok(orderService.removeItemFromOrder(orderId, itemId));
+            @Parameter(description = "Order item ID", required = true) @PathVariable Long itemId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.removeItemFromOrder(orderId, itemId, expectedVersion(ifMatch)));
     }
 
     @PatchMapping("/{orderId}/items/{itemId}/quantity")
@@ -116,8 +160,9 @@ public class OrderController {
     public ResponseEntity<OrderDto> updateItemQuantity(
             @Parameter(description = "Order ID", required = true) @PathVariable Long orderId,
             @Parameter(description = "Order item ID", required = true) @PathVariable Long itemId,
-            @Parameter(description = "New quantity", required = true) @RequestParam Integer quantity) {
-        return ResponseEntity.ok(orderService.updateItemQuantity(orderId, itemId, quantity));
+            @Parameter(description = "New quantity", required = true) @RequestParam Integer quantity,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.updateItemQuantity(orderId, itemId, quantity, expectedVersion(ifMatch)));
     }
 
     @PatchMapping("/{orderId}/items/{itemId}/notes")
@@ -127,44 +172,59 @@ public class OrderController {
     public ResponseEntity<OrderDto> updateItemNotes(
             @Parameter(description = "Order ID", required = true) @PathVariable Long orderId,
             @Parameter(description = "Order item ID", required = true) @PathVariable Long itemId,
-            @Parameter(description = "Notes for the item", required = true) @RequestParam String notes) {
-        return ResponseEntity.ok(orderService.updateItemNotes(orderId, itemId, notes));
+            @Parameter(description = "Notes for the item", required = true) @RequestParam String notes,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.updateItemNotes(orderId, itemId, notes, expectedVersion(ifMatch)));
     }
 
     // Order status transition endpoints
     @PostMapping("/{orderId}/confirm")
-    public ResponseEntity<OrderDto> confirmOrder(@PathVariable Long orderId) {
-        return ResponseEntity.ok(orderService.confirmOrder(orderId));
+    public ResponseEntity<OrderDto> confirmOrder(
+            @PathVariable Long orderId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.confirmOrder(orderId, expectedVersion(ifMatch)));
     }
 
     @PostMapping("/{orderId}/start-preparing")
-    public ResponseEntity<OrderDto> startPreparing(@PathVariable Long orderId) {
-        return ResponseEntity.ok(orderService.startPreparing(orderId));
+    public ResponseEntity<OrderDto> startPreparing(
+            @PathVariable Long orderId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.startPreparing(orderId, expectedVersion(ifMatch)));
     }
 
     @PostMapping("/{orderId}/mark-ready")
-    public ResponseEntity<OrderDto> markAsReady(@PathVariable Long orderId) {
-        return ResponseEntity.ok(orderService.markAsReady(orderId));
+    public ResponseEntity<OrderDto> markAsReady(
+            @PathVariable Long orderId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.markAsReady(orderId, expectedVersion(ifMatch)));
     }
 
     @PostMapping("/{orderId}/start-delivery")
-    public ResponseEntity<OrderDto> startDelivery(@PathVariable Long orderId) {
-        return ResponseEntity.ok(orderService.startDelivery(orderId));
+    public ResponseEntity<OrderDto> startDelivery(
+            @PathVariable Long orderId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.startDelivery(orderId, expectedVersion(ifMatch)));
     }
 
     @PostMapping("/{orderId}/complete-delivery")
-    public ResponseEntity<OrderDto> completeDelivery(@PathVariable Long orderId) {
-        return ResponseEntity.ok(orderService.completeDelivery(orderId));
+    public ResponseEntity<OrderDto> completeDelivery(
+            @PathVariable Long orderId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.completeDelivery(orderId, expectedVersion(ifMatch)));
     }
 
     @PostMapping("/{orderId}/cancel")
-    public ResponseEntity<OrderDto> cancelOrder(@PathVariable Long orderId) {
-        return ResponseEntity.ok(orderService.cancelOrder(orderId));
+    public ResponseEntity<OrderDto> cancelOrder(
+            @PathVariable Long orderId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.cancelOrder(orderId, expectedVersion(ifMatch)));
     }
 
     @PostMapping("/{orderId}/refund")
-    public ResponseEntity<OrderDto> refundOrder(@PathVariable Long orderId) {
-        return ResponseEntity.ok(orderService.refundOrder(orderId));
+    public ResponseEntity<OrderDto> refundOrder(
+            @PathVariable Long orderId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.refundOrder(orderId, expectedVersion(ifMatch)));
     }
 
     // B2B Specific Endpoints
@@ -176,8 +236,10 @@ public class OrderController {
 
     @PostMapping("/{orderId}/apply-contract-pricing")
     @Operation(summary = "Apply contract pricing", description = "Applies contract-based pricing for B2B customers.")
-    public ResponseEntity<OrderDto> applyContractPricing(@PathVariable Long orderId) {
-        return ResponseEntity.ok(orderService.applyContractPricing(orderId));
+    public ResponseEntity<OrderDto> applyContractPricing(
+            @PathVariable Long orderId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.applyContractPricing(orderId, expectedVersion(ifMatch)));
     }
 
     @PostMapping("/{orderId}/validate-credit")
@@ -190,8 +252,9 @@ public class OrderController {
     @Operation(summary = "Set payment terms", description = "Sets payment terms for B2B orders.")
     public ResponseEntity<OrderDto> setPaymentTerms(
             @PathVariable Long orderId,
-            @RequestParam String terms) {
-        return ResponseEntity.ok(orderService.setPaymentTerms(orderId, terms));
+            @RequestParam String terms,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.setPaymentTerms(orderId, terms, expectedVersion(ifMatch)));
     }
 
     @PostMapping("/{orderId}/validate-minimum-value")
@@ -202,50 +265,59 @@ public class OrderController {
 
     @PostMapping("/{orderId}/apply-bulk-discount")
     @Operation(summary = "Apply bulk discount", description = "Applies bulk discount to eligible items.")
-    public ResponseEntity<OrderDto> applyBulkDiscount(@PathVariable Long orderId) {
-        return ResponseEntity.ok(orderService.applyBulkDiscount(orderId));
+    public ResponseEntity<OrderDto> applyBulkDiscount(
+            @PathVariable Long orderId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.applyBulkDiscount(orderId, expectedVersion(ifMatch)));
     }
 
     @PostMapping("/{orderId}/delivery-schedule")
     @Operation(summary = "Set delivery schedule", description = "Sets preferred delivery date for B2B orders.")
     public ResponseEntity<OrderDto> setDeliverySchedule(
             @PathVariable Long orderId,
-            @RequestParam LocalDateTime preferredDeliveryDate) {
-        return ResponseEntity.ok(orderService.setDeliverySchedule(orderId, preferredDeliveryDate));
+            @RequestParam LocalDateTime preferredDeliveryDate,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.setDeliverySchedule(orderId, preferredDeliveryDate, expectedVersion(ifMatch)));
     }
 
     @PutMapping("/{orderId}/bulk-order")
     public ResponseEntity<OrderDto> setBulkOrderDetails(
             @PathVariable Long orderId,
-            @RequestBody BulkOrderRequest request) {
-        return ResponseEntity.ok(orderService.setBulkOrderDetails(
+            @RequestBody BulkOrderRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.setBulkOrderDetails(
             orderId, 
             request.getReference(), 
             request.getFrequency(), 
-            request.getScheduledDate()
+            request.getScheduledDate(),
+            expectedVersion(ifMatch)
         ));
     }
 
     @PutMapping("/{orderId}/contract")
     public ResponseEntity<OrderDto> setContractDetails(
             @PathVariable Long orderId,
-            @RequestBody ContractRequest request) {
-        return ResponseEntity.ok(orderService.setContractDetails(
+            @RequestBody ContractRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.setContractDetails(
             orderId,
             request.getContractId(),
             request.getStartDate(),
             request.getEndDate(),
-            request.getTerms()
+            request.getTerms(),
+            expectedVersion(ifMatch)
         ));
     }
 
     @PutMapping("/{orderId}/special-pricing")
     public ResponseEntity<OrderDto> applySpecialPricing(
             @PathVariable Long orderId,
-            @RequestBody SpecialPricingRequest request) {
-        return ResponseEntity.ok(orderService.applySpecialPricing(
+            @RequestBody SpecialPricingRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.applySpecialPricing(
             orderId,
-            request.getPricingTerms()
+            request.getPricingTerms(),
+            expectedVersion(ifMatch)
         ));
     }
 
@@ -254,36 +326,43 @@ public class OrderController {
     @Operation(summary = "Apply loyalty points", description = "Applies loyalty points to the order.")
     public ResponseEntity<OrderDto> applyLoyaltyPoints(
             @PathVariable Long orderId,
-            @RequestParam Integer points) {
-        return ResponseEntity.ok(orderService.applyLoyaltyPoints(orderId, points));
+            @RequestParam Integer points,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.applyLoyaltyPoints(orderId, points, expectedVersion(ifMatch)));
     }
 
     @PostMapping("/{orderId}/apply-promo")
     @Operation(summary = "Apply promotional code", description = "Applies a promotional code to the order.")
     public ResponseEntity<OrderDto> applyPromoCode(
             @PathVariable Long orderId,
-            @RequestParam String promoCode) {
-        return ResponseEntity.ok(orderService.applyPromoCode(orderId, promoCode));
+            @RequestParam String promoCode,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.applyPromoCode(orderId, promoCode, expectedVersion(ifMatch)));
     }
 
     @PostMapping("/{orderId}/delivery-time-slot")
     @Operation(summary = "Select delivery time slot", description = "Selects a delivery time slot for B2C orders.")
     public ResponseEntity<OrderDto> selectDeliveryTimeSlot(
             @PathVariable Long orderId,
-            @RequestParam LocalDateTime timeSlot) {
-        return ResponseEntity.ok(orderService.selectDeliveryTimeSlot(orderId, timeSlot));
+            @RequestParam LocalDateTime timeSlot,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.selectDeliveryTimeSlot(orderId, timeSlot, expectedVersion(ifMatch)));
     }
 
     @PostMapping("/{orderId}/apply-preferences")
     @Operation(summary = "Apply customer preferences", description = "Applies customer preferences to the order.")
-    public ResponseEntity<OrderDto> applyCustomerPreferences(@PathVariable Long orderId) {
-        return ResponseEntity.ok(orderService.applyCustomerPreferences(orderId));
+    public ResponseEntity<OrderDto> applyCustomerPreferences(
+            @PathVariable Long orderId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.applyCustomerPreferences(orderId, expectedVersion(ifMatch)));
     }
 
     @PostMapping("/{orderId}/calculate-delivery-fee")
     @Operation(summary = "Calculate delivery fee", description = "Calculates delivery fee for B2C orders.")
-    public ResponseEntity<OrderDto> calculateDeliveryFee(@PathVariable Long orderId) {
-        return ResponseEntity.ok(orderService.calculateDeliveryFee(orderId));
+    public ResponseEntity<OrderDto> calculateDeliveryFee(
+            @PathVariable Long orderId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.calculateDeliveryFee(orderId, expectedVersion(ifMatch)));
     }
 
     @PostMapping("/{orderId}/validate-address")
@@ -295,37 +374,44 @@ public class OrderController {
     @PutMapping("/{orderId}/delivery-time-slot")
     public ResponseEntity<OrderDto> setDeliveryTimeSlot(
             @PathVariable Long orderId,
-            @RequestBody DeliveryTimeSlotRequest request) {
-        return ResponseEntity.ok(orderService.setDeliveryTimeSlot(
+            @RequestBody DeliveryTimeSlotRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.setDeliveryTimeSlot(
             orderId,
-            request.getTimeSlot()
+            request.getTimeSlot(),
+            expectedVersion(ifMatch)
         ));
     }
 
     @PutMapping("/{orderId}/confirm-time-slot")
     public ResponseEntity<OrderDto> confirmDeliveryTimeSlot(
-            @PathVariable Long orderId) {
-        return ResponseEntity.ok(orderService.confirmDeliveryTimeSlot(orderId));
+            @PathVariable Long orderId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.confirmDeliveryTimeSlot(orderId, expectedVersion(ifMatch)));
     }
 
     @PutMapping("/{orderId}/contact-details")
     public ResponseEntity<OrderDto> setContactDetails(
             @PathVariable Long orderId,
-            @RequestBody ContactDetailsRequest request) {
-        return ResponseEntity.ok(orderService.setContactDetails(
+            @RequestBody ContactDetailsRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.setContactDetails(
             orderId,
             request.getPhone(),
-            request.getEmail()
+            request.getEmail(),
+            expectedVersion(ifMatch)
         ));
     }
 
     @PutMapping("/{orderId}/loyalty-points")
     public ResponseEntity<OrderDto> applyLoyaltyPoints(
             @PathVariable Long orderId,
-            @RequestBody LoyaltyPointsRequest request) {
-        return ResponseEntity.ok(orderService.applyLoyaltyPoints(
+            @RequestBody LoyaltyPointsRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.applyLoyaltyPoints(
             orderId,
-            request.getPoints()
+            request.getPoints(),
+            expectedVersion(ifMatch)
         ));
     }
 
@@ -338,8 +424,10 @@ public class OrderController {
     // Common Operations
     @PostMapping("/{orderId}/calculate-totals")
     @Operation(summary = "Calculate order totals", description = "Recalculates all totals for the order.")
-    public ResponseEntity<OrderDto> calculateTotals(@PathVariable Long orderId) {
-        return ResponseEntity.ok(orderService.calculateTotals(orderId));
+    public ResponseEntity<OrderDto> calculateTotals(
+            @PathVariable Long orderId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versioned(orderService.calculateTotals(orderId, expectedVersion(ifMatch)));
     }
 
     @PostMapping("/{orderId}/validate")
@@ -366,15 +454,86 @@ public class OrderController {
         return ResponseEntity.ok(orderService.searchOrders(searchTerm));
     }
 
+    /**
+     * @deprecated returns every order with its items in one response; use {@link #getOrderSummariesByDateRange}
+     */
+    @Deprecated
     @GetMapping("/date-range")
-    @Operation(summary = "Get orders by date range", description = "Retrieves orders within a date range.")
+    @Operation(summary = "Get orders by date range", deprecated = true, description = "Retrieves orders within a date range. Deprecated: use /summaries/date-range, which pages through summaries.")
     public ResponseEntity<List<OrderDto>> getOrdersByDateRange(
             @RequestParam LocalDateTime startDate,
             @RequestParam LocalDateTime endDate) {
         return ResponseEntity.ok(orderService.getOrdersByDateRange(startDate, endDate));
     }
 
+    // Order summary listings: one keyset page at a time, without loading the orders' items
+    @GetMapping("/summaries/customer/{customerId}")
+    @Operation(summary = "List order summaries of a customer", description = "Newest first. Pass nextBeforeCreatedAt / nextBeforeId of a page to get the next one.")
+    @ApiResponse(responseCode = "200", description = "Page of order summaries", content = @Content(schema = @Schema(implementation = OrderSummaryPageDto.class)))
+    public ResponseEntity<OrderSummaryPageDto> getOrderSummariesByCustomerId(
+            @Parameter(description = "Customer ID", required = true) @PathVariable Long customerId,
+            @Parameter(description = "Cursor: creation time of the last order of the previous page") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime beforeCreatedAt,
+            @Parameter(description = "Cursor: id of the last order of the previous page") @RequestParam(required = false) Long beforeId,
+            @Parameter(description = "Page size, 50 by default, at most 500") @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(orderSummaryService.findByCustomerId(customerId, beforeCreatedAt, beforeId, limit));
+    }
+
+    @GetMapping("/summaries/status/{status}")
+    @Operation(summary = "List order summaries by status", description = "Newest first. Pass nextBeforeCreatedAt / nextBeforeId of a page to get the next one.")
+    @ApiResponse(responseCode = "200", description = "Page of order summaries", content = @Content(schema = @Schema(implementation = OrderSummaryPageDto.class)))
+    public ResponseEntity<OrderSummaryPageDto> getOrderSummariesByStatus(
+            @Parameter(description = "Order status", required = true, example = "PENDING") @PathVariable OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime beforeCreatedAt,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(orderSummaryService.findByStatus(status, beforeCreatedAt, beforeId, limit));
+    }
+
+    @GetMapping("/summaries/date-range")
+    @Operation(summary = "List order summaries by creation date", description = "Orders created in [from, to), newest first.")
+    @ApiResponse(responseCode = "200", description = "Page of order summaries", content = @Content(schema = @Schema(implementation = OrderSummaryPageDto.class)))
+    public ResponseEntity<OrderSummaryPageDto> getOrderSummariesByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime beforeCreatedAt,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(orderSummaryService.findCreatedBetween(from, to, beforeCreatedAt, beforeId, limit));
+    }
+
     // Request DTOs
+    /**
+     * Returns the order with its version as ETag, which the client sends back as If-Match with its next change.
+     */
+    private static ResponseEntity<OrderDto> versioned(OrderDto order) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (order.getVersion() != null) {
+            response.eTag(order.getVersion().toString());
+        }
+        return response.body(order);
+    }
+
+    /**
+     * @return the order version an If-Match header asks for, null when there is none or it accepts any version
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.valueOf(tag);
+        } catch (NumberFormatException e) {
+            throw new BaseException(ErrorCode.VALIDATION_ERROR, "If-Match must be an order ETag: " + ifMatch);
+        }
+    }
+
     @Data
     public static class BulkOrderRequest {
         private String reference;
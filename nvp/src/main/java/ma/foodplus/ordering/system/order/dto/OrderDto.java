@@ -10,6 +10,7 @@ public class OrderDto {
     private BigDecimal subtotal;
     private BigDecimal total;
     private String status;
+    private Long version;
 
     public OrderDto() {
     }
@@ -70,4 +71,12 @@ public class OrderDto {
     public void setStatus(String status) {
         this.status = status;
     }
-} 
\ No newline at end of file
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,26 @@
+package ma.foodplus.ordering.system.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDto {
+    private Long id;
+    private String orderNumber;
+    private Long customerId;
+    private String status;
+    private String orderType;
+    private BigDecimal subtotal;
+    private BigDecimal total;
+    private Integer itemCount;
+    private ZonedDateTime createdAt;
+    private ZonedDateTime updatedAt;
+}
@@ -0,0 +1,17 @@
+package ma.foodplus.ordering.system.order.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class OrderSummaryPageDto {
+    private List<OrderSummaryDto> orders;
+    // Pass both back as beforeCreatedAt / beforeId to get the next page; null on the last page
+    private ZonedDateTime nextBeforeCreatedAt;
+    private Long nextBeforeId;
+    private boolean hasMore;
+}
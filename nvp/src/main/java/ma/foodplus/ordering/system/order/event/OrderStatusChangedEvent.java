@@ -0,0 +1,25 @@
+package ma.foodplus.ordering.system.order.event;
+
+import ma.foodplus.ordering.system.common.event.OutboxDomainEvent;
+import ma.foodplus.ordering.system.order.model.Order;
+import ma.foodplus.ordering.system.order.model.OrderStatus;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Written to the outbox when an order moves from one status to another.
+ */
+public record OrderStatusChangedEvent(Long orderId, String orderNumber, Long customerId,
+                                      OrderStatus previousStatus, OrderStatus status,
+                                      ZonedDateTime occurredAt) implements OutboxDomainEvent<Order> {
+
+    @Override
+    public String aggregateType() {
+        return "Order";
+    }
+
+    @Override
+    public String aggregateId() {
+        return String.valueOf(orderId);
+    }
+}
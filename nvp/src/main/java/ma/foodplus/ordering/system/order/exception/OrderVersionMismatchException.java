@@ -0,0 +1,13 @@
+package ma.foodplus.ordering.system.order.exception;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * The client changed an order based on a version that is no longer current. Handled like any other
+ * optimistic locking failure, with a 409.
+ */
+public class OrderVersionMismatchException extends OptimisticLockingFailureException {
+    public OrderVersionMismatchException(Long orderId, Long expectedVersion, Long actualVersion) {
+        super(String.format("Order %d is at version %d, not %d", orderId, actualVersion, expectedVersion));
+    }
+}
@@ -2,8 +2,10 @@ package ma.foodplus.ordering.system.order.mapper;
 
 import ma.foodplus.ordering.system.order.dto.OrderDto;
 import ma.foodplus.ordering.system.order.dto.OrderItemDto;
+import ma.foodplus.ordering.system.order.dto.OrderSummaryDto;
 import ma.foodplus.ordering.system.order.model.Order;
 import ma.foodplus.ordering.system.order.model.OrderItem;
+import ma.foodplus.ordering.system.order.model.OrderSummary;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
@@ -21,12 +23,14 @@ public interface OrderMapper {
     @Mapping(target = "subtotal", source = "subtotal")
     @Mapping(target = "total", source = "total")
     @Mapping(target = "status", source = "status")
+    @Mapping(target = "version", source = "version")
     OrderDto toDto(Order order);
     
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "items", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Order toEntity(OrderDto orderDto);
     
     @Mapping(target = "productId", source = "productId")
@@ -41,6 +45,7 @@ public interface OrderMapper {
     
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "order", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "createdAt", expression = "java(java.time.ZonedDateTime.now())")
     @Mapping(target = "updatedAt", expression = "java(java.time.ZonedDateTime.now())")
     @Mapping(target = "productId", source = "productId")
@@ -57,4 +62,7 @@ public interface OrderMapper {
     @Mapping(target = "appliedPromotions", ignore = true)
     @Mapping(target = "totalPrice", expression = "java(orderItemDto.getUnitPrice() != null && orderItemDto.getQuantity() != null ? orderItemDto.getUnitPrice().multiply(new java.math.BigDecimal(orderItemDto.getQuantity())) : java.math.BigDecimal.ZERO)")
     OrderItem toOrderItem(OrderItemDto orderItemDto);
-} 
\ No newline at end of file
+
+    @Mapping(target = "id", source = "orderId")
+    OrderSummaryDto toSummaryDto(OrderSummary summary);
+}
@@ -2,13 +2,13 @@ package ma.foodplus.ordering.system.order.model;
 
 import jakarta.persistence.*;
 import ma.foodplus.ordering.system.order.exception.InvalidOrderStatusTransitionException;
-import ma.foodplus.ordering.system.promos.dto.OrdertemDto;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -147,6 +147,11 @@ public class Order {
     @Column(name = "updated_at")
     private ZonedDateTime updatedAt;
 
+    // Optimistic lock of the whole aggregate: item changes force an increment through the repository
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "cancelled_at")
     private ZonedDateTime cancelledAt;
 
@@ -227,6 +232,20 @@ public class Order {
     @Column(name = "loyalty_member_id")
     private String loyaltyMemberId;
 
+    // Running sums over the items, adjusted as items are added, removed or repriced instead of rescanning
+    // them. Not trusted after loading until the first full pass over the items.
+    @Transient
+    private BigDecimal itemsSubtotal = BigDecimal.ZERO;
+
+    @Transient
+    private BigDecimal itemsDiscount = BigDecimal.ZERO;
+
+    @Transient
+    private BigDecimal itemsTax = BigDecimal.ZERO;
+
+    @Transient
+    private boolean runningTotalsValid;
+
     // Constructors
     public Order() {
     }
@@ -238,35 +257,45 @@ public class Order {
         this.updatedAt = ZonedDateTime.now();
     }
 
-    public Order(Long customerId, List<OrdertemDto> cartItems) {
-        this.customerId = customerId;
-        this.status = OrderStatus.DRAFT;
-        this.createdAt = ZonedDateTime.now();
-        this.updatedAt = ZonedDateTime.now();
-        for (OrdertemDto item : cartItems) {
-            OrderItem orderItem = new OrderItem(item);
-            addItem(orderItem);
-        }
-        recalculateTotals();
-    }
-
     // Business Logic Methods
     public void addItem(OrderItem item) {
         if (status != OrderStatus.DRAFT) {
             throw new IllegalStateException("Cannot add items to an order that is not in DRAFT status");
         }
+        ensureRunningTotals();
         items.add(item);
         item.setOrder(this);
-        recalculateTotals();
+        countItem(item);
+        applyRunningTotals();
+    }
+
+    /**
+     * Adds many items with a single totals update.
+     */
+    public void addItems(Collection<OrderItem> newItems) {
+        if (status != OrderStatus.DRAFT) {
+            throw new IllegalStateException("Cannot add items to an order that is not in DRAFT status");
+        }
+        ensureRunningTotals();
+        for (OrderItem item : newItems) {
+            items.add(item);
+            item.setOrder(this);
+            countItem(item);
+        }
+        applyRunningTotals();
     }
 
     public void removeItem(OrderItem item) {
         if (status != OrderStatus.DRAFT) {
             throw new IllegalStateException("Cannot remove items from an order that is not in DRAFT status");
         }
-        items.remove(item);
+        ensureRunningTotals();
+        // By identity: unsaved items have no id yet and would all be equal
+        if (items.removeIf(existing -> existing == item)) {
+            uncountItem(item);
+        }
         item.setOrder(null);
-        recalculateTotals();
+        applyRunningTotals();
     }
 
     public void updateItemQuantity(OrderItem item, Integer newQuantity) {
@@ -274,25 +303,111 @@ public class Order {
             throw new IllegalStateException("Cannot update item quantity in an order that is not in DRAFT status");
         }
         if (items.contains(item)) {
+            ensureRunningTotals();
+            // Reported back through onItemTotalsChanged
             item.setQuantity(newQuantity);
-            recalculateTotals();
+            applyRunningTotals();
         }
     }
 
+    /**
+     * Recomputes the totals with a full pass over the items, resetting the running sums.
+     */
     public void recalculateTotals() {
-        this.subtotal = items.stream()
-                .map(OrderItem::getOriginalTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        this.totalDiscount = items.stream()
-                .map(OrderItem::getDiscountAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .add(loyaltyDiscountApplied);
-        
-        this.totalTax = items.stream()
-                .map(OrderItem::getTaxAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
+        runningTotalsValid = false;
+        ensureRunningTotals();
+        applyRunningTotals();
+    }
+
+    /**
+     * Checks the running sums against a full pass over the items and falls back to the full pass when they
+     * disagree.
+     *
+     * @return false if the running sums had drifted from the items
+     */
+    public boolean verifyTotals() {
+        if (!runningTotalsValid) {
+            recalculateTotals();
+            return true;
+        }
+        BigDecimal subtotalCheck = BigDecimal.ZERO;
+        BigDecimal discountCheck = BigDecimal.ZERO;
+        BigDecimal taxCheck = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            subtotalCheck = subtotalCheck.add(item.getOriginalTotalPrice());
+            discountCheck = discountCheck.add(item.getDiscountAmount());
+            taxCheck = taxCheck.add(item.getTaxAmount());
+        }
+        boolean consistent = subtotalCheck.compareTo(itemsSubtotal) == 0
+                && discountCheck.compareTo(itemsDiscount) == 0
+                && taxCheck.compareTo(itemsTax) == 0;
+        if (consistent) {
+            applyRunningTotals();
+        } else {
+            recalculateTotals();
+        }
+        return consistent;
+    }
+
+    /**
+     * Called by an item of this order after its price, quantity, discount or tax changed.
+     */
+    void onItemTotalsChanged(OrderItem item) {
+        if (!runningTotalsValid) {
+            return;
+        }
+        BigDecimal itemSubtotal = item.getOriginalTotalPrice();
+        itemsSubtotal = itemsSubtotal.add(itemSubtotal.subtract(item.countedSubtotal));
+        itemsDiscount = itemsDiscount.add(item.getDiscountAmount().subtract(item.countedDiscount));
+        itemsTax = itemsTax.add(item.getTaxAmount().subtract(item.countedTax));
+        item.countedSubtotal = itemSubtotal;
+        item.countedDiscount = item.getDiscountAmount();
+        item.countedTax = item.getTaxAmount();
+    }
+
+    private void ensureRunningTotals() {
+        if (runningTotalsValid) {
+            return;
+        }
+        itemsSubtotal = BigDecimal.ZERO;
+        itemsDiscount = BigDecimal.ZERO;
+        itemsTax = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            countItem(item);
+        }
+        runningTotalsValid = true;
+    }
+
+    private void countItem(OrderItem item) {
+        item.countedSubtotal = item.getOriginalTotalPrice();
+        item.countedDiscount = item.getDiscountAmount();
+        item.countedTax = item.getTaxAmount();
+        itemsSubtotal = itemsSubtotal.add(item.countedSubtotal);
+        itemsDiscount = itemsDiscount.add(item.countedDiscount);
+        itemsTax = itemsTax.add(item.countedTax);
+    }
+
+    private void uncountItem(OrderItem item) {
+        itemsSubtotal = itemsSubtotal.subtract(item.countedSubtotal);
+        itemsDiscount = itemsDiscount.subtract(item.countedDiscount);
+        itemsTax = itemsTax.subtract(item.countedTax);
+        item.countedSubtotal = BigDecimal.ZERO;
+        item.countedDiscount = BigDecimal.ZERO;
+        item.countedTax = BigDecimal.ZERO;
+    }
+
+    /**
+     * Derives the order totals from the running sums, bringing them up to date first if needed.
+     */
+    private void refreshTotals() {
+        ensureRunningTotals();
+        applyRunningTotals();
+    }
+
+    private void applyRunningTotals() {
+        this.subtotal = itemsSubtotal;
+        this.totalDiscount = itemsDiscount.add(loyaltyDiscountApplied);
+        this.totalTax = itemsTax;
         this.total = this.subtotal
                 .subtract(this.totalDiscount)
                 .add(this.totalTax)
@@ -307,6 +422,7 @@ public class Order {
 
     public void applyBulkDiscount() {
         if (isEligibleForBulkDiscount() && bulkDiscountPercentage != null) {
+            ensureRunningTotals();
             items.forEach(item -> {
                 if (item.getQuantity() >= item.getBulkQuantityThreshold()) {
                     BigDecimal discount = item.getOriginalTotalPrice()
@@ -315,7 +431,7 @@ public class Order {
                     item.applyDiscount(discount);
                 }
             });
-            recalculateTotals();
+            applyRunningTotals();
         }
     }
 
@@ -338,11 +454,12 @@ public class Order {
     }
 
     public void applyPromotion(String promotionCode, String description, List<OrderItem> affectedItems, BigDecimal discountAmount) {
+        ensureRunningTotals();
         affectedItems.forEach(item -> {
             item.setAppliedPromotionCode(promotionCode);
             item.applyDiscount(discountAmount.divide(BigDecimal.valueOf(affectedItems.size()), 2, BigDecimal.ROUND_HALF_UP));
         });
-        recalculateTotals();
+        applyRunningTotals();
     }
 
     // Lifecycle Methods
@@ -374,6 +491,10 @@ public class Order {
         if (this.status != null && !OrderStatusTransition.isValidTransition(this.status, newStatus)) {
             throw new InvalidOrderStatusTransitionException(this.status, newStatus);
         }
+        if (this.status == OrderStatus.DRAFT && newStatus != OrderStatus.DRAFT) {
+            // The totals become binding: check the running sums against the items once
+            verifyTotals();
+        }
         this.status = newStatus;
         this.updatedAt = ZonedDateTime.now();
         
@@ -420,6 +541,14 @@ public class Order {
         return id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -539,7 +668,7 @@ public class Order {
 
     public void setShippingCost(BigDecimal shippingCost) {
         this.shippingCost = shippingCost;
-        recalculateTotals();
+        refreshTotals();
     }
 
     public void setPaymentTerms(String paymentTerms) {
@@ -620,15 +749,26 @@ public class Order {
         this.loyaltyDiscountApplied = BigDecimal.valueOf(pointsToRedeem)
             .divide(BigDecimal.valueOf(100))
             .setScale(2, BigDecimal.ROUND_HALF_UP);
-        recalculateTotals();
+        refreshTotals();
     }
 
     public void calculateLoyaltyPointsEarned() {
         if (orderType != OrderType.B2C) {
             return;
         }
+        this.loyaltyPointsEarned = loyaltyPointsForTotal();
+    }
+
+    /**
+     * The points the order earns, computed without touching the entity.
+     */
+    public int loyaltyPointsForTotal() {
         // Example: 1 point per $1 spent
-        this.loyaltyPointsEarned = total.intValue();
+        return orderType == OrderType.B2C && total != null ? total.intValue() : 0;
+    }
+
+    public Integer getLoyaltyPointsEarned() {
+        return loyaltyPointsEarned;
     }
 
     @Override
@@ -95,6 +95,20 @@ public class OrderItem {
     @Column(name = "updated_at")
     private ZonedDateTime updatedAt;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // What this item currently adds to its order's running totals, maintained by Order
+    @Transient
+    BigDecimal countedSubtotal = BigDecimal.ZERO;
+
+    @Transient
+    BigDecimal countedDiscount = BigDecimal.ZERO;
+
+    @Transient
+    BigDecimal countedTax = BigDecimal.ZERO;
+
     // Constructors
     public OrderItem() {
     }
@@ -192,6 +206,9 @@ public class OrderItem {
                     .subtract(discountAmount)
                     .add(taxAmount);
         }
+        if (this.order != null) {
+            this.order.onItemTotalsChanged(this);
+        }
     }
 
     public int getRemainingQuantityForRewards() {
@@ -213,6 +230,14 @@ public class OrderItem {
         return id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
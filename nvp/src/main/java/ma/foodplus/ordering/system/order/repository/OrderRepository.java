@@ -1,14 +1,22 @@
 package ma.foodplus.ordering.system.order.repository;
 
+import jakarta.persistence.LockModeType;
 import ma.foodplus.ordering.system.order.model.Order;
 import ma.foodplus.ordering.system.order.model.OrderStatus;
+import ma.foodplus.ordering.system.order.model.PaymentMethod;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -16,9 +24,69 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByStatus(OrderStatus status);
     List<Order> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
 
+    /**
+     * Loads the order for a change of its items: its version is bumped at commit even when only item rows
+     * change, so two concurrent edits of the same order always conflict.
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findForItemChangeById(@Param("id") Long id);
+
+    /**
+     * Loads the order with its row locked until commit, so follow-up work on the same order runs one at a time.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> lockById(@Param("id") Long id);
+
     @Query("SELECT o FROM Order o WHERE " +
            "LOWER(o.orderNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
            "LOWER(o.referenceNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
            "LOWER(o.poNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
     List<Order> searchOrders(@Param("searchTerm") String searchTerm);
-} 
\ No newline at end of file
+
+    long countByCreatedAtGreaterThanEqualAndCreatedAtLessThan(ZonedDateTime from, ZonedDateTime to);
+
+    /**
+     * Keyset page of the ids of orders created in {@code [from, to)}, after {@code afterId}.
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.createdAt >= :from AND o.createdAt < :to AND o.id > :afterId ORDER BY o.id")
+    List<Long> findIdsCreatedBetween(@Param("from") ZonedDateTime from, @Param("to") ZonedDateTime to,
+                                     @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Lines of the given orders, grouped by order in item order. Items only keep the family id, so the
+     * family code is the family's current one; promo family conditions match on it when orders are replayed.
+     */
+    @Query("SELECT o.id AS orderId, o.customerId AS customerId, o.paymentMethod AS paymentMethod, " +
+           "o.createdAt AS createdAt, i.productId AS productId, i.productFamilyId AS productFamilyId, " +
+           "f.code AS productFamilyCode, i.productName AS productName, i.unitPrice AS unitPrice, " +
+           "i.quantity AS quantity, i.skuPoints AS skuPoints " +
+           "FROM OrderItem i JOIN i.order o LEFT JOIN ProductFamily f ON f.id = i.productFamilyId " +
+           "WHERE o.id IN :ids ORDER BY o.id, i.id")
+    List<HistoricalLineRow> findHistoricalLines(@Param("ids") Collection<Long> ids);
+
+    interface HistoricalLineRow {
+        Long getOrderId();
+
+        Long getCustomerId();
+
+        PaymentMethod getPaymentMethod();
+
+        ZonedDateTime getCreatedAt();
+
+        Long getProductId();
+
+        Long getProductFamilyId();
+
+        String getProductFamilyCode();
+
+        String getProductName();
+
+        BigDecimal getUnitPrice();
+
+        Integer getQuantity();
+
+        BigDecimal getSkuPoints();
+    }
+}
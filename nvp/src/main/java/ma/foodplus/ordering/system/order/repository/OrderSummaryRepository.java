@@ -0,0 +1,51 @@
+package ma.foodplus.ordering.system.order.repository;
+
+import ma.foodplus.ordering.system.order.model.OrderSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keyset pages of order summaries, newest first: each page starts strictly before the
+ * {@code (createdAt, orderId)} of the last row of the previous one, so a page costs the same at any depth.
+ */
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+
+    @Query(value = "SELECT * FROM order_summary WHERE customer_id = :customerId " +
+                   "AND (created_at, order_id) < (:beforeCreatedAt, :beforeId) " +
+                   "ORDER BY created_at DESC, order_id DESC LIMIT :limit", nativeQuery = true)
+    List<OrderSummary> findPageByCustomerId(@Param("customerId") Long customerId,
+                                            @Param("beforeCreatedAt") ZonedDateTime beforeCreatedAt,
+                                            @Param("beforeId") Long beforeId,
+                                            @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM order_summary WHERE status = :status " +
+                   "AND (created_at, order_id) < (:beforeCreatedAt, :beforeId) " +
+                   "ORDER BY created_at DESC, order_id DESC LIMIT :limit", nativeQuery = true)
+    List<OrderSummary> findPageByStatus(@Param("status") String status,
+                                        @Param("beforeCreatedAt") ZonedDateTime beforeCreatedAt,
+                                        @Param("beforeId") Long beforeId,
+                                        @Param("limit") int limit);
+
+    /**
+     * Orders created in {@code [from, to)}.
+     */
+    @Query(value = "SELECT * FROM order_summary WHERE created_at >= :from AND created_at < :to " +
+                   "AND (created_at, order_id) < (:beforeCreatedAt, :beforeId) " +
+                   "ORDER BY created_at DESC, order_id DESC LIMIT :limit", nativeQuery = true)
+    List<OrderSummary> findPageCreatedBetween(@Param("from") ZonedDateTime from,
+                                              @Param("to") ZonedDateTime to,
+                                              @Param("beforeCreatedAt") ZonedDateTime beforeCreatedAt,
+                                              @Param("beforeId") Long beforeId,
+                                              @Param("limit") int limit);
+
+    @Query(value = "SELECT order_id FROM order_summary WHERE customer_id = :customerId " +
+                   "ORDER BY created_at DESC, order_id DESC LIMIT 1", nativeQuery = true)
+    Optional<Long> findLatestOrderIdByCustomerId(@Param("customerId") Long customerId);
+}
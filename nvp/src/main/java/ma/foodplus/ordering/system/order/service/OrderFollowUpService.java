@@ -0,0 +1,186 @@
+package ma.foodplus.ordering.system.order.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.customer.event.CustomerChangedEvent;
+import ma.foodplus.ordering.system.customer.repository.CustomerRepository;
+import ma.foodplus.ordering.system.inventory.model.ProductStock;
+import ma.foodplus.ordering.system.inventory.repository.ProductStockRepository;
+import ma.foodplus.ordering.system.inventory.service.ProductStockService;
+import ma.foodplus.ordering.system.order.exception.OrderNotFoundException;
+import ma.foodplus.ordering.system.order.model.Order;
+import ma.foodplus.ordering.system.order.model.OrderItem;
+import ma.foodplus.ordering.system.order.model.OrderStatus;
+import ma.foodplus.ordering.system.order.model.OrderType;
+import ma.foodplus.ordering.system.order.repository.OrderRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+/**
+ * The work that follows an order status change, one method per {@link OrderPipeline} stage. Each runs in
+ * the transaction of its pipeline task and may run again after a failure or on another instance, so each
+ * is idempotent: reservations are recorded per order, and loyalty and statistics rollups record the order
+ * in {@code order_follow_ups} with their update. Stock work locks the order row first, so a reservation and
+ * a release of the same order never interleave, whichever instance runs them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class OrderFollowUpService {
+
+    private static final String HAS_RESERVATIONS =
+            "SELECT EXISTS (SELECT 1 FROM order_stock_reservations WHERE order_id = ?)";
+    private static final String FIND_RESERVATIONS =
+            "SELECT product_stock_id, quantity FROM order_stock_reservations WHERE order_id = ?";
+    private static final String INSERT_RESERVATION =
+            "INSERT INTO order_stock_reservations (order_id, product_stock_id, quantity, created_at) VALUES (?, ?, ?, ?)";
+    private static final String DELETE_RESERVATIONS =
+            "DELETE FROM order_stock_reservations WHERE order_id = ?";
+    private static final String RECORD_FOLLOW_UP =
+            "INSERT INTO order_follow_ups (order_id, stage) VALUES (?, ?) ON CONFLICT DO NOTHING";
+
+    /**
+     * Statuses in which a confirmed order holds its stock.
+     */
+    private static final Set<OrderStatus> HOLDS_STOCK =
+            EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.PREPARING, OrderStatus.READY, OrderStatus.DELIVERING);
+
+    private final OrderRepository orderRepository;
+    private final ProductStockRepository productStockRepository;
+    private final ProductStockService productStockService;
+    private final CustomerRepository customerRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserves the ordered quantities on the product's stock rows, oldest rows first, and records what was
+     * taken from each row. Quantities no row can cover are logged and left unreserved. Does nothing when
+     * the order already holds reservations, or no longer needs them because it was delivered, cancelled or
+     * refunded before this ran: the release of that change may already have run and found nothing to release.
+     */
+    public void reserveStock(Long orderId) {
+        Order order = orderRepository.lockById(orderId)
+                .orElseThrow(() -> new OrderNotFoundException(orderId));
+        if (!HOLDS_STOCK.contains(order.getStatus())) {
+            log.debug("Order {} is {}, not reserving its stock", orderId, order.getStatus());
+            return;
+        }
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(HAS_RESERVATIONS, Boolean.class, orderId))) {
+            return;
+        }
+
+        // Products in id order, so two orders locking the same products cannot deadlock
+        Map<Long, BigDecimal> orderedQuantities = new TreeMap<>();
+        for (OrderItem item : order.getItems()) {
+            orderedQuantities.merge(item.getProductId(), BigDecimal.valueOf(item.getQuantity()), BigDecimal::add);
+        }
+
+        List<Object[]> reservations = new ArrayList<>();
+        ZonedDateTime now = ZonedDateTime.now();
+        for (Map.Entry<Long, BigDecimal> ordered : orderedQuantities.entrySet()) {
+            BigDecimal missing = ordered.getValue();
+            for (ProductStock stock : productStockRepository.lockUnreservedByProductId(ordered.getKey())) {
+                if (missing.signum() <= 0) {
+                    break;
+                }
+                BigDecimal taken = stock.getQuantity().subtract(stock.getReservedQuantity()).min(missing);
+                productStockService.reserveStock(stock.getId(), taken);
+                reservations.add(new Object[]{orderId, stock.getId(), taken, now.toOffsetDateTime()});
+                missing = missing.subtract(taken);
+            }
+            if (missing.signum() > 0) {
+                log.warn("Order {}: {} of product {} could not be reserved", orderId, missing, ordered.getKey());
+            }
+        }
+        if (!reservations.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_RESERVATION, reservations);
+        }
+    }
+
+    /**
+     * Gives back what {@link #reserveStock} took for a cancelled or refunded order. Does nothing when it
+     * holds no reservations.
+     */
+    public void releaseStock(Long orderId) {
+        settleReservations(orderId, productStockService::releaseReservedStock);
+    }
+
+    /**
+     * Takes what {@link #reserveStock} took for a delivered order out of stock: the on-hand and reserved
+     * quantities both go down. Does nothing when it holds no reservations.
+     */
+    public void consumeStock(Long orderId) {
+        settleReservations(orderId, productStockService::consumeReservedStock);
+    }
+
+    private void settleReservations(Long orderId, BiConsumer<Long, BigDecimal> settle) {
+        orderRepository.lockById(orderId)
+                .orElseThrow(() -> new OrderNotFoundException(orderId));
+        Map<Long, BigDecimal> reserved = new HashMap<>();
+        jdbcTemplate.query(FIND_RESERVATIONS,
+                rs -> { reserved.put(rs.getLong("product_stock_id"), rs.getBigDecimal("quantity")); }, orderId);
+        if (reserved.isEmpty()) {
+            return;
+        }
+        for (ProductStock stock : productStockRepository.lockAllById(reserved.keySet())) {
+            // Never below zero, whatever was changed on the row by hand since
+            BigDecimal settled = reserved.get(stock.getId()).min(stock.getReservedQuantity()).min(stock.getQuantity());
+            if (settled.signum() > 0) {
+                settle.accept(stock.getId(), settled);
+            }
+        }
+        jdbcTemplate.update(DELETE_RESERVATIONS, orderId);
+    }
+
+    /**
+     * Computes the points a delivered B2C order earns and credits them to the customer, once per order.
+     */
+    public void creditLoyaltyPoints(Long orderId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new OrderNotFoundException(orderId));
+        if (order.getOrderType() != OrderType.B2C || !recordFollowUp(orderId, OrderPipeline.Stage.LOYALTY)) {
+            return;
+        }
+        // Computed, not stored: writing the order here would bypass OrderServiceImpl.save and bump its version
+        int points = order.loyaltyPointsForTotal();
+        if (points > 0) {
+            customerRepository.addLoyaltyPoints(order.getCustomerId(), points);
+            eventPublisher.publishEvent(new CustomerChangedEvent(order.getCustomerId()));
+        }
+    }
+
+    /**
+     * Adds a delivered order to the customer's order count, total spent and average order value, once per order.
+     */
+    public void recordCustomerOrder(Long orderId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new OrderNotFoundException(orderId));
+        if (!recordFollowUp(orderId, OrderPipeline.Stage.CUSTOMER_STATS)) {
+            return;
+        }
+        customerRepository.recordOrder(order.getCustomerId(), order.getTotal(), order.getCreatedAt());
+        eventPublisher.publishEvent(new CustomerChangedEvent(order.getCustomerId()));
+    }
+
+    /**
+     * @return false when the stage was already applied to the order
+     */
+    private boolean recordFollowUp(Long orderId, OrderPipeline.Stage stage) {
+        return jdbcTemplate.update(RECORD_FOLLOW_UP, orderId, stage.name()) > 0;
+    }
+}
@@ -0,0 +1,363 @@
+package ma.foodplus.ordering.system.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.common.event.OutboxMessage;
+import ma.foodplus.ordering.system.order.configuration.OrderProperties;
+import ma.foodplus.ordering.system.order.event.OrderStatusChangedEvent;
+import ma.foodplus.ordering.system.order.model.OrderStatus;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs the follow-up work of order status changes after the change has committed, so a status request is
+ * a single short transaction: stock is reserved on confirmation, taken out of stock on delivery and released
+ * on cancellation or refund, and a delivered order credits loyalty points and rolls up into the customer's
+ * statistics.
+ * <p>
+ * The pipeline is fed by the {@link OrderStatusChangedEvent}s that the outbox relay republishes: each event
+ * becomes one {@code order_pipeline_tasks} row per stage, written in the relay's transaction, so the outbox
+ * event is only acknowledged once its work is durably queued. Each stage has its own worker threads that
+ * claim due tasks with {@code FOR UPDATE SKIP LOCKED} and run the work and mark the task DONE in the same
+ * transaction; a task waits while an earlier task of the same order and stage is pending, so an order's
+ * changes are applied in order on any instance. A failed task is rescheduled with a doubling backoff in a
+ * transaction of its own and marked FAILED after {@code max-attempts}, left in the table for inspection.
+ */
+@Slf4j
+@Component
+public class OrderPipeline {
+
+    public static final String METRICS_PREFIX = "foodplus.order.pipeline";
+
+    public enum Stage {
+        RESERVATION, LOYALTY, CUSTOMER_STATS
+    }
+
+    private static final String EVENT_TYPE = OrderStatusChangedEvent.class.getSimpleName();
+
+    private static final Duration QUEUED_GAUGE_INTERVAL = Duration.ofSeconds(10);
+
+    private static final String INSERT_TASK =
+            "INSERT INTO order_pipeline_tasks (outbox_event_id, order_id, stage, order_status, status, " +
+            "next_attempt_at, occurred_at) VALUES (?, ?, ?, ?, 'PENDING', ?, ?) " +
+            "ON CONFLICT (outbox_event_id, stage) DO NOTHING";
+    private static final String CLAIM_TASK =
+            "SELECT t.id, t.order_id, t.order_status, t.attempts, t.occurred_at FROM order_pipeline_tasks t " +
+            "WHERE t.stage = ? AND t.status = 'PENDING' AND t.next_attempt_at <= ? " +
+            "AND NOT EXISTS (SELECT 1 FROM order_pipeline_tasks e WHERE e.order_id = t.order_id " +
+            "AND e.stage = t.stage AND e.status = 'PENDING' AND e.outbox_event_id < t.outbox_event_id) " +
+            "ORDER BY t.next_attempt_at, t.id LIMIT 1 FOR UPDATE SKIP LOCKED";
+    private static final String MARK_DONE =
+            "UPDATE order_pipeline_tasks SET status = 'DONE', attempts = attempts + 1, processed_at = ?, " +
+            "last_error = NULL WHERE id = ?";
+    private static final String MARK_RETRY =
+            "UPDATE order_pipeline_tasks SET attempts = ?, next_attempt_at = ?, last_error = ? WHERE id = ?";
+    private static final String MARK_FAILED =
+            "UPDATE order_pipeline_tasks SET status = 'FAILED', attempts = ?, processed_at = ?, last_error = ? " +
+            "WHERE id = ?";
+    private static final String COUNT_PENDING =
+            "SELECT count(*) FROM order_pipeline_tasks WHERE stage = ? AND status = 'PENDING'";
+    private static final String DELETE_DONE =
+            "DELETE FROM order_pipeline_tasks WHERE status = 'DONE' AND processed_at < ?";
+
+    private record Task(long id, Long orderId, OrderStatus orderStatus, int attempts, OffsetDateTime occurredAt) {
+    }
+
+    private final OrderFollowUpService followUpService;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderProperties.Pipeline settings;
+    private final Map<Stage, StageWorkers> stages = new EnumMap<>(Stage.class);
+    private volatile boolean running;
+
+    public OrderPipeline(OrderFollowUpService followUpService,
+                         ObjectMapper objectMapper,
+                         JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         OrderProperties orderProperties,
+                         MeterRegistry meterRegistry) {
+        this.followUpService = followUpService;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settings = orderProperties.getPipeline();
+        stages.put(Stage.RESERVATION, new StageWorkers(Stage.RESERVATION, settings.getReservation(), meterRegistry));
+        stages.put(Stage.LOYALTY, new StageWorkers(Stage.LOYALTY, settings.getLoyalty(), meterRegistry));
+        stages.put(Stage.CUSTOMER_STATS,
+                new StageWorkers(Stage.CUSTOMER_STATS, settings.getCustomerStats(), meterRegistry));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        running = true;
+        stages.values().forEach(StageWorkers::start);
+    }
+
+    /**
+     * Stops claiming tasks and lets the running ones finish; tasks not done stay queued in the table.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        stages.values().forEach(StageWorkers::wakeUp);
+        for (StageWorkers stage : stages.values()) {
+            stage.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Queues the follow-up work of a status change in the relay's transaction. Runs whether or not this
+     * instance works on the pipeline, so events relayed here are never lost.
+     */
+    @EventListener
+    public void onOutboxMessage(OutboxMessage message) {
+        if (!EVENT_TYPE.equals(message.eventType())) {
+            return;
+        }
+        OrderStatusChangedEvent event;
+        try {
+            event = objectMapper.treeToValue(message.payload(), OrderStatusChangedEvent.class);
+        } catch (JsonProcessingException e) {
+            // Redelivery cannot fix the payload
+            log.error("Unreadable {} in outbox event {}: {}", EVENT_TYPE, message.id(), e.getMessage());
+            return;
+        }
+
+        List<Stage> followUps = switch (event.status()) {
+            case CONFIRMED, CANCELLED, REFUNDED -> List.of(Stage.RESERVATION);
+            case DELIVERED -> List.of(Stage.RESERVATION, Stage.LOYALTY, Stage.CUSTOMER_STATS);
+            default -> List.of();
+        };
+        if (followUps.isEmpty()) {
+            return;
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime occurredAt = event.occurredAt() != null ? event.occurredAt().toOffsetDateTime() : null;
+        List<Object[]> rows = new ArrayList<>(followUps.size());
+        for (Stage stage : followUps) {
+            rows.add(new Object[]{message.id(), event.orderId(), stage.name(), event.status().name(), now, occurredAt});
+        }
+        jdbcTemplate.batchUpdate(INSERT_TASK, rows);
+        wakeUpAfterCommit(followUps);
+    }
+
+    @Scheduled(cron = "${foodplus.order.pipeline.cleanup-cron:0 45 3 * * *}")
+    public void deleteDone() {
+        ZonedDateTime before = ZonedDateTime.now().minus(settings.getRetention());
+        int deleted = jdbcTemplate.update(DELETE_DONE, before.toOffsetDateTime());
+        log.info("Deleted {} order pipeline tasks done before {}", deleted, before);
+    }
+
+    private void wakeUpAfterCommit(List<Stage> followUps) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            followUps.forEach(stage -> stages.get(stage).wakeUp());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                followUps.forEach(stage -> stages.get(stage).wakeUp());
+            }
+        });
+    }
+
+    private void perform(Stage stage, Task task) {
+        switch (stage) {
+            case RESERVATION -> {
+                switch (task.orderStatus()) {
+                    case CONFIRMED -> followUpService.reserveStock(task.orderId());
+                    case DELIVERED -> followUpService.consumeStock(task.orderId());
+                    default -> followUpService.releaseStock(task.orderId());
+                }
+            }
+            case LOYALTY -> followUpService.creditLoyaltyPoints(task.orderId());
+            case CUSTOMER_STATS -> followUpService.recordCustomerOrder(task.orderId());
+        }
+    }
+
+    /**
+     * The worker threads of one stage, each claiming and running one task per transaction.
+     */
+    private final class StageWorkers {
+
+        private final Stage stage;
+        private final OrderProperties.Stage stageSettings;
+        private final List<Thread> workers = new ArrayList<>();
+        private final Object signal = new Object();
+        private final Counter completed;
+        private final Counter retried;
+        private final Counter failed;
+        private final Timer duration;
+        private final Timer lag;
+        private final AtomicLong queued = new AtomicLong();
+        private volatile long queuedRefreshedAt;
+
+        private StageWorkers(Stage stage, OrderProperties.Stage stageSettings, MeterRegistry meterRegistry) {
+            this.stage = stage;
+            this.stageSettings = stageSettings;
+            String tag = stage.name().toLowerCase();
+            this.completed = Counter.builder(METRICS_PREFIX + ".tasks").tag("stage", tag).tag("outcome", "completed")
+                    .register(meterRegistry);
+            this.retried = Counter.builder(METRICS_PREFIX + ".tasks").tag("stage", tag).tag("outcome", "retried")
+                    .description("Failed attempts that will be retried")
+                    .register(meterRegistry);
+            this.failed = Counter.builder(METRICS_PREFIX + ".tasks").tag("stage", tag).tag("outcome", "failed")
+                    .description("Tasks that exhausted their attempts")
+                    .register(meterRegistry);
+            this.duration = Timer.builder(METRICS_PREFIX + ".duration").tag("stage", tag)
+                    .description("Time to run one task attempt")
+                    .register(meterRegistry);
+            this.lag = Timer.builder(METRICS_PREFIX + ".lag").tag("stage", tag)
+                    .description("Time from the status change to the first attempt of its task")
+                    .register(meterRegistry);
+            Gauge.builder(METRICS_PREFIX + ".queued", queued, AtomicLong::get).tag("stage", tag)
+                    .description("Pending tasks of the stage, refreshed while it polls")
+                    .register(meterRegistry);
+        }
+
+        void start() {
+            String threadName = "order-pipeline-" + stage.name().toLowerCase().replace('_', '-') + "-";
+            for (int i = 0; i < Math.max(1, stageSettings.getThreads()); i++) {
+                workers.add(Thread.ofPlatform().daemon().name(threadName + i).start(this::workLoop));
+            }
+        }
+
+        void wakeUp() {
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+        }
+
+        void join(long timeoutMillis) throws InterruptedException {
+            for (Thread worker : workers) {
+                worker.join(timeoutMillis);
+            }
+        }
+
+        private void workLoop() {
+            long pollMillis = Math.max(1, settings.getPollInterval().toMillis());
+            while (running) {
+                boolean ran;
+                try {
+                    ran = runNext();
+                    refreshQueued();
+                } catch (RuntimeException e) {
+                    log.warn("Order pipeline stage {} could not poll: {}", stage, e.getMessage());
+                    ran = false;
+                }
+                if (!ran) {
+                    synchronized (signal) {
+                        try {
+                            signal.wait(pollMillis);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return whether a task was claimed
+         */
+        private boolean runNext() {
+            AtomicReference<Task> claimed = new AtomicReference<>();
+            try {
+                return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                    Task task = claim();
+                    if (task == null) {
+                        return false;
+                    }
+                    claimed.set(task);
+                    if (task.attempts() == 0 && task.occurredAt() != null) {
+                        lag.record(Duration.between(task.occurredAt(), OffsetDateTime.now()));
+                    }
+                    duration.record(() -> perform(stage, task));
+                    jdbcTemplate.update(MARK_DONE, OffsetDateTime.now(), task.id());
+                    return true;
+                }));
+            } catch (RuntimeException e) {
+                Task task = claimed.get();
+                if (task == null) {
+                    throw e;
+                }
+                recordFailure(task, e);
+                return true;
+            }
+        }
+
+        private Task claim() {
+            List<Task> tasks = jdbcTemplate.query(CLAIM_TASK, (rs, rowNum) -> new Task(
+                    rs.getLong("id"),
+                    rs.getLong("order_id"),
+                    OrderStatus.valueOf(rs.getString("order_status")),
+                    rs.getInt("attempts"),
+                    rs.getObject("occurred_at", OffsetDateTime.class)), stage.name(), OffsetDateTime.now());
+            return tasks.isEmpty() ? null : tasks.get(0);
+        }
+
+        /**
+         * Runs in a transaction of its own: the task's transaction has rolled back.
+         */
+        private void recordFailure(Task task, RuntimeException e) {
+            int attempts = task.attempts() + 1;
+            String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            OffsetDateTime now = OffsetDateTime.now();
+            try {
+                if (attempts >= stageSettings.getMaxAttempts()) {
+                    jdbcTemplate.update(MARK_FAILED, attempts, now, error, task.id());
+                    failed.increment();
+                    log.error("Order pipeline stage {} failed for order {} entering {} after {} attempts",
+                            stage, task.orderId(), task.orderStatus(), attempts, e);
+                } else {
+                    Duration backoff = stageSettings.getRetryBackoff().multipliedBy(1L << Math.min(attempts - 1, 20));
+                    jdbcTemplate.update(MARK_RETRY, attempts, now.plus(backoff), error, task.id());
+                    retried.increment();
+                    log.debug("Order pipeline stage {} will retry order {}: {}", stage, task.orderId(), error);
+                }
+            } catch (RuntimeException markFailure) {
+                // The task stays PENDING with its attempt unrecorded and is claimed again
+                log.warn("Could not record the failure of order pipeline task {}: {}", task.id(),
+                        markFailure.getMessage());
+            }
+        }
+
+        private void refreshQueued() {
+            long nowMillis = System.currentTimeMillis();
+            if (nowMillis - queuedRefreshedAt >= QUEUED_GAUGE_INTERVAL.toMillis()) {
+                queuedRefreshedAt = nowMillis;
+                Long pending = jdbcTemplate.queryForObject(COUNT_PENDING, Long.class, stage.name());
+                queued.set(pending != null ? pending : 0);
+            }
+        }
+    }
+}
@@ -9,58 +9,75 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Methods that change an order take {@code expectedVersion}, the version the client last read (sent as
+ * {@code If-Match}); they fail with a 409 when the order has moved on since. A null version skips the check.
+ */
 public interface OrderService {
     // Basic Order Operations
     OrderDto createOrder(Long customerId, OrderType orderType);
     OrderDto getOrderById(Long id);
+    /**
+     * @deprecated loads every order of the customer with its items; use {@link OrderSummaryService#findByCustomerId}
+     */
+    @Deprecated
     List<OrderDto> getOrdersByCustomerId(Long customerId);
+    /**
+     * @deprecated loads every order in the status with its items; use {@link OrderSummaryService#findByStatus}
+     */
+    @Deprecated
     List<OrderDto> getOrdersByStatus(OrderStatus status);
     void deleteOrder(Long id);
 
     // Item Management
-    OrderDto addItemToOrder(Long orderId, OrderItemDto itemDto);
-    OrderDto removeItemFromOrder(Long orderId, Long itemId);
-    OrderDto updateItemQuantity(Long orderId, Long itemId, Integer quantity);
-    OrderDto updateItemNotes(Long orderId, Long itemId, String notes);
+    OrderDto addItemToOrder(Long orderId, OrderItemDto itemDto, Long expectedVersion);
+    OrderDto addItemsToOrder(Long orderId, List<OrderItemDto> itemDtos, Long expectedVersion);
+    OrderDto removeItemFromOrder(Long orderId, Long itemId, Long expectedVersion);
+    OrderDto updateItemQuantity(Long orderId, Long itemId, Integer quantity, Long expectedVersion);
+    OrderDto updateItemNotes(Long orderId, Long itemId, String notes, Long expectedVersion);
 
     // Order Status Management
-    OrderDto confirmOrder(Long orderId);
-    OrderDto startPreparing(Long orderId);
-    OrderDto markAsReady(Long orderId);
-    OrderDto startDelivery(Long orderId);
-    OrderDto completeDelivery(Long orderId);
-    OrderDto cancelOrder(Long orderId);
-    OrderDto refundOrder(Long orderId);
+    OrderDto confirmOrder(Long orderId, Long expectedVersion);
+    OrderDto startPreparing(Long orderId, Long expectedVersion);
+    OrderDto markAsReady(Long orderId, Long expectedVersion);
+    OrderDto startDelivery(Long orderId, Long expectedVersion);
+    OrderDto completeDelivery(Long orderId, Long expectedVersion);
+    OrderDto cancelOrder(Long orderId, Long expectedVersion);
+    OrderDto refundOrder(Long orderId, Long expectedVersion);
 
     // B2B Specific Operations
     OrderDto validateCreditLimit(Long orderId);
-    OrderDto applyContractPricing(Long orderId);
-    OrderDto setBulkOrderDetails(Long orderId, String reference, String frequency, LocalDateTime scheduledDate);
+    OrderDto applyContractPricing(Long orderId, Long expectedVersion);
+    OrderDto setBulkOrderDetails(Long orderId, String reference, String frequency, LocalDateTime scheduledDate, Long expectedVersion);
     OrderDto validateBulkOrder(Long orderId);
-    OrderDto setContractDetails(Long orderId, String contractId, LocalDateTime startDate, LocalDateTime endDate, String terms);
-    OrderDto applySpecialPricing(Long orderId, String pricingTerms);
+    OrderDto setContractDetails(Long orderId, String contractId, LocalDateTime startDate, LocalDateTime endDate, String terms, Long expectedVersion);
+    OrderDto applySpecialPricing(Long orderId, String pricingTerms, Long expectedVersion);
 
     // B2C Specific Operations
-    OrderDto setDeliveryTimeSlot(Long orderId, String timeSlot);
-    OrderDto confirmDeliveryTimeSlot(Long orderId);
-    OrderDto applyLoyaltyPoints(Long orderId, Integer points);
+    OrderDto setDeliveryTimeSlot(Long orderId, String timeSlot, Long expectedVersion);
+    OrderDto confirmDeliveryTimeSlot(Long orderId, Long expectedVersion);
+    OrderDto applyLoyaltyPoints(Long orderId, Integer points, Long expectedVersion);
     OrderDto calculateLoyaltyPointsEarned(Long orderId);
-    OrderDto setContactDetails(Long orderId, String phone, String email);
+    OrderDto setContactDetails(Long orderId, String phone, String email, Long expectedVersion);
 
     // Common Operations
     OrderDto validateMinimumOrderValue(Long orderId);
-    OrderDto calculateTotals(Long orderId);
-    OrderDto calculateDeliveryFee(Long orderId);
+    OrderDto calculateTotals(Long orderId, Long expectedVersion);
+    OrderDto calculateDeliveryFee(Long orderId, Long expectedVersion);
     OrderDto getOrderSummary(Long orderId);
     OrderDto validateDeliveryAddress(Long orderId);
+    /**
+     * @deprecated loads every order of the range with its items; use {@link OrderSummaryService#findCreatedBetween}
+     */
+    @Deprecated
     List<OrderDto> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate);
-    OrderDto applyCustomerPreferences(Long orderId);
-    OrderDto applyBulkDiscount(Long orderId);
-    OrderDto applyPromoCode(Long orderId, String promoCode);
-    OrderDto setPaymentTerms(Long orderId, String paymentTerms);
-    OrderDto setDeliverySchedule(Long orderId, LocalDateTime deliveryTime);
+    OrderDto applyCustomerPreferences(Long orderId, Long expectedVersion);
+    OrderDto applyBulkDiscount(Long orderId, Long expectedVersion);
+    OrderDto applyPromoCode(Long orderId, String promoCode, Long expectedVersion);
+    OrderDto setPaymentTerms(Long orderId, String paymentTerms, Long expectedVersion);
+    OrderDto setDeliverySchedule(Long orderId, LocalDateTime deliveryTime, Long expectedVersion);
     List<OrderDto> searchOrders(String searchTerm);
-    OrderDto selectDeliveryTimeSlot(Long orderId, LocalDateTime timeSlot);
+    OrderDto selectDeliveryTimeSlot(Long orderId, LocalDateTime timeSlot, Long expectedVersion);
     OrderDto getOrderHistory(Long customerId);
     OrderDto validateOrder(Long orderId);
 } 
\ No newline at end of file
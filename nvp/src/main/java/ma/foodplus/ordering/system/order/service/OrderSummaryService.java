@@ -0,0 +1,106 @@
+package ma.foodplus.ordering.system.order.service;
+
+import lombok.RequiredArgsConstructor;
+import ma.foodplus.ordering.system.common.exception.BaseException;
+import ma.foodplus.ordering.system.common.exception.ErrorCode;
+import ma.foodplus.ordering.system.order.dto.OrderSummaryDto;
+import ma.foodplus.ordering.system.order.dto.OrderSummaryPageDto;
+import ma.foodplus.ordering.system.order.mapper.OrderMapper;
+import ma.foodplus.ordering.system.order.model.OrderStatus;
+import ma.foodplus.ordering.system.order.model.OrderSummary;
+import ma.foodplus.ordering.system.order.repository.OrderSummaryRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Order listings served from the {@code order_summary} read model, newest first, one keyset page at a time.
+ * A page never loads an order or its items.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class OrderSummaryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    // Cursor of the first page: after every real order
+    private static final ZonedDateTime END_OF_TIME = ZonedDateTime.of(9999, 12, 31, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderMapper orderMapper;
+
+    public OrderSummaryPageDto findByCustomerId(Long customerId, ZonedDateTime beforeCreatedAt, Long beforeId,
+                                                Integer limit) {
+        int pageSize = pageSize(limit);
+        return page(orderSummaryRepository.findPageByCustomerId(customerId,
+                cursorTime(beforeCreatedAt, beforeId), cursorId(beforeId), pageSize + 1), pageSize);
+    }
+
+    public OrderSummaryPageDto findByStatus(OrderStatus status, ZonedDateTime beforeCreatedAt, Long beforeId,
+                                            Integer limit) {
+        int pageSize = pageSize(limit);
+        return page(orderSummaryRepository.findPageByStatus(status.name(),
+                cursorTime(beforeCreatedAt, beforeId), cursorId(beforeId), pageSize + 1), pageSize);
+    }
+
+    /**
+     * Orders created in {@code [from, to)}.
+     */
+    public OrderSummaryPageDto findCreatedBetween(ZonedDateTime from, ZonedDateTime to, ZonedDateTime beforeCreatedAt,
+                                                  Long beforeId, Integer limit) {
+        int pageSize = pageSize(limit);
+        return page(orderSummaryRepository.findPageCreatedBetween(from, to,
+                cursorTime(beforeCreatedAt, beforeId), cursorId(beforeId), pageSize + 1), pageSize);
+    }
+
+    private static int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new BaseException(ErrorCode.VALIDATION_ERROR,
+                    "limit must be between 1 and " + MAX_PAGE_SIZE + ", got " + limit);
+        }
+        return limit;
+    }
+
+    private static ZonedDateTime cursorTime(ZonedDateTime beforeCreatedAt, Long beforeId) {
+        if (beforeCreatedAt == null) {
+            if (beforeId != null) {
+                throw new BaseException(ErrorCode.VALIDATION_ERROR, "beforeId requires beforeCreatedAt");
+            }
+            return END_OF_TIME;
+        }
+        return beforeCreatedAt;
+    }
+
+    private static long cursorId(Long beforeId) {
+        // Without an id the page starts with the orders created exactly at beforeCreatedAt
+        return beforeId != null ? beforeId : Long.MAX_VALUE;
+    }
+
+    /**
+     * @param rows up to {@code pageSize + 1} rows; the extra one only tells that another page follows
+     */
+    private OrderSummaryPageDto page(List<OrderSummary> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<OrderSummaryDto> orders = new ArrayList<>(Math.min(rows.size(), pageSize));
+        for (int i = 0; i < rows.size() && i < pageSize; i++) {
+            orders.add(orderMapper.toSummaryDto(rows.get(i)));
+        }
+        OrderSummaryPageDto.OrderSummaryPageDtoBuilder page = OrderSummaryPageDto.builder()
+                .orders(orders)
+                .hasMore(hasMore);
+        if (hasMore) {
+            OrderSummaryDto last = orders.get(orders.size() - 1);
+            page.nextBeforeCreatedAt(last.getCreatedAt()).nextBeforeId(last.getId());
+        }
+        return page.build();
+    }
+}
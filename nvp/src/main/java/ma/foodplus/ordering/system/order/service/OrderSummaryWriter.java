@@ -0,0 +1,48 @@
+package ma.foodplus.ordering.system.order.service;
+
+import lombok.RequiredArgsConstructor;
+import ma.foodplus.ordering.system.order.model.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Keeps the {@code order_summary} row of an order in step with the order. Called with every saved order,
+ * inside the transaction that saves it, so the summary commits or rolls back with the order. Rows are removed
+ * with their order by the foreign key cascade.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderSummaryWriter {
+
+    private static final String UPSERT =
+            "INSERT INTO order_summary (order_id, order_number, customer_id, status, order_type, subtotal, total, " +
+            "item_count, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (order_id) DO UPDATE SET order_number = EXCLUDED.order_number, " +
+            "customer_id = EXCLUDED.customer_id, status = EXCLUDED.status, order_type = EXCLUDED.order_type, " +
+            "subtotal = EXCLUDED.subtotal, total = EXCLUDED.total, item_count = EXCLUDED.item_count, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param order a saved order, with its id
+     */
+    public void write(Order order) {
+        // updated_at of the entity is only refreshed when Hibernate flushes it
+        ZonedDateTime now = ZonedDateTime.now();
+        ZonedDateTime createdAt = order.getCreatedAt() != null ? order.getCreatedAt() : now;
+        jdbcTemplate.update(UPSERT,
+                order.getId(),
+                order.getOrderNumber(),
+                order.getCustomerId(),
+                order.getStatus().name(),
+                order.getOrderType().name(),
+                order.getSubtotal(),
+                order.getTotal(),
+                order.getItems().size(),
+                createdAt.toOffsetDateTime(),
+                now.toOffsetDateTime());
+    }
+}
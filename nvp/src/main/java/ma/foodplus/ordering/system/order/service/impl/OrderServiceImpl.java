@@ -1,27 +1,40 @@
 package ma.foodplus.ordering.system.order.service.impl;
 
+import ma.foodplus.ordering.system.common.service.NumberSequenceService;
+import ma.foodplus.ordering.system.common.service.OutboxEventPublisher;
 import ma.foodplus.ordering.system.order.dto.OrderDto;
 import ma.foodplus.ordering.system.order.dto.OrderItemDto;
+import ma.foodplus.ordering.system.order.event.OrderStatusChangedEvent;
 import ma.foodplus.ordering.system.order.exception.InvalidOrderStatusTransitionException;
 import ma.foodplus.ordering.system.order.exception.OrderItemNotFoundException;
 import ma.foodplus.ordering.system.order.exception.OrderNotFoundException;
+import ma.foodplus.ordering.system.order.exception.OrderVersionMismatchException;
 import ma.foodplus.ordering.system.order.mapper.OrderMapper;
 import ma.foodplus.ordering.system.order.model.Order;
 import ma.foodplus.ordering.system.order.model.OrderItem;
 import ma.foodplus.ordering.system.order.model.OrderStatus;
 import ma.foodplus.ordering.system.order.model.OrderType;
 import ma.foodplus.ordering.system.order.repository.OrderRepository;
+import ma.foodplus.ordering.system.order.repository.OrderSummaryRepository;
 import ma.foodplus.ordering.system.order.service.OrderService;
+import ma.foodplus.ordering.system.order.service.OrderSummaryWriter;
 import ma.foodplus.ordering.system.common.exception.BaseException;
 import ma.foodplus.ordering.system.common.exception.ErrorCode;
+import ma.foodplus.ordering.system.order.configuration.OrderProperties;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,18 +43,34 @@ public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
     private final OrderMapper orderMapper;
-    private static final DateTimeFormatter ORDER_NUMBER_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private final OutboxEventPublisher outboxEventPublisher;
+    private final OrderSummaryWriter orderSummaryWriter;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderProperties.Concurrency concurrency;
+    private final NumberSequenceService numberSequenceService;
 
     @Autowired
-    public OrderServiceImpl(OrderRepository orderRepository, OrderMapper orderMapper) {
+    public OrderServiceImpl(OrderRepository orderRepository, OrderMapper orderMapper,
+                            OutboxEventPublisher outboxEventPublisher,
+                            OrderSummaryWriter orderSummaryWriter,
+                            OrderSummaryRepository orderSummaryRepository,
+                            PlatformTransactionManager transactionManager,
+                            OrderProperties orderProperties,
+                            NumberSequenceService numberSequenceService) {
         this.orderRepository = orderRepository;
         this.orderMapper = orderMapper;
+        this.outboxEventPublisher = outboxEventPublisher;
+        this.orderSummaryWriter = orderSummaryWriter;
+        this.orderSummaryRepository = orderSummaryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.concurrency = orderProperties.getConcurrency();
+        this.numberSequenceService = numberSequenceService;
     }
 
     private String generateOrderNumber(OrderType orderType) {
         String prefix = orderType == OrderType.B2B ? "B2B" : "B2C";
-        String timestamp = LocalDateTime.now().format(ORDER_NUMBER_FORMAT);
-        return String.format("%s-%s", prefix, timestamp);
+        return numberSequenceService.next(NumberSequenceService.Sequence.ORDER_NUMBER, prefix);
     }
 
     @Override
@@ -49,7 +78,7 @@ public class OrderServiceImpl implements OrderService {
         Order order = new Order(customerId);
         order.setOrderType(orderType);
         order.setOrderNumber(generateOrderNumber(orderType));
-        return orderMapper.toDto(orderRepository.save(order));
+        return orderMapper.toDto(save(order));
     }
 
     @Override
@@ -61,6 +90,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Deprecated
     @Transactional(readOnly = true)
     public List<OrderDto> getOrdersByCustomerId(Long customerId) {
         return orderRepository.findByCustomerId(customerId).stream()
@@ -69,6 +99,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Deprecated
     @Transactional(readOnly = true)
     public List<OrderDto> getOrdersByStatus(OrderStatus status) {
         return orderRepository.findByStatus(status).stream()
@@ -82,31 +113,48 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    public OrderDto addItemToOrder(Long orderId, OrderItemDto itemDto) {
-        Order order = orderRepository.findById(orderId)
+    public OrderDto addItemToOrder(Long orderId, OrderItemDto itemDto, Long expectedVersion) {
+        Order order = orderRepository.findForItemChangeById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
+        checkVersion(order, expectedVersion);
 
         OrderItem item = orderMapper.toOrderItem(itemDto);
         order.addItem(item);
         
-        return orderMapper.toDto(orderRepository.save(order));
+        return toDtoAfterItemChange(save(order));
     }
 
     @Override
-    public OrderDto removeItemFromOrder(Long orderId, Long itemId) {
-        Order order = orderRepository.findById(orderId)
+    public OrderDto addItemsToOrder(Long orderId, List<OrderItemDto> itemDtos, Long expectedVersion) {
+        Order order = orderRepository.findForItemChangeById(orderId)
+                .orElseThrow(() -> new OrderNotFoundException(orderId));
+        checkVersion(order, expectedVersion);
+
+        List<OrderItem> items = new ArrayList<>(itemDtos.size());
+        for (OrderItemDto itemDto : itemDtos) {
+            items.add(orderMapper.toOrderItem(itemDto));
+        }
+        order.addItems(items);
+
+        return toDtoAfterItemChange(save(order));
+    }
+
+    @Override
+    public OrderDto removeItemFromOrder(Long orderId, Long itemId, Long expectedVersion) {
+        Order order = orderRepository.findForItemChangeById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
+        checkVersion(order, expectedVersion);
 
         order.getItems().stream()
                 .filter(item -> item.getId().equals(itemId))
                 .findFirst()
                 .ifPresent(order::removeItem);
 
-        return orderMapper.toDto(orderRepository.save(order));
+        return toDtoAfterItemChange(save(order));
     }
 
     @Override
-    public OrderDto updateItemQuantity(Long orderId, Long itemId, Integer quantity) {
+    public OrderDto updateItemQuantity(Long orderId, Long itemId, Integer quantity, Long expectedVersion) {
         // Validate quantity
         if (quantity == null || quantity <= 0) {
             throw new BaseException(ErrorCode.VALIDATION_ERROR, 
@@ -114,8 +162,9 @@ public class OrderServiceImpl implements OrderService {
         }
 
         // First validate the order exists
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findForItemChangeById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
+        checkVersion(order, expectedVersion);
 
         // Then validate the item exists in the order
         OrderItem item = order.getItems().stream()
@@ -127,9 +176,12 @@ public class OrderServiceImpl implements OrderService {
             // Update the quantity
             order.updateItemQuantity(item, quantity);
             order.validateOrderState(); // Validate order state after update
-            return orderMapper.toDto(orderRepository.save(order));
+            return toDtoAfterItemChange(save(order));
         } catch (IllegalStateException e) {
             throw new BaseException(ErrorCode.VALIDATION_ERROR, e.getMessage());
+        } catch (OptimisticLockingFailureException | BaseException e) {
+            // Concurrent edits (including OrderVersionMismatchException) surface as 409, not as a system error
+            throw e;
         } catch (Exception e) {
             throw new BaseException(ErrorCode.SYSTEM_ERROR, 
                 String.format("Failed to update quantity for item %d in order %d: %s", 
@@ -138,27 +190,34 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    public OrderDto updateItemNotes(Long orderId, Long itemId, String notes) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OrderDto updateItemNotes(Long orderId, Long itemId, String notes, Long expectedVersion) {
+        // Setting notes does not depend on the rest of the order: reapplied on a fresh copy after a conflict
+        return retryOnConflict(() -> {
+            Order order = orderRepository.findForItemChangeById(orderId)
+                    .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+            checkVersion(order, expectedVersion);
 
-        order.getItems().stream()
-                .filter(item -> item.getId().equals(itemId))
-                .findFirst()
-                .ifPresent(item -> item.setNotes(notes));
+            order.getItems().stream()
+                    .filter(item -> item.getId().equals(itemId))
+                    .findFirst()
+                    .ifPresent(item -> item.setNotes(notes));
 
-        return orderMapper.toDto(orderRepository.save(order));
+            return toDtoAfterItemChange(save(order));
+        });
     }
 
     @Override
-    public OrderDto confirmOrder(Long orderId) {
+    public OrderDto confirmOrder(Long orderId, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
+        checkVersion(order, expectedVersion);
         
         try {
             order.validateOrderState();
+            OrderStatus previousStatus = order.getStatus();
             order.setStatus(OrderStatus.CONFIRMED);
-            return orderMapper.toDto(orderRepository.save(order));
+            return orderMapper.toDto(saveStatusChange(order, previousStatus));
         } catch (IllegalStateException e) {
             throw new BaseException(ErrorCode.VALIDATION_ERROR, e.getMessage());
         } catch (InvalidOrderStatusTransitionException e) {
@@ -167,17 +226,17 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    public OrderDto startPreparing(Long orderId) {
-        return updateOrderStatus(orderId, OrderStatus.PREPARING);
+    public OrderDto startPreparing(Long orderId, Long expectedVersion) {
+        return updateOrderStatus(orderId, OrderStatus.PREPARING, expectedVersion);
     }
 
     @Override
-    public OrderDto markAsReady(Long orderId) {
-        return updateOrderStatus(orderId, OrderStatus.READY);
+    public OrderDto markAsReady(Long orderId, Long expectedVersion) {
+        return updateOrderStatus(orderId, OrderStatus.READY, expectedVersion);
     }
 
     @Override
-    public OrderDto startDelivery(Long orderId) {
+    public OrderDto startDelivery(Long orderId, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
         
@@ -186,35 +245,39 @@ public class OrderServiceImpl implements OrderService {
                 "Cannot start delivery without shipping address");
         }
         
-        return updateOrderStatus(orderId, OrderStatus.DELIVERING);
+        return updateOrderStatus(orderId, OrderStatus.DELIVERING, expectedVersion);
     }
 
     @Override
-    public OrderDto completeDelivery(Long orderId) {
-        return updateOrderStatus(orderId, OrderStatus.DELIVERED);
+    public OrderDto completeDelivery(Long orderId, Long expectedVersion) {
+        return updateOrderStatus(orderId, OrderStatus.DELIVERED, expectedVersion);
     }
 
     @Override
-    public OrderDto cancelOrder(Long orderId) {
+    public OrderDto cancelOrder(Long orderId, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
+        checkVersion(order, expectedVersion);
         
         try {
+            OrderStatus previousStatus = order.getStatus();
             order.cancel("Order cancelled by user");
-            return orderMapper.toDto(orderRepository.save(order));
+            return orderMapper.toDto(saveStatusChange(order, previousStatus));
         } catch (InvalidOrderStatusTransitionException e) {
             throw new BaseException(ErrorCode.VALIDATION_ERROR, e.getMessage());
         }
     }
 
     @Override
-    public OrderDto refundOrder(Long orderId) {
+    public OrderDto refundOrder(Long orderId, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
+        checkVersion(order, expectedVersion);
         
         try {
+            OrderStatus previousStatus = order.getStatus();
             order.refund("Order refunded by user");
-            return orderMapper.toDto(orderRepository.save(order));
+            return orderMapper.toDto(saveStatusChange(order, previousStatus));
         } catch (InvalidOrderStatusTransitionException e) {
             throw new BaseException(ErrorCode.VALIDATION_ERROR, e.getMessage());
         }
@@ -231,22 +294,24 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    public OrderDto calculateTotals(Long orderId) {
+    public OrderDto calculateTotals(Long orderId, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        checkVersion(order, expectedVersion);
         order.recalculateTotals();
-        return orderMapper.toDto(orderRepository.save(order));
+        return orderMapper.toDto(save(order));
     }
 
     @Override
-    public OrderDto calculateDeliveryFee(Long orderId) {
+    public OrderDto calculateDeliveryFee(Long orderId, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        checkVersion(order, expectedVersion);
         // Example delivery fee calculation
         BigDecimal deliveryFee = order.getSubtotal().multiply(BigDecimal.valueOf(0.1));
         order.setShippingCost(deliveryFee);
         order.recalculateTotals();
-        return orderMapper.toDto(orderRepository.save(order));
+        return orderMapper.toDto(save(order));
     }
 
     @Override
@@ -265,6 +330,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Deprecated
     public List<OrderDto> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         return orderRepository.findByCreatedAtBetween(startDate, endDate).stream()
                 .map(orderMapper::toDto)
@@ -272,27 +338,30 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    public OrderDto applyCustomerPreferences(Long orderId) {
+    public OrderDto applyCustomerPreferences(Long orderId, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        checkVersion(order, expectedVersion);
         // Apply customer preferences logic here
-        return orderMapper.toDto(orderRepository.save(order));
+        return orderMapper.toDto(save(order));
     }
 
     @Override
-    public OrderDto applyContractPricing(Long orderId) {
+    public OrderDto applyContractPricing(Long orderId, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        checkVersion(order, expectedVersion);
         // Apply contract pricing logic here
-        return orderMapper.toDto(orderRepository.save(order));
+        return orderMapper.toDto(save(order));
     }
 
     @Override
-    public OrderDto applyBulkDiscount(Long orderId) {
+    public OrderDto applyBulkDiscount(Long orderId, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        checkVersion(order, expectedVersion);
         // Apply bulk discount logic here
-        return orderMapper.toDto(orderRepository.save(order));
+        return orderMapper.toDto(save(order));
     }
 
     @Override
@@ -309,27 +378,30 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    public OrderDto applyPromoCode(Long orderId, String promoCode) {
+    public OrderDto applyPromoCode(Long orderId, String promoCode, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        checkVersion(order, expectedVersion);
         // Apply promo code logic here
-        return orderMapper.toDto(orderRepository.save(order));
+        return orderMapper.toDto(save(order));
     }
 
     @Override
-    public OrderDto setPaymentTerms(Long orderId, String paymentTerms) {
+    public OrderDto setPaymentTerms(Long orderId, String paymentTerms, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        checkVersion(order, expectedVersion);
         order.setPaymentTerms(paymentTerms);
-        return orderMapper.toDto(orderRepository.save(order));
+        return orderMapper.toDto(save(order));
     }
 
     @Override
-    public OrderDto setDeliverySchedule(Long orderId, LocalDateTime deliveryTime) {
+    public OrderDto setDeliverySchedule(Long orderId, LocalDateTime deliveryTime, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        checkVersion(order, expectedVersion);
         order.setPreferredDeliveryDate(deliveryTime.atZone(java.time.ZoneId.systemDefault()));
-        return orderMapper.toDto(orderRepository.save(order));
+        return orderMapper.toDto(save(order));
     }
 
     @Override
@@ -348,25 +420,30 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    public OrderDto selectDeliveryTimeSlot(Long orderId, LocalDateTime timeSlot) {
+    public OrderDto selectDeliveryTimeSlot(Long orderId, LocalDateTime timeSlot, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        checkVersion(order, expectedVersion);
         order.setPreferredDeliveryDate(timeSlot.atZone(java.time.ZoneId.systemDefault()));
-        return orderMapper.toDto(orderRepository.save(order));
+        return orderMapper.toDto(save(order));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public OrderDto getOrderHistory(Long customerId) {
-        List<Order> orders = orderRepository.findByCustomerId(customerId);
-        return orderMapper.toDto(orders.get(orders.size() - 1)); // Return the most recent order
+        // Only the most recent order is loaded, found through the summary index
+        Long latestOrderId = orderSummaryRepository.findLatestOrderIdByCustomerId(customerId)
+                .orElseThrow(() -> new RuntimeException("No orders found for customer: " + customerId));
+        return getOrderById(latestOrderId);
     }
 
     @Override
-    public OrderDto applyLoyaltyPoints(Long orderId, Integer points) {
+    public OrderDto applyLoyaltyPoints(Long orderId, Integer points, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        checkVersion(order, expectedVersion);
         // Apply loyalty points logic here
-        return orderMapper.toDto(orderRepository.save(order));
+        return orderMapper.toDto(save(order));
     }
 
     @Override
@@ -378,26 +455,30 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    public OrderDto setBulkOrderDetails(Long orderId, String reference, String frequency, LocalDateTime scheduledDate) {
+    public OrderDto setBulkOrderDetails(Long orderId, String reference, String frequency, LocalDateTime scheduledDate, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
+        checkVersion(order, expectedVersion);
         
         if (order.getOrderType() != OrderType.B2B) {
             throw new BaseException(ErrorCode.VALIDATION_ERROR, "Bulk order details can only be set for B2B orders");
         }
 
         order.setBulkOrder(true);
-        order.setBulkOrderReference(reference);
+        order.setBulkOrderReference(reference == null || reference.isBlank()
+                ? numberSequenceService.next(NumberSequenceService.Sequence.BULK_ORDER_REFERENCE)
+                : reference);
         order.setDeliveryScheduleFrequency(frequency);
         order.setScheduledDeliveryDate(scheduledDate.atZone(java.time.ZoneId.systemDefault()));
         
-        return orderMapper.toDto(orderRepository.save(order));
+        return orderMapper.toDto(save(order));
     }
 
     @Override
-    public OrderDto setContractDetails(Long orderId, String contractId, LocalDateTime startDate, LocalDateTime endDate, String terms) {
+    public OrderDto setContractDetails(Long orderId, String contractId, LocalDateTime startDate, LocalDateTime endDate, String terms, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
+        checkVersion(order, expectedVersion);
         
         if (order.getOrderType() != OrderType.B2B) {
             throw new BaseException(ErrorCode.VALIDATION_ERROR, "Contract details can only be set for B2B orders");
@@ -409,13 +490,14 @@ public class OrderServiceImpl implements OrderService {
         order.setContractTerms(terms);
         order.setSpecialPricingAgreement(true);
         
-        return orderMapper.toDto(orderRepository.save(order));
+        return orderMapper.toDto(save(order));
     }
 
     @Override
-    public OrderDto applySpecialPricing(Long orderId, String pricingTerms) {
+    public OrderDto applySpecialPricing(Long orderId, String pricingTerms, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
+        checkVersion(order, expectedVersion);
         
         if (order.getOrderType() != OrderType.B2B) {
             throw new BaseException(ErrorCode.VALIDATION_ERROR, "Special pricing can only be applied to B2B orders");
@@ -424,13 +506,14 @@ public class OrderServiceImpl implements OrderService {
         order.setSpecialPricingTerms(pricingTerms);
         order.setSpecialPricingAgreement(true);
         
-        return orderMapper.toDto(orderRepository.save(order));
+        return orderMapper.toDto(save(order));
     }
 
     @Override
-    public OrderDto setDeliveryTimeSlot(Long orderId, String timeSlot) {
+    public OrderDto setDeliveryTimeSlot(Long orderId, String timeSlot, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
+        checkVersion(order, expectedVersion);
         
         if (order.getOrderType() != OrderType.B2C) {
             throw new BaseException(ErrorCode.VALIDATION_ERROR, "Delivery time slots are only available for B2C orders");
@@ -439,13 +522,14 @@ public class OrderServiceImpl implements OrderService {
         order.setPreferredDeliveryTimeSlot(timeSlot);
         order.setDeliveryTimeSlotConfirmed(false);
         
-        return orderMapper.toDto(orderRepository.save(order));
+        return orderMapper.toDto(save(order));
     }
 
     @Override
-    public OrderDto confirmDeliveryTimeSlot(Long orderId) {
+    public OrderDto confirmDeliveryTimeSlot(Long orderId, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
+        checkVersion(order, expectedVersion);
         
         if (order.getOrderType() != OrderType.B2C) {
             throw new BaseException(ErrorCode.VALIDATION_ERROR, "Delivery time slots are only available for B2C orders");
@@ -457,22 +541,26 @@ public class OrderServiceImpl implements OrderService {
 
         order.setDeliveryTimeSlotConfirmed(true);
         
-        return orderMapper.toDto(orderRepository.save(order));
+        return orderMapper.toDto(save(order));
     }
 
     @Override
-    public OrderDto setContactDetails(Long orderId, String phone, String email) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new OrderNotFoundException(orderId));
-        
-        if (order.getOrderType() != OrderType.B2C) {
-            throw new BaseException(ErrorCode.VALIDATION_ERROR, "Contact details are only required for B2C orders");
-        }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OrderDto setContactDetails(Long orderId, String phone, String email, Long expectedVersion) {
+        return retryOnConflict(() -> {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new OrderNotFoundException(orderId));
+            checkVersion(order, expectedVersion);
 
-        order.setContactPhone(phone);
-        order.setContactEmail(email);
-        
-        return orderMapper.toDto(orderRepository.save(order));
+            if (order.getOrderType() != OrderType.B2C) {
+                throw new BaseException(ErrorCode.VALIDATION_ERROR, "Contact details are only required for B2C orders");
+            }
+
+            order.setContactPhone(phone);
+            order.setContactEmail(email);
+
+            return orderMapper.toDto(save(order));
+        });
     }
 
     @Override
@@ -486,18 +574,86 @@ public class OrderServiceImpl implements OrderService {
 
         order.calculateLoyaltyPointsEarned();
         
-        return orderMapper.toDto(orderRepository.save(order));
+        return orderMapper.toDto(save(order));
     }
 
-    private OrderDto updateOrderStatus(Long orderId, OrderStatus newStatus) {
+    private OrderDto updateOrderStatus(Long orderId, OrderStatus newStatus, Long expectedVersion) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
+        checkVersion(order, expectedVersion);
 
         try {
+            OrderStatus previousStatus = order.getStatus();
             order.setStatus(newStatus);
-            return orderMapper.toDto(orderRepository.save(order));
+            return orderMapper.toDto(saveStatusChange(order, previousStatus));
         } catch (InvalidOrderStatusTransitionException e) {
             throw new BaseException(ErrorCode.VALIDATION_ERROR, e.getMessage());
         }
     }
+
+    /**
+     * Runs an edit that gives the same result whatever concurrent change it lost to, each attempt in its own
+     * transaction on a freshly loaded order, until it commits or {@code max-attempts} is reached. Every other
+     * mutator fails on the first conflict and the client gets a 409.
+     */
+    private OrderDto retryOnConflict(Supplier<OrderDto> edit) {
+        long backoffMillis = concurrency.getRetryBackoff().toMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> edit.get());
+            } catch (OrderVersionMismatchException e) {
+                // The client's version is stale: another attempt cannot succeed
+                throw e;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= concurrency.getMaxAttempts()) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(backoffMillis << (attempt - 1));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void checkVersion(Order order, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(order.getVersion())) {
+            throw new OrderVersionMismatchException(order.getId(), expectedVersion, order.getVersion());
+        }
+    }
+
+    /**
+     * Orders loaded for an item change get their version bumped once more when the transaction completes,
+     * after the DTO is built (see {@link OrderRepository#findForItemChangeById}): report the version the
+     * order has once committed, the one the client sends back with its next change.
+     */
+    private OrderDto toDtoAfterItemChange(Order saved) {
+        OrderDto dto = orderMapper.toDto(saved);
+        dto.setVersion(saved.getVersion() + 1);
+        return dto;
+    }
+
+    /**
+     * Saves the order and its order_summary row in the same transaction. Every write of an order goes through here.
+     * Flushed, so the returned order carries the version its update gave it.
+     */
+    private Order save(Order order) {
+        Order saved = orderRepository.saveAndFlush(order);
+        orderSummaryWriter.write(saved);
+        return saved;
+    }
+
+    /**
+     * Saves the order and writes the status change to the outbox in the same transaction.
+     */
+    private Order saveStatusChange(Order order, OrderStatus previousStatus) {
+        Order saved = save(order);
+        if (saved.getStatus() != previousStatus) {
+            outboxEventPublisher.publish(new OrderStatusChangedEvent(saved.getId(), saved.getOrderNumber(),
+                    saved.getCustomerId(), previousStatus, saved.getStatus(), ZonedDateTime.now()));
+        }
+        return saved;
+    }
 } 
\ No newline at end of file
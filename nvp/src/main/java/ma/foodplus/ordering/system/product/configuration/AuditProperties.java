@@ -0,0 +1,82 @@
+package ma.foodplus.ordering.system.product.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Product audit pipeline settings bound from {@code foodplus.audit.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "foodplus.audit")
+public class AuditProperties {
+
+    public enum Durability {
+        /**
+         * Audits are batch-inserted just before the caller's transaction commits, and are lost only with it.
+         */
+        FLUSH_ON_COMMIT,
+        /**
+         * Audits are queued after the caller's transaction commits and written by the background writer.
+         * Audits still queued when the process dies are lost.
+         */
+        ASYNC
+    }
+
+    public enum Overflow {
+        /**
+         * Write the audit on the calling thread when the buffer stays full past {@code offer-timeout}.
+         */
+        CALLER_WRITES,
+        /**
+         * Drop the audit, counted in {@code foodplus.audit.dropped}, when the buffer stays full.
+         */
+        DROP
+    }
+
+    private Durability durability = Durability.ASYNC;
+    /**
+     * Capacity of the buffer between the callers and the background writer.
+     */
+    private int bufferSize = 8_192;
+    /**
+     * Audits per JDBC batch.
+     */
+    private int batchSize = 500;
+    /**
+     * Longest time a queued audit waits for a batch to fill before it is written.
+     */
+    private Duration flushInterval = Duration.ofMillis(200);
+    private Duration offerTimeout = Duration.ofMillis(50);
+    private Overflow overflow = Overflow.CALLER_WRITES;
+    private Partitions partitions = new Partitions();
+
+    public enum RetentionAction {
+        /**
+         * Drop the expired month's partitions.
+         */
+        DROP,
+        /**
+         * Detach the expired month's partitions and leave them as standalone tables to be archived.
+         */
+        DETACH
+    }
+
+    /**
+     * Monthly partitions of the audit tables.
+     */
+    @Data
+    public static class Partitions {
+        /**
+         * Months created ahead of the current one.
+         */
+        private int premakeMonths = 3;
+        /**
+         * Full months kept before the current one; 0 keeps everything.
+         */
+        private int retentionMonths = 24;
+        private RetentionAction retentionAction = RetentionAction.DROP;
+        private String maintenanceCron = "0 15 2 * * *";
+    }
+}
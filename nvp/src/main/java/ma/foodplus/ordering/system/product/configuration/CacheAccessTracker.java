@@ -0,0 +1,127 @@
+package ma.foodplus.ordering.system.product.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts cache key accesses in memory and periodically folds them into one Redis sorted set per
+ * cache and day, so access frequency survives restarts and can drive cache warming.
+ * The number of distinct keys tracked per cache between two flushes is bounded.
+ */
+@Slf4j
+public class CacheAccessTracker {
+
+    private static final String KEY_PREFIX = "cache-access:";
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final StringRedisTemplate redisTemplate;
+    private final CacheProperties.Tracking tracking;
+    private final ConcurrentMap<String, ConcurrentMap<String, LongAdder>> counts = new ConcurrentHashMap<>();
+
+    public CacheAccessTracker(StringRedisTemplate redisTemplate, CacheProperties.Tracking tracking) {
+        this.redisTemplate = redisTemplate;
+        this.tracking = tracking;
+    }
+
+    public void record(String cacheName, Object key) {
+        if (!tracking.isEnabled() || !(key instanceof String stringKey)) {
+            return;
+        }
+        ConcurrentMap<String, LongAdder> cacheCounts = counts.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+        LongAdder adder = cacheCounts.get(stringKey);
+        if (adder == null) {
+            if (cacheCounts.size() >= tracking.getMaxKeysPerCache()) {
+                return;
+            }
+            adder = cacheCounts.computeIfAbsent(stringKey, k -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    /**
+     * Writes the counts gathered since the last flush to today's sorted sets in one pipeline.
+     */
+    @Scheduled(fixedRateString = "${foodplus.cache.tracking.flush-interval:5m}")
+    public void flush() {
+        if (counts.isEmpty()) {
+            return;
+        }
+        Map<String, Map<String, Long>> drained = new HashMap<>();
+        counts.forEach((cacheName, cacheCounts) -> {
+            Map<String, Long> snapshot = new HashMap<>();
+            cacheCounts.forEach((key, adder) -> {
+                long value = adder.sumThenReset();
+                if (value > 0) {
+                    snapshot.put(key, value);
+                }
+            });
+            cacheCounts.clear();
+            if (!snapshot.isEmpty()) {
+                drained.put(cacheName, snapshot);
+            }
+        });
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        String today = LocalDate.now().format(DAY);
+        long ttlSeconds = tracking.getHistory().plusDays(1).toSeconds();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                drained.forEach((cacheName, snapshot) -> {
+                    String zsetKey = KEY_PREFIX + cacheName + ":" + today;
+                    snapshot.forEach((key, value) -> stringConnection.zIncrBy(zsetKey, value, key));
+                    stringConnection.expire(zsetKey, ttlSeconds);
+                });
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Failed to flush cache access counts: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return up to {@code limit} keys of the cache starting with {@code keyPrefix}, most accessed first,
+     * over the configured history window. The prefix is stripped from the returned keys.
+     */
+    public List<String> topKeys(String cacheName, String keyPrefix, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        long days = Math.max(1, tracking.getHistory().toDays());
+        LocalDate today = LocalDate.now();
+        List<String> dayKeys = new ArrayList<>();
+        for (int i = 0; i < days; i++) {
+            dayKeys.add(KEY_PREFIX + cacheName + ":" + today.minusDays(i).format(DAY));
+        }
+        try {
+            Set<ZSetOperations.TypedTuple<String>> union = redisTemplate.opsForZSet()
+                    .unionWithScores(dayKeys.get(0), dayKeys.subList(1, dayKeys.size()));
+            if (union == null) {
+                return List.of();
+            }
+            return union.stream()
+                    .filter(tuple -> tuple.getValue() != null && tuple.getValue().startsWith(keyPrefix))
+                    .sorted(Comparator.comparingDouble((ZSetOperations.TypedTuple<String> tuple) ->
+                            tuple.getScore() != null ? tuple.getScore() : 0.0).reversed())
+                    .limit(limit)
+                    .map(tuple -> tuple.getValue().substring(keyPrefix.length()))
+                    .toList();
+        } catch (Exception e) {
+            log.warn("Failed to read cache access history for {}: {}", cacheName, e.getMessage());
+            return List.of();
+        }
+    }
+}
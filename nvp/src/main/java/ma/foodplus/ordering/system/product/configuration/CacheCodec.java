@@ -0,0 +1,43 @@
+package ma.foodplus.ordering.system.product.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Value encodings available to Redis caches. Both variants carry Jackson type hints so cached
+ * DTOs come back as their concrete types; SMILE is binary and back-references repeated property
+ * names and type ids, which keeps large lists such as {@code products::active} compact.
+ */
+public enum CacheCodec {
+
+    JSON {
+        @Override
+        ObjectMapper newObjectMapper() {
+            return new ObjectMapper();
+        }
+    },
+
+    SMILE {
+        @Override
+        ObjectMapper newObjectMapper() {
+            return SmileMapper.builder()
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                    .build();
+        }
+    };
+
+    abstract ObjectMapper newObjectMapper();
+
+    public RedisSerializer<Object> newSerializer() {
+        ObjectMapper mapper = newObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        return GenericJackson2JsonRedisSerializer.builder()
+                .objectMapper(mapper)
+                .defaultTyping(true)
+                .build();
+    }
+}
@@ -1,57 +1,83 @@
 package ma.foodplus.ordering.system.product.configuration;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
-import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
 public class CacheConfiguration {
 
+    /**
+     * Payload sizes of caches created at runtime with the default configuration are recorded under this name.
+     */
+    static final String DEFAULT_CACHE_METRICS_NAME = "default";
+
+    @Bean
+    public CacheMetrics cacheMetrics(MeterRegistry meterRegistry) {
+        return new CacheMetrics(meterRegistry);
+    }
+
     @Bean
-    public ObjectMapper redisObjectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
-        return mapper;
+    public CacheAccessTracker cacheAccessTracker(StringRedisTemplate stringRedisTemplate, CacheProperties cacheProperties) {
+        return new CacheAccessTracker(stringRedisTemplate, cacheProperties.getTracking());
     }
 
     @Bean
-    public GenericJackson2JsonRedisSerializer redisSerializer(ObjectMapper redisObjectMapper) {
-        return new GenericJackson2JsonRedisSerializer(redisObjectMapper);
+    public LocalCacheInvalidationBus localCacheInvalidationBus(StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry) {
+        return new LocalCacheInvalidationBus(stringRedisTemplate, meterRegistry);
     }
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory, GenericJackson2JsonRedisSerializer redisSerializer) {
-        RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(10)) // Default TTL of 10 minutes
+    public RedisMessageListenerContainer localCacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                                 LocalCacheInvalidationBus invalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(invalidationBus, new ChannelTopic(LocalCacheInvalidationBus.CHANNEL));
+        return container;
+    }
+
+    @Bean
+    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory, CacheProperties cacheProperties,
+                                          CacheMetrics cacheMetrics, CacheAccessTracker cacheAccessTracker) {
+        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
+        for (String cacheName : List.of(CacheConstants.PRODUCTS_CACHE, CacheConstants.PRODUCT_CACHE)) {
+            cacheConfigurations.put(cacheName, cacheConfiguration(cacheProperties.specFor(cacheName), cacheMetrics.forCache(cacheName)));
+        }
+        cacheProperties.getCaches().forEach((cacheName, spec) ->
+                cacheConfigurations.put(cacheName, cacheConfiguration(spec, cacheMetrics.forCache(cacheName))));
+
+        return new DecoratingRedisCacheManager(
+                RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory),
+                cacheConfiguration(cacheProperties.getDefaults(), cacheMetrics.forCache(DEFAULT_CACHE_METRICS_NAME)),
+                cacheConfigurations,
+                cacheMetrics,
+                cacheAccessTracker);
+    }
+
+    private RedisCacheConfiguration cacheConfiguration(CacheProperties.CacheSpec spec, CacheMetrics.CacheMeters meters) {
+        CompressingRedisSerializer valueSerializer =
+                new CompressingRedisSerializer(spec.getCodec().newSerializer(), spec.getCompressionThreshold(), meters);
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(spec.getTtl())
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(redisSerializer))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer))
                 .disableCachingNullValues();
-
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(defaultConfig)
-                .withCacheConfiguration("products", 
-                    RedisCacheConfiguration.defaultCacheConfig()
-                        .entryTtl(Duration.ofMinutes(30))
-                        .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                        .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(redisSerializer))
-                        .disableCachingNullValues()) // Products cache for 30 minutes
-                .withCacheConfiguration("product", 
-                    RedisCacheConfiguration.defaultCacheConfig()
-                        .entryTtl(Duration.ofMinutes(15))
-                        .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                        .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(redisSerializer))
-                        .disableCachingNullValues()) // Single product cache for 15 minutes
-                .build();
     }
-}
\ No newline at end of file
+}
@@ -3,18 +3,29 @@ package ma.foodplus.ordering.system.product.configuration;
 public final class CacheConstants {
     public static final String PRODUCTS_CACHE = "products";
     public static final String PRODUCT_CACHE = "product";
-    
-    public static final String KEY_ALL_PRODUCTS = "'all'";
-    public static final String KEY_DELIVERABLE_PRODUCTS = "'deliverable'";
-    public static final String KEY_ACTIVE_PRODUCTS = "'active'";
-    public static final String KEY_FAMILY_PRODUCTS = "'family:' + #familyCode";
-    public static final String KEY_PRODUCT_BY_ID = "#productId";
-    public static final String KEY_PRODUCT_BY_REF = "'ref:' + #reference";
-    public static final String KEY_PRODUCT_BY_BARCODE = "'barcode:' + #barcode";
-    public static final String KEY_EXISTS_BY_REF = "'exists:ref:' + #reference";
-    public static final String KEY_EXISTS_BY_BARCODE = "'exists:barcode:' + #barcode";
-    
+
+    // Literal key prefixes, used as is by the invalidator and the warmer
+    public static final String PREFIX_PRODUCT = "product:";
+    public static final String PREFIX_REFERENCE = "reference:";
+    public static final String PREFIX_BARCODE = "barcode:";
+    public static final String PREFIX_EXISTS_REFERENCE = "exists:reference:";
+    public static final String PREFIX_EXISTS_BARCODE = "exists:barcode:";
+    public static final String PREFIX_FAMILY = "family:";
+    public static final String KEY_DELIVERABLE = "deliverable";
+    public static final String KEY_ACTIVE = "active";
+
+    // SpEL key expressions of ProductService's @Cacheable methods, built from the literals above
+    public static final String KEY_PRODUCT_BY_ID = "'" + PREFIX_PRODUCT + "' + #id.value";
+    public static final String KEY_PRODUCT_BY_REF = "'" + PREFIX_REFERENCE + "' + #reference";
+    public static final String KEY_PRODUCT_BY_BARCODE = "'" + PREFIX_BARCODE + "' + #barcode";
+    public static final String KEY_EXISTS_BY_REF = "'" + PREFIX_EXISTS_REFERENCE + "' + #reference";
+    public static final String KEY_EXISTS_BY_BARCODE = "'" + PREFIX_EXISTS_BARCODE + "' + #barcode";
+    public static final String KEY_FAMILY_PRODUCTS = "'" + PREFIX_FAMILY + "' + #familyCode";
+    public static final String KEY_FAMILY_OF_PRODUCT = "'" + PREFIX_FAMILY + "' + #productId";
+    public static final String KEY_DELIVERABLE_PRODUCTS = "'" + KEY_DELIVERABLE + "'";
+    public static final String KEY_ACTIVE_PRODUCTS = "'" + KEY_ACTIVE + "'";
+
     private CacheConstants() {
         // Prevent instantiation
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package ma.foodplus.ordering.system.product.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Micrometer meters for the Redis caches, one {@link CacheMeters} set per cache name.
+ * All meters are tagged with {@code cache=<name>}.
+ */
+public class CacheMetrics {
+
+    public static final String PREFIX = "foodplus.cache";
+
+    private final MeterRegistry registry;
+    private final Map<String, CacheMeters> meters = new ConcurrentHashMap<>();
+
+    public CacheMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    public CacheMeters forCache(String cacheName) {
+        return meters.computeIfAbsent(cacheName, name -> new CacheMeters(registry, name));
+    }
+
+    public static final class CacheMeters {
+        final Counter hits;
+        final Counter misses;
+        final Counter puts;
+        final Counter evictions;
+        final Timer loadSuccess;
+        final Timer loadFailure;
+        final DistributionSummary writtenBytes;
+        final DistributionSummary readBytes;
+
+        private CacheMeters(MeterRegistry registry, String cacheName) {
+            hits = Counter.builder(PREFIX + ".gets").tag("cache", cacheName).tag("result", "hit")
+                    .description("Cache lookups that found a value").register(registry);
+            misses = Counter.builder(PREFIX + ".gets").tag("cache", cacheName).tag("result", "miss")
+                    .description("Cache lookups that found no value").register(registry);
+            puts = Counter.builder(PREFIX + ".puts").tag("cache", cacheName)
+                    .description("Values written to the cache").register(registry);
+            evictions = Counter.builder(PREFIX + ".evictions").tag("cache", cacheName)
+                    .description("Explicit evictions and clears").register(registry);
+            loadSuccess = Timer.builder(PREFIX + ".load").tag("cache", cacheName).tag("result", "success")
+                    .description("Time spent loading values on a miss").publishPercentileHistogram().register(registry);
+            loadFailure = Timer.builder(PREFIX + ".load").tag("cache", cacheName).tag("result", "failure")
+                    .description("Time spent loading values on a miss").publishPercentileHistogram().register(registry);
+            writtenBytes = DistributionSummary.builder(PREFIX + ".payload.size").tag("cache", cacheName).tag("operation", "write")
+                    .baseUnit("bytes").description("Serialized value size as stored in Redis").publishPercentileHistogram().register(registry);
+            readBytes = DistributionSummary.builder(PREFIX + ".payload.size").tag("cache", cacheName).tag("operation", "read")
+                    .baseUnit("bytes").description("Serialized value size as stored in Redis").publishPercentileHistogram().register(registry);
+        }
+    }
+}
@@ -1,66 +1,112 @@
 package ma.foodplus.ordering.system.product.configuration;
 
-import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Tag;
-import org.springframework.cache.CacheManager;
-import org.springframework.data.redis.cache.RedisCache;
+import io.micrometer.core.instrument.Gauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.Collections;
-import java.util.concurrent.TimeUnit;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Publishes the number of keys held by each cache as {@code foodplus.cache.keys}.
+ * <p>
+ * Counts come from one SCAN pass over at most {@code foodplus.cache.metrics.key-sample-size} keys,
+ * matched in-process against every cache prefix. If the pass covers the whole keyspace the counts
+ * are exact; otherwise they are extrapolated from the sampled share of {@code DBSIZE}.
+ * Hit, miss, load and payload meters are recorded by {@link MeteredCache} and {@link CompressingRedisSerializer}.
+ */
+@Slf4j
 @Component
 public class CacheMetricsCollector {
 
-    private final MeterRegistry meterRegistry;
-    private final CacheManager cacheManager;
+    private static final int SCAN_BATCH = 500;
+
+    private final RedisCacheManager cacheManager;
     private final RedisConnectionFactory redisConnectionFactory;
+    private final CacheProperties cacheProperties;
+    private final Map<String, AtomicLong> keyCounts = new LinkedHashMap<>();
+    private final Map<String, byte[]> keyPrefixes = new LinkedHashMap<>();
 
-    public CacheMetricsCollector(MeterRegistry meterRegistry, CacheManager cacheManager, RedisConnectionFactory redisConnectionFactory) {
-        this.meterRegistry = meterRegistry;
+    public CacheMetricsCollector(CacheMetrics cacheMetrics, RedisCacheManager cacheManager,
+                                 RedisConnectionFactory redisConnectionFactory, CacheProperties cacheProperties) {
         this.cacheManager = cacheManager;
         this.redisConnectionFactory = redisConnectionFactory;
-        registerCacheMetrics();
+        this.cacheProperties = cacheProperties;
+        registerKeyCountGauges(cacheMetrics);
     }
 
-    private void registerCacheMetrics() {
-        if (cacheManager instanceof RedisCacheManager) {
-            RedisCacheManager redisCacheManager = (RedisCacheManager) cacheManager;
-            redisCacheManager.getCacheNames().forEach(cacheName -> {
-                RedisCache cache = (RedisCache) redisCacheManager.getCache(cacheName);
-                if (cache != null) {
-                    // Register cache metrics
-                    meterRegistry.gauge("cache.size", 
-                        Collections.singletonList(Tag.of("cache", cacheName)),
-                        getCacheSize());
-                }
-            });
-        }
+    private void registerKeyCountGauges(CacheMetrics cacheMetrics) {
+        Map<String, RedisCacheConfiguration> configurations = cacheManager.getCacheConfigurations();
+        configurations.forEach((cacheName, configuration) -> {
+            if (configuration == null) {
+                return;
+            }
+            AtomicLong count = new AtomicLong();
+            keyCounts.put(cacheName, count);
+            keyPrefixes.put(cacheName, configuration.getKeyPrefixFor(cacheName).getBytes(StandardCharsets.UTF_8));
+            Gauge.builder(CacheMetrics.PREFIX + ".keys", count, AtomicLong::get)
+                    .tag("cache", cacheName)
+                    .description("Keys currently stored under the cache prefix (sampled estimate)")
+                    .register(cacheMetrics.getRegistry());
+        });
     }
 
-    @Scheduled(fixedRate = 60, timeUnit = TimeUnit.SECONDS)
+    @Scheduled(fixedRateString = "${foodplus.cache.metrics.key-count-interval:60s}")
     public void collectCacheMetrics() {
-        if (cacheManager instanceof RedisCacheManager) {
-            RedisCacheManager redisCacheManager = (RedisCacheManager) cacheManager;
-            redisCacheManager.getCacheNames().forEach(cacheName -> {
-                RedisCache cache = (RedisCache) redisCacheManager.getCache(cacheName);
-                if (cache != null) {
-                    // Update cache metrics
-                    meterRegistry.gauge("cache.size", 
-                        Collections.singletonList(Tag.of("cache", cacheName)),
-                        getCacheSize());
+        if (keyCounts.isEmpty()) {
+            return;
+        }
+        int sampleSize = cacheProperties.getMetrics().getKeySampleSize();
+        Map<String, Long> matched = new LinkedHashMap<>();
+        keyPrefixes.keySet().forEach(cacheName -> matched.put(cacheName, 0L));
+
+        try (RedisConnection connection = redisConnectionFactory.getConnection()) {
+            long scanned = 0;
+            boolean complete;
+            try (Cursor<byte[]> cursor = connection.keyCommands().scan(ScanOptions.scanOptions().count(SCAN_BATCH).build())) {
+                while (scanned < sampleSize && cursor.hasNext()) {
+                    byte[] key = cursor.next();
+                    scanned++;
+                    keyPrefixes.forEach((cacheName, prefix) -> {
+                        if (startsWith(key, prefix)) {
+                            matched.merge(cacheName, 1L, Long::sum);
+                        }
+                    });
                 }
-            });
+                complete = !cursor.hasNext();
+            }
+
+            double scale = 1.0;
+            if (!complete && scanned > 0) {
+                Long dbSize = connection.serverCommands().dbSize();
+                scale = dbSize != null ? (double) dbSize / scanned : 1.0;
+            }
+            for (Map.Entry<String, Long> entry : matched.entrySet()) {
+                keyCounts.get(entry.getKey()).set(Math.round(entry.getValue() * scale));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to sample cache key counts: {}", e.getMessage());
         }
     }
 
-    private Number getCacheSize() {
-        try (RedisConnection connection = redisConnectionFactory.getConnection()) {
-            return connection.dbSize();
+    private static boolean startsWith(byte[] key, byte[] prefix) {
+        if (key.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (key[i] != prefix[i]) {
+                return false;
+            }
         }
+        return true;
     }
-} 
\ No newline at end of file
+}
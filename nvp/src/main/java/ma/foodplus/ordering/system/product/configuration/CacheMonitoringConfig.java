@@ -1,14 +1,14 @@
 package ma.foodplus.ordering.system.product.configuration;
 
-import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.cache.interceptor.CacheResolver;
 import org.springframework.cache.interceptor.SimpleCacheResolver;
-import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
+@EnableScheduling
 public class CacheMonitoringConfig {
 
     @Bean
@@ -16,9 +16,4 @@ public class CacheMonitoringConfig {
         SimpleCacheResolver resolver = new SimpleCacheResolver(cacheManager);
         return resolver;
     }
-
-    @Bean
-    public CacheMetricsCollector cacheMetricsCollector(MeterRegistry meterRegistry, CacheManager cacheManager, RedisConnectionFactory redisConnectionFactory) {
-        return new CacheMetricsCollector(meterRegistry, cacheManager, redisConnectionFactory);
-    }
-} 
\ No newline at end of file
+}
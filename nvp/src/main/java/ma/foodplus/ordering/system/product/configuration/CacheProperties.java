@@ -0,0 +1,118 @@
+package ma.foodplus.ordering.system.product.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-cache tuning bound from {@code foodplus.cache.*}. Caches without an entry use {@link #defaults}.
+ */
+@Data
+@ConfigurationProperties(prefix = "foodplus.cache")
+public class CacheProperties {
+
+    private CacheSpec defaults = new CacheSpec();
+
+    private Map<String, CacheSpec> caches = new HashMap<>();
+
+    private Metrics metrics = new Metrics();
+
+    private Tracking tracking = new Tracking();
+
+    private Warmup warmup = new Warmup();
+
+    private LocalCacheSpec priceMatrix = new LocalCacheSpec();
+
+    private LocalCacheSpec promoProfile = new LocalCacheSpec();
+
+    private LocalCacheSpec customerAnalytics = new LocalCacheSpec(100, Duration.ofMinutes(1));
+
+    private LocalCacheSpec promotionCatalog = new LocalCacheSpec(1_000, Duration.ofMinutes(1));
+
+    private LocalCacheSpec wholesaleLadder = new LocalCacheSpec();
+
+    /**
+     * Interval of the full reload of the in-process promo family membership index, which catches up on
+     * changes whose broadcast this instance missed.
+     */
+    private Duration promoFamilyMembershipRefresh = Duration.ofMinutes(5);
+
+    public CacheSpec specFor(String cacheName) {
+        return caches.getOrDefault(cacheName, defaults);
+    }
+
+    @Data
+    public static class Metrics {
+        /**
+         * Upper bound on keys read per SCAN pass when estimating per-cache key counts.
+         * When the whole keyspace fits in the sample the count is exact, otherwise it is extrapolated.
+         */
+        private int keySampleSize = 10_000;
+        private Duration keyCountInterval = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Tracking {
+        private boolean enabled = true;
+        /**
+         * Distinct keys counted per cache between two flushes; further new keys are ignored until the next flush.
+         */
+        private int maxKeysPerCache = 50_000;
+        private Duration flushInterval = Duration.ofMinutes(5);
+        /**
+         * How far back access counts are kept and summed when ranking keys.
+         */
+        private Duration history = Duration.ofDays(7);
+    }
+
+    @Data
+    public static class Warmup {
+        private boolean enabled = true;
+        private int parallelism = 4;
+        /**
+         * Upper bound on warm-up chunks started per second; each chunk costs about one database query.
+         */
+        private double maxChunksPerSecond = 20;
+        private int chunkSize = 200;
+        private int topProducts = 5_000;
+        private int topFamilies = 200;
+        private int topCustomers = 500;
+        /**
+         * Share of planned chunks (0-100) that must have finished before the readiness probe reports UP.
+         * 0 disables the readiness check.
+         */
+        private int readinessPercentage = 0;
+        /**
+         * After this delay readiness no longer waits for warm-up, whatever its progress.
+         */
+        private Duration readinessTimeout = Duration.ofMinutes(5);
+    }
+
+    /**
+     * In-process (Caffeine) cache. Invalidations reach the other instances through
+     * {@link LocalCacheInvalidationBus} on a best-effort basis, so {@code expireAfterWrite} still bounds how
+     * long an instance that missed one may serve a value changed elsewhere.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LocalCacheSpec {
+        private int maxSize = 10_000;
+        private Duration expireAfterWrite = Duration.ofMinutes(30);
+    }
+
+    @Data
+    public static class CacheSpec {
+        private Duration ttl = Duration.ofMinutes(10);
+        private CacheCodec codec = CacheCodec.JSON;
+        /**
+         * Encoded payloads larger than this many bytes are compressed; a negative value disables compression.
+         */
+        private int compressionThreshold = -1;
+    }
+}
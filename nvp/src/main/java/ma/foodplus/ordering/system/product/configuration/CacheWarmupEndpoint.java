@@ -0,0 +1,32 @@
+package ma.foodplus.ordering.system.product.configuration;
+
+import lombok.RequiredArgsConstructor;
+import ma.foodplus.ordering.system.product.service.CacheWarmingService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/cachewarmup}: GET reports warm-up progress per warmer, POST starts a new warm-up run.
+ */
+@Component
+@Endpoint(id = "cachewarmup")
+@RequiredArgsConstructor
+public class CacheWarmupEndpoint {
+
+    private final CacheWarmingService cacheWarmingService;
+
+    @ReadOperation
+    public CacheWarmingService.Progress progress() {
+        return cacheWarmingService.getProgress();
+    }
+
+    @WriteOperation
+    public Map<String, Object> start() {
+        boolean started = cacheWarmingService.startWarmUp();
+        return Map.of("started", started, "progress", cacheWarmingService.getProgress());
+    }
+}
@@ -0,0 +1,45 @@
+package ma.foodplus.ordering.system.product.configuration;
+
+import lombok.RequiredArgsConstructor;
+import ma.foodplus.ordering.system.product.service.CacheWarmingService;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Reports OUT_OF_SERVICE until enough of the cache warm-up has run ({@code foodplus.cache.warmup.readiness-percentage}).
+ * Included in the readiness group only, so a slow warm-up delays traffic but never restarts the pod.
+ */
+@Component("cacheWarmup")
+@RequiredArgsConstructor
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmingService cacheWarmingService;
+
+    private volatile Instant applicationReadyAt;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        applicationReadyAt = Instant.now();
+    }
+
+    @Override
+    public Health health() {
+        CacheWarmingService.Progress progress = cacheWarmingService.getProgress();
+        Instant readyAt = applicationReadyAt;
+        Health.Builder builder = readyAt != null && cacheWarmingService.isWarmEnough(readyAt)
+                ? Health.up()
+                : Health.outOfService();
+        return builder
+                .withDetail("state", progress.state())
+                .withDetail("percentage", progress.percentage())
+                .withDetail("completed", progress.completed())
+                .withDetail("failed", progress.failed())
+                .withDetail("planned", progress.planned())
+                .build();
+    }
+}
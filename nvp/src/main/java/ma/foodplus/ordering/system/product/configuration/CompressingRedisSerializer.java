@@ -0,0 +1,112 @@
+package ma.foodplus.ordering.system.product.configuration;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Prefixes the delegate's payload with a one byte header and deflates payloads above a threshold.
+ * Values without a known header were written before this serializer was introduced, in a format the
+ * delegate cannot read; they are read as absent so the cache reloads and overwrites them.
+ */
+public class CompressingRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte RAW = 0x00;
+    private static final byte DEFLATED = 0x01;
+
+    private final RedisSerializer<Object> delegate;
+    private final int compressionThreshold;
+    private final CacheMetrics.CacheMeters meters;
+
+    public CompressingRedisSerializer(RedisSerializer<Object> delegate, int compressionThreshold, CacheMetrics.CacheMeters meters) {
+        this.delegate = delegate;
+        this.compressionThreshold = compressionThreshold;
+        this.meters = meters;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] framed = frame(value);
+        if (framed != null) {
+            meters.writtenBytes.record(framed.length);
+        }
+        return framed;
+    }
+
+    private byte[] frame(Object value) {
+        byte[] encoded = delegate.serialize(value);
+        if (encoded == null) {
+            return null;
+        }
+        if (compressionThreshold >= 0 && encoded.length > compressionThreshold) {
+            byte[] deflated = deflate(encoded);
+            if (deflated.length < encoded.length) {
+                return withHeader(DEFLATED, deflated);
+            }
+        }
+        return withHeader(RAW, encoded);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        meters.readBytes.record(bytes.length);
+        return switch (bytes[0]) {
+            case RAW -> delegate.deserialize(Arrays.copyOfRange(bytes, 1, bytes.length));
+            case DEFLATED -> delegate.deserialize(inflate(bytes));
+            default -> null;
+        };
+    }
+
+    private static byte[] withHeader(byte header, byte[] payload) {
+        byte[] framed = new byte[payload.length + 1];
+        framed[0] = header;
+        System.arraycopy(payload, 0, framed, 1, payload.length);
+        return framed;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] framed) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(framed, 1, framed.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(framed.length * 3);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new SerializationException("Truncated compressed cache value");
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new SerializationException("Corrupt compressed cache value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package ma.foodplus.ordering.system.product.configuration;
+
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.util.Map;
+
+/**
+ * {@link RedisCacheManager} whose caches are metered and access-tracked ({@link MeteredCache}) and
+ * coalesce concurrent misses per key ({@link SingleFlightCache}).
+ */
+public class DecoratingRedisCacheManager extends RedisCacheManager {
+
+    private final CacheMetrics cacheMetrics;
+    private final CacheAccessTracker accessTracker;
+
+    public DecoratingRedisCacheManager(RedisCacheWriter cacheWriter,
+                                       RedisCacheConfiguration defaultCacheConfiguration,
+                                       Map<String, RedisCacheConfiguration> initialCacheConfigurations,
+                                       CacheMetrics cacheMetrics,
+                                       CacheAccessTracker accessTracker) {
+        super(cacheWriter, defaultCacheConfiguration, initialCacheConfigurations);
+        this.cacheMetrics = cacheMetrics;
+        this.accessTracker = accessTracker;
+    }
+
+    @Override
+    protected Cache decorateCache(Cache cache) {
+        Cache singleFlight = new SingleFlightCache(super.decorateCache(cache));
+        return new MeteredCache(singleFlight, cacheMetrics.forCache(cache.getName()), accessTracker);
+    }
+}
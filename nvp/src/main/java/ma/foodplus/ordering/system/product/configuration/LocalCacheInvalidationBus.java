@@ -0,0 +1,120 @@
+package ma.foodplus.ordering.system.product.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Broadcasts invalidations of in-process caches to the other instances over a Redis pub/sub channel.
+ * A cache {@link #subscribe subscribes} under its name and applies the keys it receives; its own
+ * instance is skipped since it already invalidated locally.
+ * <p>
+ * Delivery is at most once: an instance that is disconnected from Redis when a message is sent misses it,
+ * so the {@code expireAfterWrite} of each local cache still bounds how long a missed change can be served.
+ */
+@Slf4j
+public class LocalCacheInvalidationBus implements MessageListener {
+
+    public static final String CHANNEL = "foodplus:local-cache-invalidation";
+
+    private static final String SEPARATOR = "|";
+    private static final String KEY_SEPARATOR = ",";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String origin = UUID.randomUUID().toString();
+    private final Map<String, Consumer<List<String>>> handlers = new ConcurrentHashMap<>();
+    private final Counter published;
+    private final Counter received;
+    private final Counter failed;
+
+    public LocalCacheInvalidationBus(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.published = Counter.builder("foodplus.cache.invalidation.published").register(meterRegistry);
+        this.received = Counter.builder("foodplus.cache.invalidation.received").register(meterRegistry);
+        this.failed = Counter.builder("foodplus.cache.invalidation.failed").register(meterRegistry);
+    }
+
+    /**
+     * Registers the handler applying invalidations of {@code cacheName} sent by other instances.
+     * An empty key list means the whole cache.
+     */
+    public void subscribe(String cacheName, Consumer<List<String>> handler) {
+        handlers.put(cacheName, handler);
+    }
+
+    /**
+     * Sends the keys to the other instances once the current transaction commits, or at once outside
+     * a transaction. Keys must not contain {@code ','}; an empty collection invalidates the whole cache.
+     */
+    public void publishAfterCommit(String cacheName, Collection<?> keys) {
+        String payload = payload(cacheName, keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(cacheName, payload);
+                }
+            });
+        } else {
+            send(cacheName, payload);
+        }
+    }
+
+    /**
+     * Sends the keys at once. Meant for callers that already run after commit, such as
+     * {@code AFTER_COMMIT} event listeners, where a new synchronization would never be invoked.
+     */
+    public void publish(String cacheName, Collection<?> keys) {
+        send(cacheName, payload(cacheName, keys));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\" + SEPARATOR, 3);
+        if (parts.length != 3 || origin.equals(parts[0])) {
+            return;
+        }
+        Consumer<List<String>> handler = handlers.get(parts[1]);
+        if (handler == null) {
+            return;
+        }
+        received.increment();
+        List<String> keys = parts[2].isEmpty() ? List.of() : Arrays.asList(parts[2].split(KEY_SEPARATOR));
+        try {
+            handler.accept(keys);
+        } catch (RuntimeException e) {
+            log.warn("Failed to apply invalidation of {} keys of cache {}", keys.size(), parts[1], e);
+        }
+    }
+
+    private String payload(String cacheName, Collection<?> keys) {
+        return origin + SEPARATOR + cacheName + SEPARATOR
+                + keys.stream().map(String::valueOf).collect(Collectors.joining(KEY_SEPARATOR));
+    }
+
+    private void send(String cacheName, String payload) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, payload);
+            published.increment();
+        } catch (RuntimeException e) {
+            // The change is committed; other instances fall back on the expiry of their copy
+            failed.increment();
+            log.warn("Failed to broadcast invalidation of cache {}", cacheName, e);
+        }
+    }
+}
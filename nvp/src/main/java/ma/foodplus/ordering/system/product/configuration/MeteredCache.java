@@ -0,0 +1,131 @@
+package ma.foodplus.ordering.system.product.configuration;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Cache decorator recording hits, misses, puts, evictions and load latency, and feeding key
+ * accesses to the {@link CacheAccessTracker}.
+ * A caller served by another caller's in-flight load (see {@link SingleFlightCache}) counts as a hit.
+ */
+public class MeteredCache implements Cache {
+
+    private final Cache delegate;
+    private final CacheMetrics.CacheMeters meters;
+    private final CacheAccessTracker accessTracker;
+
+    public MeteredCache(Cache delegate, CacheMetrics.CacheMeters meters, CacheAccessTracker accessTracker) {
+        this.delegate = delegate;
+        this.meters = meters;
+        this.accessTracker = accessTracker;
+    }
+
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        accessTracker.record(getName(), key);
+        return record(delegate.get(key));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        accessTracker.record(getName(), key);
+        ValueWrapper wrapper = record(delegate.get(key));
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        accessTracker.record(getName(), key);
+        boolean[] loaded = new boolean[1];
+        T value = delegate.get(key, () -> {
+            loaded[0] = true;
+            Timer.Sample sample = Timer.start();
+            try {
+                T result = valueLoader.call();
+                sample.stop(meters.loadSuccess);
+                return result;
+            } catch (Exception e) {
+                sample.stop(meters.loadFailure);
+                throw e;
+            }
+        });
+        if (loaded[0]) {
+            meters.misses.increment();
+            if (value != null) {
+                meters.puts.increment();
+            }
+        } else {
+            meters.hits.increment();
+        }
+        return value;
+    }
+
+    private ValueWrapper record(ValueWrapper wrapper) {
+        (wrapper != null ? meters.hits : meters.misses).increment();
+        return wrapper;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        meters.puts.increment();
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if (existing == null) {
+            meters.puts.increment();
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        meters.evictions.increment();
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = delegate.evictIfPresent(key);
+        if (evicted) {
+            meters.evictions.increment();
+        }
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        meters.evictions.increment();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = delegate.invalidate();
+        meters.evictions.increment();
+        return invalidated;
+    }
+}
@@ -4,7 +4,6 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import ma.foodplus.ordering.system.domain.valueobject.ProductId;
-import ma.foodplus.ordering.system.product.configuration.CacheConstants;
 import ma.foodplus.ordering.system.product.dto.create.CreateProductCommand;
 import ma.foodplus.ordering.system.product.dto.response.ProductResponse;
 import ma.foodplus.ordering.system.product.dto.update.UpdateProductCommand;
@@ -13,7 +12,6 @@ import ma.foodplus.ordering.system.product.service.ProductService;
 import ma.foodplus.ordering.system.product.service.ProductValidationService;
 import ma.foodplus.ordering.system.product.mapper.ProductResponseMapper;
 import ma.foodplus.ordering.system.product.model.Product;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -62,7 +60,6 @@ public class ProductController {
     @Operation(summary = "Create a new product", description = "Creates a new product in the system.")
     @ApiResponse(responseCode = "201", description = "Product created successfully", content = @Content(schema = @Schema(implementation = ProductId.class)))
     @ApiResponse(responseCode = "400", description = "Invalid product data", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
-    @CacheEvict(value = {CacheConstants.PRODUCTS_CACHE, CacheConstants.PRODUCT_CACHE}, allEntries = true)
     public ResponseEntity<ProductId> createProduct(@io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Product to create", required = true, content = @Content(schema = @Schema(implementation = CreateProductCommand.class))) @RequestBody CreateProductCommand productDTO) {
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(productService.createProduct(productDTO));
@@ -72,7 +69,6 @@ public class ProductController {
     @Operation(summary = "Update a product", description = "Updates an existing product by ID.")
     @ApiResponse(responseCode = "200", description = "Product updated successfully", content = @Content(schema = @Schema(implementation = ProductId.class)))
     @ApiResponse(responseCode = "404", description = "Product not found", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
-    @CacheEvict(value = {CacheConstants.PRODUCTS_CACHE, CacheConstants.PRODUCT_CACHE}, allEntries = true)
     public ResponseEntity<ProductId> updateProduct(@Parameter(description = "Product ID", required = true) @PathVariable Long productId, @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Product update data", required = true, content = @Content(schema = @Schema(implementation = UpdateProductCommand.class))) @RequestBody UpdateProductCommand updateProductCommand) {
         return ResponseEntity.ok(
                 productService.updateProduct(new ProductId(productId), updateProductCommand));
@@ -82,7 +78,6 @@ public class ProductController {
     @Operation(summary = "Delete a product", description = "Deletes a product by its ID.")
     @ApiResponse(responseCode = "204", description = "Product deleted successfully")
     @ApiResponse(responseCode = "404", description = "Product not found", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
-    @CacheEvict(value = {CacheConstants.PRODUCTS_CACHE, CacheConstants.PRODUCT_CACHE}, allEntries = true)
     public ResponseEntity<Void> deleteProduct(@Parameter(description = "Product ID", required = true) @PathVariable Long productId) {
         productService.deleteProduct(new ProductId(productId));
         return ResponseEntity.noContent().build();
@@ -6,12 +6,15 @@ import ma.foodplus.ordering.system.domain.valueobject.ProductId;
 import ma.foodplus.ordering.system.product.dto.BulkOrderRequestDto;
 import ma.foodplus.ordering.system.product.dto.WholesalePriceRequestDto;
 import ma.foodplus.ordering.system.product.dto.WholesalePriceResponseDto;
+import ma.foodplus.ordering.system.product.dto.WholesaleQuoteRequestDto;
+import ma.foodplus.ordering.system.product.dto.WholesaleQuoteResponseDto;
 import ma.foodplus.ordering.system.product.dto.response.ProductResponse;
 import ma.foodplus.ordering.system.product.mapper.ProductResponseMapper;
 import ma.foodplus.ordering.system.product.model.Product;
 import ma.foodplus.ordering.system.product.service.ProductService;
 import ma.foodplus.ordering.system.product.service.WholesaleOrderValidationService;
 import ma.foodplus.ordering.system.product.service.WholesalePriceCalculationService;
+import ma.foodplus.ordering.system.product.service.WholesaleQuoteService;
 import ma.foodplus.ordering.system.inventory.service.BulkInventoryService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -29,6 +32,16 @@ public class WholesaleController {
     private final WholesalePriceCalculationService wholesalePriceCalculationService;
     private final WholesaleOrderValidationService wholesaleOrderValidationService;
     private final BulkInventoryService bulkInventoryService;
+    private final WholesaleQuoteService wholesaleQuoteService;
+
+    /**
+     * Quote a whole basket: price, validation and availability of every line
+     */
+    @PostMapping("/quote")
+    public ResponseEntity<WholesaleQuoteResponseDto> quoteBasket(
+            @Valid @RequestBody WholesaleQuoteRequestDto request) {
+        return ResponseEntity.ok(wholesaleQuoteService.quote(request));
+    }
 
     /**
      * Calculate wholesale price for a product
@@ -0,0 +1,19 @@
+package ma.foodplus.ordering.system.product.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class WholesaleQuoteLineDto {
+    private Long productId;
+    private Integer quantity;
+    // Null when the product is unknown or has no wholesale price at this quantity
+    private WholesalePriceResponseDto price;
+    // Stock across all depots, shared by every line of the same product
+    private Integer availableQuantity;
+    private Boolean available;
+    private List<String> errors;
+}
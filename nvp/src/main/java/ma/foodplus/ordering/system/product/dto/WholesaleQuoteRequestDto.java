@@ -0,0 +1,30 @@
+package ma.foodplus.ordering.system.product.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class WholesaleQuoteRequestDto {
+    @NotEmpty(message = "At least one line is required")
+    @Valid
+    private List<Line> lines;
+
+    private Boolean includeBulkDiscount = true;
+    private Boolean includeTax = true;
+    private String contractNumber;
+
+    @Data
+    public static class Line {
+        @NotNull(message = "Product ID is required")
+        private Long productId;
+
+        @NotNull(message = "Quantity is required")
+        @Min(value = 1, message = "Quantity must be at least 1")
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,18 @@
+package ma.foodplus.ordering.system.product.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+public class WholesaleQuoteResponseDto {
+    private List<WholesaleQuoteLineDto> lines;
+    private BigDecimal bulkDiscountTotal;
+    private BigDecimal taxTotal;
+    private BigDecimal totalPrice;
+    // True when every line is valid and in stock
+    private Boolean valid;
+}
@@ -0,0 +1,57 @@
+package ma.foodplus.ordering.system.product.event;
+
+import ma.foodplus.ordering.system.common.event.OutboxDomainEvent;
+import ma.foodplus.ordering.system.product.model.Product;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+/**
+ * Written to the outbox when a product's list, wholesale or B2C prices change. {@code previous} is null for a
+ * new product and {@code current} is null for a deleted one.
+ */
+public record ProductPriceChangedEvent(Long productId, Prices previous, Prices current, ZonedDateTime occurredAt)
+        implements OutboxDomainEvent<Product> {
+
+    /**
+     * The price fields of a product, compared by value whatever their scale.
+     */
+    public record Prices(BigDecimal salePrice, BigDecimal unitPrice, BigDecimal priceIncludingTax,
+                         BigDecimal taxRate, BigDecimal wholesalePrice, BigDecimal wholesaleDiscountPercentage,
+                         Integer wholesaleMinimumQuantity,
+                         BigDecimal wholesaleTier1Price, Integer wholesaleTier1Quantity,
+                         BigDecimal wholesaleTier2Price, Integer wholesaleTier2Quantity,
+                         BigDecimal wholesaleTier3Price, Integer wholesaleTier3Quantity,
+                         BigDecimal bulkDiscountPercentage, BigDecimal b2cRetailPrice, BigDecimal b2cPromoPrice) {
+
+        public static Prices of(Product product) {
+            return new Prices(normalize(product.getSalePrice()), normalize(product.getUnitPrice()),
+                    normalize(product.getPriceIncludingTax()), normalize(product.getTaxRate()),
+                    normalize(product.getWholesalePrice()), normalize(product.getWholesaleDiscountPercentage()),
+                    product.getWholesaleMinimumQuantity(),
+                    normalize(product.getWholesaleTier1Price()), product.getWholesaleTier1Quantity(),
+                    normalize(product.getWholesaleTier2Price()), product.getWholesaleTier2Quantity(),
+                    normalize(product.getWholesaleTier3Price()), product.getWholesaleTier3Quantity(),
+                    normalize(product.getBulkDiscountPercentage()), normalize(product.getB2cRetailPrice()),
+                    normalize(product.getB2cPromoPrice()));
+        }
+
+        private static BigDecimal normalize(BigDecimal value) {
+            return value != null ? value.stripTrailingZeros() : null;
+        }
+    }
+
+    public static ProductPriceChangedEvent of(Long productId, Prices previous, Prices current) {
+        return new ProductPriceChangedEvent(productId, previous, current, ZonedDateTime.now());
+    }
+
+    @Override
+    public String aggregateType() {
+        return "Product";
+    }
+
+    @Override
+    public String aggregateId() {
+        return String.valueOf(productId);
+    }
+}
@@ -349,7 +349,7 @@ public class Product {
      * @return true if the product is eligible for bulk discount
      */
     public boolean isEligibleForBulkDiscount(Integer quantity) {
-        return isBulkItem && quantity >= bulkDiscountThreshold;
+        return isBulkItem && bulkDiscountThreshold != null && quantity >= bulkDiscountThreshold;
     }
 
     /**
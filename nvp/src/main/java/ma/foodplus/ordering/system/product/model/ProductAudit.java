@@ -2,12 +2,20 @@ package ma.foodplus.ordering.system.product.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Immutable;
 import ma.foodplus.ordering.system.product.service.ProductAuditService.AuditAction;
 
 import java.time.ZonedDateTime;
 import java.util.Map;
 
+/**
+ * Read side of the product audit trail. Audits are written by
+ * {@link ma.foodplus.ordering.system.product.service.ProductAuditWriter} into tables partitioned by month on
+ * the audit timestamp, so queries bounded on {@code timestamp} only scan the months they cover.
+ */
 @Entity
+@Immutable
 @Table(name = "product_audits")
 @Getter
 @Setter
@@ -34,6 +42,7 @@ public class ProductAudit {
     private ZonedDateTime timestamp;
     
     @ElementCollection
+    @BatchSize(size = 50)
     @CollectionTable(
         name = "product_audit_changes",
         joinColumns = @JoinColumn(name = "audit_id")
@@ -43,6 +52,7 @@ public class ProductAudit {
     private Map<String, String> changes;
     
     @ElementCollection
+    @BatchSize(size = 50)
     @CollectionTable(
         name = "product_audit_details",
         joinColumns = @JoinColumn(name = "audit_id")
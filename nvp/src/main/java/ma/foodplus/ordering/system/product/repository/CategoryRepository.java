@@ -32,4 +32,15 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     
     @Query("SELECT c FROM Category c JOIN c.products p WHERE c = :category")
     Page<Category> findProductsByCategory(Category category, Pageable pageable);
+
+    /**
+     * Fetches only the id pairs of the product/category join table, without loading either entity.
+     */
+    @Query("SELECT p.id AS productId, c.id AS categoryId FROM Product p JOIN p.categories c")
+    List<ProductCategoryLink> findAllProductCategoryLinks();
+
+    interface ProductCategoryLink {
+        Long getProductId();
+        Long getCategoryId();
+    }
 } 
\ No newline at end of file
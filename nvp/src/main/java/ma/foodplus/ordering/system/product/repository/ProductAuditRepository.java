@@ -10,6 +10,10 @@ import org.springframework.stereotype.Repository;
 import java.time.ZonedDateTime;
 import java.util.List;
 
+/**
+ * Audits are partitioned by month on {@code timestamp}: the {@code TimestampBetween} queries are pruned to the
+ * months of the range, the others scan every retained month.
+ */
 @Repository
 public interface ProductAuditRepository extends JpaRepository<ProductAudit, Long> {
     
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -87,6 +88,32 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p WHERE p.updatedAt >= :since")
     Page<Product> findRecentlyUpdated(@Param("since") ZonedDateTime since, Pageable pageable);
 
+    // Cache warm-up fallbacks when no access history is available
+    @Query("SELECT p.id FROM Product p WHERE p.inactive = false ORDER BY p.updatedAt DESC")
+    List<Long> findActiveProductIdsByRecentUpdate(Pageable pageable);
+
+    @Query("SELECT DISTINCT p.productFamily.code FROM Product p WHERE p.inactive = false AND p.productFamily IS NOT NULL")
+    List<String> findActiveFamilyCodes(Pageable pageable);
+
+    // Pricing data of basket products for promotion evaluation, in one query
+    @Query("SELECT p.id AS id, p.title AS title, p.salePrice AS salePrice, f.id AS familyId, f.code AS familyCode, " +
+           "p.promoSkuPoints AS promoSkuPoints FROM Product p LEFT JOIN p.productFamily f WHERE p.id IN :ids")
+    List<PromotionLineRow> findPromotionLineRows(@Param("ids") Collection<Long> ids);
+
+    // Wholesale pricing columns of basket products for batch quotes, in one query
+    @Query("SELECT p.id AS id, p.title AS title, p.sku AS sku, p.unitPrice AS unitPrice, p.taxRate AS taxRate, " +
+           "p.wholesalePrice AS wholesalePrice, p.wholesaleMinimumQuantity AS wholesaleMinimumQuantity, " +
+           "p.wholesaleDiscountPercentage AS wholesaleDiscountPercentage, " +
+           "p.wholesaleTier1Price AS wholesaleTier1Price, p.wholesaleTier1Quantity AS wholesaleTier1Quantity, " +
+           "p.wholesaleTier2Price AS wholesaleTier2Price, p.wholesaleTier2Quantity AS wholesaleTier2Quantity, " +
+           "p.wholesaleTier3Price AS wholesaleTier3Price, p.wholesaleTier3Quantity AS wholesaleTier3Quantity, " +
+           "p.minimumOrderQuantity AS minimumOrderQuantity, p.maximumOrderQuantity AS maximumOrderQuantity, " +
+           "p.bulkDiscountThreshold AS bulkDiscountThreshold, p.bulkDiscountPercentage AS bulkDiscountPercentage, " +
+           "p.bulkPackageSize AS bulkPackageSize, p.bulkPackageUnit AS bulkPackageUnit, p.isBulkItem AS isBulkItem, " +
+           "p.isWholesaleOnly AS isWholesaleOnly, p.requiresContract AS requiresContract, p.updatedAt AS updatedAt " +
+           "FROM Product p WHERE p.id IN :ids")
+    List<WholesalePricingRow> findWholesalePricingRows(@Param("ids") Collection<Long> ids);
+
     // Find products by multiple references
     List<Product> findByReferenceIn(List<String> references);
 
@@ -102,4 +129,68 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
         @Param("supplierName") String supplierName,
         Pageable pageable
     );
-} 
\ No newline at end of file
+
+    interface WholesalePricingRow {
+        Long getId();
+
+        String getTitle();
+
+        String getSku();
+
+        BigDecimal getUnitPrice();
+
+        BigDecimal getTaxRate();
+
+        BigDecimal getWholesalePrice();
+
+        Integer getWholesaleMinimumQuantity();
+
+        BigDecimal getWholesaleDiscountPercentage();
+
+        BigDecimal getWholesaleTier1Price();
+
+        Integer getWholesaleTier1Quantity();
+
+        BigDecimal getWholesaleTier2Price();
+
+        Integer getWholesaleTier2Quantity();
+
+        BigDecimal getWholesaleTier3Price();
+
+        Integer getWholesaleTier3Quantity();
+
+        Integer getMinimumOrderQuantity();
+
+        Integer getMaximumOrderQuantity();
+
+        Integer getBulkDiscountThreshold();
+
+        BigDecimal getBulkDiscountPercentage();
+
+        Integer getBulkPackageSize();
+
+        String getBulkPackageUnit();
+
+        Boolean getIsBulkItem();
+
+        Boolean getIsWholesaleOnly();
+
+        Boolean getRequiresContract();
+
+        ZonedDateTime getUpdatedAt();
+    }
+
+    interface PromotionLineRow {
+        Long getId();
+
+        String getTitle();
+
+        BigDecimal getSalePrice();
+
+        Long getFamilyId();
+
+        String getFamilyCode();
+
+        BigDecimal getPromoSkuPoints();
+    }
+}
@@ -0,0 +1,25 @@
+package ma.foodplus.ordering.system.product.service;
+
+import java.util.List;
+
+/**
+ * A source of cache warm-up work. {@link CacheWarmingService} collects every warmer, orders them by
+ * {@link #getOrder()} and runs their chunks in parallel under a shared rate limit.
+ */
+public interface CacheWarmer {
+
+    String getName();
+
+    /**
+     * Warmers with a lower order have their chunks scheduled first.
+     */
+    default int getOrder() {
+        return 0;
+    }
+
+    /**
+     * Splits the warm-up into independent chunks, most valuable first. Each chunk should cost about
+     * one database round trip and must not depend on another chunk having run.
+     */
+    List<Runnable> planChunks();
+}
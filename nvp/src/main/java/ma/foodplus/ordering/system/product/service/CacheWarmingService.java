@@ -1,40 +1,222 @@
 package ma.foodplus.ordering.system.product.service;
 
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.product.configuration.CacheProperties;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs every {@link CacheWarmer} in the background once the application is ready.
+ * Chunks are executed on a small dedicated pool, throttled to {@code foodplus.cache.warmup.max-chunks-per-second}
+ * so warm-up never competes with live traffic for database connections. Progress is exposed through
+ * {@link #getProgress()} (actuator endpoint {@code cachewarmup}) and drives the readiness check.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class CacheWarmingService {
 
-    private final ProductService productService;
-    private final ProductManagementUseCase productManagementUseCase;
+    public enum State { IDLE, RUNNING, COMPLETED }
+
+    public record WarmerProgress(int planned, int completed, int failed) {
+    }
+
+    public record Progress(State state, int planned, int completed, int failed, double percentage,
+                           Instant startedAt, Instant finishedAt, Map<String, WarmerProgress> warmers) {
+    }
+
+    private final List<CacheWarmer> warmers;
+    private final CacheProperties.Warmup settings;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService executor;
+
+    private volatile Run currentRun;
+
+    public CacheWarmingService(List<CacheWarmer> warmers, CacheProperties cacheProperties) {
+        this.warmers = warmers.stream().sorted(Comparator.comparingInt(CacheWarmer::getOrder)).toList();
+        this.settings = cacheProperties.getWarmup();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, settings.getParallelism()), runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
-    @Async
     @EventListener(ApplicationReadyEvent.class)
     public void warmUpCache() {
+        if (settings.isEnabled()) {
+            startWarmUp();
+        }
+    }
+
+    /**
+     * Starts a warm-up in the background unless one is already running.
+     *
+     * @return false if a warm-up was already in progress
+     */
+    public boolean startWarmUp() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Run run = new Run();
+        currentRun = run;
+        // The coordinator waits on the chunk futures, so it must not occupy a pool thread itself.
+        Thread.ofPlatform().daemon().name("cache-warmup-coordinator").start(() -> execute(run));
+        return true;
+    }
+
+    public Progress getProgress() {
+        Run run = currentRun;
+        if (run == null) {
+            return new Progress(State.IDLE, 0, 0, 0, 0.0, null, null, Map.of());
+        }
+        return run.snapshot();
+    }
+
+    /**
+     * @return true once the configured share of chunks has finished, or readiness no longer waits for warm-up.
+     */
+    public boolean isWarmEnough(Instant applicationReadyAt) {
+        if (!settings.isEnabled() || settings.getReadinessPercentage() <= 0) {
+            return true;
+        }
+        if (Duration.between(applicationReadyAt, Instant.now()).compareTo(settings.getReadinessTimeout()) > 0) {
+            return true;
+        }
+        Progress progress = getProgress();
+        if (progress.state() == State.COMPLETED) {
+            return true;
+        }
+        return progress.state() == State.RUNNING && progress.planned() > 0
+                && progress.percentage() >= settings.getReadinessPercentage();
+    }
+
+    private void execute(Run run) {
         log.info("Starting cache warm-up...");
         try {
-            // Warm up all products cache
-            productService.getAllProducts();
-            log.info("Warmed up all products cache");
+            Map<CacheWarmer, List<Runnable>> plans = new LinkedHashMap<>();
+            for (CacheWarmer warmer : warmers) {
+                try {
+                    plans.put(warmer, warmer.planChunks());
+                } catch (Exception e) {
+                    log.error("Failed to plan cache warm-up for {}", warmer.getName(), e);
+                }
+            }
+            // Register every plan before submitting anything so the readiness percentage has a stable denominator.
+            Map<CacheWarmer, WarmerCounters> counters = new LinkedHashMap<>();
+            plans.forEach((warmer, chunks) -> counters.put(warmer, run.register(warmer.getName(), chunks.size())));
+
+            List<Future<?>> futures = new ArrayList<>();
+            RateLimiter rateLimiter = new RateLimiter(settings.getMaxChunksPerSecond());
+            plans.forEach((warmer, chunks) -> {
+                WarmerCounters warmerCounters = counters.get(warmer);
+                for (Runnable chunk : chunks) {
+                    futures.add(executor.submit(() -> {
+                        rateLimiter.acquire();
+                        try {
+                            chunk.run();
+                            warmerCounters.completed.incrementAndGet();
+                        } catch (Exception e) {
+                            warmerCounters.failed.incrementAndGet();
+                            log.warn("Cache warm-up chunk failed for {}: {}", warmer.getName(), e.getMessage());
+                        }
+                    }));
+                }
+            });
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Error during cache warm-up", e);
+        } finally {
+            run.finishedAt = Instant.now();
+            running.set(false);
+            Progress progress = run.snapshot();
+            log.info("Cache warm-up completed: {} chunks, {} failed", progress.completed(), progress.failed());
+        }
+    }
 
-            // Warm up deliverable products cache
-            productManagementUseCase.getDeliverableProducts();
-            log.info("Warmed up deliverable products cache");
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
 
-            // Warm up active products cache
-            productManagementUseCase.getActiveProducts();
-            log.info("Warmed up active products cache");
+    private static final class WarmerCounters {
+        final int planned;
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
 
-        } catch (Exception e) {
-            log.error("Error during cache warm-up", e);
+        WarmerCounters(int planned) {
+            this.planned = planned;
+        }
+    }
+
+    private static final class Run {
+        final Instant startedAt = Instant.now();
+        final Map<String, WarmerCounters> counters = new ConcurrentHashMap<>();
+        volatile Instant finishedAt;
+
+        WarmerCounters register(String warmerName, int planned) {
+            WarmerCounters warmerCounters = new WarmerCounters(planned);
+            counters.put(warmerName, warmerCounters);
+            return warmerCounters;
+        }
+
+        Progress snapshot() {
+            int planned = 0;
+            int completed = 0;
+            int failed = 0;
+            Map<String, WarmerProgress> warmers = new TreeMap<>();
+            for (Map.Entry<String, WarmerCounters> entry : counters.entrySet()) {
+                WarmerCounters c = entry.getValue();
+                warmers.put(entry.getKey(), new WarmerProgress(c.planned, c.completed.get(), c.failed.get()));
+                planned += c.planned;
+                completed += c.completed.get();
+                failed += c.failed.get();
+            }
+            double percentage = planned == 0 ? 0.0 : 100.0 * (completed + failed) / planned;
+            State state = finishedAt != null ? State.COMPLETED : State.RUNNING;
+            return new Progress(state, planned, completed, failed, percentage, startedAt, finishedAt, warmers);
+        }
+    }
+
+    /**
+     * Spaces permits evenly at the configured rate; a non-positive rate disables throttling.
+     */
+    private static final class RateLimiter {
+        private final long intervalNanos;
+        private long nextFreeSlot = System.nanoTime();
+
+        RateLimiter(double permitsPerSecond) {
+            this.intervalNanos = permitsPerSecond > 0 ? (long) (1_000_000_000L / permitsPerSecond) : 0L;
+        }
+
+        void acquire() {
+            if (intervalNanos == 0) {
+                return;
+            }
+            long slot;
+            synchronized (this) {
+                long now = System.nanoTime();
+                slot = Math.max(now, nextFreeSlot);
+                nextFreeSlot = slot + intervalNanos;
+            }
+            long wait = slot - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
         }
-        log.info("Cache warm-up completed");
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,372 @@
+package ma.foodplus.ordering.system.product.service;
+
+import ma.foodplus.ordering.system.product.dto.category.CategoryDTO;
+import ma.foodplus.ordering.system.product.repository.CategoryRepository.ProductCategoryLink;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of the whole category hierarchy and of the product/category links.
+ * <p>
+ * Categories are stored in DFS pre-order, so the subtree of the node at index {@code i} is the
+ * contiguous interval {@code [i, subtreeEnd[i])}. Ancestor checks are therefore two int comparisons
+ * and "all descendants" is an array slice. Ids are resolved to indexes by binary search.
+ */
+public final class CategoryForest {
+
+    private static final int NONE = -1;
+
+    private final CategoryDTO[] nodes;
+    private final int[] parent;
+    private final int[] subtreeEnd;
+
+    private final long[] sortedIds;
+    private final int[] sortedIdToIndex;
+    private final Map<String, int[]> indexesByName;
+
+    // Product -> category links in CSR form, productIds sorted ascending
+    private final long[] productIds;
+    private final int[] productOffsets;
+    private final int[] productCategories;
+    private final int[] productCountByCategory;
+
+    private CategoryForest(CategoryDTO[] nodes, int[] parent, int[] subtreeEnd,
+                           long[] productIds, int[] productOffsets, int[] productCategories) {
+        this.nodes = nodes;
+        this.parent = parent;
+        this.subtreeEnd = subtreeEnd;
+        this.productIds = productIds;
+        this.productOffsets = productOffsets;
+        this.productCategories = productCategories;
+
+        int size = nodes.length;
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> nodes[i].id()));
+        this.sortedIds = new long[size];
+        this.sortedIdToIndex = new int[size];
+        for (int i = 0; i < size; i++) {
+            sortedIds[i] = nodes[order[i]].id();
+            sortedIdToIndex[i] = order[i];
+        }
+
+        Map<String, List<Integer>> byName = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            if (nodes[i].name() != null) {
+                byName.computeIfAbsent(nodes[i].name(), k -> new ArrayList<>()).add(i);
+            }
+        }
+        Map<String, int[]> names = new HashMap<>();
+        byName.forEach((name, indexes) -> names.put(name, indexes.stream().mapToInt(Integer::intValue).toArray()));
+        this.indexesByName = Map.copyOf(names);
+
+        this.productCountByCategory = new int[size];
+        for (int categoryIndex : productCategories) {
+            productCountByCategory[categoryIndex]++;
+        }
+    }
+
+    public static CategoryForest empty() {
+        return new CategoryForest(new CategoryDTO[0], new int[0], new int[0], new long[0], new int[]{0}, new int[0]);
+    }
+
+    /**
+     * Builds a forest from flat categories (children are ignored, {@code parentId} is used) and
+     * product/category links. Links to unknown categories are dropped. Categories that cannot be
+     * reached from a root (broken or cyclic parent chains) are promoted to roots.
+     */
+    public static CategoryForest build(List<CategoryDTO> categories, List<ProductCategoryLink> links) {
+        int size = categories.size();
+        Map<Long, Integer> inputIndex = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            inputIndex.put(categories.get(i).id(), i);
+        }
+
+        // Children adjacency, ordered by id for a stable pre-order
+        List<List<Integer>> children = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            children.add(new ArrayList<>());
+        }
+        List<Integer> roots = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Long parentId = categories.get(i).parentId();
+            Integer parentIndex = parentId != null ? inputIndex.get(parentId) : null;
+            if (parentIndex == null || parentIndex == i) {
+                roots.add(i);
+            } else {
+                children.get(parentIndex).add(i);
+            }
+        }
+        Comparator<Integer> byId = Comparator.comparingLong(i -> categories.get(i).id());
+        roots.sort(byId);
+        children.forEach(list -> list.sort(byId));
+
+        CategoryDTO[] nodes = new CategoryDTO[size];
+        int[] parent = new int[size];
+        int[] subtreeEnd = new int[size];
+        int[] inputToIndex = new int[size];
+        Arrays.fill(inputToIndex, NONE);
+
+        int next = 0;
+        for (int root : roots) {
+            next = visit(root, NONE, categories, children, nodes, parent, subtreeEnd, inputToIndex, next);
+        }
+        for (int i = 0; i < size && next < size; i++) {
+            if (inputToIndex[i] == NONE) {
+                next = visit(i, NONE, categories, children, nodes, parent, subtreeEnd, inputToIndex, next);
+            }
+        }
+
+        List<ProductCategoryLink> sortedLinks = new ArrayList<>(links.size());
+        for (ProductCategoryLink link : links) {
+            if (link.getProductId() != null && inputIndex.containsKey(link.getCategoryId())) {
+                sortedLinks.add(link);
+            }
+        }
+        sortedLinks.sort(Comparator.comparingLong(ProductCategoryLink::getProductId));
+
+        int productCount = 0;
+        long previous = Long.MIN_VALUE;
+        for (ProductCategoryLink link : sortedLinks) {
+            if (productCount == 0 || link.getProductId() != previous) {
+                productCount++;
+                previous = link.getProductId();
+            }
+        }
+        long[] productIds = new long[productCount];
+        int[] productOffsets = new int[productCount + 1];
+        int[] productCategories = new int[sortedLinks.size()];
+        int product = -1;
+        for (int i = 0; i < sortedLinks.size(); i++) {
+            ProductCategoryLink link = sortedLinks.get(i);
+            if (product < 0 || link.getProductId() != productIds[product]) {
+                product++;
+                productIds[product] = link.getProductId();
+                productOffsets[product] = i;
+            }
+            productCategories[i] = inputToIndex[inputIndex.get(link.getCategoryId())];
+        }
+        productOffsets[productCount] = sortedLinks.size();
+
+        return new CategoryForest(nodes, parent, subtreeEnd, productIds, productOffsets, productCategories);
+    }
+
+    private static int visit(int start, int startParent, List<CategoryDTO> categories, List<List<Integer>> children,
+                             CategoryDTO[] nodes, int[] parent, int[] subtreeEnd, int[] inputToIndex, int next) {
+        // Iterative DFS so that deep hierarchies cannot overflow the stack
+        Deque<int[]> stack = new ArrayDeque<>();
+        inputToIndex[start] = next;
+        nodes[next] = categories.get(start);
+        parent[next] = startParent;
+        stack.push(new int[]{start, 0});
+        next++;
+        while (!stack.isEmpty()) {
+            int[] frame = stack.peek();
+            List<Integer> kids = children.get(frame[0]);
+            if (frame[1] < kids.size()) {
+                int child = kids.get(frame[1]++);
+                if (inputToIndex[child] != NONE) {
+                    continue;
+                }
+                inputToIndex[child] = next;
+                nodes[next] = categories.get(child);
+                parent[next] = inputToIndex[frame[0]];
+                stack.push(new int[]{child, 0});
+                next++;
+            } else {
+                subtreeEnd[inputToIndex[frame[0]]] = next;
+                stack.pop();
+            }
+        }
+        return next;
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    public boolean contains(Long categoryId) {
+        return indexOf(categoryId) != NONE;
+    }
+
+    public Optional<CategoryDTO> getCategory(Long categoryId) {
+        int index = indexOf(categoryId);
+        return index == NONE ? Optional.empty() : Optional.of(nodes[index]);
+    }
+
+    /**
+     * @return true if {@code categoryId} is {@code ancestorId} itself or one of its descendants.
+     */
+    public boolean isUnder(Long categoryId, Long ancestorId) {
+        return isUnder(indexOf(categoryId), indexOf(ancestorId));
+    }
+
+    private boolean isUnder(int index, int ancestor) {
+        return index != NONE && ancestor != NONE && ancestor <= index && index < subtreeEnd[ancestor];
+    }
+
+    public List<Long> getDescendantIds(Long categoryId) {
+        int index = indexOf(categoryId);
+        if (index == NONE) {
+            return List.of();
+        }
+        List<Long> descendants = new ArrayList<>(subtreeEnd[index] - index - 1);
+        for (int i = index + 1; i < subtreeEnd[index]; i++) {
+            descendants.add(nodes[i].id());
+        }
+        return descendants;
+    }
+
+    /**
+     * @return the category names from the root down to {@code categoryId}, empty if unknown.
+     */
+    public List<String> getCategoryPath(Long categoryId) {
+        int index = indexOf(categoryId);
+        if (index == NONE) {
+            return List.of();
+        }
+        LinkedList<String> path = new LinkedList<>();
+        for (int i = index; i != NONE; i = parent[i]) {
+            path.addFirst(nodes[i].name());
+        }
+        return path;
+    }
+
+    public List<Long> findIdsByName(String name) {
+        int[] indexes = name != null ? indexesByName.get(name) : null;
+        if (indexes == null) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            ids.add(nodes[index].id());
+        }
+        return ids;
+    }
+
+    public List<Long> getProductCategoryIds(Long productId) {
+        int product = productIndexOf(productId);
+        if (product == NONE) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(productOffsets[product + 1] - productOffsets[product]);
+        for (int i = productOffsets[product]; i < productOffsets[product + 1]; i++) {
+            ids.add(nodes[productCategories[i]].id());
+        }
+        return ids;
+    }
+
+    public List<String> getProductCategoryNames(Long productId) {
+        int product = productIndexOf(productId);
+        if (product == NONE) {
+            return List.of();
+        }
+        List<String> names = new ArrayList<>(productOffsets[product + 1] - productOffsets[product]);
+        for (int i = productOffsets[product]; i < productOffsets[product + 1]; i++) {
+            names.add(nodes[productCategories[i]].name());
+        }
+        return names;
+    }
+
+    /**
+     * @return true if any of the product's categories is {@code ancestorId} or one of its descendants.
+     */
+    public boolean isProductUnder(Long productId, Long ancestorId) {
+        int product = productIndexOf(productId);
+        int ancestor = indexOf(ancestorId);
+        if (product == NONE || ancestor == NONE) {
+            return false;
+        }
+        for (int i = productOffsets[product]; i < productOffsets[product + 1]; i++) {
+            if (isUnder(productCategories[i], ancestor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the root categories with their {@code children} populated recursively.
+     */
+    public List<CategoryDTO> toTree() {
+        List<CategoryDTO> roots = new ArrayList<>();
+        int i = 0;
+        while (i < nodes.length) {
+            roots.add(toTree(i));
+            i = subtreeEnd[i];
+        }
+        return roots;
+    }
+
+    private CategoryDTO toTree(int index) {
+        CategoryDTO dto = nodes[index];
+        if (subtreeEnd[index] == index + 1) {
+            return dto;
+        }
+        List<CategoryDTO> children = new ArrayList<>();
+        int child = index + 1;
+        while (child < subtreeEnd[index]) {
+            children.add(toTree(child));
+            child = subtreeEnd[child];
+        }
+        return new CategoryDTO(
+            dto.id(), dto.code(), dto.name(), dto.description(),
+            dto.level(), dto.parentId(), children, dto.isActive(),
+            dto.createdAt(), dto.updatedAt()
+        );
+    }
+
+    public long countActive() {
+        long count = 0;
+        for (CategoryDTO node : nodes) {
+            if (node.isActive()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public long countRoots() {
+        long count = 0;
+        for (int p : parent) {
+            if (p == NONE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public Map<Integer, Long> countByLevel() {
+        Map<Integer, Long> counts = new HashMap<>();
+        for (CategoryDTO node : nodes) {
+            counts.merge(node.level(), 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    public Map<Long, Long> countProductsByCategory() {
+        Map<Long, Long> counts = new HashMap<>(nodes.length * 2);
+        for (int i = 0; i < nodes.length; i++) {
+            counts.put(nodes[i].id(), (long) productCountByCategory[i]);
+        }
+        return counts;
+    }
+
+    private int indexOf(Long categoryId) {
+        if (categoryId == null) {
+            return NONE;
+        }
+        int position = Arrays.binarySearch(sortedIds, categoryId);
+        return position >= 0 ? sortedIdToIndex[position] : NONE;
+    }
+
+    private int productIndexOf(Long productId) {
+        if (productId == null) {
+            return NONE;
+        }
+        int position = Arrays.binarySearch(productIds, productId);
+        return position >= 0 ? position : NONE;
+    }
+}
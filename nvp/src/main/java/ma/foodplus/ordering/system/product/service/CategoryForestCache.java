@@ -0,0 +1,88 @@
+package ma.foodplus.ordering.system.product.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.product.dto.category.CategoryDTO;
+import ma.foodplus.ordering.system.product.mapper.CategoryMapper;
+import ma.foodplus.ordering.system.product.repository.CategoryRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the current {@link CategoryForest} snapshot. The snapshot is built lazily with two queries
+ * (all categories, all product/category links) and dropped whenever categories or product links change.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategoryForestCache {
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryMapper categoryMapper;
+
+    private volatile CategoryForest forest;
+    /**
+     * Bumped by every {@link #invalidate()}, so a load that overlapped an invalidation does not stay published.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    @Transactional(readOnly = true)
+    public CategoryForest get() {
+        CategoryForest current = forest;
+        if (current == null) {
+            synchronized (this) {
+                current = forest;
+                if (current == null) {
+                    long loadedGeneration = generation.get();
+                    current = load();
+                    forest = current;
+                    // An invalidation bumps before it clears: if it came after this check, its clear follows
+                    // the publish above, otherwise the check takes the possibly stale forest back.
+                    if (generation.get() != loadedGeneration) {
+                        forest = null;
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Drops the snapshot. Inside a transaction the drop is deferred until after commit so that a
+     * concurrent reader cannot rebuild the forest from data that is about to change.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear();
+                }
+            });
+        }
+        clear();
+    }
+
+    private void clear() {
+        generation.incrementAndGet();
+        forest = null;
+    }
+
+    private CategoryForest load() {
+        long start = System.nanoTime();
+        List<CategoryDTO> categories = categoryRepository.findAll().stream()
+            .map(categoryMapper::toDTO)
+            .collect(Collectors.toList());
+        List<CategoryRepository.ProductCategoryLink> links = categoryRepository.findAllProductCategoryLinks();
+        CategoryForest built = CategoryForest.build(categories, links);
+        log.debug("Built category forest with {} categories and {} product links in {} ms",
+            built.size(), links.size(), (System.nanoTime() - start) / 1_000_000);
+        return built;
+    }
+}
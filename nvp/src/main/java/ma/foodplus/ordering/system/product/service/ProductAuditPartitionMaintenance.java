@@ -0,0 +1,113 @@
+package ma.foodplus.ordering.system.product.service;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.product.configuration.AuditProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of the product audit tables: creates the upcoming months ahead of time, so
+ * inserts never fall into the default partition, and drops or detaches the months past the retention.
+ * Partition boundaries are UTC months, named {@code <table>_yYYYYmMM} by {@code create_monthly_partition}.
+ */
+@Slf4j
+@Service
+public class ProductAuditPartitionMaintenance {
+
+    /**
+     * Partitioned tables and their partition key, audits last so they are never left without their rows.
+     */
+    private static final List<String[]> PARTITIONED_TABLES = List.of(
+            new String[]{"product_audit_changes", "audit_timestamp"},
+            new String[]{"product_audit_details", "audit_timestamp"},
+            new String[]{"product_audits", "timestamp"});
+
+    private static final Pattern MONTH_SUFFIX = Pattern.compile("_y(\\d{4})m(\\d{2})$");
+
+    private static final String LIST_PARTITIONS =
+            "SELECT child.relname FROM pg_inherits i " +
+            "JOIN pg_class child ON child.oid = i.inhrelid " +
+            "JOIN pg_class parent ON parent.oid = i.inhparent " +
+            "WHERE parent.relname = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditProperties.Partitions settings;
+
+    public ProductAuditPartitionMaintenance(JdbcTemplate jdbcTemplate, AuditProperties auditProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.settings = auditProperties.getPartitions();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${foodplus.audit.partitions.maintenance-cron:0 15 2 * * *}")
+    public void maintain() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        createUpcoming(current);
+        if (settings.getRetentionMonths() > 0) {
+            expireBefore(current.minusMonths(settings.getRetentionMonths()));
+        }
+    }
+
+    private void createUpcoming(YearMonth current) {
+        int created = 0;
+        for (int offset = 0; offset <= Math.max(0, settings.getPremakeMonths()); offset++) {
+            LocalDate month = current.plusMonths(offset).atDay(1);
+            for (String[] table : PARTITIONED_TABLES) {
+                try {
+                    if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT create_monthly_partition(?, ?, ?)",
+                            Boolean.class, table[0], table[1], month))) {
+                        created++;
+                    }
+                } catch (DataAccessException e) {
+                    // Another instance may be creating the same partition; the next run retries
+                    log.warn("Could not create the {} partition of {}: {}", month, table[0], e.getMessage());
+                }
+            }
+        }
+        if (created > 0) {
+            log.info("Created {} audit partitions up to {}", created, current.plusMonths(settings.getPremakeMonths()));
+        }
+    }
+
+    private void expireBefore(YearMonth cutoff) {
+        for (String[] table : PARTITIONED_TABLES) {
+            String parent = table[0];
+            for (String partition : jdbcTemplate.queryForList(LIST_PARTITIONS, String.class, parent)) {
+                Matcher matcher = MONTH_SUFFIX.matcher(partition);
+                if (!matcher.find()) {
+                    continue;
+                }
+                YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+                if (!month.isBefore(cutoff)) {
+                    continue;
+                }
+                try {
+                    if (settings.getRetentionAction() == AuditProperties.RetentionAction.DETACH) {
+                        jdbcTemplate.execute("ALTER TABLE " + parent + " DETACH PARTITION " + partition);
+                        log.info("Detached audit partition {} for archiving", partition);
+                    } else {
+                        jdbcTemplate.execute("DROP TABLE " + partition);
+                        log.info("Dropped audit partition {}", partition);
+                    }
+                } catch (DataAccessException e) {
+                    log.warn("Could not expire audit partition {}: {}", partition, e.getMessage());
+                }
+            }
+        }
+    }
+}
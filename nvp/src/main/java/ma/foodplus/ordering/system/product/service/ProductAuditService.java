@@ -7,7 +7,6 @@ import ma.foodplus.ordering.system.product.repository.ProductAuditRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
@@ -21,6 +20,7 @@ import java.util.Objects;
 public class ProductAuditService {
 
     private final ProductAuditRepository auditRepository;
+    private final ProductAuditWriter auditWriter;
 
     public List<ProductAudit> findByProductId(Long productId) {
         return auditRepository.findByProductId(productId);
@@ -50,118 +50,68 @@ public class ProductAuditService {
         return auditRepository.findByProductIdAndTimestampBetween(productId, startDate, endDate);
     }
 
-    @Transactional
     public void logProductCreation(Product product, String userId) {
-        ProductAudit audit = ProductAudit.builder()
-            .productId(product.getId())
-            .action(AuditAction.CREATE)
-            .userId(userId)
-            .timestamp(ZonedDateTime.now())
-            .details(createAuditDetails(product))
-            .build();
-        
-        auditRepository.save(audit);
-    }
-
-    @Transactional
+        submit(product, AuditAction.CREATE, userId, null, createAuditDetails(product));
+    }
+
     public void logProductUpdate(Product oldProduct, Product newProduct, String userId) {
         Map<String, String> changes = compareProducts(oldProduct, newProduct);
         if (!changes.isEmpty()) {
-            ProductAudit audit = ProductAudit.builder()
-                .productId(newProduct.getId())
-                .action(AuditAction.UPDATE)
-                .userId(userId)
-                .timestamp(ZonedDateTime.now())
-                .changes(changes)
-                .build();
-            
-            auditRepository.save(audit);
+            submit(newProduct, AuditAction.UPDATE, userId, changes, null);
         }
     }
 
-    @Transactional
     public void logProductDeletion(Product product, String userId) {
-        ProductAudit audit = ProductAudit.builder()
-            .productId(product.getId())
-            .action(AuditAction.DELETE)
-            .userId(userId)
-            .timestamp(ZonedDateTime.now())
-            .details(createAuditDetails(product))
-            .build();
-        
-        auditRepository.save(audit);
-    }
-
-    @Transactional
+        submit(product, AuditAction.DELETE, userId, null, createAuditDetails(product));
+    }
+
     public void logPriceChange(Product product, BigDecimal oldPrice, BigDecimal newPrice, String userId) {
-        Map<String, String> changes = new HashMap<>();
+        Map<String, String> changes = new HashMap<>(4);
         changes.put("oldPrice", oldPrice.toString());
         changes.put("newPrice", newPrice.toString());
-
-        ProductAudit audit = ProductAudit.builder()
-            .productId(product.getId())
-            .action(AuditAction.PRICE_CHANGE)
-            .userId(userId)
-            .timestamp(ZonedDateTime.now())
-            .changes(changes)
-            .build();
-        
-        auditRepository.save(audit);
+        submit(product, AuditAction.PRICE_CHANGE, userId, changes, null);
     }
 
-    @Transactional
     public void logStatusChange(Product product, boolean oldStatus, boolean newStatus, String userId) {
-        Map<String, String> changes = new HashMap<>();
+        Map<String, String> changes = new HashMap<>(4);
         changes.put("oldStatus", String.valueOf(oldStatus));
         changes.put("newStatus", String.valueOf(newStatus));
+        submit(product, AuditAction.STATUS_CHANGE, userId, changes, null);
+    }
 
-        ProductAudit audit = ProductAudit.builder()
-            .productId(product.getId())
-            .action(AuditAction.STATUS_CHANGE)
-            .userId(userId)
-            .timestamp(ZonedDateTime.now())
-            .changes(changes)
-            .build();
-        
-        auditRepository.save(audit);
+    private void submit(Product product, AuditAction action, String userId,
+                        Map<String, String> changes, Map<String, String> details) {
+        auditWriter.submit(new ProductAuditWriter.PendingAudit(
+                product.getId(), userId, action, ZonedDateTime.now(), changes, details));
     }
 
     private Map<String, String> createAuditDetails(Product product) {
-        Map<String, String> details = new HashMap<>();
+        Map<String, String> details = new HashMap<>(8);
         details.put("reference", product.getReference());
         details.put("title", product.getTitle());
         details.put("description", product.getDescription());
-        details.put("salePrice", product.getSalePrice().toString());
+        details.put("salePrice", String.valueOf(product.getSalePrice()));
         details.put("inactive", String.valueOf(product.getInactive()));
         return details;
     }
 
     private Map<String, String> compareProducts(Product oldProduct, Product newProduct) {
         Map<String, String> changes = new HashMap<>();
+        putIfChanged(changes, "reference", oldProduct.getReference(), newProduct.getReference());
+        putIfChanged(changes, "title", oldProduct.getTitle(), newProduct.getTitle());
+        putIfChanged(changes, "description", oldProduct.getDescription(), newProduct.getDescription());
+        putIfChanged(changes, "salePrice", oldProduct.getSalePrice(), newProduct.getSalePrice());
+        putIfChanged(changes, "inactive", oldProduct.getInactive(), newProduct.getInactive());
+        putIfChanged(changes, "deliverable", oldProduct.getDeliverable(), newProduct.getDeliverable());
+        putIfChanged(changes, "stockTracking", oldProduct.getStockTracking(), newProduct.getStockTracking());
+        return changes;
+    }
 
-        if (!Objects.equals(oldProduct.getReference(), newProduct.getReference())) {
-            changes.put("reference", String.format("%s -> %s", oldProduct.getReference(), newProduct.getReference()));
-        }
-        if (!Objects.equals(oldProduct.getTitle(), newProduct.getTitle())) {
-            changes.put("title", String.format("%s -> %s", oldProduct.getTitle(), newProduct.getTitle()));
-        }
-        if (!Objects.equals(oldProduct.getDescription(), newProduct.getDescription())) {
-            changes.put("description", String.format("%s -> %s", oldProduct.getDescription(), newProduct.getDescription()));
-        }
-        if (!Objects.equals(oldProduct.getSalePrice(), newProduct.getSalePrice())) {
-            changes.put("salePrice", String.format("%s -> %s", oldProduct.getSalePrice(), newProduct.getSalePrice()));
+    // Plain concatenation instead of String.format: no format parsing, and nothing is built for unchanged fields
+    private static void putIfChanged(Map<String, String> changes, String field, Object oldValue, Object newValue) {
+        if (!Objects.equals(oldValue, newValue)) {
+            changes.put(field, oldValue + " -> " + newValue);
         }
-        if (!Objects.equals(oldProduct.getInactive(), newProduct.getInactive())) {
-            changes.put("inactive", String.format("%s -> %s", oldProduct.getInactive(), newProduct.getInactive()));
-        }
-        if (!Objects.equals(oldProduct.getDeliverable(), newProduct.getDeliverable())) {
-            changes.put("deliverable", String.format("%s -> %s", oldProduct.getDeliverable(), newProduct.getDeliverable()));
-        }
-        if (!Objects.equals(oldProduct.getStockTracking(), newProduct.getStockTracking())) {
-            changes.put("stockTracking", String.format("%s -> %s", oldProduct.getStockTracking(), newProduct.getStockTracking()));
-        }  
-
-        return changes;
     }
 
     public enum AuditAction {
@@ -0,0 +1,287 @@
+package ma.foodplus.ordering.system.product.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.product.configuration.AuditProperties;
+import ma.foodplus.ordering.system.product.service.ProductAuditService.AuditAction;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes product audits with JDBC batch inserts instead of one JPA save per audit.
+ * <p>
+ * Audits recorded inside a transaction are collected per transaction. With {@code FLUSH_ON_COMMIT} they are
+ * inserted in one batch just before the transaction commits, so they share its fate. With {@code ASYNC} they
+ * are handed after commit to a bounded buffer that a single background writer drains in batches; when the
+ * buffer stays full the {@code overflow} policy either writes on the calling thread or drops the audit.
+ * Audit ids are reserved from the table's sequence in one round trip per batch, so the change and detail
+ * rows can be batch-inserted alongside.
+ */
+@Slf4j
+@Component
+public class ProductAuditWriter {
+
+    public static final String METRICS_PREFIX = "foodplus.audit";
+
+    private static final String RESERVE_IDS =
+            "SELECT nextval('product_audits_id_seq') FROM generate_series(1, ?)";
+    private static final String INSERT_AUDIT =
+            "INSERT INTO product_audits (id, product_id, user_id, action, timestamp, version, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, 0, ?)";
+    private static final String INSERT_CHANGE =
+            "INSERT INTO product_audit_changes (audit_id, audit_timestamp, field_name, change_value) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_DETAIL =
+            "INSERT INTO product_audit_details (audit_id, audit_timestamp, field_name, field_value) VALUES (?, ?, ?, ?)";
+
+    /**
+     * An audit waiting to be written; {@code changes} and {@code details} may be null.
+     */
+    public record PendingAudit(Long productId, String userId, AuditAction action, ZonedDateTime timestamp,
+                               Map<String, String> changes, Map<String, String> details) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditProperties settings;
+    private final BlockingQueue<PendingAudit> buffer;
+    private final Counter written;
+    private final Counter callerWrites;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Timer batchTimer;
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public ProductAuditWriter(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              AuditProperties settings,
+                              MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Also called from afterCommit, where the finished transaction's resources are still bound: joining
+        // it would leave the inserts uncommitted
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.settings = settings;
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, settings.getBufferSize()));
+        this.written = Counter.builder(METRICS_PREFIX + ".written").register(meterRegistry);
+        this.callerWrites = Counter.builder(METRICS_PREFIX + ".caller-writes")
+                .description("Audits written on the calling thread because the buffer was full")
+                .register(meterRegistry);
+        this.dropped = Counter.builder(METRICS_PREFIX + ".dropped").register(meterRegistry);
+        this.failed = Counter.builder(METRICS_PREFIX + ".failed").register(meterRegistry);
+        this.batchTimer = Timer.builder(METRICS_PREFIX + ".batch").register(meterRegistry);
+        Gauge.builder(METRICS_PREFIX + ".buffered", buffer, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = Thread.ofPlatform().daemon().name("product-audit-writer").start(this::drainLoop);
+    }
+
+    /**
+     * Stops accepting background work and writes whatever is still buffered.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        List<PendingAudit> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+    }
+
+    public void submit(PendingAudit audit) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            if (settings.getDurability() == AuditProperties.Durability.FLUSH_ON_COMMIT) {
+                write(List.of(audit));
+            } else {
+                enqueue(audit);
+            }
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<PendingAudit> pending = (List<PendingAudit>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<PendingAudit> collected = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, collected);
+            TransactionSynchronizationManager.registerSynchronization(new PendingAudits(collected));
+            pending = collected;
+        }
+        pending.add(audit);
+    }
+
+    /**
+     * Audits of one transaction, written before commit or queued after it depending on the durability.
+     */
+    private final class PendingAudits implements TransactionSynchronization {
+
+        private final List<PendingAudit> audits;
+
+        private PendingAudits(List<PendingAudit> audits) {
+            this.audits = audits;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (settings.getDurability() == AuditProperties.Durability.FLUSH_ON_COMMIT) {
+                // Still inside the transaction: the inserts commit or roll back with the audited change.
+                insert(audits);
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            if (settings.getDurability() == AuditProperties.Durability.ASYNC) {
+                enqueue(audits);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ProductAuditWriter.this);
+        }
+    }
+
+    private void enqueue(PendingAudit audit) {
+        enqueue(List.of(audit));
+    }
+
+    /**
+     * Buffers the audits in order; once the buffer stays full past {@code offer-timeout}, the rest are
+     * handled together by the {@code overflow} policy, without waiting again for each of them.
+     */
+    private void enqueue(List<PendingAudit> audits) {
+        for (int i = 0; i < audits.size(); i++) {
+            if (!offer(audits.get(i))) {
+                overflow(audits.subList(i, audits.size()));
+                return;
+            }
+        }
+    }
+
+    private boolean offer(PendingAudit audit) {
+        try {
+            return buffer.offer(audit, settings.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void overflow(List<PendingAudit> audits) {
+        if (settings.getOverflow() == AuditProperties.Overflow.DROP) {
+            dropped.increment(audits.size());
+            log.warn("Product audit buffer full, dropped {} audits, the first a {} of product {}",
+                    audits.size(), audits.get(0).action(), audits.get(0).productId());
+            return;
+        }
+        callerWrites.increment(audits.size());
+        write(new ArrayList<>(audits));
+    }
+
+    private void drainLoop() {
+        int batchSize = Math.max(1, settings.getBatchSize());
+        long flushNanos = settings.getFlushInterval().toNanos();
+        List<PendingAudit> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingAudit first = buffer.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushNanos;
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingAudit next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Shutdown: write what was taken, shutdown() drains the rest.
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingAudit> audits) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(audits));
+        } catch (RuntimeException e) {
+            failed.increment(audits.size());
+            log.error("Failed to write {} product audits", audits.size(), e);
+        }
+    }
+
+    private void insert(List<PendingAudit> audits) {
+        if (audits.isEmpty()) {
+            return;
+        }
+        batchTimer.record(() -> {
+            List<Long> ids = jdbcTemplate.queryForList(RESERVE_IDS, Long.class, audits.size());
+            List<Object[]> auditRows = new ArrayList<>(audits.size());
+            List<Object[]> changeRows = new ArrayList<>();
+            List<Object[]> detailRows = new ArrayList<>();
+            ZonedDateTime createdAt = ZonedDateTime.now();
+            for (int i = 0; i < audits.size(); i++) {
+                PendingAudit audit = audits.get(i);
+                Long id = ids.get(i);
+                OffsetDateTime timestamp = audit.timestamp().toOffsetDateTime();
+                auditRows.add(new Object[]{id, audit.productId(), audit.userId(), audit.action().name(),
+                        timestamp, createdAt.toOffsetDateTime()});
+                // The timestamp is the partition key of the change and detail tables too
+                addFieldRows(changeRows, id, timestamp, audit.changes());
+                addFieldRows(detailRows, id, timestamp, audit.details());
+            }
+            jdbcTemplate.batchUpdate(INSERT_AUDIT, auditRows);
+            if (!changeRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_CHANGE, changeRows);
+            }
+            if (!detailRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_DETAIL, detailRows);
+            }
+        });
+        written.increment(audits.size());
+    }
+
+    private static void addFieldRows(List<Object[]> rows, Long auditId, OffsetDateTime timestamp,
+                                     Map<String, String> fields) {
+        if (fields == null) {
+            return;
+        }
+        fields.forEach((name, value) -> rows.add(new Object[]{auditId, timestamp, name, value}));
+    }
+}
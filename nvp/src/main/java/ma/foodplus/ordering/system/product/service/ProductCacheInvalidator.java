@@ -0,0 +1,92 @@
+package ma.foodplus.ordering.system.product.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.product.configuration.CacheConstants;
+import ma.foodplus.ordering.system.product.model.Product;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Maps a product to the cache entries that depend on it and evicts exactly those entries,
+ * instead of clearing the {@code product} and {@code products} caches wholesale.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    public record CacheKey(String cacheName, String key) {
+    }
+
+    /**
+     * Every cache entry whose value is derived from this product's current state.
+     * For updates, call it before and after the change and evict the union, so that entries under
+     * the old reference, barcode or family are dropped as well.
+     */
+    public Set<CacheKey> dependentKeys(Product product) {
+        Set<CacheKey> keys = new LinkedHashSet<>();
+        if (product.getId() != null) {
+            keys.add(new CacheKey(CacheConstants.PRODUCT_CACHE, CacheConstants.PREFIX_PRODUCT + product.getId()));
+            keys.add(new CacheKey(CacheConstants.PRODUCT_CACHE, CacheConstants.PREFIX_FAMILY + product.getId()));
+        }
+        if (product.getReference() != null) {
+            keys.add(new CacheKey(CacheConstants.PRODUCT_CACHE, CacheConstants.PREFIX_REFERENCE + product.getReference()));
+            keys.add(new CacheKey(CacheConstants.PRODUCT_CACHE, CacheConstants.PREFIX_EXISTS_REFERENCE + product.getReference()));
+        }
+        if (product.getBarcode() != null) {
+            keys.add(new CacheKey(CacheConstants.PRODUCT_CACHE, CacheConstants.PREFIX_BARCODE + product.getBarcode()));
+            keys.add(new CacheKey(CacheConstants.PRODUCT_CACHE, CacheConstants.PREFIX_EXISTS_BARCODE + product.getBarcode()));
+        }
+        if (product.getProductFamily() != null && product.getProductFamily().getCode() != null) {
+            keys.add(new CacheKey(CacheConstants.PRODUCTS_CACHE, CacheConstants.PREFIX_FAMILY + product.getProductFamily().getCode()));
+        }
+        if (Boolean.TRUE.equals(product.getDeliverable())) {
+            keys.add(new CacheKey(CacheConstants.PRODUCTS_CACHE, CacheConstants.KEY_DELIVERABLE));
+        }
+        if (!Boolean.TRUE.equals(product.getInactive())) {
+            keys.add(new CacheKey(CacheConstants.PRODUCTS_CACHE, CacheConstants.KEY_ACTIVE));
+        }
+        return keys;
+    }
+
+    /**
+     * Evicts the given keys once the surrounding transaction commits, or immediately without one.
+     * Evicting before commit would let a concurrent reader re-cache the old row.
+     */
+    public void evictAfterCommit(Collection<CacheKey> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        Set<CacheKey> snapshot = Set.copyOf(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(snapshot);
+                }
+            });
+        } else {
+            evict(snapshot);
+        }
+    }
+
+    private void evict(Collection<CacheKey> keys) {
+        for (CacheKey key : keys) {
+            Cache cache = cacheManager.getCache(key.cacheName());
+            if (cache != null) {
+                cache.evict(key.key());
+            }
+        }
+        log.debug("Evicted {} product cache entries: {}", keys.size(), keys);
+    }
+}
@@ -0,0 +1,116 @@
+package ma.foodplus.ordering.system.product.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.product.configuration.CacheAccessTracker;
+import ma.foodplus.ordering.system.product.configuration.CacheConstants;
+import ma.foodplus.ordering.system.product.configuration.CacheProperties;
+import ma.foodplus.ordering.system.product.dto.response.ProductResponse;
+import ma.foodplus.ordering.system.product.mapper.ProductResponseMapper;
+import ma.foodplus.ordering.system.product.model.Product;
+import ma.foodplus.ordering.system.product.repository.ProductRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Warms the {@code product} cache per id (plus reference/barcode keys) for the most accessed products,
+ * the {@code products} family lists for the most accessed families, and the active/deliverable lists.
+ * Products are loaded by chunks of ids in one query each and put with {@code putIfAbsent}, so a value
+ * cached by a live request is never overwritten.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCacheWarmer implements CacheWarmer {
+
+    private final ProductRepository productRepository;
+    private final ProductResponseMapper responseMapper;
+    private final ProductManagementUseCase productManagementUseCase;
+    private final CacheManager cacheManager;
+    private final CacheAccessTracker accessTracker;
+    private final CacheProperties cacheProperties;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    public String getName() {
+        return "products";
+    }
+
+    @Override
+    public List<Runnable> planChunks() {
+        CacheProperties.Warmup warmup = cacheProperties.getWarmup();
+        List<Runnable> chunks = new ArrayList<>();
+
+        chunks.add(productManagementUseCase::getActiveProducts);
+        chunks.add(productManagementUseCase::getDeliverableProducts);
+
+        List<Long> productIds = topProductIds(warmup.getTopProducts());
+        for (int from = 0; from < productIds.size(); from += warmup.getChunkSize()) {
+            List<Long> chunk = productIds.subList(from, Math.min(from + warmup.getChunkSize(), productIds.size()));
+            chunks.add(() -> warmProducts(chunk));
+        }
+
+        for (String familyCode : topFamilyCodes(warmup.getTopFamilies())) {
+            chunks.add(() -> productManagementUseCase.getProductsByFamilyCode(familyCode));
+        }
+        return chunks;
+    }
+
+    private List<Long> topProductIds(int limit) {
+        LinkedHashSet<Long> ids = new LinkedHashSet<>();
+        for (String key : accessTracker.topKeys(CacheConstants.PRODUCT_CACHE, CacheConstants.PREFIX_PRODUCT, limit)) {
+            try {
+                ids.add(Long.valueOf(key));
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring non numeric product cache key {}", key);
+            }
+        }
+        if (ids.size() < limit) {
+            ids.addAll(productRepository.findActiveProductIdsByRecentUpdate(PageRequest.of(0, limit)));
+        }
+        return new ArrayList<>(ids).subList(0, Math.min(limit, ids.size()));
+    }
+
+    private List<String> topFamilyCodes(int limit) {
+        LinkedHashSet<String> codes = new LinkedHashSet<>(
+                accessTracker.topKeys(CacheConstants.PRODUCTS_CACHE, CacheConstants.PREFIX_FAMILY, limit));
+        if (codes.size() < limit) {
+            codes.addAll(productRepository.findActiveFamilyCodes(PageRequest.of(0, limit)));
+        }
+        return new ArrayList<>(codes).subList(0, Math.min(limit, codes.size()));
+    }
+
+    private void warmProducts(List<Long> productIds) {
+        Cache cache = cacheManager.getCache(CacheConstants.PRODUCT_CACHE);
+        if (cache == null) {
+            return;
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        List<ProductResponse> responses = transaction.execute(status -> {
+            List<ProductResponse> mapped = new ArrayList<>(productIds.size());
+            for (Product product : productRepository.findAllById(productIds)) {
+                mapped.add(responseMapper.toResponse(product));
+            }
+            return mapped;
+        });
+        if (responses == null) {
+            return;
+        }
+        for (ProductResponse response : responses) {
+            cache.putIfAbsent(CacheConstants.PREFIX_PRODUCT + response.id().getValue(), response);
+            if (response.reference() != null) {
+                cache.putIfAbsent(CacheConstants.PREFIX_REFERENCE + response.reference(), response);
+            }
+            if (response.barcode() != null) {
+                cache.putIfAbsent(CacheConstants.PREFIX_BARCODE + response.barcode(), response);
+            }
+        }
+    }
+}
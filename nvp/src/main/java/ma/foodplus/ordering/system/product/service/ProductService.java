@@ -1,11 +1,13 @@
 package ma.foodplus.ordering.system.product.service;
 
 import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.common.service.OutboxEventPublisher;
 import ma.foodplus.ordering.system.domain.valueobject.ProductId;
 import ma.foodplus.ordering.system.product.configuration.CacheConstants;
 import ma.foodplus.ordering.system.product.dto.create.CreateProductCommand;
 import ma.foodplus.ordering.system.product.dto.response.ProductResponse;
 import ma.foodplus.ordering.system.product.dto.update.UpdateProductCommand;
+import ma.foodplus.ordering.system.product.event.ProductPriceChangedEvent;
 import ma.foodplus.ordering.system.product.exception.ProductCreationException;
 import ma.foodplus.ordering.system.product.exception.ProductNotFoundException;
 import ma.foodplus.ordering.system.product.mapper.ProductPersistenceMapper;
@@ -13,13 +15,15 @@ import ma.foodplus.ordering.system.product.mapper.ProductResponseMapper;
 import ma.foodplus.ordering.system.product.model.Category;
 import ma.foodplus.ordering.system.product.model.Product;
 import ma.foodplus.ordering.system.product.repository.ProductRepository;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.math.BigDecimal;
 import java.util.Map;
@@ -32,22 +36,37 @@ public class ProductService implements ProductManagementUseCase {
     private final ProductRepository productRepository;
     private final ProductPersistenceMapper persistenceMapper;
     private final ProductResponseMapper responseMapper;
+    private final CategoryForestCache categoryForestCache;
+    private final ProductCacheInvalidator cacheInvalidator;
+    private final WholesalePriceLadderCache wholesalePriceLadderCache;
+    private final OutboxEventPublisher outboxEventPublisher;
 
     public ProductService(ProductRepository productRepository, 
                          ProductPersistenceMapper persistenceMapper,
-                         ProductResponseMapper responseMapper) {
+                         ProductResponseMapper responseMapper,
+                         CategoryForestCache categoryForestCache,
+                         ProductCacheInvalidator cacheInvalidator,
+                         WholesalePriceLadderCache wholesalePriceLadderCache,
+                         OutboxEventPublisher outboxEventPublisher) {
         this.productRepository = productRepository;
         this.persistenceMapper = persistenceMapper;
         this.responseMapper = responseMapper;
+        this.categoryForestCache = categoryForestCache;
+        this.cacheInvalidator = cacheInvalidator;
+        this.wholesalePriceLadderCache = wholesalePriceLadderCache;
+        this.outboxEventPublisher = outboxEventPublisher;
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = {CacheConstants.PRODUCTS_CACHE, CacheConstants.PRODUCT_CACHE}, allEntries = true)
     public ProductId createProduct(CreateProductCommand command) {
         try {
             var productEntity = persistenceMapper.toEntity(command);
             var savedProduct = productRepository.save(productEntity);
+            cacheInvalidator.evictAfterCommit(cacheInvalidator.dependentKeys(savedProduct));
+            outboxEventPublisher.publish(ProductPriceChangedEvent.of(savedProduct.getId(),
+                    null, ProductPriceChangedEvent.Prices.of(savedProduct)));
+            categoryForestCache.invalidate();
             return new ProductId(savedProduct.getId());
         } catch (Exception e) {
             log.error("Error creating product: {}", e.getMessage(), e);
@@ -57,7 +76,7 @@ public class ProductService implements ProductManagementUseCase {
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheConstants.PRODUCT_CACHE, key = "'product:' + #id.value")
+    @Cacheable(value = CacheConstants.PRODUCT_CACHE, key = CacheConstants.KEY_PRODUCT_BY_ID, sync = true)
     public ProductResponse getProduct(ProductId id) {
         return productRepository.findById(id.getValue())
                 .map(responseMapper::toResponse)
@@ -66,7 +85,7 @@ public class ProductService implements ProductManagementUseCase {
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheConstants.PRODUCT_CACHE, key = "'reference:' + #reference")
+    @Cacheable(value = CacheConstants.PRODUCT_CACHE, key = CacheConstants.KEY_PRODUCT_BY_REF, sync = true)
     public ProductResponse getProductByReference(String reference) {
         return productRepository.findByReference(reference)
                 .map(responseMapper::toResponse)
@@ -75,7 +94,7 @@ public class ProductService implements ProductManagementUseCase {
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheConstants.PRODUCT_CACHE, key = "'barcode:' + #barcode")
+    @Cacheable(value = CacheConstants.PRODUCT_CACHE, key = CacheConstants.KEY_PRODUCT_BY_BARCODE, sync = true)
     public ProductResponse getProductByBarcode(String barcode) {
         return productRepository.findByBarcode(barcode)
                 .map(responseMapper::toResponse)
@@ -84,7 +103,7 @@ public class ProductService implements ProductManagementUseCase {
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheConstants.PRODUCTS_CACHE, key = "'family:' + #familyCode")
+    @Cacheable(value = CacheConstants.PRODUCTS_CACHE, key = CacheConstants.KEY_FAMILY_PRODUCTS, sync = true)
     public List<ProductResponse> getProductsByFamilyCode(String familyCode) {
         return productRepository.findByProductFamilyCode(familyCode).stream()
                 .map(responseMapper::toResponse)
@@ -93,7 +112,7 @@ public class ProductService implements ProductManagementUseCase {
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheConstants.PRODUCTS_CACHE, key = "'deliverable'")
+    @Cacheable(value = CacheConstants.PRODUCTS_CACHE, key = CacheConstants.KEY_DELIVERABLE_PRODUCTS, sync = true)
     public List<ProductResponse> getDeliverableProducts() {
         return productRepository.findByDeliverableTrue().stream()
                 .map(responseMapper::toResponse)
@@ -102,7 +121,7 @@ public class ProductService implements ProductManagementUseCase {
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheConstants.PRODUCTS_CACHE, key = "'active'")
+    @Cacheable(value = CacheConstants.PRODUCTS_CACHE, key = CacheConstants.KEY_ACTIVE_PRODUCTS, sync = true)
     public List<ProductResponse> getActiveProducts() {
         return productRepository.findByInactiveFalse().stream()
                 .map(responseMapper::toResponse)
@@ -124,36 +143,49 @@ public class ProductService implements ProductManagementUseCase {
 
     @Override
     @Transactional
-    @CacheEvict(value = {CacheConstants.PRODUCTS_CACHE, CacheConstants.PRODUCT_CACHE}, allEntries = true)
     public ProductId updateProduct(ProductId productId, UpdateProductCommand command) {
         Product existingProduct = productRepository.findById(productId.getValue())
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId.getValue()));
         
+        Set<ProductCacheInvalidator.CacheKey> staleKeys = new LinkedHashSet<>(cacheInvalidator.dependentKeys(existingProduct));
+        ProductPriceChangedEvent.Prices previousPrices = ProductPriceChangedEvent.Prices.of(existingProduct);
         persistenceMapper.updateEntity(existingProduct, command);
         Product updatedProduct = productRepository.save(existingProduct);
+        ProductPriceChangedEvent.Prices currentPrices = ProductPriceChangedEvent.Prices.of(updatedProduct);
+        if (!currentPrices.equals(previousPrices)) {
+            outboxEventPublisher.publish(ProductPriceChangedEvent.of(updatedProduct.getId(), previousPrices, currentPrices));
+        }
+        staleKeys.addAll(cacheInvalidator.dependentKeys(updatedProduct));
+        cacheInvalidator.evictAfterCommit(staleKeys);
+        wholesalePriceLadderCache.invalidate(updatedProduct.getId());
+        categoryForestCache.invalidate();
         return new ProductId(updatedProduct.getId());
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = {CacheConstants.PRODUCTS_CACHE, CacheConstants.PRODUCT_CACHE}, allEntries = true)
     public void deleteProduct(ProductId id) {
-        if (!productRepository.existsById(id.getValue())) {
-            throw new ProductNotFoundException("Product not found with id: " + id.getValue());
-        }
-        productRepository.deleteById(id.getValue());
+        Product product = productRepository.findById(id.getValue())
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id.getValue()));
+        Set<ProductCacheInvalidator.CacheKey> staleKeys = cacheInvalidator.dependentKeys(product);
+        productRepository.delete(product);
+        outboxEventPublisher.publish(ProductPriceChangedEvent.of(product.getId(),
+                ProductPriceChangedEvent.Prices.of(product), null));
+        cacheInvalidator.evictAfterCommit(staleKeys);
+        wholesalePriceLadderCache.invalidate(product.getId());
+        categoryForestCache.invalidate();
     }
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheConstants.PRODUCT_CACHE, key = "'exists:reference:' + #reference")
+    @Cacheable(value = CacheConstants.PRODUCT_CACHE, key = CacheConstants.KEY_EXISTS_BY_REF)
     public boolean existsByReference(String reference) {
         return productRepository.existsByReference(reference);
     }
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheConstants.PRODUCT_CACHE, key = "'exists:barcode:' + #barcode")
+    @Cacheable(value = CacheConstants.PRODUCT_CACHE, key = CacheConstants.KEY_EXISTS_BY_BARCODE)
     public boolean existsByBarcode(String barcode) {
         return productRepository.existsByBarcode(barcode);
     }
@@ -199,23 +231,30 @@ public class ProductService implements ProductManagementUseCase {
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheConstants.PRODUCT_CACHE, key = "'family:' + #productId")
+    @Cacheable(value = CacheConstants.PRODUCT_CACHE, key = CacheConstants.KEY_FAMILY_OF_PRODUCT, sync = true)
     public String getProductFamily(Long productId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId));
         return product.getProductFamily() != null ? product.getProductFamily().getCode() : null;
     }
 
+    /**
+     * Not cached: entries keyed by basket could not be invalidated per product. One query per basket instead.
+     */
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheConstants.PRODUCT_CACHE, key = "'prices:' + #basketItems.hashCode()")
     public Map<Long, BigDecimal> getProductPrices(Map<Long, Integer> basketItems) {
         Map<Long, BigDecimal> prices = new HashMap<>();
-        for (Long productId : basketItems.keySet()) {
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId));
+        Set<Long> found = new HashSet<>();
+        for (Product product : productRepository.findAllById(basketItems.keySet())) {
+            found.add(product.getId());
             if (product.getSalePrice() != null) {
-                prices.put(productId, product.getSalePrice());
+                prices.put(product.getId(), product.getSalePrice());
+            }
+        }
+        for (Long productId : basketItems.keySet()) {
+            if (!found.contains(productId)) {
+                throw new ProductNotFoundException("Product not found with id: " + productId);
             }
         }
         return prices;
@@ -87,6 +87,54 @@ public class WholesaleOrderValidationService {
         return errors;
     }
 
+    /**
+     * Validate one line of a wholesale quote against the product's price ladder
+     * @param ladder The wholesale price ladder of the product, null if the product does not exist
+     * @param quantity The quantity being ordered
+     * @param hasContract Whether the customer has a valid contract
+     * @return A list of validation errors, empty if valid
+     */
+    public List<String> validateQuoteLine(WholesalePriceLadder ladder, int quantity, boolean hasContract) {
+        List<String> errors = new ArrayList<>();
+
+        if (ladder == null) {
+            errors.add("Product not found");
+            return errors;
+        }
+
+        if (!ladder.isAvailableForWholesale(quantity, hasContract)) {
+            errors.add("Product is not available for wholesale at this quantity");
+        }
+
+        if (ladder.isRequiresContract() && !hasContract) {
+            errors.add("This product requires a valid contract");
+        }
+
+        if (quantity < ladder.getWholesaleMinimumQuantity()) {
+            errors.add(String.format("Minimum wholesale quantity is %d", ladder.getWholesaleMinimumQuantity()));
+        }
+
+        // Same checks as Product#validateBulkOrderQuantity
+        if (quantity < ladder.getMinimumOrderQuantity()) {
+            errors.add(String.format("Quantity must be at least %d", ladder.getMinimumOrderQuantity()));
+        }
+
+        if (ladder.getMaximumOrderQuantity() != null && quantity > ladder.getMaximumOrderQuantity()) {
+            errors.add(String.format("Quantity cannot exceed %d", ladder.getMaximumOrderQuantity()));
+        }
+
+        if (ladder.isBulkItem() && ladder.getBulkPackageSize() != null && quantity % ladder.getBulkPackageSize() != 0) {
+            errors.add(String.format("Quantity must be a multiple of %d %s",
+                ladder.getBulkPackageSize(), ladder.getBulkPackageUnit() != null ? ladder.getBulkPackageUnit() : "units"));
+        }
+
+        if (ladder.wholesalePrice(quantity) == null) {
+            errors.add("Product has no wholesale price for this quantity");
+        }
+
+        return errors;
+    }
+
     /**
      * Validate a bulk order request
      * @param request The bulk order request
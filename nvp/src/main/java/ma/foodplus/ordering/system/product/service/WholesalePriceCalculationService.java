@@ -8,13 +8,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 @Service
 @RequiredArgsConstructor
 public class WholesalePriceCalculationService {
 
     private final WholesaleOrderValidationService validationService;
+    private final WholesalePriceLadderCache ladderCache;
 
     /**
      * Calculate wholesale price for a product
@@ -28,17 +28,11 @@ public class WholesalePriceCalculationService {
             throw new IllegalArgumentException("Product and quantity are required");
         }
 
-        // Calculate base wholesale price
-        BigDecimal wholesalePrice = product.calculateWholesalePrice(quantity);
-        
-        // Calculate bulk discount if applicable
-        if (product.isEligibleForBulkDiscount(quantity)) {
-            BigDecimal bulkDiscount = wholesalePrice.multiply(product.calculateBulkDiscount(quantity))
-                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-            wholesalePrice = wholesalePrice.subtract(bulkDiscount);
+        WholesalePriceLadder.Step step = ladderFor(product).step(quantity);
+        if (step.wholesalePrice() == null) {
+            return null;
         }
-
-        return wholesalePrice;
+        return step.wholesalePrice().subtract(step.bulkDiscount());
     }
 
     /**
@@ -60,22 +54,37 @@ public class WholesalePriceCalculationService {
             throw new IllegalArgumentException(String.join(", ", validationErrors));
         }
 
-        // Calculate base wholesale price
-        BigDecimal wholesalePrice = product.calculateWholesalePrice(request.getQuantity());
-        
-        // Calculate bulk discount if applicable
-        BigDecimal bulkDiscount = BigDecimal.ZERO;
-        if (request.getIncludeBulkDiscount() && product.isEligibleForBulkDiscount(request.getQuantity())) {
-            bulkDiscount = wholesalePrice.multiply(product.calculateBulkDiscount(request.getQuantity()))
-                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        return priceLine(request, product);
+    }
+
+    /**
+     * Price a product line without validating it, for callers that report validation errors themselves
+     * @param request The wholesale price request
+     * @param product The product to calculate price for
+     * @return The calculated wholesale price response
+     */
+    public WholesalePriceResponseDto priceLine(WholesalePriceRequestDto request, Product product) {
+        return priceLine(request, ladderFor(product));
+    }
+
+    /**
+     * Price a product line from its precomputed ladder, without validating it
+     * @param request The wholesale price request
+     * @param ladder The wholesale price ladder of the product
+     * @return The calculated wholesale price response, or null if the product has no wholesale price at this quantity
+     */
+    public WholesalePriceResponseDto priceLine(WholesalePriceRequestDto request, WholesalePriceLadder ladder) {
+        WholesalePriceLadder.Step step = ladder.step(request.getQuantity());
+        BigDecimal wholesalePrice = step.wholesalePrice();
+        if (wholesalePrice == null) {
+            return null;
         }
 
-        // Calculate tax if included
+        boolean includeBulkDiscount = request.getIncludeBulkDiscount();
+        BigDecimal bulkDiscount = includeBulkDiscount ? step.bulkDiscount() : BigDecimal.ZERO;
         BigDecimal taxAmount = BigDecimal.ZERO;
-        if (request.getIncludeTax() && product.getTaxRate() != null) {
-            BigDecimal taxableAmount = wholesalePrice.subtract(bulkDiscount);
-            taxAmount = taxableAmount.multiply(product.getTaxRate())
-                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        if (request.getIncludeTax()) {
+            taxAmount = includeBulkDiscount ? step.taxAmount() : step.taxAmountWithoutBulk();
         }
 
         // Calculate total price
@@ -86,19 +95,27 @@ public class WholesalePriceCalculationService {
 
         // Build response
         return WholesalePriceResponseDto.builder()
-                .productId(product.getId())
-                .productName(product.getTitle())
-                .sku(product.getSku())
+                .productId(ladder.getProductId())
+                .productName(ladder.getTitle())
+                .sku(ladder.getSku())
                 .quantity(request.getQuantity())
-                .unitPrice(product.getUnitPrice())
+                .unitPrice(ladder.getUnitPrice())
                 .wholesalePrice(wholesalePrice)
                 .bulkDiscount(bulkDiscount)
                 .taxAmount(taxAmount)
                 .totalPrice(totalPrice)
-                .appliedTier(product.getAppliedWholesaleTier(request.getQuantity()))
-                .requiresContract(product.getRequiresContract())
+                .appliedTier(step.appliedTier())
+                .requiresContract(ladder.isRequiresContract())
                 .contractNumber(request.getContractNumber())
-                .pricingNotes(product.getWholesalePricingNotes(request.getQuantity()))
+                .pricingNotes(step.pricingNotes())
                 .build();
     }
-} 
\ No newline at end of file
+
+    private WholesalePriceLadder ladderFor(Product product) {
+        // Products that are not saved yet, were just deleted, or are newer than the cached ladder (changed in
+        // this transaction, or on another instance whose invalidation has not arrived) are priced from the
+        // instance itself.
+        WholesalePriceLadder ladder = product.getId() != null ? ladderCache.get(product.getId()) : null;
+        return ladder != null && !ladder.isOlderThan(product) ? ladder : WholesalePriceLadder.of(product);
+    }
+}
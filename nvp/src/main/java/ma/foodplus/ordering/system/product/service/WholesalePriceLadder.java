@@ -0,0 +1,252 @@
+package ma.foodplus.ordering.system.product.service;
+
+import ma.foodplus.ordering.system.product.model.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+/**
+ * Immutable wholesale pricing of one product, precomputed per quantity band.
+ * <p>
+ * Every wholesale rule of {@link Product} compares the quantity with one of a handful of thresholds (wholesale
+ * minimum, tier 1-3 quantities, bulk discount threshold), so the result is constant between two consecutive
+ * thresholds. The ladder evaluates the rules once per band and keeps the bands in a sorted {@code int[]} with a
+ * parallel {@link Step} array: a lookup is a binary search that neither boxes nor divides nor allocates.
+ */
+public final class WholesalePriceLadder {
+
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+
+    /**
+     * Pricing of one quantity band. Amounts are per unit and null when the product has no wholesale price in
+     * the band.
+     *
+     * @param bulkDiscount          per-unit bulk discount, zero when not eligible
+     * @param taxAmount             per-unit tax on the wholesale price net of the bulk discount
+     * @param taxAmountWithoutBulk  per-unit tax on the wholesale price when the bulk discount is not applied
+     * @param finalWholesalePrice   {@link Product#calculateFinalPrice} for wholesale orders
+     * @param finalRetailPrice      {@link Product#calculateFinalPrice} for retail orders
+     */
+    public record Step(int fromQuantity, BigDecimal wholesalePrice, String appliedTier, boolean wholesaleEligible,
+                       boolean bulkDiscountEligible, BigDecimal bulkDiscount, BigDecimal taxAmount,
+                       BigDecimal taxAmountWithoutBulk, BigDecimal finalWholesalePrice, BigDecimal finalRetailPrice,
+                       String pricingNotes) {
+    }
+
+    private final Long productId;
+    private final String title;
+    private final String sku;
+    private final BigDecimal unitPrice;
+    private final boolean wholesaleOnly;
+    private final boolean requiresContract;
+    private final int wholesaleMinimumQuantity;
+    private final int minimumOrderQuantity;
+    private final Integer maximumOrderQuantity;
+    private final boolean bulkItem;
+    private final Integer bulkPackageSize;
+    private final String bulkPackageUnit;
+    private final ZonedDateTime updatedAt;
+    private final int[] thresholds;
+    private final Step[] steps;
+
+    private WholesalePriceLadder(Product product, int[] thresholds, Step[] steps) {
+        this.productId = product.getId();
+        this.title = product.getTitle();
+        this.sku = product.getSku();
+        this.unitPrice = product.getUnitPrice();
+        this.wholesaleOnly = Boolean.TRUE.equals(product.getIsWholesaleOnly());
+        this.requiresContract = Boolean.TRUE.equals(product.getRequiresContract());
+        this.wholesaleMinimumQuantity = product.getWholesaleMinimumQuantity();
+        this.minimumOrderQuantity = product.getMinimumOrderQuantity();
+        this.maximumOrderQuantity = product.getMaximumOrderQuantity();
+        this.bulkItem = Boolean.TRUE.equals(product.getIsBulkItem());
+        this.bulkPackageSize = product.getBulkPackageSize();
+        this.bulkPackageUnit = product.getBulkPackageUnit();
+        this.updatedAt = product.getUpdatedAt();
+        this.thresholds = thresholds;
+        this.steps = steps;
+    }
+
+    /**
+     * Builds the ladder by evaluating the product's own rules once per band.
+     * The product needs its wholesale and bulk fields, and non-null minimum quantities.
+     */
+    public static WholesalePriceLadder of(Product product) {
+        TreeSet<Integer> breakpoints = new TreeSet<>();
+        breakpoints.add(product.getWholesaleMinimumQuantity());
+        addIfPresent(breakpoints, product.getWholesaleTier1Quantity());
+        addIfPresent(breakpoints, product.getWholesaleTier2Quantity());
+        addIfPresent(breakpoints, product.getWholesaleTier3Quantity());
+        addIfPresent(breakpoints, product.getBulkDiscountThreshold());
+
+        int[] thresholds = new int[breakpoints.size() + 1];
+        Step[] steps = new Step[thresholds.length];
+        // Below the first breakpoint every rule sees the same thing as one unit below it.
+        int first = breakpoints.first();
+        thresholds[0] = Integer.MIN_VALUE;
+        steps[0] = evaluate(product, first == Integer.MIN_VALUE ? first : first - 1, Integer.MIN_VALUE);
+        int index = 1;
+        for (int breakpoint : breakpoints) {
+            thresholds[index] = breakpoint;
+            steps[index] = evaluate(product, breakpoint, breakpoint);
+            index++;
+        }
+        return new WholesalePriceLadder(product, thresholds, steps);
+    }
+
+    private static void addIfPresent(TreeSet<Integer> breakpoints, Integer quantity) {
+        if (quantity != null) {
+            breakpoints.add(quantity);
+        }
+    }
+
+    private static Step evaluate(Product product, int quantity, int fromQuantity) {
+        BigDecimal wholesalePrice = product.calculateWholesalePrice(quantity);
+        String tier = product.getAppliedWholesaleTier(quantity);
+        boolean wholesaleEligible = product.isEligibleForWholesale(quantity);
+        BigDecimal bulkPercentage = product.getBulkDiscountPercentage();
+        boolean bulkEligible = Boolean.TRUE.equals(product.getIsBulkItem())
+                && product.isEligibleForBulkDiscount(quantity)
+                && bulkPercentage != null;
+
+        BigDecimal bulkDiscount = null;
+        BigDecimal taxAmount = null;
+        BigDecimal taxAmountWithoutBulk = null;
+        BigDecimal finalWholesalePrice = null;
+        if (wholesalePrice != null) {
+            bulkDiscount = bulkEligible
+                    ? wholesalePrice.multiply(product.calculateBulkDiscount(quantity)).divide(HUNDRED, 2, RoundingMode.HALF_UP)
+                    : BigDecimal.ZERO;
+            taxAmount = tax(wholesalePrice.subtract(bulkDiscount), product.getTaxRate());
+            taxAmountWithoutBulk = tax(wholesalePrice, product.getTaxRate());
+            finalWholesalePrice = wholesalePrice;
+            if (product.getWholesaleDiscountPercentage() != null) {
+                finalWholesalePrice = applyPercentage(finalWholesalePrice, product.getWholesaleDiscountPercentage());
+            }
+            if (bulkEligible) {
+                finalWholesalePrice = applyPercentage(finalWholesalePrice, bulkPercentage);
+            }
+        }
+        BigDecimal finalRetailPrice = product.getUnitPrice();
+        if (finalRetailPrice != null && bulkEligible) {
+            finalRetailPrice = applyPercentage(finalRetailPrice, bulkPercentage);
+        }
+
+        return new Step(fromQuantity, wholesalePrice, tier, wholesaleEligible, bulkEligible, bulkDiscount,
+                taxAmount, taxAmountWithoutBulk, finalWholesalePrice, finalRetailPrice,
+                pricingNotes(product, tier, bulkEligible, bulkPercentage));
+    }
+
+    private static BigDecimal tax(BigDecimal taxableAmount, BigDecimal taxRate) {
+        if (taxRate == null) {
+            return BigDecimal.ZERO;
+        }
+        return taxableAmount.multiply(taxRate).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal applyPercentage(BigDecimal price, BigDecimal percentage) {
+        return price.multiply(BigDecimal.ONE.subtract(percentage.divide(HUNDRED)));
+    }
+
+    // Same text as Product#getWholesalePricingNotes
+    private static String pricingNotes(Product product, String tier, boolean bulkEligible, BigDecimal bulkPercentage) {
+        StringBuilder notes = new StringBuilder();
+        if (Boolean.TRUE.equals(product.getIsWholesaleOnly())) {
+            notes.append("Wholesale only product. ");
+        }
+        if (Boolean.TRUE.equals(product.getRequiresContract())) {
+            notes.append("Contract required. ");
+        }
+        if (tier != null) {
+            notes.append(String.format("Applied tier: %s. ", tier));
+        }
+        if (bulkEligible) {
+            notes.append(String.format("Bulk discount of %s%% applied. ", bulkPercentage.toString()));
+        }
+        return notes.toString().trim();
+    }
+
+    /**
+     * @return the pricing of the band containing the quantity
+     */
+    public Step step(int quantity) {
+        int index = Arrays.binarySearch(thresholds, quantity);
+        return steps[index >= 0 ? index : -index - 2];
+    }
+
+    public BigDecimal wholesalePrice(int quantity) {
+        return step(quantity).wholesalePrice();
+    }
+
+    /**
+     * Same as {@link Product#isAvailableForWholesale}.
+     */
+    public boolean isAvailableForWholesale(int quantity, boolean hasContract) {
+        if (wholesaleOnly && !hasContract) {
+            return false;
+        }
+        return step(quantity).wholesaleEligible();
+    }
+
+    /**
+     * @return true if the product was updated after the state this ladder was built from
+     */
+    public boolean isOlderThan(Product product) {
+        return product.getUpdatedAt() != null && (updatedAt == null || updatedAt.isBefore(product.getUpdatedAt()));
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+
+    public boolean isWholesaleOnly() {
+        return wholesaleOnly;
+    }
+
+    public boolean isRequiresContract() {
+        return requiresContract;
+    }
+
+    public int getWholesaleMinimumQuantity() {
+        return wholesaleMinimumQuantity;
+    }
+
+    public int getMinimumOrderQuantity() {
+        return minimumOrderQuantity;
+    }
+
+    public Integer getMaximumOrderQuantity() {
+        return maximumOrderQuantity;
+    }
+
+    public boolean isBulkItem() {
+        return bulkItem;
+    }
+
+    public Integer getBulkPackageSize() {
+        return bulkPackageSize;
+    }
+
+    public String getBulkPackageUnit() {
+        return bulkPackageUnit;
+    }
+
+    public int size() {
+        return steps.length;
+    }
+}
@@ -0,0 +1,139 @@
+package ma.foodplus.ordering.system.product.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.product.configuration.CacheProperties;
+import ma.foodplus.ordering.system.product.configuration.LocalCacheInvalidationBus;
+import ma.foodplus.ordering.system.product.model.Product;
+import ma.foodplus.ordering.system.product.repository.ProductRepository;
+import ma.foodplus.ordering.system.product.repository.ProductRepository.WholesalePricingRow;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Size-bounded in-process cache of {@link WholesalePriceLadder} per product. Ladders are built from the
+ * wholesale pricing columns only, in one query for all the products missing from the cache, and dropped after
+ * commit whenever the product is created, updated or deleted, on this instance and, through the
+ * {@link LocalCacheInvalidationBus}, on the others.
+ */
+@Slf4j
+@Component
+public class WholesalePriceLadderCache {
+
+    public static final String CACHE_NAME = "wholesalePriceLadder";
+
+    private final ProductRepository productRepository;
+    private final LocalCacheInvalidationBus invalidationBus;
+    private final Cache<Long, WholesalePriceLadder> ladders;
+
+    public WholesalePriceLadderCache(ProductRepository productRepository,
+                                     CacheProperties cacheProperties,
+                                     LocalCacheInvalidationBus invalidationBus,
+                                     MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.invalidationBus = invalidationBus;
+        CacheProperties.LocalCacheSpec settings = cacheProperties.getWholesaleLadder();
+        this.ladders = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxSize())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, ladders, CACHE_NAME);
+        invalidationBus.subscribe(CACHE_NAME, this::applyRemoteInvalidation);
+    }
+
+    /**
+     * @return the ladder of the product, or null if the product does not exist
+     */
+    public WholesalePriceLadder get(Long productId) {
+        return getAll(Set.of(productId)).get(productId);
+    }
+
+    /**
+     * @return the ladders of the products that exist, keyed by product id
+     */
+    public Map<Long, WholesalePriceLadder> getAll(Collection<Long> productIds) {
+        return ladders.getAll(productIds, this::load);
+    }
+
+    /**
+     * Drops the product's ladder. Inside a transaction the drop happens again after commit, so a ladder
+     * rebuilt concurrently from the pre-commit row does not survive, and is then broadcast to the other instances.
+     */
+    public void invalidate(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ladders.invalidate(productId);
+                }
+            });
+        }
+        ladders.invalidate(productId);
+        invalidationBus.publishAfterCommit(CACHE_NAME, List.of(productId));
+    }
+
+    private void applyRemoteInvalidation(List<String> productIds) {
+        if (productIds.isEmpty()) {
+            ladders.invalidateAll();
+        } else {
+            ladders.invalidateAll(productIds.stream().map(Long::valueOf).toList());
+        }
+    }
+
+    private Map<Long, WholesalePriceLadder> load(Set<? extends Long> productIds) {
+        Map<Long, WholesalePriceLadder> loaded = new HashMap<>();
+        for (WholesalePricingRow row : productRepository.findWholesalePricingRows(Set.copyOf(productIds))) {
+            loaded.put(row.getId(), WholesalePriceLadder.of(toProduct(row)));
+        }
+        log.debug("Built wholesale price ladders for {} of {} products", loaded.size(), productIds.size());
+        return loaded;
+    }
+
+    private Product toProduct(WholesalePricingRow row) {
+        // Detached and never saved: only carries the columns the wholesale rules read
+        Product product = new Product();
+        product.setId(row.getId());
+        product.setTitle(row.getTitle());
+        product.setSku(row.getSku());
+        product.setUnitPrice(row.getUnitPrice());
+        product.setTaxRate(row.getTaxRate());
+        product.setWholesalePrice(row.getWholesalePrice());
+        if (row.getWholesaleMinimumQuantity() != null) {
+            product.setWholesaleMinimumQuantity(row.getWholesaleMinimumQuantity());
+        }
+        product.setWholesaleDiscountPercentage(row.getWholesaleDiscountPercentage());
+        product.setWholesaleTier1Price(row.getWholesaleTier1Price());
+        product.setWholesaleTier1Quantity(row.getWholesaleTier1Quantity());
+        product.setWholesaleTier2Price(row.getWholesaleTier2Price());
+        product.setWholesaleTier2Quantity(row.getWholesaleTier2Quantity());
+        product.setWholesaleTier3Price(row.getWholesaleTier3Price());
+        product.setWholesaleTier3Quantity(row.getWholesaleTier3Quantity());
+        if (row.getMinimumOrderQuantity() != null) {
+            product.setMinimumOrderQuantity(row.getMinimumOrderQuantity());
+        }
+        product.setMaximumOrderQuantity(row.getMaximumOrderQuantity());
+        product.setBulkDiscountThreshold(row.getBulkDiscountThreshold());
+        product.setBulkDiscountPercentage(row.getBulkDiscountPercentage());
+        product.setBulkPackageSize(row.getBulkPackageSize());
+        product.setBulkPackageUnit(row.getBulkPackageUnit());
+        product.setIsBulkItem(Boolean.TRUE.equals(row.getIsBulkItem()));
+        product.setIsWholesaleOnly(Boolean.TRUE.equals(row.getIsWholesaleOnly()));
+        product.setRequiresContract(Boolean.TRUE.equals(row.getRequiresContract()));
+        product.setUpdatedAt(row.getUpdatedAt());
+        return product;
+    }
+}
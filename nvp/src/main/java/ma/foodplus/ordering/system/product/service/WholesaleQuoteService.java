@@ -0,0 +1,101 @@
+package ma.foodplus.ordering.system.product.service;
+
+import lombok.RequiredArgsConstructor;
+import ma.foodplus.ordering.system.inventory.repository.ProductStockRepository;
+import ma.foodplus.ordering.system.product.dto.WholesalePriceRequestDto;
+import ma.foodplus.ordering.system.product.dto.WholesalePriceResponseDto;
+import ma.foodplus.ordering.system.product.dto.WholesaleQuoteLineDto;
+import ma.foodplus.ordering.system.product.dto.WholesaleQuoteRequestDto;
+import ma.foodplus.ordering.system.product.dto.WholesaleQuoteResponseDto;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Quotes a whole wholesale basket with at most two queries: the {@link WholesalePriceLadder}s of the products
+ * missing from the ladder cache, and the stock of every product summed across depots. Each line is then
+ * validated and priced in memory with the same rules as the single-product endpoints.
+ */
+@Service
+@RequiredArgsConstructor
+public class WholesaleQuoteService {
+
+    private final WholesalePriceLadderCache ladderCache;
+    private final ProductStockRepository productStockRepository;
+    private final WholesaleOrderValidationService validationService;
+    private final WholesalePriceCalculationService priceCalculationService;
+
+    /**
+     * Quote every line of a basket
+     * @param request The basket; a non-blank contract number counts as a valid contract
+     * @return One quote per request line, in request order, with the basket totals
+     */
+    @Transactional(readOnly = true)
+    public WholesaleQuoteResponseDto quote(WholesaleQuoteRequestDto request) {
+        Set<Long> productIds = new LinkedHashSet<>();
+        Map<Long, Integer> requestedQuantities = new HashMap<>();
+        for (WholesaleQuoteRequestDto.Line line : request.getLines()) {
+            productIds.add(line.getProductId());
+            requestedQuantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+
+        Map<Long, WholesalePriceLadder> ladders = ladderCache.getAll(productIds);
+        Map<Long, Integer> stock = new HashMap<>();
+        productStockRepository.sumAvailableQuantityByProductIds(productIds)
+                .forEach(total -> stock.put(total.getProductId(), total.getQuantity().intValue()));
+
+        boolean hasContract = request.getContractNumber() != null && !request.getContractNumber().isBlank();
+        List<WholesaleQuoteLineDto> lines = new ArrayList<>(request.getLines().size());
+        BigDecimal bulkDiscountTotal = BigDecimal.ZERO;
+        BigDecimal taxTotal = BigDecimal.ZERO;
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        boolean valid = true;
+        for (WholesaleQuoteRequestDto.Line line : request.getLines()) {
+            WholesalePriceLadder ladder = ladders.get(line.getProductId());
+            List<String> errors = validationService.validateQuoteLine(ladder, line.getQuantity(), hasContract);
+            WholesalePriceResponseDto price = null;
+            if (ladder != null) {
+                WholesalePriceRequestDto lineRequest = new WholesalePriceRequestDto();
+                lineRequest.setProductId(line.getProductId());
+                lineRequest.setQuantity(line.getQuantity());
+                lineRequest.setIncludeBulkDiscount(!Boolean.FALSE.equals(request.getIncludeBulkDiscount()));
+                lineRequest.setIncludeTax(!Boolean.FALSE.equals(request.getIncludeTax()));
+                lineRequest.setContractNumber(request.getContractNumber());
+                price = priceCalculationService.priceLine(lineRequest, ladder);
+            }
+            if (price != null) {
+                BigDecimal quantity = BigDecimal.valueOf(line.getQuantity());
+                bulkDiscountTotal = bulkDiscountTotal.add(price.getBulkDiscount().multiply(quantity));
+                taxTotal = taxTotal.add(price.getTaxAmount().multiply(quantity));
+                totalPrice = totalPrice.add(price.getTotalPrice());
+            }
+
+            int availableQuantity = stock.getOrDefault(line.getProductId(), 0);
+            boolean available = availableQuantity >= requestedQuantities.get(line.getProductId());
+            valid &= errors.isEmpty() && available;
+            lines.add(WholesaleQuoteLineDto.builder()
+                    .productId(line.getProductId())
+                    .quantity(line.getQuantity())
+                    .price(price)
+                    .availableQuantity(availableQuantity)
+                    .available(available)
+                    .errors(errors)
+                    .build());
+        }
+
+        return WholesaleQuoteResponseDto.builder()
+                .lines(lines)
+                .bulkDiscountTotal(bulkDiscountTotal)
+                .taxTotal(taxTotal)
+                .totalPrice(totalPrice)
+                .valid(valid)
+                .build();
+    }
+}
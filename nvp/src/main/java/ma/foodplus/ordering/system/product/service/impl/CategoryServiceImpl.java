@@ -8,6 +8,8 @@ import ma.foodplus.ordering.system.product.dto.category.UpdateCategoryCommand;
 import ma.foodplus.ordering.system.product.mapper.CategoryMapper;
 import ma.foodplus.ordering.system.product.model.Category;
 import ma.foodplus.ordering.system.product.repository.CategoryRepository;
+import ma.foodplus.ordering.system.product.service.CategoryForest;
+import ma.foodplus.ordering.system.product.service.CategoryForestCache;
 import ma.foodplus.ordering.system.product.service.CategoryService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -25,6 +27,7 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final CategoryForestCache categoryForestCache;
 
     @Override
     public CategoryDTO createCategory(CreateCategoryCommand command) {
@@ -48,6 +51,7 @@ public class CategoryServiceImpl implements CategoryService {
 
         category.setActive(true);
         category = categoryRepository.save(category);
+        categoryForestCache.invalidate();
         return categoryMapper.toDTO(category);
     }
 
@@ -74,6 +78,7 @@ public class CategoryServiceImpl implements CategoryService {
         }
         
         category = categoryRepository.save(category);
+        categoryForestCache.invalidate();
         return categoryMapper.toDTO(category);
     }
 
@@ -91,6 +96,7 @@ public class CategoryServiceImpl implements CategoryService {
         }
         
         categoryRepository.delete(category);
+        categoryForestCache.invalidate();
     }
 
     @Override
@@ -114,10 +120,7 @@ public class CategoryServiceImpl implements CategoryService {
     @Transactional(readOnly = true)
     public List<CategoryDTO> getCategoryTree() {
         log.info("Getting category tree");
-        List<Category> rootCategories = categoryRepository.findByParentIsNull();
-        return rootCategories.stream()
-            .map(this::buildCategoryTree)
-            .collect(Collectors.toList());
+        return categoryForestCache.get().toTree();
     }
 
     @Override
@@ -165,6 +168,7 @@ public class CategoryServiceImpl implements CategoryService {
             .orElseThrow(() -> new RuntimeException("Category not found"));
         category.setActive(true);
         categoryRepository.save(category);
+        categoryForestCache.invalidate();
     }
 
     @Override
@@ -174,6 +178,7 @@ public class CategoryServiceImpl implements CategoryService {
             .orElseThrow(() -> new RuntimeException("Category not found"));
         category.setActive(false);
         categoryRepository.save(category);
+        categoryForestCache.invalidate();
     }
 
     @Override
@@ -200,44 +205,17 @@ public class CategoryServiceImpl implements CategoryService {
     public Map<String, Object> getCategoryStatistics() {
         log.info("Getting category statistics");
         Map<String, Object> statistics = new HashMap<>();
+        CategoryForest forest = categoryForestCache.get();
         
-        statistics.put("totalCategories", categoryRepository.count());
-        statistics.put("activeCategories", categoryRepository.countByIsActiveTrue());
-        statistics.put("rootCategories", categoryRepository.countByParentIsNull());
-        
-        Map<Integer, Long> categoriesByLevel = categoryRepository.findAll().stream()
-            .collect(Collectors.groupingBy(
-                Category::getLevel,
-                Collectors.counting()
-            ));
-        statistics.put("categoriesByLevel", categoriesByLevel);
-        
-        Map<Long, Long> productsPerCategory = categoryRepository.findAll().stream()
-            .collect(Collectors.toMap(
-                Category::getId,
-                category -> (long) category.getProducts().size()
-            ));
-        statistics.put("productsPerCategory", productsPerCategory);
+        statistics.put("totalCategories", (long) forest.size());
+        statistics.put("activeCategories", forest.countActive());
+        statistics.put("rootCategories", forest.countRoots());
+        statistics.put("categoriesByLevel", forest.countByLevel());
+        statistics.put("productsPerCategory", forest.countProductsByCategory());
         
         return statistics;
     }
 
-    private CategoryDTO buildCategoryTree(Category category) {
-        CategoryDTO dto = categoryMapper.toDTO(category);
-        if (!category.getChildren().isEmpty()) {
-            List<CategoryDTO> children = category.getChildren().stream()
-                .map(this::buildCategoryTree)
-                .collect(Collectors.toList());
-            // Since CategoryDTO is a record, we need to create a new instance with children
-            return new CategoryDTO(
-                dto.id(), dto.code(), dto.name(), dto.description(),
-                dto.level(), dto.parentId(), children, dto.isActive(),
-                dto.createdAt(), dto.updatedAt()
-            );
-        }
-        return dto;
-    }
-
     private void validateCategoryCode(String code) {
         if (categoryRepository.existsByCode(code)) {
             throw new RuntimeException("Category code already exists");
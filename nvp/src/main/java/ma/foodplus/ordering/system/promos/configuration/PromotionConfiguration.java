@@ -0,0 +1,9 @@
+package ma.foodplus.ordering.system.promos.configuration;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(PromotionProperties.class)
+public class PromotionConfiguration {
+}
@@ -0,0 +1,42 @@
+package ma.foodplus.ordering.system.promos.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Promotion engine settings bound from {@code foodplus.promotions.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "foodplus.promotions")
+public class PromotionProperties {
+
+    private Evaluation evaluation = new Evaluation();
+
+    private Simulation simulation = new Simulation();
+
+    @Data
+    public static class Evaluation {
+        /**
+         * Threads screening candidate promotions of large catalogs.
+         */
+        private int parallelism = 4;
+        /**
+         * Baskets with fewer candidate promotions are screened on the calling thread, where handing the
+         * work to other threads costs more than it saves.
+         */
+        private int parallelThreshold = 64;
+    }
+
+    @Data
+    public static class Simulation {
+        private int parallelism = 2;
+        /**
+         * Orders read per page. At most twice {@code parallelism} pages are held in memory at once.
+         */
+        private int pageSize = 500;
+        /**
+         * Finished simulations kept for the progress endpoint; older ones are forgotten.
+         */
+        private int retainedRuns = 20;
+    }
+}
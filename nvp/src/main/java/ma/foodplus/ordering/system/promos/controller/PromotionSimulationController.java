@@ -0,0 +1,38 @@
+package ma.foodplus.ordering.system.promos.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import ma.foodplus.ordering.system.promos.dto.PromotionSimulationRequest;
+import ma.foodplus.ordering.system.promos.service.PromotionSimulationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/promotions/simulations")
+@RequiredArgsConstructor
+@Tag(name = "Promotion Simulation", description = "APIs for replaying historical orders against draft promotions")
+public class PromotionSimulationController {
+
+    private final PromotionSimulationService promotionSimulationService;
+
+    @PostMapping
+    @Operation(summary = "Start replaying the orders of a period against the running and draft promotions")
+    public ResponseEntity<PromotionSimulationService.Progress> start(@RequestBody PromotionSimulationRequest request) {
+        return ResponseEntity.ok(promotionSimulationService.start(request));
+    }
+
+    @GetMapping
+    @Operation(summary = "Get the most recent simulation runs")
+    public ResponseEntity<List<PromotionSimulationService.Progress>> getRecentRuns() {
+        return ResponseEntity.ok(promotionSimulationService.getRecentRuns());
+    }
+
+    @GetMapping("/{simulationId}")
+    @Operation(summary = "Get the progress, ETA and running totals of a simulation")
+    public ResponseEntity<PromotionSimulationService.Progress> getProgress(@PathVariable String simulationId) {
+        return ResponseEntity.ok(promotionSimulationService.getProgress(simulationId));
+    }
+}
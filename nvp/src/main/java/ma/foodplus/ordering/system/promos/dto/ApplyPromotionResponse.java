@@ -27,6 +27,30 @@ public class ApplyPromotionResponse {
     }
 
     // Getters...
+    public BigDecimal getOriginalTotal() {
+        return originalTotal;
+    }
+
+    public BigDecimal getDiscountTotal() {
+        return discountTotal;
+    }
+
+    public BigDecimal getFinalTotal() {
+        return finalTotal;
+    }
+
+    public List<LineItemResultDto> getLineItems() {
+        return lineItems;
+    }
+
+    public List<FreeItemDto> getFreeItems() {
+        return freeItems;
+    }
+
+    public List<AppliedPromotion> getAppliedPromotions() {
+        return appliedPromotions;
+    }
+
     public Map<String, BigDecimal> getPromotionDiscounts() {
         return promotionDiscounts;
     }
@@ -0,0 +1,24 @@
+package ma.foodplus.ordering.system.promos.dto;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+import lombok.Data;
+
+/**
+ * Replays the orders created in {@code [from, to)} against the promotions running in that period
+ * (the baseline) and against the same promotions with the drafts applied (the candidate).
+ */
+@Data
+public class PromotionSimulationRequest {
+    private ZonedDateTime from;
+    private ZonedDateTime to;
+    /**
+     * New promotions, or changed versions of existing ones when the id matches an existing promotion.
+     */
+    private List<PromotionDTO> draftPromotions;
+    /**
+     * Existing promotions left out of the candidate catalog.
+     */
+    private Set<Integer> removedPromotionIds;
+}
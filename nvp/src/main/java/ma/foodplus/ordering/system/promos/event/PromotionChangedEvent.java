@@ -0,0 +1,9 @@
+package ma.foodplus.ordering.system.promos.event;
+
+/**
+ * Published when a promotion or one of its rules, conditions, tiers, rewards, lines or customer families
+ * changes. {@code promotionId} is null when the owning promotion is not known to the publisher.
+ * Listeners that cache compiled promotions should react after the surrounding transaction commits.
+ */
+public record PromotionChangedEvent(Long promotionId) {
+}
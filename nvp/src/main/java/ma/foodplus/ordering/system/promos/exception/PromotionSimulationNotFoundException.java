@@ -0,0 +1,7 @@
+package ma.foodplus.ordering.system.promos.exception;
+
+public class PromotionSimulationNotFoundException extends RuntimeException {
+    public PromotionSimulationNotFoundException(String message) {
+        super(message);
+    }
+}
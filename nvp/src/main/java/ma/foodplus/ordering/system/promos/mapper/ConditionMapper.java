@@ -2,6 +2,8 @@ package ma.foodplus.ordering.system.promos.mapper;
 
 import ma.foodplus.ordering.system.promos.dto.ConditionDTO;
 import ma.foodplus.ordering.system.promos.model.Condition;
+import ma.foodplus.ordering.system.promos.service.PromotionCompiler;
+import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
@@ -45,6 +47,34 @@ public interface ConditionMapper {
         }
     }
 
+    /**
+     * A promo family condition is stored as {@code PRODUCT_IN_CART} on a {@code PROMO_FAMILY} entity.
+     */
+    @AfterMapping
+    default void mapPromoFamilyToDTO(Condition condition, @MappingTarget ConditionDTO dto) {
+        if (condition.getConditionType() == Condition.ConditionType.PRODUCT_IN_CART
+                && PromotionCompiler.PROMO_FAMILY_ENTITY.equalsIgnoreCase(condition.getEntityType())) {
+            dto.setConditionType(ConditionDTO.ConditionType.CATEGORY_IN_CART);
+        }
+    }
+
+    /**
+     * Without a quantity, a promo family condition holds as soon as one line of the family is in the cart.
+     */
+    @AfterMapping
+    default void mapPromoFamilyToEntity(ConditionDTO dto, @MappingTarget Condition condition) {
+        if (dto.getConditionType() != ConditionDTO.ConditionType.CATEGORY_IN_CART) {
+            return;
+        }
+        condition.setEntityType(PromotionCompiler.PROMO_FAMILY_ENTITY);
+        if (condition.getValue() == null) {
+            condition.setValue("1");
+        }
+        if (condition.getOperator() == null) {
+            condition.setOperator(Condition.Operator.GREATER_THAN_OR_EQUAL);
+        }
+    }
+
     @Named("mapConditionTypeToEntity")
     default Condition.ConditionType mapConditionTypeToEntity(ConditionDTO.ConditionType type) {
         if (type == null) {
@@ -2,24 +2,60 @@ package ma.foodplus.ordering.system.promos.mapper;
 
 import ma.foodplus.ordering.system.promos.dto.RewardDTO;
 import ma.foodplus.ordering.system.promos.model.Reward;
+import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.Named;
 
+import java.math.BigDecimal;
+
 @Mapper(componentModel = "spring")
 public interface RewardMapper {
-    
-    @Mapping(target = "rewardType", source = "rewardType", qualifiedByName = "toRewardType")
+
+    @Mapping(target = "type", source = "rewardType", qualifiedByName = "toRewardType")
+    @Mapping(target = "targetEntityId", source = "productId")
+    @Mapping(target = "discountAmount", ignore = true)
+    @Mapping(target = "discountPercentage", ignore = true)
+    @Mapping(target = "targetEntityType", ignore = true)
+    @Mapping(target = "promotion", ignore = true)
     Reward toEntity(RewardDTO dto);
 
-    @Mapping(target = "rewardType", source = "rewardType", qualifiedByName = "toRewardTypeString")
+    @Mapping(target = "rewardType", source = "type", qualifiedByName = "toRewardTypeString")
+    @Mapping(target = "productId", source = "targetEntityId")
+    @Mapping(target = "value", source = "entity", qualifiedByName = "toRewardValue")
+    @Mapping(target = "isPercentage", source = "entity", qualifiedByName = "isPercentage")
+    @Mapping(target = "promotionId", source = "promotion.id")
+    @Mapping(target = "description", ignore = true)
+    @Mapping(target = "categoryId", ignore = true)
+    @Mapping(target = "familyCode", ignore = true)
+    @Mapping(target = "quantity", ignore = true)
+    @Mapping(target = "isActive", ignore = true)
     RewardDTO toDTO(Reward entity);
 
     @Mapping(target = "id", ignore = true)
-    @Mapping(target = "rewardType", source = "rewardType", qualifiedByName = "toRewardType")
+    @Mapping(target = "type", source = "rewardType", qualifiedByName = "toRewardType")
+    @Mapping(target = "targetEntityId", source = "productId")
+    @Mapping(target = "discountAmount", ignore = true)
+    @Mapping(target = "discountPercentage", ignore = true)
+    @Mapping(target = "targetEntityType", ignore = true)
+    @Mapping(target = "promotion", ignore = true)
     void updateEntityFromDTO(RewardDTO dto, @MappingTarget Reward entity);
 
+    /**
+     * The DTO carries one value; it is the percentage of percentage rewards and the amount of the others.
+     */
+    @AfterMapping
+    default void mapValue(RewardDTO dto, @MappingTarget Reward entity) {
+        if (isPercentage(dto.getIsPercentage(), entity.getType())) {
+            entity.setDiscountPercentage(dto.getValue());
+            entity.setDiscountAmount(null);
+        } else {
+            entity.setDiscountAmount(dto.getValue());
+            entity.setDiscountPercentage(null);
+        }
+    }
+
     @Named("toRewardType")
     default Reward.RewardType toRewardType(String type) {
         return type != null ? Reward.RewardType.valueOf(type) : null;
@@ -29,4 +65,19 @@ public interface RewardMapper {
     default String toRewardTypeString(Reward.RewardType type) {
         return type != null ? type.name() : null;
     }
-} 
\ No newline at end of file
+
+    @Named("toRewardValue")
+    default BigDecimal toRewardValue(Reward entity) {
+        return isPercentage(entity) ? entity.getDiscountPercentage() : entity.getDiscountAmount();
+    }
+
+    @Named("isPercentage")
+    default Boolean isPercentage(Reward entity) {
+        return entity.getType() == Reward.RewardType.PERCENTAGE
+                || (entity.getDiscountAmount() == null && entity.getDiscountPercentage() != null);
+    }
+
+    private static boolean isPercentage(Boolean requested, Reward.RewardType type) {
+        return requested != null ? requested : type == Reward.RewardType.PERCENTAGE;
+    }
+}
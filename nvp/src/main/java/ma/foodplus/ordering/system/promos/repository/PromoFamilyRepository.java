@@ -26,4 +26,25 @@ public interface PromoFamilyRepository extends JpaRepository<PromoFamily, Long>
     
     @Query("SELECT pf FROM PromoFamily pf WHERE pf.isActive = true AND :memberCode MEMBER OF pf.memberCodes")
     List<PromoFamily> findActiveByMemberCode(@Param("memberCode") String memberCode);
+
+    /**
+     * One row per (family, member), plus one row with a null member for each empty family.
+     */
+    @Query("SELECT pf.id AS familyId, pf.code AS familyCode, pf.isActive AS active, m AS memberCode " +
+           "FROM PromoFamily pf LEFT JOIN pf.memberCodes m")
+    List<MembershipRow> findAllMembershipRows();
+
+    @Query("SELECT pf.id AS familyId, pf.code AS familyCode, pf.isActive AS active, m AS memberCode " +
+           "FROM PromoFamily pf LEFT JOIN pf.memberCodes m WHERE pf.id = :familyId")
+    List<MembershipRow> findMembershipRowsByFamilyId(@Param("familyId") Long familyId);
+
+    interface MembershipRow {
+        Long getFamilyId();
+
+        String getFamilyCode();
+
+        Boolean getActive();
+
+        String getMemberCode();
+    }
 } 
\ No newline at end of file
@@ -19,6 +19,18 @@ public interface PromotionRepository extends JpaRepository<Promotion, Integer> {
     @Query("SELECT p FROM Promotion p WHERE p.isActive = true AND p.startDate <= :now AND p.endDate >= :now")
     List<Promotion> findActivePromotions(@Param("now") ZonedDateTime now);
 
+    /**
+     * Finds the enabled promotions that are running or have yet to start.
+     */
+    @Query("SELECT p FROM Promotion p WHERE p.isActive = true AND p.endDate >= :now")
+    List<Promotion> findSchedulablePromotions(@Param("now") ZonedDateTime now);
+
+    /**
+     * Finds the enabled promotions running at some point of {@code [from, to)}.
+     */
+    @Query("SELECT p FROM Promotion p WHERE p.isActive = true AND p.startDate < :to AND p.endDate >= :from")
+    List<Promotion> findPromotionsOverlapping(@Param("from") ZonedDateTime from, @Param("to") ZonedDateTime to);
+
     /**
      * Finds a promotion by its code.
      */
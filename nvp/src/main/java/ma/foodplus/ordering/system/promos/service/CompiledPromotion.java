@@ -0,0 +1,216 @@
+package ma.foodplus.ordering.system.promos.service;
+
+import lombok.Builder;
+import lombok.Getter;
+import ma.foodplus.ordering.system.customer.service.CustomerPromoProfile;
+import ma.foodplus.ordering.system.promos.model.PromotionRule;
+import ma.foodplus.ordering.system.promos.model.Reward;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, evaluation-ready form of a {@link ma.foodplus.ordering.system.promos.model.Promotion}, produced
+ * by {@link PromotionCompiler}. Condition values are parsed once into {@link Check}s, tiers are sorted
+ * ascending and reward parameters are validated, so evaluating a basket neither touches JPA state nor
+ * re-parses strings. Instances are shared between threads through {@link PromotionCatalog}.
+ */
+@Getter
+@Builder(toBuilder = true)
+public final class CompiledPromotion {
+
+    private final Long id;
+    private final String promoCode;
+    private final String name;
+    private final int priority;
+    private final boolean exclusive;
+    private final String combinabilityGroup;
+    private final Integer skipToSequence;
+    private final boolean applyFirstMatchingRuleOnly;
+    private final boolean active;
+    private final ZonedDateTime startDate;
+    private final ZonedDateTime endDate;
+    /**
+     * Daily window, both null unless the promotion is time restricted.
+     */
+    private final LocalTime dailyStart;
+    private final LocalTime dailyEnd;
+    private final boolean nested;
+    private final Long parentPromotionId;
+    private final BigDecimal minPurchaseAmount;
+    private final Set<Long> excludedProductIds;
+    private final Set<Long> excludedFamilyIds;
+    private final List<CustomerFamilyWindow> customerFamilies;
+    /**
+     * Lines a reward may apply to; both empty means every line is eligible.
+     */
+    private final Set<Long> paidProductIds;
+    private final Set<String> paidFamilyCodes;
+    private final Map<Long, Integer> productPoints;
+    private final List<Check> dynamicConditions;
+    private final List<Rule> rules;
+
+    /**
+     * What a compiled condition can look at while a basket is evaluated.
+     */
+    public interface Scope {
+        PromotionBasket basket();
+
+        ZonedDateTime now();
+
+        /**
+         * @return the customer's profile, or null for anonymous baskets and unknown customers
+         */
+        CustomerPromoProfile customer();
+    }
+
+    @FunctionalInterface
+    public interface Check {
+        boolean test(Scope scope);
+    }
+
+    public record CustomerFamilyWindow(String customerFamilyCode, ZonedDateTime startDate, ZonedDateTime endDate) {
+
+        public boolean covers(String familyCode, ZonedDateTime now) {
+            return customerFamilyCode.equals(familyCode) && isOpenAt(now);
+        }
+
+        public boolean isOpenAt(ZonedDateTime now) {
+            return (startDate == null || !now.isBefore(startDate))
+                    && (endDate == null || !now.isAfter(endDate));
+        }
+    }
+
+    /**
+     * @param tiers sorted by ascending threshold, never empty
+     */
+    public record Rule(String name, List<Check> conditions, boolean matchAll,
+                       PromotionRule.CalculationMethod calculationMethod,
+                       PromotionRule.BreakpointType breakpointType,
+                       PromotionRule.BreakpointCalculationBasis breakpointBasis,
+                       Integer repetition, List<Tier> tiers) {
+
+        public boolean conditionsMet(Scope scope) {
+            if (conditions.isEmpty()) {
+                return true;
+            }
+            for (Check condition : conditions) {
+                boolean met = condition.test(scope);
+                if (met != matchAll) {
+                    return met;
+                }
+            }
+            return matchAll;
+        }
+    }
+
+    public record Tier(BigDecimal minimumThreshold, RewardSpec reward) {
+    }
+
+    /**
+     * @param freeProductId  product granted by a {@code FREE_PRODUCT} reward
+     * @param freeQuantity   units granted by a {@code FREE_PRODUCT} reward
+     */
+    public record RewardSpec(Reward.RewardType type, BigDecimal amount, BigDecimal percentage,
+                             Long freeProductId, int freeQuantity) {
+    }
+
+    public boolean isActiveAt(ZonedDateTime now) {
+        if (!active
+                || (startDate != null && !startDate.isBefore(now))
+                || (endDate != null && !endDate.isAfter(now))) {
+            return false;
+        }
+        if (dailyStart == null || dailyEnd == null) {
+            return true;
+        }
+        LocalTime time = now.toLocalTime();
+        return dailyStart.isAfter(dailyEnd)
+                ? !time.isBefore(dailyStart) || time.isBefore(dailyEnd)
+                : !time.isBefore(dailyStart) && time.isBefore(dailyEnd);
+    }
+
+    /**
+     * Earliest instant, not before {@code now}, at which {@link #isActiveAt} or one of the customer family
+     * windows may change: a start or end date or the next daily window edge.
+     *
+     * @return null if nothing changes any more
+     */
+    public ZonedDateTime nextBoundary(ZonedDateTime now) {
+        ZonedDateTime next = earliest(null, startDate, now);
+        next = earliest(next, endDate, now);
+        if (dailyStart != null && dailyEnd != null) {
+            next = earliest(next, nextOccurrence(dailyStart, now), now);
+            next = earliest(next, nextOccurrence(dailyEnd, now), now);
+        }
+        for (CustomerFamilyWindow window : customerFamilies) {
+            next = earliest(next, window.startDate(), now);
+            next = earliest(next, window.endDate(), now);
+        }
+        return next;
+    }
+
+    /**
+     * Copy that is only valid until {@link #nextBoundary}: dates and the daily window are dropped and the
+     * customer family windows are reduced to the open ones, so evaluating it compares no dates.
+     *
+     * @return null if the promotion is not active at {@code now} or none of its customer family windows is open
+     */
+    public CompiledPromotion pinnedAt(ZonedDateTime now) {
+        if (!isActiveAt(now)) {
+            return null;
+        }
+        List<CustomerFamilyWindow> open = new ArrayList<>();
+        for (CustomerFamilyWindow window : customerFamilies) {
+            if (window.isOpenAt(now)) {
+                open.add(new CustomerFamilyWindow(window.customerFamilyCode(), null, null));
+            }
+        }
+        if (!customerFamilies.isEmpty() && open.isEmpty()) {
+            return null;
+        }
+        return toBuilder()
+                .startDate(null)
+                .endDate(null)
+                .dailyStart(null)
+                .dailyEnd(null)
+                .customerFamilies(List.copyOf(open))
+                .build();
+    }
+
+    private static ZonedDateTime earliest(ZonedDateTime current, ZonedDateTime candidate, ZonedDateTime now) {
+        if (candidate == null || candidate.isBefore(now)) {
+            return current;
+        }
+        return current == null || candidate.isBefore(current) ? candidate : current;
+    }
+
+    private static ZonedDateTime nextOccurrence(LocalTime time, ZonedDateTime now) {
+        ZonedDateTime today = now.with(time);
+        return today.isBefore(now) ? today.plusDays(1) : today;
+    }
+
+    public boolean isLineEligible(PromotionBasket.Line line) {
+        if (paidProductIds.isEmpty() && paidFamilyCodes.isEmpty()) {
+            return true;
+        }
+        return paidProductIds.contains(line.productId())
+                || (line.productFamilyId() != null && paidFamilyCodes.contains(line.productFamilyId().toString()));
+    }
+
+    /**
+     * Promotional points per unit: the promotion's own table when it has one, otherwise the product's.
+     */
+    public BigDecimal pointsPerUnit(PromotionBasket.Line line) {
+        if (!productPoints.isEmpty()) {
+            Integer points = productPoints.get(line.productId());
+            return points != null ? BigDecimal.valueOf(points) : BigDecimal.ZERO;
+        }
+        return line.skuPoints();
+    }
+}
@@ -0,0 +1,290 @@
+package ma.foodplus.ordering.system.promos.service;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.product.configuration.LocalCacheInvalidationBus;
+import ma.foodplus.ordering.system.product.service.CacheWarmer;
+import ma.foodplus.ordering.system.promos.repository.PromoFamilyRepository;
+import ma.foodplus.ordering.system.promos.repository.PromoFamilyRepository.MembershipRow;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of promo family membership. Member codes are dictionary-encoded to ints and each
+ * family keeps its members as a {@link CompactBitmap}, so "is X in family F" is a hash lookup plus a
+ * bitmap probe and "is any of these codes in family F" is a single bitmap intersection.
+ * <p>
+ * The index is loaded with one query on first use (or during cache warm-up) and then maintained
+ * incrementally: every change is applied after its transaction commits, by copying the affected
+ * family's bitmap and publishing the copy, so readers never see a bitmap being modified. The ids of the
+ * changed families are broadcast through the {@link LocalCacheInvalidationBus} and the other instances reload
+ * those families; a periodic full reload catches up on broadcasts an instance missed.
+ */
+@Slf4j
+@Component
+public class PromoFamilyMembershipIndex implements CacheWarmer {
+
+    public static final String CACHE_NAME = "promoFamilyMembership";
+
+    private final PromoFamilyRepository promoFamilyRepository;
+    private final LocalCacheInvalidationBus invalidationBus;
+
+    private final Map<String, Integer> dictionary = new ConcurrentHashMap<>();
+    private final Map<String, FamilyMembers> familiesByCode = new ConcurrentHashMap<>();
+    private final Map<Long, String> codesById = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    private record FamilyMembers(Long id, String code, boolean active, CompactBitmap members) {
+    }
+
+    public PromoFamilyMembershipIndex(PromoFamilyRepository promoFamilyRepository,
+                                      LocalCacheInvalidationBus invalidationBus) {
+        this.promoFamilyRepository = promoFamilyRepository;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(CACHE_NAME, this::applyRemoteChange);
+    }
+
+    @Override
+    public String getName() {
+        return CACHE_NAME;
+    }
+
+    @Override
+    public List<Runnable> planChunks() {
+        return List.of(this::ensureLoaded);
+    }
+
+    public boolean isMember(String familyCode, String memberCode) {
+        ensureLoaded();
+        FamilyMembers family = familiesByCode.get(familyCode);
+        Integer id = dictionary.get(memberCode);
+        return family != null && id != null && family.members().contains(id);
+    }
+
+    /**
+     * @return true if at least one of {@code memberCodes} belongs to the family
+     */
+    public boolean containsAny(String familyCode, Collection<String> memberCodes) {
+        ensureLoaded();
+        FamilyMembers family = familiesByCode.get(familyCode);
+        if (family == null || family.members().isEmpty()) {
+            return false;
+        }
+        CompactBitmap probe = new CompactBitmap();
+        for (String memberCode : memberCodes) {
+            Integer id = memberCode != null ? dictionary.get(memberCode) : null;
+            if (id != null) {
+                probe.add(id);
+            }
+        }
+        return family.members().intersects(probe);
+    }
+
+    /**
+     * @return ids of the active families containing the member
+     */
+    public List<Long> findActiveFamilyIds(String memberCode) {
+        ensureLoaded();
+        Integer id = dictionary.get(memberCode);
+        if (id == null) {
+            return List.of();
+        }
+        List<Long> familyIds = new ArrayList<>();
+        for (FamilyMembers family : familiesByCode.values()) {
+            if (family.active() && family.members().contains(id)) {
+                familyIds.add(family.id());
+            }
+        }
+        return familyIds;
+    }
+
+    public void membersAdded(Long familyId, Collection<String> memberCodes) {
+        List<String> snapshot = List.copyOf(memberCodes);
+        afterCommit(() -> applyMemberChange(familyId, snapshot, true));
+        invalidationBus.publishAfterCommit(CACHE_NAME, List.of(familyId));
+    }
+
+    public void membersRemoved(Long familyId, Collection<String> memberCodes) {
+        List<String> snapshot = List.copyOf(memberCodes);
+        afterCommit(() -> applyMemberChange(familyId, snapshot, false));
+        invalidationBus.publishAfterCommit(CACHE_NAME, List.of(familyId));
+    }
+
+    /**
+     * Reloads one family after it was created or updated (code, active flag or member list).
+     */
+    public void familyChanged(Long familyId) {
+        afterCommit(() -> reloadFamily(familyId));
+        invalidationBus.publishAfterCommit(CACHE_NAME, List.of(familyId));
+    }
+
+    public void familyDeleted(Long familyId) {
+        afterCommit(() -> removeFamily(familyId));
+        invalidationBus.publishAfterCommit(CACHE_NAME, List.of(familyId));
+    }
+
+    /**
+     * Discards the index; the next lookup reloads it from the database.
+     */
+    public synchronized void reset() {
+        loaded = false;
+        familiesByCode.clear();
+        codesById.clear();
+        dictionary.clear();
+    }
+
+    /**
+     * Rebuilds every family from the database, replacing the published bitmaps one family at a time so
+     * lookups keep being served. Does nothing until the index was first loaded.
+     */
+    @Scheduled(fixedDelayString = "${foodplus.cache.promo-family-membership-refresh:5m}",
+               initialDelayString = "${foodplus.cache.promo-family-membership-refresh:5m}")
+    public synchronized void refresh() {
+        if (!loaded) {
+            return;
+        }
+        Map<Long, FamilyMembers> families = readAllFamilies();
+        for (Long familyId : List.copyOf(codesById.keySet())) {
+            if (!families.containsKey(familyId)) {
+                removeFamily(familyId);
+            }
+        }
+        families.values().forEach(this::replace);
+        log.debug("Refreshed promo family membership index: {} families", families.size());
+    }
+
+    private void applyRemoteChange(List<String> familyIds) {
+        if (familyIds.isEmpty()) {
+            refresh();
+            return;
+        }
+        for (String familyId : familyIds) {
+            reloadFamily(Long.valueOf(familyId));
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        Map<Long, FamilyMembers> families = readAllFamilies();
+        families.values().forEach(this::publish);
+        loaded = true;
+        log.info("Loaded promo family membership index: {} families, {} distinct member codes",
+                families.size(), dictionary.size());
+    }
+
+    private Map<Long, FamilyMembers> readAllFamilies() {
+        Map<Long, FamilyMembers> families = new HashMap<>();
+        for (MembershipRow row : promoFamilyRepository.findAllMembershipRows()) {
+            FamilyMembers family = families.computeIfAbsent(row.getFamilyId(), familyId -> new FamilyMembers(
+                    familyId, row.getFamilyCode(), Boolean.TRUE.equals(row.getActive()), new CompactBitmap()));
+            if (row.getMemberCode() != null) {
+                family.members().add(encode(row.getMemberCode()));
+            }
+        }
+        return families;
+    }
+
+    private synchronized void applyMemberChange(Long familyId, List<String> memberCodes, boolean add) {
+        if (!loaded) {
+            return;
+        }
+        String familyCode = codesById.get(familyId);
+        FamilyMembers family = familyCode != null ? familiesByCode.get(familyCode) : null;
+        if (family == null) {
+            reloadFamily(familyId);
+            return;
+        }
+        CompactBitmap members = family.members().copy();
+        for (String memberCode : memberCodes) {
+            if (add) {
+                members.add(encode(memberCode));
+            } else {
+                Integer id = dictionary.get(memberCode);
+                if (id != null) {
+                    members.remove(id);
+                }
+            }
+        }
+        publish(new FamilyMembers(family.id(), family.code(), family.active(), members));
+    }
+
+    private synchronized void reloadFamily(Long familyId) {
+        if (!loaded) {
+            return;
+        }
+        List<MembershipRow> rows = promoFamilyRepository.findMembershipRowsByFamilyId(familyId);
+        if (rows.isEmpty()) {
+            removeFamily(familyId);
+            return;
+        }
+        MembershipRow first = rows.get(0);
+        CompactBitmap members = new CompactBitmap();
+        for (MembershipRow row : rows) {
+            if (row.getMemberCode() != null) {
+                members.add(encode(row.getMemberCode()));
+            }
+        }
+        replace(new FamilyMembers(familyId, first.getFamilyCode(), Boolean.TRUE.equals(first.getActive()), members));
+    }
+
+    private synchronized void removeFamily(Long familyId) {
+        String familyCode = codesById.remove(familyId);
+        if (familyCode != null) {
+            familiesByCode.remove(familyCode);
+        }
+    }
+
+    /**
+     * Publishes the family over its previous version, dropping the entry under its former code if it was renamed.
+     */
+    private void replace(FamilyMembers family) {
+        String previousCode = codesById.get(family.id());
+        publish(family);
+        if (previousCode != null && !previousCode.equals(family.code())) {
+            familiesByCode.computeIfPresent(previousCode,
+                    (code, previous) -> previous.id().equals(family.id()) ? null : previous);
+        }
+    }
+
+    private void publish(FamilyMembers family) {
+        codesById.put(family.id(), family.code());
+        familiesByCode.put(family.code(), family);
+    }
+
+    /**
+     * Codes are never removed from the dictionary, so an id stays valid for every published bitmap.
+     */
+    private int encode(String memberCode) {
+        Integer id = dictionary.get(memberCode);
+        if (id == null) {
+            id = dictionary.size();
+            dictionary.put(memberCode, id);
+        }
+        return id;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
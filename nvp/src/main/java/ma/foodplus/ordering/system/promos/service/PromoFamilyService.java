@@ -3,6 +3,7 @@ package ma.foodplus.ordering.system.promos.service;
 import ma.foodplus.ordering.system.promos.dto.PromoFamilyDTO;
 import ma.foodplus.ordering.system.promos.model.PromoFamily.PromoFamilyType;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface PromoFamilyService {
@@ -32,6 +33,11 @@ public interface PromoFamilyService {
     void removeMembersFromFamily(Long familyId, List<String> memberCodes);
     
     boolean isMemberInFamily(String familyCode, String memberCode);
+
+    /**
+     * @return true if at least one of the member codes belongs to the family, answered with one index lookup
+     */
+    boolean isAnyMemberInFamily(String familyCode, Collection<String> memberCodes);
     
     List<String> getFamilyMembers(String familyCode);
 } 
\ No newline at end of file
@@ -1,16 +1,14 @@
 package ma.foodplus.ordering.system.promos.service;
 
-import ma.foodplus.ordering.system.customer.dto.CustomerDTO;
+import ma.foodplus.ordering.system.customer.service.CustomerPromoProfile;
 import ma.foodplus.ordering.system.customer.service.CustomerService;
 import ma.foodplus.ordering.system.domain.valueobject.ProductId;
-import ma.foodplus.ordering.system.order.model.Order;
 import ma.foodplus.ordering.system.product.dto.response.ProductResponse;
 import ma.foodplus.ordering.system.product.enums.SuiviStock;
 import ma.foodplus.ordering.system.product.service.ProductService;
 import ma.foodplus.ordering.system.promos.dto.*;
 import ma.foodplus.ordering.system.promos.exception.PromotionApplicationException;
 import ma.foodplus.ordering.system.promos.model.Promotion;
-import ma.foodplus.ordering.system.promos.model.PromotionCustomerFamily;
 import ma.foodplus.ordering.system.promos.repository.PromotionRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -49,11 +47,12 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class PromotionApplicationService {
 
-    private final AdvancedPromotionEngine promotionEngine;
     private final ProductService productService;
     private final PromotionRepository promotionRepository;
-    private final ConditionEvaluator conditionEvaluator;
     private final CustomerService customerService;
+    private final PromotionBasketFactory basketFactory;
+    private final PromotionEvaluator promotionEvaluator;
+    private final PromotionCatalog promotionCatalog;
 
     /**
      * Calculates all applicable promotions for a given cart.
@@ -71,9 +70,8 @@ public class PromotionApplicationService {
     public ApplyPromotionResponse calculatePromotions(ApplyPromotionRequest request) {
         try {
             validateRequest(request);
-            Order order = createOrderFromRequest(request);
-            PromotionContext context = promotionEngine.apply(order);
-            return createResponseFromOrder(context.getOrder());
+            PromotionBasket basket = basketFactory.fromRequest(request);
+            return createResponse(promotionEvaluator.evaluateActive(basket));
         } catch (Exception e) {
             log.error("Failed to calculate promotions for request: {}", request, e);
             throw new PromotionApplicationException("Failed to calculate promotions: " + e.getMessage(), e);
@@ -95,11 +93,11 @@ public class PromotionApplicationService {
     @Transactional(readOnly = true)
     public List<PromotionDTO> getEligiblePromotions(ApplyPromotionRequest request) {
         try {
-            Order order = createOrderFromRequest(request);
+            PromotionBasket basket = basketFactory.fromRequest(request);
             List<Promotion> activePromotions = promotionRepository.findActivePromotions(ZonedDateTime.now());
             
             return activePromotions.stream()
-                    .filter(promotion -> isPromotionEligible(order, promotion))
+                    .filter(promotion -> isPromotionEligible(basket, promotion))
                     .map(this::convertToPromotionDTO)
                     .collect(Collectors.toList());
         } catch (Exception e) {
@@ -125,7 +123,7 @@ public class PromotionApplicationService {
     @Transactional(readOnly = true)
     public boolean validatePromotionCode(ApplyPromotionRequest request, String promotionCode) {
         try {
-            Order order = createOrderFromRequest(request);
+            PromotionBasket basket = basketFactory.fromRequest(request);
             Optional<Promotion> promotion = promotionRepository.findByPromoCode(promotionCode);
             
             if (promotion.isEmpty()) {
@@ -137,7 +135,7 @@ public class PromotionApplicationService {
                 return false;
             }
 
-            return isPromotionEligible(order, promo);
+            return isPromotionEligible(basket, promo);
         } catch (Exception e) {
             log.error("Failed to validate promotion code: {} for request: {}", promotionCode, request, e);
             throw new PromotionApplicationException("Failed to validate promotion code: " + e.getMessage(), e);
@@ -160,7 +158,7 @@ public class PromotionApplicationService {
     @Transactional(readOnly = true)
     public PromotionBreakdownDTO getPromotionBreakdown(ApplyPromotionRequest request, String promotionCode) {
         try {
-            Order order = createOrderFromRequest(request);
+            PromotionBasket basket = basketFactory.fromRequest(request);
             Optional<Promotion> promotion = promotionRepository.findByPromoCode(promotionCode);
             
             if (promotion.isEmpty()) {
@@ -172,12 +170,13 @@ public class PromotionApplicationService {
                 throw new PromotionApplicationException("Promotion is not active");
             }
 
-            if (!isPromotionEligible(order, promo)) {
+            if (!isPromotionEligible(basket, promo)) {
                 throw new PromotionApplicationException("Promotion is not eligible for this order");
             }
 
-            PromotionContext context = promotionEngine.applyPromotion(order, promo);
-            return createPromotionBreakdown(order, context.getOrder(), promo);
+            CompiledPromotion compiled = promotionCatalog.get(promo.getId())
+                    .orElseThrow(() -> new PromotionApplicationException("Promotion not found: " + promotionCode));
+            return createPromotionBreakdown(promotionEvaluator.evaluate(basket, List.of(compiled)), promo);
         } catch (Exception e) {
             log.error("Failed to get promotion breakdown for code: {} and request: {}", promotionCode, request, e);
             throw new PromotionApplicationException("Failed to get promotion breakdown: " + e.getMessage(), e);
@@ -206,11 +205,7 @@ public class PromotionApplicationService {
         return promoCode != null && promoCode.matches("^[A-Za-z0-9-]{2,10}$");
     }
 
-    private Order createOrderFromRequest(ApplyPromotionRequest request) {
-        return new Order(request.getCustomerId(), request.getOrderItems());
-    }
-
-    private boolean isPromotionEligible(Order order, Promotion promotion) {
+    private boolean isPromotionEligible(PromotionBasket basket, Promotion promotion) {
         // Check if promotion is expired
         if (promotion.getEndDate() != null && promotion.getEndDate().isBefore(ZonedDateTime.now())) {
             log.debug("Promotion {} is expired", promotion.getPromoCode());
@@ -218,14 +213,14 @@ public class PromotionApplicationService {
         }
 
         // Validate stock availability for all items
-        if (!validateStockAvailability(order)) {
+        if (!validateStockAvailability(basket)) {
             log.debug("Insufficient stock for promotion {}", promotion.getPromoCode());
             return false;
         }
 
         // Validate customer eligibility
-        if (!validateCustomerEligibility(order.getCustomerId(), promotion)) {
-            log.debug("Customer {} is not eligible for promotion {}", order.getCustomerId(), promotion.getPromoCode());
+        if (!validateCustomerEligibility(basket.customerId(), promotion)) {
+            log.debug("Customer {} is not eligible for promotion {}", basket.customerId(), promotion.getPromoCode());
             return false;
         }
 
@@ -238,26 +233,26 @@ public class PromotionApplicationService {
 
         // Check per-customer usage limits
         if (promotion.getMaxUsagePerCustomer() != null) {
-            int customerUsageCount = promotion.getCustomerUsageCount(order.getCustomerId());
+            int customerUsageCount = promotion.getCustomerUsageCount(basket.customerId());
             if (customerUsageCount >= promotion.getMaxUsagePerCustomer()) {
                 log.debug("Customer {} has reached usage limit for promotion {}", 
-                    order.getCustomerId(), promotion.getPromoCode());
+                    basket.customerId(), promotion.getPromoCode());
                 return false;
             }
         }
 
         // Check minimum purchase requirement
         if (promotion.getMinPurchaseAmount() != null && 
-            order.getTotal().compareTo(promotion.getMinPurchaseAmount()) < 0) {
+            basket.subtotal().compareTo(promotion.getMinPurchaseAmount()) < 0) {
             log.debug("Order total {} is below minimum purchase amount {} for promotion {}", 
-                order.getTotal(), promotion.getMinPurchaseAmount(), promotion.getPromoCode());
+                basket.subtotal(), promotion.getMinPurchaseAmount(), promotion.getPromoCode());
             return false;
         }
 
         // Check if any excluded products are in the cart
         if (promotion.getExcludedProductIds() != null && !promotion.getExcludedProductIds().isEmpty()) {
-            boolean hasExcludedProduct = order.getItems().stream()
-                .anyMatch(item -> promotion.getExcludedProductIds().contains(item.getProductId()));
+            boolean hasExcludedProduct = basket.lines().stream()
+                .anyMatch(line -> promotion.getExcludedProductIds().contains(line.productId()));
             if (hasExcludedProduct) {
                 log.debug("Order contains excluded products for promotion {}", promotion.getPromoCode());
                 return false;
@@ -266,57 +261,60 @@ public class PromotionApplicationService {
 
         // Check if any excluded categories are in the cart
         if (promotion.getExcludedCategoryIds() != null && !promotion.getExcludedCategoryIds().isEmpty()) {
-            boolean hasExcludedCategory = order.getItems().stream()
-                .anyMatch(item -> promotion.getExcludedCategoryIds().contains(item.getProductFamilyId()));
+            boolean hasExcludedCategory = basket.lines().stream()
+                .anyMatch(line -> promotion.getExcludedCategoryIds().contains(line.productFamilyId()));
             if (hasExcludedCategory) {
                 log.debug("Order contains excluded categories for promotion {}", promotion.getPromoCode());
                 return false;
             }
         }
 
-        return promotion.getRules().stream()
-                .anyMatch(rule -> conditionEvaluator.evaluate(order, rule.getConditions(), rule.getConditionLogic()));
+        return promotionCatalog.get(promotion.getId())
+                .map(compiled -> promotionEvaluator.anyRuleMatches(compiled, basket))
+                .orElse(false);
     }
 
-    private boolean validateStockAvailability(Order order) {
-        return order.getItems().stream()
-                .allMatch(item -> {
+    private boolean validateStockAvailability(PromotionBasket basket) {
+        return basket.lines().stream()
+                .allMatch(line -> {
                     try {
-                        ProductResponse product = productService.getProduct(new ProductId(item.getProductId()));
+                        ProductResponse product = productService.getProduct(new ProductId(line.productId()));
                         return product != null && product.stockTracking() != SuiviStock.Aucun;
                     } catch (Exception e) {
-                        log.error("Error validating stock for product {}: {}", item.getProductId(), e.getMessage());
+                        log.error("Error validating stock for product {}: {}", line.productId(), e.getMessage());
                         return false;
                     }
                 });
     }
 
     private boolean validateCustomerEligibility(Long customerId, Promotion promotion) {
+        boolean restrictsFamilies = !promotion.getCustomerFamilies().isEmpty();
+        boolean restrictsType = promotion.getCustomerGroup() != null;
+        if (!restrictsFamilies && !restrictsType) {
+            return true;
+        }
+
+        CustomerPromoProfile profile;
+        try {
+            profile = customerService.getPromoProfile(customerId);
+        } catch (Exception e) {
+            log.error("Error loading customer {} for eligibility: {}", customerId, e.getMessage());
+            return false;
+        }
+
         // Check customer family restrictions
-        if (!promotion.getCustomerFamilies().isEmpty()) {
-            try {
-                CustomerDTO customer = customerService.getCustomerById(customerId);
-                if (!promotion.getCustomerFamilies().stream()
-                        .anyMatch(family -> family.getCustomerFamilyCode().equals(customer.getCategoryTarifId().toString()))) {
-                    return false;
-                }
-            } catch (Exception e) {
-                log.error("Error validating customer family: {}", e.getMessage());
+        if (restrictsFamilies) {
+            String categoryTarifId = profile.getCategoryTarifId() != null ? profile.getCategoryTarifId().toString() : null;
+            if (categoryTarifId == null || promotion.getCustomerFamilies().stream()
+                    .noneMatch(family -> categoryTarifId.equals(family.getCustomerFamilyCode()))) {
                 return false;
             }
         }
 
         // Check customer type restrictions
-        if (promotion.getCustomerGroup() != null) {
-            try {
-                CustomerDTO customer = customerService.getCustomerById(customerId);
-                if (!promotion.getCustomerGroup().equals(customer.getCustomerType().toString())) {
-                    return false;
-                }
-            } catch (Exception e) {
-                log.error("Error validating customer type: {}", e.getMessage());
-                return false;
-            }
+        if (restrictsType) {
+            return profile.getCustomerType() != null
+                    && promotion.getCustomerGroup().equals(profile.getCustomerType().toString());
         }
 
         return true;
@@ -336,68 +334,48 @@ public class PromotionApplicationService {
                 .build();
     }
 
-    private ApplyPromotionResponse createResponseFromOrder(Order order) {
-        List<LineItemResultDto> lineItemResults = order.getItems().stream()
-                .map(item -> new LineItemResultDto(
-                        item.getProductId(),
-                        item.getProductName(),
-                        item.getQuantity(),
-                        item.getUnitPrice().multiply(new BigDecimal(item.getQuantity())),
-                        item.getDiscountAmount(),
-                        item.getAppliedPromotions()
+    private ApplyPromotionResponse createResponse(PromotionEvaluation evaluation) {
+        List<LineItemResultDto> lineItemResults = evaluation.lines().stream()
+                .map(result -> new LineItemResultDto(
+                        result.line().productId(),
+                        result.line().productName(),
+                        result.line().quantity(),
+                        result.line().originalTotal(),
+                        result.discount(),
+                        result.promotionCodes()
                 ))
                 .collect(Collectors.toList());
 
-        BigDecimal originalTotal = lineItemResults.stream()
-                .map(LineItemResultDto::getOriginalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalDiscount = lineItemResults.stream()
-                .map(LineItemResultDto::getTotalDiscount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal finalTotal = originalTotal.subtract(totalDiscount);
-
-        // Add promotion summary to response
-        Map<String, BigDecimal> promotionDiscounts = new HashMap<>();
-        order.getItems().forEach(item -> {
-            if (item.getAppliedPromotionCode() != null) {
-                promotionDiscounts.merge(
-                    item.getAppliedPromotionCode(),
-                    item.getDiscountAmount(),
-                    BigDecimal::add
-                );
-            }
-        });
+        List<FreeItemDto> freeItems = evaluation.freeItems().stream()
+                .map(item -> new FreeItemDto(item.productId(), null, item.quantity(),
+                        "Promotional gift from '" + item.promoCode() + "' offer"))
+                .collect(Collectors.toList());
 
         return ApplyPromotionResponse.builder()
-                .originalTotal(originalTotal)
-                .discountTotal(totalDiscount)
-                .finalTotal(finalTotal)
+                .originalTotal(evaluation.originalTotal())
+                .discountTotal(evaluation.discountTotal())
+                .finalTotal(evaluation.finalTotal())
                 .lineItems(lineItemResults)
-                .promotionDiscounts(promotionDiscounts)
+                .freeItems(freeItems)
+                .promotionDiscounts(new HashMap<>(evaluation.discountsByPromotion()))
                 .build();
     }
 
-    private PromotionBreakdownDTO createPromotionBreakdown(Order originalOrder, Order orderWithPromotion, Promotion promotion) {
+    private PromotionBreakdownDTO createPromotionBreakdown(PromotionEvaluation evaluation, Promotion promotion) {
         Map<Long, BigDecimal> itemDiscounts = new HashMap<>();
-        
-        orderWithPromotion.getItems().forEach(item -> {
-            BigDecimal originalPrice = item.getUnitPrice().multiply(new BigDecimal(item.getQuantity()));
-            BigDecimal finalPrice = originalPrice.subtract(item.getDiscountAmount());
-            BigDecimal discount = originalPrice.subtract(finalPrice);
-            if (discount.compareTo(BigDecimal.ZERO) > 0) {
-                itemDiscounts.put(item.getProductId(), discount);
+        evaluation.lines().forEach(result -> {
+            if (result.discount().compareTo(BigDecimal.ZERO) > 0) {
+                itemDiscounts.merge(result.line().productId(), result.discount(), BigDecimal::add);
             }
         });
 
         return PromotionBreakdownDTO.builder()
                 .promotionCode(promotion.getPromoCode())
                 .promotionName(promotion.getName())
-                .originalTotal(originalOrder.getTotal())
-                .discountTotal(orderWithPromotion.getTotal().subtract(originalOrder.getTotal()))
-                .finalTotal(orderWithPromotion.getTotal())
+                .originalTotal(evaluation.originalTotal())
+                .discountTotal(evaluation.discountTotal())
+                .finalTotal(evaluation.finalTotal())
                 .itemDiscounts(itemDiscounts)
                 .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,46 @@
+package ma.foodplus.ordering.system.promos.service;
+
+import ma.foodplus.ordering.system.order.model.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Immutable input of the {@link PromotionEvaluator}: the priced basket lines plus the customer and payment
+ * context the conditions look at. Built by {@link PromotionBasketFactory} from whichever request shape an
+ * entry point receives, so every entry point is evaluated the same way.
+ */
+public record PromotionBasket(Long customerId, PaymentMethod paymentMethod, List<Line> lines) {
+
+    public PromotionBasket {
+        lines = List.copyOf(lines);
+    }
+
+    /**
+     * @param productFamilyCode code of the product family, what promo families list as members
+     * @param skuPoints         promotional points per unit, used when the promotion defines no points of its own
+     */
+    public record Line(Long productId, Long productFamilyId, String productFamilyCode, String productName,
+                       BigDecimal unitPrice, int quantity, BigDecimal skuPoints) {
+
+        public BigDecimal originalTotal() {
+            return unitPrice.multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+
+    public BigDecimal subtotal() {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (Line line : lines) {
+            subtotal = subtotal.add(line.originalTotal());
+        }
+        return subtotal;
+    }
+
+    public int totalQuantity() {
+        int quantity = 0;
+        for (Line line : lines) {
+            quantity += line.quantity();
+        }
+        return quantity;
+    }
+}
@@ -0,0 +1,112 @@
+package ma.foodplus.ordering.system.promos.service;
+
+import lombok.RequiredArgsConstructor;
+import ma.foodplus.ordering.system.product.exception.ProductNotFoundException;
+import ma.foodplus.ordering.system.product.repository.ProductRepository;
+import ma.foodplus.ordering.system.product.repository.ProductRepository.PromotionLineRow;
+import ma.foodplus.ordering.system.promos.dto.ApplyPromotionRequest;
+import ma.foodplus.ordering.system.promos.dto.OrdertemDto;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Turns the request shapes of the promotion endpoints into a {@link PromotionBasket}, loading the
+ * catalogue data of all basket products with a single query.
+ */
+@Component
+@RequiredArgsConstructor
+public class PromotionBasketFactory {
+
+    private final ProductRepository productRepository;
+
+    /**
+     * Lines keep the price sent by the client. Family and name fall back to the catalogue when the request
+     * omits them; promotional points always come from the catalogue.
+     */
+    @Transactional(readOnly = true)
+    public PromotionBasket fromRequest(ApplyPromotionRequest request) {
+        List<OrdertemDto> items = request.getOrderItems() != null ? request.getOrderItems() : List.of();
+        Map<Long, PromotionLineRow> rows = loadRows(items.stream().map(OrdertemDto::getProductId).toList());
+        List<PromotionBasket.Line> lines = new ArrayList<>(items.size());
+        for (OrdertemDto item : items) {
+            if (item.getProductId() == null) {
+                throw new IllegalArgumentException("Product ID cannot be null.");
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive.");
+            }
+            if (item.getUnitPrice() == null || item.getUnitPrice().signum() < 0) {
+                throw new IllegalArgumentException("Price must be non-negative.");
+            }
+            PromotionLineRow row = rows.get(item.getProductId());
+            lines.add(new PromotionBasket.Line(
+                    item.getProductId(),
+                    item.getProductFamilyId() != null ? item.getProductFamilyId() : row != null ? row.getFamilyId() : null,
+                    familyCode(item.getProductFamilyId(), row),
+                    item.getProductName() != null ? item.getProductName() : row != null ? row.getTitle() : null,
+                    item.getUnitPrice(),
+                    item.getQuantity(),
+                    skuPoints(row)));
+        }
+        return new PromotionBasket(request.getCustomerId(), null, lines);
+    }
+
+    /**
+     * Prices each product at its catalogue sale price, zero when it has none.
+     *
+     * @throws ProductNotFoundException if a product does not exist
+     */
+    @Transactional(readOnly = true)
+    public PromotionBasket fromQuantities(Long customerId, Map<Long, Integer> quantities) {
+        Map<Long, PromotionLineRow> rows = loadRows(quantities.keySet());
+        List<PromotionBasket.Line> lines = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            PromotionLineRow row = rows.get(entry.getKey());
+            if (row == null) {
+                throw new ProductNotFoundException("Product not found with id: " + entry.getKey());
+            }
+            if (entry.getValue() == null || entry.getValue() <= 0) {
+                continue;
+            }
+            lines.add(new PromotionBasket.Line(
+                    row.getId(),
+                    row.getFamilyId(),
+                    row.getFamilyCode(),
+                    row.getTitle(),
+                    row.getSalePrice() != null ? row.getSalePrice() : BigDecimal.ZERO,
+                    entry.getValue(),
+                    skuPoints(row)));
+        }
+        return new PromotionBasket(customerId, null, lines);
+    }
+
+    private Map<Long, PromotionLineRow> loadRows(Collection<Long> productIds) {
+        Set<Long> ids = new HashSet<>(productIds);
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, PromotionLineRow> rows = new HashMap<>();
+        for (PromotionLineRow row : productRepository.findPromotionLineRows(ids)) {
+            rows.put(row.getId(), row);
+        }
+        return rows;
+    }
+
+    /**
+     * The catalogue family code, unless the request names another family whose code is not loaded.
+     */
+    private static String familyCode(Long requestedFamilyId, PromotionLineRow row) {
+        if (row == null || (requestedFamilyId != null && !requestedFamilyId.equals(row.getFamilyId()))) {
+            return null;
+        }
+        return row.getFamilyCode();
+    }
+
+    private static BigDecimal skuPoints(PromotionLineRow row) {
+        return row != null && row.getPromoSkuPoints() != null ? row.getPromoSkuPoints() : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,183 @@
+package ma.foodplus.ordering.system.promos.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.product.configuration.CacheProperties;
+import ma.foodplus.ordering.system.product.service.CacheWarmer;
+import ma.foodplus.ordering.system.promos.event.PromotionChangedEvent;
+import ma.foodplus.ordering.system.promos.model.Promotion;
+import ma.foodplus.ordering.system.promos.repository.PromotionRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * In-process catalog of {@link CompiledPromotion}s, compiled once per load instead of walking the entity
+ * graph on every calculation.
+ * <p>
+ * The active promotions are served from a live snapshot. It is built from every enabled promotion that
+ * has not ended yet, together with the earliest instant at which one of them starts, ends, crosses a
+ * daily window edge or opens or closes a customer family window. Until that boundary the snapshot holds
+ * {@linkplain CompiledPromotion#pinnedAt pinned} copies, which the evaluator checks without comparing
+ * dates. The first read at or after the boundary re-pins the same compiled promotions, so promotions
+ * switch on and off exactly on time without a database round trip. The promotions are reloaded from the
+ * database after {@code expireAfterWrite} of {@code foodplus.cache.promotion-catalog}, which bounds how
+ * long changes made through another instance go unnoticed.
+ * <p>
+ * Single promotions by id and the nested promotions of a parent are cached unpinned. Everything is dropped
+ * on {@link PromotionChangedEvent} after commit.
+ */
+@Slf4j
+@Component
+public class PromotionCatalog implements CacheWarmer {
+
+    public static final String CACHE_NAME = "promotionCatalog";
+
+    private final PromotionRepository promotionRepository;
+    private final PromotionCompiler promotionCompiler;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration reloadInterval;
+    private final Cache<String, List<CompiledPromotion>> entries;
+
+    private volatile LiveSnapshot live;
+    private volatile long generation;
+
+    /**
+     * @param scheduled   unpinned promotions that are running or have yet to start, by ascending priority
+     * @param active      pinned copies of the promotions active until {@code validUntil}, same order
+     * @param validUntil  next boundary of any scheduled promotion, or {@code reloadAt} if sooner
+     */
+    private record LiveSnapshot(List<CompiledPromotion> scheduled, List<CompiledPromotion> active,
+                                Instant validUntil, Instant reloadAt) {
+    }
+
+    public PromotionCatalog(PromotionRepository promotionRepository,
+                            PromotionCompiler promotionCompiler,
+                            PlatformTransactionManager transactionManager,
+                            CacheProperties cacheProperties,
+                            MeterRegistry meterRegistry) {
+        this.promotionRepository = promotionRepository;
+        this.promotionCompiler = promotionCompiler;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        CacheProperties.LocalCacheSpec settings = cacheProperties.getPromotionCatalog();
+        this.reloadInterval = settings.getExpireAfterWrite();
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxSize())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, CACHE_NAME);
+    }
+
+    @Override
+    public String getName() {
+        return CACHE_NAME;
+    }
+
+    @Override
+    public List<Runnable> planChunks() {
+        return List.of(this::getActivePromotions);
+    }
+
+    /**
+     * @return pinned copies of the promotions active now, sorted by ascending priority
+     */
+    public List<CompiledPromotion> getActivePromotions() {
+        LiveSnapshot snapshot = live;
+        if (snapshot == null || !Instant.now().isBefore(snapshot.validUntil())) {
+            snapshot = refresh();
+        }
+        return snapshot.active();
+    }
+
+    public Optional<CompiledPromotion> get(Long promotionId) {
+        List<CompiledPromotion> promotion = entries.get("id:" + promotionId, key -> readOnlyTransaction.execute(
+                status -> promotionRepository.findById(promotionId.intValue())
+                        .map(found -> List.of(promotionCompiler.compile(found)))
+                        .orElse(List.of())));
+        return promotion.stream().findFirst();
+    }
+
+    /**
+     * @return the nested promotions of the parent, sorted by ascending priority
+     */
+    public List<CompiledPromotion> getNested(Long parentPromotionId) {
+        return entries.get("nested:" + parentPromotionId, key -> readOnlyTransaction.execute(
+                status -> compile(promotionRepository.findByParentPromotionId(parentPromotionId.intValue()))));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPromotionChanged(PromotionChangedEvent event) {
+        // Nested lists and the live snapshot may include the promotion under other keys, so drop everything.
+        log.debug("Promotion {} changed, clearing the promotion catalog", event.promotionId());
+        generation++;
+        live = null;
+        entries.invalidateAll();
+    }
+
+    private synchronized LiveSnapshot refresh() {
+        ZonedDateTime now = ZonedDateTime.now();
+        LiveSnapshot current = live;
+        if (current != null && now.toInstant().isBefore(current.validUntil())) {
+            return current;
+        }
+        long loadedGeneration = generation;
+        List<CompiledPromotion> candidates;
+        Instant reloadAt;
+        if (current == null || !now.toInstant().isBefore(current.reloadAt())) {
+            candidates = readOnlyTransaction.execute(status -> compile(promotionRepository.findSchedulablePromotions(now)));
+            reloadAt = now.toInstant().plus(reloadInterval);
+        } else {
+            candidates = current.scheduled();
+            reloadAt = current.reloadAt();
+        }
+
+        List<CompiledPromotion> scheduled = new ArrayList<>(candidates.size());
+        List<CompiledPromotion> active = new ArrayList<>();
+        Instant validUntil = reloadAt;
+        for (CompiledPromotion promotion : candidates) {
+            ZonedDateTime boundary = promotion.nextBoundary(now);
+            CompiledPromotion pinned = promotion.pinnedAt(now);
+            if (boundary == null && pinned == null) {
+                // Ended, or outside every customer family window for good.
+                continue;
+            }
+            scheduled.add(promotion);
+            if (pinned != null) {
+                active.add(pinned);
+            }
+            if (boundary != null && boundary.toInstant().isBefore(validUntil)) {
+                validUntil = boundary.toInstant();
+            }
+        }
+
+        LiveSnapshot snapshot = new LiveSnapshot(List.copyOf(scheduled), List.copyOf(active), validUntil, reloadAt);
+        if (loadedGeneration == generation) {
+            live = snapshot;
+        }
+        log.debug("Promotion catalog snapshot: {} active of {} scheduled, valid until {}",
+                active.size(), scheduled.size(), validUntil);
+        return snapshot;
+    }
+
+    private List<CompiledPromotion> compile(List<Promotion> promotions) {
+        return promotions.stream()
+                .map(promotionCompiler::compile)
+                .sorted(Comparator.comparingInt(CompiledPromotion::getPriority))
+                .toList();
+    }
+}
@@ -0,0 +1,355 @@
+package ma.foodplus.ordering.system.promos.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.customer.service.CustomerPromoProfile;
+import ma.foodplus.ordering.system.promos.model.*;
+import ma.foodplus.ordering.system.promos.service.CompiledPromotion.Check;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Compiles {@link Promotion} entities into {@link CompiledPromotion}s. Must run while the entity's lazy
+ * collections can still be loaded. Conditions, tiers or rewards that cannot be interpreted are logged
+ * and compiled to "never applies" instead of failing every evaluation that reaches them.
+ * <p>
+ * Promo family conditions are not resolved here: they ask the {@link PromoFamilyMembershipIndex} while a
+ * basket is evaluated, so membership changes apply without recompiling the promotions.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PromotionCompiler {
+
+    /**
+     * Entity type of a {@code PRODUCT_IN_CART} condition on a promo family: the entity id is the family code
+     * and a line counts when its product family is a member.
+     */
+    public static final String PROMO_FAMILY_ENTITY = "PROMO_FAMILY";
+
+    private static final Check NEVER = scope -> false;
+
+    private final PromoFamilyMembershipIndex membershipIndex;
+
+    public CompiledPromotion compile(Promotion promotion) {
+        String code = promotion.getPromoCode();
+        boolean active = promotion.isActive();
+        LocalTime dailyStart = null;
+        LocalTime dailyEnd = null;
+        if (promotion.isTimeRestricted()) {
+            try {
+                dailyStart = LocalTime.parse(promotion.getStartTime());
+                dailyEnd = LocalTime.parse(promotion.getEndTime());
+            } catch (RuntimeException e) {
+                log.warn("Promotion {} has an invalid daily window {}-{}, it will never apply",
+                        code, promotion.getStartTime(), promotion.getEndTime());
+                active = false;
+            }
+        }
+
+        List<CompiledPromotion.CustomerFamilyWindow> customerFamilies = new ArrayList<>();
+        for (PromotionCustomerFamily family : nullSafe(promotion.getCustomerFamilies())) {
+            if (family.getCustomerFamilyCode() != null) {
+                customerFamilies.add(new CompiledPromotion.CustomerFamilyWindow(
+                        family.getCustomerFamilyCode(), family.getStartDate(), family.getEndDate()));
+            }
+        }
+
+        Set<Long> paidProductIds = new HashSet<>();
+        Set<String> paidFamilyCodes = new HashSet<>();
+        for (PromotionLine line : nullSafe(promotion.getPromotionLines())) {
+            if (line.getPaidProductId() != null) {
+                paidProductIds.add(line.getPaidProductId());
+            }
+            if (line.getPaidFamilyCode() != null) {
+                paidFamilyCodes.add(line.getPaidFamilyCode());
+            }
+        }
+
+        List<Check> dynamicConditions = new ArrayList<>();
+        for (DynamicCondition condition : nullSafe(promotion.getDynamicConditions())) {
+            dynamicConditions.add(compileDynamicCondition(code, condition));
+        }
+
+        List<CompiledPromotion.Rule> rules = new ArrayList<>();
+        for (PromotionRule rule : nullSafe(promotion.getRules())) {
+            CompiledPromotion.Rule compiled = compileRule(code, rule);
+            if (compiled != null) {
+                rules.add(compiled);
+            }
+        }
+
+        return CompiledPromotion.builder()
+                .id(promotion.getId())
+                .promoCode(code)
+                .name(promotion.getName())
+                .priority(promotion.getPriority())
+                .exclusive(promotion.isExclusive())
+                .combinabilityGroup(promotion.getCombinabilityGroup() != null && !promotion.getCombinabilityGroup().isBlank()
+                        ? promotion.getCombinabilityGroup() : null)
+                .skipToSequence(promotion.getSkipToSequence())
+                .applyFirstMatchingRuleOnly(promotion.isApplyFirstMatchingRuleOnly())
+                .active(active)
+                .startDate(promotion.getStartDate())
+                .endDate(promotion.getEndDate())
+                .dailyStart(dailyStart)
+                .dailyEnd(dailyEnd)
+                .nested(promotion.isNestedPromotion())
+                .parentPromotionId(promotion.getParentPromotionId())
+                .minPurchaseAmount(promotion.getMinPurchaseAmount())
+                .excludedProductIds(Set.copyOf(withoutNulls(promotion.getExcludedProductIds())))
+                .excludedFamilyIds(Set.copyOf(withoutNulls(promotion.getExcludedCategoryIds())))
+                .customerFamilies(List.copyOf(customerFamilies))
+                .paidProductIds(Set.copyOf(paidProductIds))
+                .paidFamilyCodes(Set.copyOf(paidFamilyCodes))
+                .productPoints(promotion.getProductPoints() != null ? Map.copyOf(promotion.getProductPoints()) : Map.of())
+                .dynamicConditions(List.copyOf(dynamicConditions))
+                .rules(List.copyOf(rules))
+                .build();
+    }
+
+    /**
+     * @return null when the rule can never apply: no breakpoint type or no usable tier
+     */
+    private CompiledPromotion.Rule compileRule(String code, PromotionRule rule) {
+        if (rule.getBreakpointType() == null) {
+            log.warn("Promotion {} rule {} has no breakpoint type, skipping it", code, rule.getId());
+            return null;
+        }
+        List<CompiledPromotion.Tier> tiers = new ArrayList<>();
+        for (PromotionTier tier : nullSafe(rule.getTiers())) {
+            CompiledPromotion.RewardSpec reward = tier.getMinimumThreshold() != null ? compileReward(code, tier.getReward()) : null;
+            if (reward == null) {
+                log.warn("Promotion {} rule {} has an unusable tier {}, skipping the rule", code, rule.getId(), tier.getId());
+                return null;
+            }
+            tiers.add(new CompiledPromotion.Tier(tier.getMinimumThreshold(), reward));
+        }
+        if (tiers.isEmpty()) {
+            return null;
+        }
+        tiers.sort(Comparator.comparing(CompiledPromotion.Tier::minimumThreshold));
+
+        List<Check> conditions = new ArrayList<>();
+        for (Condition condition : nullSafe(rule.getConditions())) {
+            conditions.add(compileCondition(code, condition));
+        }
+        return new CompiledPromotion.Rule(
+                rule.getName(),
+                List.copyOf(conditions),
+                rule.getConditionLogic() != PromotionRule.ConditionLogic.ANY,
+                rule.getCalculationMethod() != null ? rule.getCalculationMethod() : PromotionRule.CalculationMethod.BRACKET,
+                rule.getBreakpointType(),
+                rule.getBreakpointCalculationBasis() != null
+                        ? rule.getBreakpointCalculationBasis() : PromotionRule.BreakpointCalculationBasis.ORIGINAL_PRICE,
+                rule.getRepetition(),
+                List.copyOf(tiers));
+    }
+
+    private CompiledPromotion.RewardSpec compileReward(String code, Reward reward) {
+        if (reward == null || reward.getType() == null) {
+            return null;
+        }
+        switch (reward.getType()) {
+            case PERCENTAGE:
+                return isPositive(reward.getDiscountPercentage())
+                        ? new CompiledPromotion.RewardSpec(Reward.RewardType.PERCENTAGE, null, reward.getDiscountPercentage(), null, 0)
+                        : null;
+            case FIXED_AMOUNT:
+                return isPositive(reward.getDiscountAmount())
+                        ? new CompiledPromotion.RewardSpec(Reward.RewardType.FIXED_AMOUNT, reward.getDiscountAmount(), null, null, 0)
+                        : null;
+            case FREE_PRODUCT:
+                try {
+                    Long productId = Long.valueOf(reward.getTargetEntityId());
+                    int quantity = reward.getDiscountAmount() != null ? reward.getDiscountAmount().intValue() : 1;
+                    return quantity > 0
+                            ? new CompiledPromotion.RewardSpec(Reward.RewardType.FREE_PRODUCT, null, null, productId, quantity)
+                            : null;
+                } catch (NumberFormatException e) {
+                    log.warn("Promotion {} free product reward {} has no valid product id", code, reward.getId());
+                    return null;
+                }
+            case POINTS_MULTIPLIER:
+                // Points are granted outside the discount calculation.
+                return new CompiledPromotion.RewardSpec(Reward.RewardType.POINTS_MULTIPLIER, null, null, null, 0);
+            default:
+                return null;
+        }
+    }
+
+    private Check compileCondition(String code, Condition condition) {
+        Condition.Operator operator = condition.getOperator();
+        try {
+            switch (condition.getConditionType()) {
+                case CART_SUBTOTAL: {
+                    BigDecimal expected = new BigDecimal(condition.getValue());
+                    return scope -> compare(scope.basket().subtotal(), operator, expected);
+                }
+                case PRODUCT_IN_CART: {
+                    BigDecimal required = BigDecimal.valueOf(Integer.parseInt(condition.getValue()));
+                    if (PROMO_FAMILY_ENTITY.equalsIgnoreCase(condition.getEntityType())) {
+                        return compilePromoFamilyInCart(condition.getEntityId(), operator, required);
+                    }
+                    Long entityId = Long.valueOf(condition.getEntityId());
+                    boolean byFamily;
+                    if ("PRODUCT".equalsIgnoreCase(condition.getEntityType())) {
+                        byFamily = false;
+                    } else if ("PRODUCT_FAMILY".equalsIgnoreCase(condition.getEntityType())) {
+                        byFamily = true;
+                    } else {
+                        return NEVER;
+                    }
+                    return scope -> {
+                        int quantity = 0;
+                        boolean found = false;
+                        for (PromotionBasket.Line line : scope.basket().lines()) {
+                            if (entityId.equals(byFamily ? line.productFamilyId() : line.productId())) {
+                                found = true;
+                                quantity += line.quantity();
+                            }
+                        }
+                        return found && compare(BigDecimal.valueOf(quantity), operator, required);
+                    };
+                }
+                case CUSTOMER_IN_GROUP: {
+                    Long groupId = condition.getCustomerGroupId();
+                    if (groupId == null) {
+                        return NEVER;
+                    }
+                    return scope -> scope.customer() != null && scope.customer().isInGroup(groupId);
+                }
+                case TIME_OF_DAY: {
+                    LocalTime target = LocalTime.parse(condition.getValue());
+                    switch (operator) {
+                        case GREATER_THAN:
+                            return scope -> scope.now().toLocalTime().isAfter(target);
+                        case LESS_THAN:
+                            return scope -> scope.now().toLocalTime().isBefore(target);
+                        case EQUAL:
+                            return scope -> scope.now().toLocalTime().equals(target);
+                        default:
+                            return NEVER;
+                    }
+                }
+                case DAY_OF_WEEK: {
+                    int day = Integer.parseInt(condition.getValue());
+                    switch (operator) {
+                        case EQUAL:
+                            return scope -> scope.now().getDayOfWeek().getValue() == day;
+                        case NOT_EQUAL:
+                            return scope -> scope.now().getDayOfWeek().getValue() != day;
+                        default:
+                            return NEVER;
+                    }
+                }
+                case CUSTOMER_LOYALTY_LEVEL: {
+                    Integer required = condition.getRequiredLoyaltyLevel();
+                    if (required == null) {
+                        return NEVER;
+                    }
+                    return scope -> scope.customer() != null && scope.customer().getLoyaltyLevel() >= required;
+                }
+                case PAYMENT_METHOD: {
+                    String paymentMethod = condition.getPaymentMethod();
+                    if (paymentMethod == null) {
+                        return NEVER;
+                    }
+                    return scope -> scope.basket().paymentMethod() != null
+                            && scope.basket().paymentMethod().name().equals(paymentMethod);
+                }
+                default:
+                    return NEVER;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Promotion {} condition {} cannot be compiled, it will never be met: {}", code, condition.getId(), e.getMessage());
+            return NEVER;
+        }
+    }
+
+    private Check compilePromoFamilyInCart(String familyCode, Condition.Operator operator, BigDecimal required) {
+        if (familyCode == null || familyCode.isBlank()) {
+            return NEVER;
+        }
+        return scope -> {
+            int quantity = 0;
+            boolean found = false;
+            for (PromotionBasket.Line line : scope.basket().lines()) {
+                if (line.productFamilyCode() != null && membershipIndex.isMember(familyCode, line.productFamilyCode())) {
+                    found = true;
+                    quantity += line.quantity();
+                }
+            }
+            return found && compare(BigDecimal.valueOf(quantity), operator, required);
+        };
+    }
+
+    private Check compileDynamicCondition(String code, DynamicCondition condition) {
+        if (!condition.isActive() || condition.getConditionType() == null || condition.getOperator() == null) {
+            return NEVER;
+        }
+        String type = condition.getConditionType().toUpperCase();
+        if (!type.equals("PAYMENT_METHOD")) {
+            try {
+                Double.parseDouble(condition.getConditionValue());
+            } catch (RuntimeException e) {
+                log.warn("Promotion {} dynamic condition {} has a non-numeric value, it will never be met", code, condition.getId());
+                return NEVER;
+            }
+        }
+        switch (type) {
+            case "CUSTOMER_LOYALTY":
+                return scope -> scope.customer() != null
+                        && condition.evaluateNumeric((double) scope.customer().getLoyaltyLevel());
+            case "CUSTOMER_GROUP":
+            case "PURCHASE_HISTORY":
+                return scope -> {
+                    CustomerPromoProfile customer = scope.customer();
+                    return customer != null && customer.getTotalSpent() != null
+                            && condition.evaluateNumeric(customer.getTotalSpent().doubleValue());
+                };
+            case "ORDER_TOTAL":
+                return scope -> condition.evaluateNumeric(scope.basket().subtotal().doubleValue());
+            case "PAYMENT_METHOD":
+                return scope -> scope.basket().paymentMethod() != null
+                        && condition.evaluate(scope.basket().paymentMethod().name());
+            default:
+                return NEVER;
+        }
+    }
+
+    private static boolean compare(BigDecimal actual, Condition.Operator operator, BigDecimal expected) {
+        int comparison = actual.compareTo(expected);
+        switch (operator) {
+            case EQUAL:
+                return comparison == 0;
+            case NOT_EQUAL:
+                return comparison != 0;
+            case GREATER_THAN:
+                return comparison > 0;
+            case GREATER_THAN_OR_EQUAL:
+                return comparison >= 0;
+            case LESS_THAN:
+                return comparison < 0;
+            case LESS_THAN_OR_EQUAL:
+                return comparison <= 0;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isPositive(BigDecimal value) {
+        return value != null && value.signum() > 0;
+    }
+
+    private static <T> List<T> nullSafe(List<T> values) {
+        return values != null ? values : List.of();
+    }
+
+    private static <T> List<T> withoutNulls(List<T> values) {
+        return nullSafe(values).stream().filter(Objects::nonNull).toList();
+    }
+}
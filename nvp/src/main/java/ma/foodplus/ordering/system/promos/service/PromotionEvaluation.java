@@ -0,0 +1,48 @@
+package ma.foodplus.ordering.system.promos.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a {@link PromotionEvaluator} run: one entry per basket line, in basket order, plus the
+ * per-promotion totals and granted free items.
+ *
+ * @param discountsByPromotion discount granted by each applied promotion code, in application order
+ * @param appliedPromotionCodes codes of the promotions whose rules matched, in application order
+ */
+public record PromotionEvaluation(List<LineResult> lines,
+                                  Map<String, BigDecimal> discountsByPromotion,
+                                  List<FreeItem> freeItems,
+                                  List<String> appliedPromotionCodes) {
+
+    public record LineResult(PromotionBasket.Line line, BigDecimal discount, List<String> promotionCodes) {
+
+        public BigDecimal finalTotal() {
+            return line.originalTotal().subtract(discount);
+        }
+    }
+
+    public record FreeItem(Long productId, int quantity, String promoCode) {
+    }
+
+    public BigDecimal originalTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (LineResult line : lines) {
+            total = total.add(line.line().originalTotal());
+        }
+        return total;
+    }
+
+    public BigDecimal discountTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (LineResult line : lines) {
+            total = total.add(line.discount());
+        }
+        return total;
+    }
+
+    public BigDecimal finalTotal() {
+        return originalTotal().subtract(discountTotal());
+    }
+}
@@ -0,0 +1,508 @@
+package ma.foodplus.ordering.system.promos.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.customer.service.CustomerPromoProfile;
+import ma.foodplus.ordering.system.customer.service.CustomerService;
+import ma.foodplus.ordering.system.promos.configuration.PromotionProperties;
+import ma.foodplus.ordering.system.promos.model.PromotionRule;
+import ma.foodplus.ordering.system.promos.model.Reward;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The single promotion engine: applies {@link CompiledPromotion}s to a {@link PromotionBasket}.
+ * <p>
+ * Evaluation runs in two phases. Screening decides, for every promotion, whether the customer's family is
+ * targeted, whether it is active, above its minimum purchase, free of excluded products and families and
+ * passes its dynamic conditions, and which of its rules match. None of that depends on discounts, so
+ * large catalogs are screened in parallel. Application then visits the promotions in the given order on
+ * the calling thread, skipping those a previous skip-to-sequence jumps past or that cannot be combined
+ * with what was already applied. Each matching rule picks its tier from the breakpoint value of the
+ * eligible lines and spreads the discount over them proportionally to their remaining price, so later
+ * promotions see the discounts of earlier ones.
+ */
+@Slf4j
+@Service
+public class PromotionEvaluator {
+
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+
+    private final PromotionCatalog promotionCatalog;
+    private final CustomerService customerService;
+    private final PromotionProperties.Evaluation settings;
+    private final ExecutorService executor;
+
+    public PromotionEvaluator(PromotionCatalog promotionCatalog,
+                              CustomerService customerService,
+                              PromotionProperties promotionProperties) {
+        this.promotionCatalog = promotionCatalog;
+        this.customerService = customerService;
+        this.settings = promotionProperties.getEvaluation();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, settings.getParallelism()), runnable -> {
+            Thread thread = new Thread(runnable, "promotion-screening-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Evaluates every active promotion against the basket.
+     */
+    public PromotionEvaluation evaluateActive(PromotionBasket basket) {
+        return evaluate(basket, promotionCatalog.getActivePromotions());
+    }
+
+    public PromotionEvaluation evaluate(PromotionBasket basket, List<CompiledPromotion> promotions) {
+        return evaluate(basket, promotions, ZonedDateTime.now());
+    }
+
+    /**
+     * Evaluates as if at {@code at}, which is what windows, dates and time conditions are checked against.
+     */
+    public PromotionEvaluation evaluate(PromotionBasket basket, List<CompiledPromotion> promotions, ZonedDateTime at) {
+        Run run = new Run(basket, at);
+        for (Screening screening : screen(promotions, run)) {
+            CompiledPromotion promotion = screening.promotion();
+            if (screening.matchedRules().isEmpty()) {
+                continue;
+            }
+            if (run.skipToSequence != null && promotion.getPriority() < run.skipToSequence) {
+                log.debug("Skipping promotion {} due to skipToSequence logic", promotion.getPromoCode());
+                continue;
+            }
+            if (!run.isCombinable(promotion)) {
+                log.debug("Skipping non-combinable promotion: {}", promotion.getPromoCode());
+                continue;
+            }
+            for (CompiledPromotion.Rule rule : screening.matchedRules()) {
+                applyRule(promotion, rule, run);
+            }
+            run.markApplied(promotion);
+            if (promotion.getSkipToSequence() != null) {
+                run.skipToSequence = promotion.getSkipToSequence();
+            }
+            if (promotion.isExclusive()) {
+                break;
+            }
+        }
+        return run.result();
+    }
+
+    /**
+     * @return true if the conditions of at least one of the promotion's rules hold for the basket
+     */
+    public boolean anyRuleMatches(CompiledPromotion promotion, PromotionBasket basket) {
+        Run run = new Run(basket, ZonedDateTime.now());
+        for (CompiledPromotion.Rule rule : promotion.getRules()) {
+            if (rule.conditionsMet(run)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A promotion and the rules whose conditions hold; no rules when the promotion is not applicable.
+     */
+    private record Screening(CompiledPromotion promotion, List<CompiledPromotion.Rule> matchedRules) {
+    }
+
+    /**
+     * @return one screening per promotion, in the given order
+     */
+    private List<Screening> screen(List<CompiledPromotion> promotions, Run run) {
+        if (promotions.size() < Math.max(2, settings.getParallelThreshold())) {
+            return screen(promotions, run, 0, promotions.size());
+        }
+        // Load the profile here rather than racing for it on every screening thread.
+        run.customer();
+        int parallelism = Math.max(1, settings.getParallelism());
+        int chunkSize = (promotions.size() + parallelism - 1) / parallelism;
+        List<CompletableFuture<List<Screening>>> chunks = new ArrayList<>(parallelism);
+        for (int from = 0; from < promotions.size(); from += chunkSize) {
+            int start = from;
+            int end = Math.min(promotions.size(), from + chunkSize);
+            chunks.add(CompletableFuture.supplyAsync(() -> screen(promotions, run, start, end), executor));
+        }
+        List<Screening> screenings = new ArrayList<>(promotions.size());
+        for (CompletableFuture<List<Screening>> chunk : chunks) {
+            screenings.addAll(chunk.join());
+        }
+        return screenings;
+    }
+
+    private List<Screening> screen(List<CompiledPromotion> promotions, Run run, int from, int to) {
+        List<Screening> screenings = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            CompiledPromotion promotion = promotions.get(i);
+            List<CompiledPromotion.Rule> matched;
+            try {
+                matched = matchedRules(promotion, run);
+            } catch (RuntimeException e) {
+                log.error("Error screening promotion '{}': {}", promotion.getPromoCode(), e.getMessage());
+                matched = List.of();
+            }
+            screenings.add(new Screening(promotion, matched));
+        }
+        return screenings;
+    }
+
+    private List<CompiledPromotion.Rule> matchedRules(CompiledPromotion promotion, Run run) {
+        if (!run.customerFamilyAllows(promotion)) {
+            log.debug("Skipping promotion {} for ineligible customer family", promotion.getPromoCode());
+            return List.of();
+        }
+        if (!isApplicable(promotion, run)) {
+            log.debug("Skipping inapplicable promotion: {}", promotion.getPromoCode());
+            return List.of();
+        }
+        List<CompiledPromotion.Rule> matched = new ArrayList<>();
+        for (CompiledPromotion.Rule rule : promotion.getRules()) {
+            if (rule.conditionsMet(run)) {
+                matched.add(rule);
+                if (promotion.isApplyFirstMatchingRuleOnly()) {
+                    break;
+                }
+            }
+        }
+        return matched;
+    }
+
+    private boolean isApplicable(CompiledPromotion promotion, Run run) {
+        if (!promotion.isActiveAt(run.now) || promotion.getRules().isEmpty()) {
+            return false;
+        }
+        if (promotion.getMinPurchaseAmount() != null
+                && run.basket.subtotal().compareTo(promotion.getMinPurchaseAmount()) < 0) {
+            return false;
+        }
+        for (PromotionBasket.Line line : run.basket.lines()) {
+            if (promotion.getExcludedProductIds().contains(line.productId())
+                    || (line.productFamilyId() != null && promotion.getExcludedFamilyIds().contains(line.productFamilyId()))) {
+                return false;
+            }
+        }
+        for (CompiledPromotion.Check condition : promotion.getDynamicConditions()) {
+            if (!condition.test(run)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void applyRule(CompiledPromotion promotion, CompiledPromotion.Rule rule, Run run) {
+        List<Integer> eligible = eligibleLines(promotion, rule, run);
+        if (eligible.isEmpty()) {
+            return;
+        }
+        BigDecimal breakpointValue = breakpointValue(promotion, rule, eligible, run);
+        if (breakpointValue.signum() <= 0) {
+            return;
+        }
+        if (rule.calculationMethod() == PromotionRule.CalculationMethod.BRACKET) {
+            applyBracket(promotion, rule, eligible, breakpointValue, run);
+        } else {
+            applyCumulative(promotion, rule, eligible, breakpointValue, run);
+        }
+    }
+
+    /**
+     * Indexes of the lines the promotion rewards. A quantity repetition limit keeps whole lines, in
+     * basket order, while their cumulative quantity stays within the limit.
+     */
+    private List<Integer> eligibleLines(CompiledPromotion promotion, CompiledPromotion.Rule rule, Run run) {
+        List<PromotionBasket.Line> lines = run.basket.lines();
+        boolean limited = rule.repetition() != null && rule.repetition() > 0
+                && rule.breakpointType() == PromotionRule.BreakpointType.QUANTITY;
+        List<Integer> eligible = new ArrayList<>();
+        int quantity = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            PromotionBasket.Line line = lines.get(i);
+            if (!promotion.isLineEligible(line)) {
+                continue;
+            }
+            if (limited) {
+                if (quantity + line.quantity() > rule.repetition()) {
+                    break;
+                }
+                quantity += line.quantity();
+            }
+            eligible.add(i);
+            if (limited && quantity >= rule.repetition()) {
+                break;
+            }
+        }
+        return eligible;
+    }
+
+    private BigDecimal breakpointValue(CompiledPromotion promotion, CompiledPromotion.Rule rule,
+                                       List<Integer> eligible, Run run) {
+        BigDecimal value = BigDecimal.ZERO;
+        for (int index : eligible) {
+            PromotionBasket.Line line = run.basket.lines().get(index);
+            switch (rule.breakpointType()) {
+                case AMOUNT:
+                    value = value.add(rule.breakpointBasis() == PromotionRule.BreakpointCalculationBasis.CURRENT_PRICE
+                            ? run.remaining(index) : line.originalTotal());
+                    break;
+                case QUANTITY:
+                    value = value.add(BigDecimal.valueOf(line.quantity()));
+                    break;
+                case SKU_POINTS:
+                    value = value.add(promotion.pointsPerUnit(line).multiply(BigDecimal.valueOf(line.quantity())));
+                    break;
+            }
+        }
+        return value;
+    }
+
+    private void applyBracket(CompiledPromotion promotion, CompiledPromotion.Rule rule, List<Integer> eligible,
+                              BigDecimal breakpointValue, Run run) {
+        CompiledPromotion.Tier best = null;
+        for (CompiledPromotion.Tier tier : rule.tiers()) {
+            if (breakpointValue.compareTo(tier.minimumThreshold()) >= 0) {
+                best = tier;
+            }
+        }
+        if (best == null) {
+            return;
+        }
+        CompiledPromotion.RewardSpec reward = best.reward();
+        switch (reward.type()) {
+            case PERCENTAGE:
+                run.distribute(promotion.getPromoCode(), eligible, percentageOf(run.remaining(eligible), reward.percentage()));
+                break;
+            case FIXED_AMOUNT:
+                run.distribute(promotion.getPromoCode(), eligible, reward.amount());
+                break;
+            case FREE_PRODUCT:
+                run.freeItems.add(new PromotionEvaluation.FreeItem(
+                        reward.freeProductId(), reward.freeQuantity(), promotion.getPromoCode()));
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Splits the breakpoint value into the slices between consecutive thresholds and applies each tier's
+     * percentage to its slice; the value above the highest threshold uses the highest tier. Only
+     * percentage rewards on amount or quantity breakpoints produce a discount.
+     */
+    private void applyCumulative(CompiledPromotion promotion, CompiledPromotion.Rule rule, List<Integer> eligible,
+                                 BigDecimal breakpointValue, Run run) {
+        int[] consumed = new int[eligible.size()];
+        BigDecimal lastThreshold = BigDecimal.ZERO;
+        for (CompiledPromotion.Tier tier : rule.tiers()) {
+            if (breakpointValue.compareTo(lastThreshold) <= 0) {
+                break;
+            }
+            BigDecimal slice = breakpointValue.subtract(lastThreshold).min(tier.minimumThreshold().subtract(lastThreshold));
+            applySlice(promotion, rule, tier, eligible, slice, consumed, run);
+            lastThreshold = tier.minimumThreshold();
+        }
+        if (breakpointValue.compareTo(lastThreshold) > 0) {
+            CompiledPromotion.Tier highest = rule.tiers().get(rule.tiers().size() - 1);
+            applySlice(promotion, rule, highest, eligible, breakpointValue.subtract(lastThreshold), consumed, run);
+        }
+    }
+
+    private void applySlice(CompiledPromotion promotion, CompiledPromotion.Rule rule, CompiledPromotion.Tier tier,
+                            List<Integer> eligible, BigDecimal slice, int[] consumed, Run run) {
+        if (tier.reward().type() != Reward.RewardType.PERCENTAGE
+                || slice.signum() <= 0) {
+            return;
+        }
+        BigDecimal base;
+        if (rule.breakpointType() == PromotionRule.BreakpointType.AMOUNT) {
+            base = slice;
+        } else if (rule.breakpointType() == PromotionRule.BreakpointType.QUANTITY) {
+            base = priceOfQuantitySlice(eligible, slice.intValue(), consumed, run);
+        } else {
+            return;
+        }
+        run.distribute(promotion.getPromoCode(), eligible, percentageOf(base, tier.reward().percentage()));
+    }
+
+    private BigDecimal priceOfQuantitySlice(List<Integer> eligible, int quantity, int[] consumed, Run run) {
+        BigDecimal price = BigDecimal.ZERO;
+        for (int i = 0; i < eligible.size() && quantity > 0; i++) {
+            PromotionBasket.Line line = run.basket.lines().get(eligible.get(i));
+            int taken = Math.min(quantity, line.quantity() - consumed[i]);
+            price = price.add(line.unitPrice().multiply(BigDecimal.valueOf(taken)));
+            consumed[i] += taken;
+            quantity -= taken;
+        }
+        return price;
+    }
+
+    private static BigDecimal percentageOf(BigDecimal base, BigDecimal percentage) {
+        return base.multiply(percentage.divide(HUNDRED, 4, RoundingMode.HALF_UP)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Mutable state of one evaluation. Also the {@link CompiledPromotion.Scope} conditions are tested in;
+     * the customer profile is only loaded if a condition asks for it. Screening threads only read the
+     * basket and the profile; everything else is touched by the calling thread alone.
+     */
+    private final class Run implements CompiledPromotion.Scope {
+
+        private final PromotionBasket basket;
+        private final ZonedDateTime now;
+        private final BigDecimal[] discounts;
+        private final List<Set<String>> lineCodes;
+        private final Map<String, BigDecimal> discountsByPromotion = new LinkedHashMap<>();
+        private final List<PromotionEvaluation.FreeItem> freeItems = new ArrayList<>();
+        private final List<String> appliedCodes = new ArrayList<>();
+        private final Set<String> appliedGroups = new HashSet<>();
+        private boolean exclusiveApplied;
+        private Integer skipToSequence;
+        private volatile CustomerPromoProfile customer;
+        private volatile boolean customerLoaded;
+
+        private Run(PromotionBasket basket, ZonedDateTime now) {
+            this.basket = basket;
+            this.now = now;
+            this.discounts = new BigDecimal[basket.lines().size()];
+            Arrays.fill(discounts, BigDecimal.ZERO);
+            this.lineCodes = new ArrayList<>(basket.lines().size());
+            for (int i = 0; i < discounts.length; i++) {
+                lineCodes.add(new LinkedHashSet<>());
+            }
+        }
+
+        @Override
+        public PromotionBasket basket() {
+            return basket;
+        }
+
+        @Override
+        public ZonedDateTime now() {
+            return now;
+        }
+
+        @Override
+        public CustomerPromoProfile customer() {
+            if (!customerLoaded) {
+                loadCustomer();
+            }
+            return customer;
+        }
+
+        private synchronized void loadCustomer() {
+            if (customerLoaded) {
+                return;
+            }
+            if (basket.customerId() != null) {
+                try {
+                    customer = customerService.getPromoProfile(basket.customerId());
+                } catch (RuntimeException e) {
+                    log.warn("Could not load promo profile of customer {}: {}", basket.customerId(), e.getMessage());
+                }
+            }
+            customerLoaded = true;
+        }
+
+        private boolean customerFamilyAllows(CompiledPromotion promotion) {
+            if (promotion.getCustomerFamilies().isEmpty()) {
+                return true;
+            }
+            CustomerPromoProfile profile = customer();
+            String familyCode = profile != null && profile.getCategoryTarifId() != null
+                    ? profile.getCategoryTarifId().toString() : null;
+            if (familyCode == null) {
+                return false;
+            }
+            for (CompiledPromotion.CustomerFamilyWindow window : promotion.getCustomerFamilies()) {
+                if (window.covers(familyCode, now)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isCombinable(CompiledPromotion promotion) {
+            if (exclusiveApplied || (promotion.isExclusive() && !appliedCodes.isEmpty())) {
+                return false;
+            }
+            return promotion.getCombinabilityGroup() == null || !appliedGroups.contains(promotion.getCombinabilityGroup());
+        }
+
+        private void markApplied(CompiledPromotion promotion) {
+            appliedCodes.add(promotion.getPromoCode());
+            if (promotion.getCombinabilityGroup() != null) {
+                appliedGroups.add(promotion.getCombinabilityGroup());
+            }
+            exclusiveApplied |= promotion.isExclusive();
+        }
+
+        private BigDecimal remaining(int index) {
+            return basket.lines().get(index).originalTotal().subtract(discounts[index]);
+        }
+
+        private BigDecimal remaining(List<Integer> indexes) {
+            BigDecimal total = BigDecimal.ZERO;
+            for (int index : indexes) {
+                total = total.add(remaining(index));
+            }
+            return total;
+        }
+
+        /**
+         * Spreads the discount over the lines proportionally to their remaining price, capped at that
+         * price; the last line takes the rounding remainder.
+         */
+        private void distribute(String promoCode, List<Integer> indexes, BigDecimal discount) {
+            BigDecimal available = remaining(indexes);
+            if (discount.signum() <= 0 || available.signum() <= 0) {
+                return;
+            }
+            discount = discount.min(available);
+            BigDecimal allocated = BigDecimal.ZERO;
+            for (int i = 0; i < indexes.size(); i++) {
+                int index = indexes.get(i);
+                BigDecimal share;
+                if (i < indexes.size() - 1) {
+                    BigDecimal proportion = remaining(index).divide(available, 4, RoundingMode.HALF_UP);
+                    share = discount.multiply(proportion).setScale(2, RoundingMode.HALF_UP);
+                } else {
+                    share = discount.subtract(allocated);
+                }
+                share = share.min(remaining(index));
+                if (share.signum() > 0) {
+                    discounts[index] = discounts[index].add(share);
+                    lineCodes.get(index).add(promoCode);
+                    allocated = allocated.add(share);
+                }
+            }
+            if (allocated.signum() > 0) {
+                discountsByPromotion.merge(promoCode, allocated, BigDecimal::add);
+            }
+        }
+
+        private PromotionEvaluation result() {
+            List<PromotionEvaluation.LineResult> lines = new ArrayList<>(discounts.length);
+            for (int i = 0; i < discounts.length; i++) {
+                lines.add(new PromotionEvaluation.LineResult(
+                        basket.lines().get(i), discounts[i], List.copyOf(lineCodes.get(i))));
+            }
+            return new PromotionEvaluation(List.copyOf(lines), Collections.unmodifiableMap(discountsByPromotion),
+                    List.copyOf(freeItems), List.copyOf(appliedCodes));
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package ma.foodplus.ordering.system.promos.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ma.foodplus.ordering.system.order.repository.OrderRepository;
+import ma.foodplus.ordering.system.order.repository.OrderRepository.HistoricalLineRow;
+import ma.foodplus.ordering.system.promos.configuration.PromotionProperties;
+import ma.foodplus.ordering.system.promos.dto.PromotionDTO;
+import ma.foodplus.ordering.system.promos.dto.PromotionSimulationRequest;
+import ma.foodplus.ordering.system.promos.exception.PromotionSimulationNotFoundException;
+import ma.foodplus.ordering.system.promos.mapper.PromotionMapper;
+import ma.foodplus.ordering.system.promos.model.Promotion;
+import ma.foodplus.ordering.system.promos.repository.PromotionRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Offline "what-if" runs of the {@link PromotionEvaluator} over historical orders. Each order is evaluated
+ * twice at its creation time: against the promotions running in the period (baseline), then against the
+ * same promotions with the request's drafts and removals applied (candidate). The run reports the
+ * difference in discount cost, the share of orders that get a promotion and the uplift per promotion.
+ * <p>
+ * Orders are streamed in keyset pages of ids. Each page's lines are loaded and evaluated on a small
+ * dedicated pool, and at most twice {@code parallelism} pages are in flight, so memory stays bounded
+ * whatever the period. Runs live in memory only: the latest {@code retained-runs} can be polled for
+ * progress, ETA and their running totals.
+ */
+@Slf4j
+@Service
+public class PromotionSimulationService {
+
+    public enum State { RUNNING, COMPLETED, FAILED }
+
+    /**
+     * @param uplift candidate discount minus baseline discount
+     */
+    public record PromotionImpact(String promoCode, long baselineOrders, long candidateOrders,
+                                  BigDecimal baselineDiscount, BigDecimal candidateDiscount, BigDecimal uplift) {
+    }
+
+    /**
+     * @param hitRate share (0-1) of the processed orders granted at least one candidate promotion
+     */
+    public record Summary(BigDecimal originalTotal, BigDecimal baselineDiscount, BigDecimal candidateDiscount,
+                          BigDecimal discountDelta, long ordersHit, double hitRate, List<PromotionImpact> promotions) {
+    }
+
+    /**
+     * @param eta estimated time left, null until the first page is done and once the run has finished
+     */
+    public record Progress(String id, State state, ZonedDateTime from, ZonedDateTime to,
+                           long totalOrders, long processedOrders, double percentage,
+                           Instant startedAt, Instant finishedAt, Duration eta, String errorMessage,
+                           Summary summary) {
+    }
+
+    private final OrderRepository orderRepository;
+    private final PromotionRepository promotionRepository;
+    private final PromotionMapper promotionMapper;
+    private final PromotionCompiler promotionCompiler;
+    private final PromotionEvaluator promotionEvaluator;
+    private final PromotionProperties.Simulation settings;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService executor;
+    private final Map<String, Run> runs = new LinkedHashMap<>();
+
+    public PromotionSimulationService(OrderRepository orderRepository,
+                                      PromotionRepository promotionRepository,
+                                      PromotionMapper promotionMapper,
+                                      PromotionCompiler promotionCompiler,
+                                      PromotionEvaluator promotionEvaluator,
+                                      PromotionProperties promotionProperties,
+                                      PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.promotionRepository = promotionRepository;
+        this.promotionMapper = promotionMapper;
+        this.promotionCompiler = promotionCompiler;
+        this.promotionEvaluator = promotionEvaluator;
+        this.settings = promotionProperties.getSimulation();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, settings.getParallelism()), runnable -> {
+            Thread thread = new Thread(runnable, "promotion-simulation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Compiles both catalogs and starts the run in the background.
+     *
+     * @throws IllegalArgumentException if the period or a draft promotion is invalid
+     */
+    public Progress start(PromotionSimulationRequest request) {
+        if (request.getFrom() == null || request.getTo() == null || !request.getFrom().isBefore(request.getTo())) {
+            throw new IllegalArgumentException("A simulation needs a period with 'from' before 'to'");
+        }
+        Catalogs catalogs = readOnlyTransaction.execute(status -> buildCatalogs(request));
+        long totalOrders = orderRepository.countByCreatedAtGreaterThanEqualAndCreatedAtLessThan(
+                request.getFrom(), request.getTo());
+
+        Run run = new Run(UUID.randomUUID().toString(), request.getFrom(), request.getTo(), totalOrders);
+        synchronized (runs) {
+            runs.put(run.id, run);
+            Iterator<Run> oldest = runs.values().iterator();
+            while (runs.size() > Math.max(1, settings.getRetainedRuns()) && oldest.hasNext()) {
+                if (oldest.next().finishedAt != null) {
+                    oldest.remove();
+                }
+            }
+        }
+        log.info("Starting promotion simulation {} over {} orders from {} to {}: {} baseline and {} candidate promotions",
+                run.id, totalOrders, run.from, run.to, catalogs.baseline().size(), catalogs.candidate().size());
+        // The coordinator waits for pool capacity, so it must not occupy a pool thread itself.
+        Thread.ofPlatform().daemon().name("promotion-simulation-reader").start(() -> execute(run, catalogs));
+        return run.snapshot();
+    }
+
+    public Progress getProgress(String simulationId) {
+        Run run;
+        synchronized (runs) {
+            run = runs.get(simulationId);
+        }
+        if (run == null) {
+            throw new PromotionSimulationNotFoundException("Promotion simulation not found with id: " + simulationId);
+        }
+        return run.snapshot();
+    }
+
+    public List<Progress> getRecentRuns() {
+        List<Run> recent;
+        synchronized (runs) {
+            recent = new ArrayList<>(runs.values());
+        }
+        Collections.reverse(recent);
+        return recent.stream().map(Run::snapshot).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private record Catalogs(List<CompiledPromotion> baseline, List<CompiledPromotion> candidate) {
+    }
+
+    private Catalogs buildCatalogs(PromotionSimulationRequest request) {
+        List<Promotion> running = promotionRepository.findPromotionsOverlapping(request.getFrom(), request.getTo());
+        List<CompiledPromotion> baseline = running.stream().map(promotionCompiler::compile).toList();
+
+        Set<Long> replaced = new HashSet<>();
+        if (request.getRemovedPromotionIds() != null) {
+            request.getRemovedPromotionIds().forEach(id -> replaced.add(id.longValue()));
+        }
+        List<CompiledPromotion> drafts = new ArrayList<>();
+        for (PromotionDTO draft : Optional.ofNullable(request.getDraftPromotions()).orElse(List.of())) {
+            if (draft.getPromoCode() == null || draft.getPromoCode().isBlank()) {
+                throw new IllegalArgumentException("Draft promotions need a promo code");
+            }
+            if (draft.getId() != null) {
+                replaced.add(draft.getId().longValue());
+            }
+            drafts.add(promotionCompiler.compile(promotionMapper.toEntity(draft)));
+        }
+
+        List<CompiledPromotion> candidate = new ArrayList<>(drafts);
+        for (CompiledPromotion promotion : baseline) {
+            if (!replaced.contains(promotion.getId())) {
+                candidate.add(promotion);
+            }
+        }
+        Comparator<CompiledPromotion> byPriority = Comparator.comparingInt(CompiledPromotion::getPriority);
+        return new Catalogs(
+                baseline.stream().sorted(byPriority).toList(),
+                candidate.stream().sorted(byPriority).toList());
+    }
+
+    private void execute(Run run, Catalogs catalogs) {
+        int maxPagesInFlight = 2 * Math.max(1, settings.getParallelism());
+        Semaphore pagesInFlight = new Semaphore(maxPagesInFlight);
+        PageRequest page = PageRequest.of(0, Math.max(1, settings.getPageSize()));
+        try {
+            Long afterId = 0L;
+            while (run.errorMessage == null) {
+                List<Long> orderIds = orderRepository.findIdsCreatedBetween(run.from, run.to, afterId, page);
+                if (orderIds.isEmpty()) {
+                    break;
+                }
+                afterId = orderIds.get(orderIds.size() - 1);
+                pagesInFlight.acquire();
+                CompletableFuture.runAsync(() -> simulatePage(run, catalogs, orderIds), executor)
+                        .whenComplete((ignored, failure) -> {
+                            pagesInFlight.release();
+                            if (failure != null) {
+                                run.fail(failure);
+                            }
+                        });
+            }
+            pagesInFlight.acquire(maxPagesInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.fail(e);
+        } catch (RuntimeException e) {
+            run.fail(e);
+        } finally {
+            run.finishedAt = Instant.now();
+            Progress progress = run.snapshot();
+            log.info("Promotion simulation {} {}: {} orders, discount {} -> {}",
+                    run.id, progress.state(), progress.processedOrders(),
+                    progress.summary().baselineDiscount(), progress.summary().candidateDiscount());
+        }
+    }
+
+    private void simulatePage(Run run, Catalogs catalogs, List<Long> orderIds) {
+        Tally tally = new Tally();
+        List<HistoricalLineRow> rows = orderRepository.findHistoricalLines(orderIds);
+        int start = 0;
+        while (start < rows.size()) {
+            Long orderId = rows.get(start).getOrderId();
+            int end = start;
+            List<PromotionBasket.Line> lines = new ArrayList<>();
+            while (end < rows.size() && orderId.equals(rows.get(end).getOrderId())) {
+                HistoricalLineRow row = rows.get(end++);
+                if (row.getQuantity() != null && row.getQuantity() > 0) {
+                    lines.add(new PromotionBasket.Line(
+                            row.getProductId(),
+                            row.getProductFamilyId(),
+                            row.getProductFamilyCode(),
+                            row.getProductName(),
+                            row.getUnitPrice() != null ? row.getUnitPrice() : BigDecimal.ZERO,
+                            row.getQuantity(),
+                            row.getSkuPoints() != null ? row.getSkuPoints() : BigDecimal.ZERO));
+                }
+            }
+            HistoricalLineRow first = rows.get(start);
+            PromotionBasket basket = new PromotionBasket(first.getCustomerId(), first.getPaymentMethod(), lines);
+            ZonedDateTime at = first.getCreatedAt();
+            tally.add(basket,
+                    promotionEvaluator.evaluate(basket, catalogs.baseline(), at),
+                    promotionEvaluator.evaluate(basket, catalogs.candidate(), at));
+            start = end;
+        }
+        run.merge(tally, orderIds.size());
+    }
+
+    private static final class PromotionTally {
+        long baselineOrders;
+        long candidateOrders;
+        BigDecimal baselineDiscount = BigDecimal.ZERO;
+        BigDecimal candidateDiscount = BigDecimal.ZERO;
+
+        void merge(PromotionTally other) {
+            baselineOrders += other.baselineOrders;
+            candidateOrders += other.candidateOrders;
+            baselineDiscount = baselineDiscount.add(other.baselineDiscount);
+            candidateDiscount = candidateDiscount.add(other.candidateDiscount);
+        }
+    }
+
+    /**
+     * Totals of a page, or of a whole run once pages are merged into it.
+     */
+    private static final class Tally {
+        BigDecimal originalTotal = BigDecimal.ZERO;
+        BigDecimal baselineDiscount = BigDecimal.ZERO;
+        BigDecimal candidateDiscount = BigDecimal.ZERO;
+        long ordersHit;
+        final Map<String, PromotionTally> promotions = new HashMap<>();
+
+        void add(PromotionBasket basket, PromotionEvaluation baseline, PromotionEvaluation candidate) {
+            originalTotal = originalTotal.add(basket.subtotal());
+            baselineDiscount = baselineDiscount.add(baseline.discountTotal());
+            candidateDiscount = candidateDiscount.add(candidate.discountTotal());
+            if (!candidate.appliedPromotionCodes().isEmpty()) {
+                ordersHit++;
+            }
+            for (String code : baseline.appliedPromotionCodes()) {
+                PromotionTally promotion = promotions.computeIfAbsent(code, key -> new PromotionTally());
+                promotion.baselineOrders++;
+                promotion.baselineDiscount = promotion.baselineDiscount.add(
+                        baseline.discountsByPromotion().getOrDefault(code, BigDecimal.ZERO));
+            }
+            for (String code : candidate.appliedPromotionCodes()) {
+                PromotionTally promotion = promotions.computeIfAbsent(code, key -> new PromotionTally());
+                promotion.candidateOrders++;
+                promotion.candidateDiscount = promotion.candidateDiscount.add(
+                        candidate.discountsByPromotion().getOrDefault(code, BigDecimal.ZERO));
+            }
+        }
+
+        void merge(Tally other) {
+            originalTotal = originalTotal.add(other.originalTotal);
+            baselineDiscount = baselineDiscount.add(other.baselineDiscount);
+            candidateDiscount = candidateDiscount.add(other.candidateDiscount);
+            ordersHit += other.ordersHit;
+            other.promotions.forEach((code, promotion) ->
+                    promotions.computeIfAbsent(code, key -> new PromotionTally()).merge(promotion));
+        }
+
+        Summary toSummary(long processedOrders) {
+            List<PromotionImpact> impacts = new ArrayList<>(promotions.size());
+            promotions.forEach((code, promotion) -> impacts.add(new PromotionImpact(
+                    code, promotion.baselineOrders, promotion.candidateOrders,
+                    promotion.baselineDiscount, promotion.candidateDiscount,
+                    promotion.candidateDiscount.subtract(promotion.baselineDiscount))));
+            impacts.sort(Comparator.comparing((PromotionImpact impact) -> impact.uplift().abs()).reversed()
+                    .thenComparing(PromotionImpact::promoCode));
+            double hitRate = processedOrders == 0 ? 0.0 : (double) ordersHit / processedOrders;
+            return new Summary(originalTotal, baselineDiscount, candidateDiscount,
+                    candidateDiscount.subtract(baselineDiscount), ordersHit, hitRate, impacts);
+        }
+    }
+
+    private static final class Run {
+        final String id;
+        final ZonedDateTime from;
+        final ZonedDateTime to;
+        final long totalOrders;
+        final Instant startedAt = Instant.now();
+        final AtomicLong processedOrders = new AtomicLong();
+        final Tally tally = new Tally();
+        volatile Instant finishedAt;
+        volatile String errorMessage;
+
+        Run(String id, ZonedDateTime from, ZonedDateTime to, long totalOrders) {
+            this.id = id;
+            this.from = from;
+            this.to = to;
+            this.totalOrders = totalOrders;
+        }
+
+        void merge(Tally page, int orders) {
+            synchronized (tally) {
+                tally.merge(page);
+            }
+            processedOrders.addAndGet(orders);
+        }
+
+        void fail(Throwable failure) {
+            if (errorMessage == null) {
+                log.error("Promotion simulation {} failed", id, failure);
+                errorMessage = String.valueOf(failure.getMessage());
+            }
+        }
+
+        Progress snapshot() {
+            long processed = processedOrders.get();
+            Summary summary;
+            synchronized (tally) {
+                summary = tally.toSummary(processed);
+            }
+            State state = errorMessage != null ? State.FAILED : finishedAt != null ? State.COMPLETED : State.RUNNING;
+            double percentage = totalOrders == 0 ? 100.0 : Math.min(100.0, 100.0 * processed / totalOrders);
+            Duration eta = null;
+            if (state == State.RUNNING && processed > 0 && totalOrders > processed) {
+                Duration elapsed = Duration.between(startedAt, Instant.now());
+                eta = elapsed.multipliedBy(totalOrders - processed).dividedBy(processed);
+            }
+            return new Progress(id, state, from, to, totalOrders, processed, percentage,
+                    startedAt, finishedAt, eta, errorMessage, summary);
+        }
+    }
+}
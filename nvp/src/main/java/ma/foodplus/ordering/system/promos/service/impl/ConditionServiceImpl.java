@@ -3,6 +3,7 @@ package ma.foodplus.ordering.system.promos.service.impl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ma.foodplus.ordering.system.promos.dto.ConditionDTO;
+import ma.foodplus.ordering.system.promos.event.PromotionChangedEvent;
 import ma.foodplus.ordering.system.promos.exception.ConditionNotFoundException;
 import ma.foodplus.ordering.system.promos.mapper.ConditionMapper;
 import ma.foodplus.ordering.system.promos.model.Condition;
@@ -10,6 +11,7 @@ import ma.foodplus.ordering.system.promos.model.PromotionRule;
 import ma.foodplus.ordering.system.promos.repository.ConditionRepository;
 import ma.foodplus.ordering.system.promos.repository.PromotionRuleRepository;
 import ma.foodplus.ordering.system.promos.service.ConditionService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,12 +27,14 @@ public class ConditionServiceImpl implements ConditionService {
     private final ConditionRepository conditionRepository;
     private final PromotionRuleRepository ruleRepository;
     private final ConditionMapper conditionMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
     public ConditionDTO createCondition(ConditionDTO conditionDTO) {
         Condition condition = conditionMapper.toEntity(conditionDTO);
         Condition savedCondition = conditionRepository.save(condition);
+        eventPublisher.publishEvent(new PromotionChangedEvent(null));
         return conditionMapper.toDTO(savedCondition);
     }
 
@@ -42,6 +46,7 @@ public class ConditionServiceImpl implements ConditionService {
         
         conditionMapper.updateEntityFromDTO(conditionDTO, existingCondition);
         Condition updatedCondition = conditionRepository.save(existingCondition);
+        eventPublisher.publishEvent(new PromotionChangedEvent(null));
         return conditionMapper.toDTO(updatedCondition);
     }
 
@@ -52,6 +57,7 @@ public class ConditionServiceImpl implements ConditionService {
             throw new ConditionNotFoundException("Condition not found with id: " + id);
         }
         conditionRepository.deleteById(id.longValue());
+        eventPublisher.publishEvent(new PromotionChangedEvent(null));
     }
 
     @Override
@@ -82,6 +88,7 @@ public class ConditionServiceImpl implements ConditionService {
         Condition condition = conditionMapper.toEntity(conditionDTO);
         condition.setRule(rule);
         Condition savedCondition = conditionRepository.save(condition);
+        eventPublisher.publishEvent(new PromotionChangedEvent(null));
         return conditionMapper.toDTO(savedCondition);
     }
 
@@ -99,6 +106,7 @@ public class ConditionServiceImpl implements ConditionService {
         }
         
         conditionRepository.delete(condition);
+        eventPublisher.publishEvent(new PromotionChangedEvent(null));
     }
 
     @Override
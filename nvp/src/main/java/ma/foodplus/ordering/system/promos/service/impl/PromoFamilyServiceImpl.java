@@ -9,12 +9,17 @@ import ma.foodplus.ordering.system.promos.mapper.PromoFamilyMapper;
 import ma.foodplus.ordering.system.promos.model.PromoFamily;
 import ma.foodplus.ordering.system.promos.model.PromoFamily.PromoFamilyType;
 import ma.foodplus.ordering.system.promos.repository.PromoFamilyRepository;
+import ma.foodplus.ordering.system.promos.service.PromoFamilyMembershipIndex;
 import ma.foodplus.ordering.system.promos.service.PromoFamilyService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -24,6 +29,7 @@ public class PromoFamilyServiceImpl implements PromoFamilyService {
 
     private final PromoFamilyRepository promoFamilyRepository;
     private final PromoFamilyMapper promoFamilyMapper;
+    private final PromoFamilyMembershipIndex membershipIndex;
 
     @Override
     @Transactional
@@ -38,6 +44,7 @@ public class PromoFamilyServiceImpl implements PromoFamilyService {
         PromoFamily promoFamily = promoFamilyMapper.toEntity(promoFamilyDTO);
         promoFamily.setActive(true);
         PromoFamily savedFamily = promoFamilyRepository.save(promoFamily);
+        membershipIndex.familyChanged(savedFamily.getId());
         return promoFamilyMapper.toDTO(savedFamily);
     }
 
@@ -57,6 +64,7 @@ public class PromoFamilyServiceImpl implements PromoFamilyService {
         
         promoFamilyMapper.updateEntity(existingFamily, promoFamilyDTO);
         PromoFamily updatedFamily = promoFamilyRepository.save(existingFamily);
+        membershipIndex.familyChanged(id);
         return promoFamilyMapper.toDTO(updatedFamily);
     }
 
@@ -68,6 +76,7 @@ public class PromoFamilyServiceImpl implements PromoFamilyService {
             throw new PromoFamilyNotFoundException("Promo family not found with id: " + id);
         }
         promoFamilyRepository.deleteById(id);
+        membershipIndex.familyDeleted(id);
     }
 
     @Override
@@ -110,7 +119,11 @@ public class PromoFamilyServiceImpl implements PromoFamilyService {
     @Transactional(readOnly = true)
     public List<PromoFamilyDTO> getPromoFamiliesByMemberCode(String memberCode) {
         log.info("Getting promo families containing member code: {}", memberCode);
-        return promoFamilyRepository.findActiveByMemberCode(memberCode).stream()
+        List<Long> familyIds = membershipIndex.findActiveFamilyIds(memberCode);
+        if (familyIds.isEmpty()) {
+            return List.of();
+        }
+        return promoFamilyRepository.findAllById(familyIds).stream()
                 .map(promoFamilyMapper::toDTO)
                 .collect(Collectors.toList());
     }
@@ -127,6 +140,7 @@ public class PromoFamilyServiceImpl implements PromoFamilyService {
         if (!family.getMemberCodes().contains(memberCode)) {
             family.getMemberCodes().add(memberCode);
             promoFamilyRepository.save(family);
+            membershipIndex.membersAdded(familyId, List.of(memberCode));
         }
     }
 
@@ -139,8 +153,10 @@ public class PromoFamilyServiceImpl implements PromoFamilyService {
         PromoFamily family = promoFamilyRepository.findById(familyId)
                 .orElseThrow(() -> new PromoFamilyNotFoundException("Promo family not found with id: " + familyId));
         
-        family.getMemberCodes().remove(memberCode);
-        promoFamilyRepository.save(family);
+        if (family.getMemberCodes().remove(memberCode)) {
+            promoFamilyRepository.save(family);
+            membershipIndex.membersRemoved(familyId, List.of(memberCode));
+        }
     }
 
     @Override
@@ -152,12 +168,18 @@ public class PromoFamilyServiceImpl implements PromoFamilyService {
         PromoFamily family = promoFamilyRepository.findById(familyId)
                 .orElseThrow(() -> new PromoFamilyNotFoundException("Promo family not found with id: " + familyId));
         
-        memberCodes.forEach(code -> {
-            if (!family.getMemberCodes().contains(code)) {
-                family.getMemberCodes().add(code);
+        Set<String> existing = new HashSet<>(family.getMemberCodes());
+        List<String> added = new ArrayList<>();
+        for (String code : memberCodes) {
+            if (existing.add(code)) {
+                added.add(code);
             }
-        });
-        promoFamilyRepository.save(family);
+        }
+        if (!added.isEmpty()) {
+            family.getMemberCodes().addAll(added);
+            promoFamilyRepository.save(family);
+            membershipIndex.membersAdded(familyId, added);
+        }
     }
 
     @Override
@@ -169,19 +191,23 @@ public class PromoFamilyServiceImpl implements PromoFamilyService {
         PromoFamily family = promoFamilyRepository.findById(familyId)
                 .orElseThrow(() -> new PromoFamilyNotFoundException("Promo family not found with id: " + familyId));
         
-        family.getMemberCodes().removeAll(memberCodes);
-        promoFamilyRepository.save(family);
+        if (family.getMemberCodes().removeAll(new HashSet<>(memberCodes))) {
+            promoFamilyRepository.save(family);
+            membershipIndex.membersRemoved(familyId, memberCodes);
+        }
     }
 
     @Override
-    @Transactional(readOnly = true)
     public boolean isMemberInFamily(String familyCode, String memberCode) {
-        log.info("Checking if member {} is in family {}", memberCode, familyCode);
+        log.debug("Checking if member {} is in family {}", memberCode, familyCode);
         validateMemberCode(memberCode);
-        
-        return promoFamilyRepository.findByCode(familyCode)
-                .map(family -> family.getMemberCodes().contains(memberCode))
-                .orElse(false);
+        return membershipIndex.isMember(familyCode, memberCode);
+    }
+
+    @Override
+    public boolean isAnyMemberInFamily(String familyCode, Collection<String> memberCodes) {
+        log.debug("Checking if any of {} members is in family {}", memberCodes.size(), familyCode);
+        return membershipIndex.containsAny(familyCode, memberCodes);
     }
 
     @Override
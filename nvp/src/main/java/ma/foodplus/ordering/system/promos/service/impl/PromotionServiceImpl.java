@@ -5,6 +5,7 @@ import ma.foodplus.ordering.system.promos.dto.PromotionDTO;
 import ma.foodplus.ordering.system.promos.dto.PromotionRuleDTO;
 import ma.foodplus.ordering.system.promos.dto.PromotionLineDTO;
 import ma.foodplus.ordering.system.promos.dto.PromotionCustomerFamilyDTO;
+import ma.foodplus.ordering.system.promos.event.PromotionChangedEvent;
 import ma.foodplus.ordering.system.promos.mapper.PromotionMapper;
 import ma.foodplus.ordering.system.promos.mapper.PromotionRuleMapper;
 import ma.foodplus.ordering.system.promos.model.Promotion;
@@ -16,6 +17,7 @@ import ma.foodplus.ordering.system.promos.model.PromotionCustomerFamily;
 import ma.foodplus.ordering.system.promos.repository.PromotionRepository;
 import ma.foodplus.ordering.system.promos.service.PromotionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -40,10 +42,14 @@ public class PromotionServiceImpl implements PromotionService {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public PromotionDTO createPromotion(PromotionDTO promotionDTO) {
         Promotion promotion = promotionMapper.toEntity(promotionDTO);
         promotion = promotionRepository.save(promotion);
+        eventPublisher.publishEvent(new PromotionChangedEvent(promotion.getId()));
         return promotionMapper.toDTO(promotion);
     }
 
@@ -74,12 +80,14 @@ public class PromotionServiceImpl implements PromotionService {
                 .orElseThrow(() -> new RuntimeException("Promotion not found"));
         promotionMapper.updateEntityFromDTO(promotionDTO, promotion);
         promotion = promotionRepository.save(promotion);
+        eventPublisher.publishEvent(new PromotionChangedEvent(promotion.getId()));
         return promotionMapper.toDTO(promotion);
     }
 
     @Override
     public void deletePromotion(Integer id) {
         promotionRepository.deleteById(id);
+        eventPublisher.publishEvent(new PromotionChangedEvent(id.longValue()));
     }
 
     @Override
@@ -125,6 +133,7 @@ public class PromotionServiceImpl implements PromotionService {
         rule.setPromotion(promotion);
         promotion.getRules().add(rule);
         promotion = promotionRepository.save(promotion);
+        eventPublisher.publishEvent(new PromotionChangedEvent(promotion.getId()));
         return ruleMapper.toDTO(rule);
     }
 
@@ -134,6 +143,7 @@ public class PromotionServiceImpl implements PromotionService {
                 .orElseThrow(() -> new RuntimeException("Promotion not found"));
         promotion.getRules().removeIf(rule -> rule.getId().equals(ruleId));
         promotionRepository.save(promotion);
+        eventPublisher.publishEvent(new PromotionChangedEvent(promotion.getId()));
     }
 
     @Override
@@ -277,6 +287,7 @@ public class PromotionServiceImpl implements PromotionService {
         line.setFreeProductId(lineDTO.getFreeProductId());
         promotion.getPromotionLines().add(line);
         promotionRepository.save(promotion);
+        eventPublisher.publishEvent(new PromotionChangedEvent(promotionId));
         lineDTO.setId(line.getId());
         lineDTO.setPromotionId(promotionId);
         return lineDTO;
@@ -288,6 +299,7 @@ public class PromotionServiceImpl implements PromotionService {
                 .orElseThrow(() -> new RuntimeException("Promotion not found"));
         promotion.getPromotionLines().removeIf(line -> line.getId().equals(lineId));
         promotionRepository.save(promotion);
+        eventPublisher.publishEvent(new PromotionChangedEvent(promotionId));
     }
 
     @Override
@@ -320,6 +332,7 @@ public class PromotionServiceImpl implements PromotionService {
         family.setEndDate(familyDTO.getEndDate());
         promotion.getCustomerFamilies().add(family);
         promotionRepository.save(promotion);
+        eventPublisher.publishEvent(new PromotionChangedEvent(promotionId));
         familyDTO.setId(family.getId());
         familyDTO.setPromotionId(promotionId);
         return familyDTO;
@@ -331,6 +344,7 @@ public class PromotionServiceImpl implements PromotionService {
                 .orElseThrow(() -> new RuntimeException("Promotion not found"));
         promotion.getCustomerFamilies().removeIf(fam -> fam.getId().equals(familyId));
         promotionRepository.save(promotion);
+        eventPublisher.publishEvent(new PromotionChangedEvent(promotionId));
     }
 
     @Override
@@ -3,6 +3,7 @@ package ma.foodplus.ordering.system.promos.service.impl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ma.foodplus.ordering.system.promos.dto.PromotionTierDTO;
+import ma.foodplus.ordering.system.promos.event.PromotionChangedEvent;
 import ma.foodplus.ordering.system.promos.exception.PromotionTierNotFoundException;
 import ma.foodplus.ordering.system.promos.mapper.PromotionTierMapper;
 import ma.foodplus.ordering.system.promos.model.PromotionRule;
@@ -10,6 +11,7 @@ import ma.foodplus.ordering.system.promos.model.PromotionTier;
 import ma.foodplus.ordering.system.promos.repository.PromotionRuleRepository;
 import ma.foodplus.ordering.system.promos.repository.PromotionTierRepository;
 import ma.foodplus.ordering.system.promos.service.PromotionTierService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,12 +26,14 @@ public class PromotionTierServiceImpl implements PromotionTierService {
     private final PromotionTierRepository tierRepository;
     private final PromotionRuleRepository ruleRepository;
     private final PromotionTierMapper tierMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
     public PromotionTierDTO createTier(PromotionTierDTO tierDTO) {
         PromotionTier tier = tierMapper.toEntity(tierDTO);
         PromotionTier savedTier = tierRepository.save(tier);
+        eventPublisher.publishEvent(new PromotionChangedEvent(null));
         return tierMapper.toDTO(savedTier);
     }
 
@@ -41,6 +45,7 @@ public class PromotionTierServiceImpl implements PromotionTierService {
         
         tierMapper.updateEntityFromDTO(tierDTO, existingTier);
         PromotionTier updatedTier = tierRepository.save(existingTier);
+        eventPublisher.publishEvent(new PromotionChangedEvent(null));
         return tierMapper.toDTO(updatedTier);
     }
 
@@ -51,6 +56,7 @@ public class PromotionTierServiceImpl implements PromotionTierService {
             throw new PromotionTierNotFoundException("Tier not found with id: " + id);
         }
         tierRepository.deleteById(id.longValue());
+        eventPublisher.publishEvent(new PromotionChangedEvent(null));
     }
 
     @Override
@@ -81,6 +87,7 @@ public class PromotionTierServiceImpl implements PromotionTierService {
         PromotionTier tier = tierMapper.toEntity(tierDTO);
         tier.setRule(rule);
         PromotionTier savedTier = tierRepository.save(tier);
+        eventPublisher.publishEvent(new PromotionChangedEvent(null));
         return tierMapper.toDTO(savedTier);
     }
 
@@ -98,5 +105,6 @@ public class PromotionTierServiceImpl implements PromotionTierService {
         }
         
         tierRepository.delete(tier);
+        eventPublisher.publishEvent(new PromotionChangedEvent(null));
     }
 } 
\ No newline at end of file
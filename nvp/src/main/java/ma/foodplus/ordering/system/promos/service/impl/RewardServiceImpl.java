@@ -3,6 +3,7 @@ package ma.foodplus.ordering.system.promos.service.impl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ma.foodplus.ordering.system.promos.dto.RewardDTO;
+import ma.foodplus.ordering.system.promos.event.PromotionChangedEvent;
 import ma.foodplus.ordering.system.promos.exception.RewardNotFoundException;
 import ma.foodplus.ordering.system.promos.mapper.RewardMapper;
 import ma.foodplus.ordering.system.promos.model.Promotion;
@@ -10,6 +11,7 @@ import ma.foodplus.ordering.system.promos.model.Reward;
 import ma.foodplus.ordering.system.promos.repository.PromotionRepository;
 import ma.foodplus.ordering.system.promos.repository.RewardRepository;
 import ma.foodplus.ordering.system.promos.service.RewardService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,12 +27,14 @@ public class RewardServiceImpl implements RewardService {
     private final RewardRepository rewardRepository;
     private final PromotionRepository promotionRepository;
     private final RewardMapper rewardMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
     public RewardDTO createReward(RewardDTO rewardDTO) {
         Reward reward = rewardMapper.toEntity(rewardDTO);
         Reward savedReward = rewardRepository.save(reward);
+        eventPublisher.publishEvent(new PromotionChangedEvent(null));
         return rewardMapper.toDTO(savedReward);
     }
 
@@ -42,6 +46,7 @@ public class RewardServiceImpl implements RewardService {
         
         rewardMapper.updateEntityFromDTO(rewardDTO, existingReward);
         Reward updatedReward = rewardRepository.save(existingReward);
+        eventPublisher.publishEvent(new PromotionChangedEvent(null));
         return rewardMapper.toDTO(updatedReward);
     }
 
@@ -52,6 +57,7 @@ public class RewardServiceImpl implements RewardService {
             throw new RewardNotFoundException("Reward not found with id: " + id);
         }
         rewardRepository.deleteById(id.longValue());
+        eventPublisher.publishEvent(new PromotionChangedEvent(null));
     }
 
     @Override
@@ -82,6 +88,7 @@ public class RewardServiceImpl implements RewardService {
         Reward reward = rewardMapper.toEntity(rewardDTO);
         reward.setPromotion(promotion);
         Reward savedReward = rewardRepository.save(reward);
+        eventPublisher.publishEvent(new PromotionChangedEvent(promotionId.longValue()));
         return rewardMapper.toDTO(savedReward);
     }
 
@@ -99,6 +106,7 @@ public class RewardServiceImpl implements RewardService {
         }
         
         rewardRepository.delete(reward);
+        eventPublisher.publishEvent(new PromotionChangedEvent(promotionId.longValue()));
     }
 
     @Override
@@ -0,0 +1,119 @@
+-- Product audits are partitioned by month so range queries only scan the months they cover and old months
+-- are removed by dropping whole partitions. The change and detail tables carry the audit timestamp and are
+-- partitioned on the same boundaries, so the three tables age out together.
+
+-- Creates the partition of the month containing target_month (UTC boundaries) unless it exists. Rows that
+-- already landed in the default partition for that month are moved into the new partition.
+CREATE OR REPLACE FUNCTION create_monthly_partition(parent TEXT, partition_key TEXT, target_month DATE)
+RETURNS BOOLEAN AS $$
+DECLARE
+    month_start DATE := date_trunc('month', target_month)::date;
+    lower_bound TIMESTAMP WITH TIME ZONE := month_start::timestamp AT TIME ZONE 'UTC';
+    upper_bound TIMESTAMP WITH TIME ZONE := (month_start + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC';
+    partition_name TEXT := parent || '_y' || to_char(month_start, 'YYYY') || 'm' || to_char(month_start, 'MM');
+    default_name TEXT := parent || '_default';
+    stray_rows BOOLEAN;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE %I >= %L AND %I < %L)',
+                   default_name, partition_key, lower_bound, partition_key, upper_bound) INTO stray_rows;
+    IF stray_rows THEN
+        EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name, parent);
+        EXECUTE format('WITH moved AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) '
+                           || 'INSERT INTO %I SELECT * FROM moved',
+                       default_name, partition_key, lower_bound, partition_key, upper_bound, partition_name);
+        EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                       parent, partition_name, lower_bound, upper_bound);
+    ELSE
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       parent, partition_name, lower_bound, upper_bound);
+    END IF;
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE product_audit_changes RENAME TO product_audit_changes_legacy;
+ALTER TABLE product_audit_details RENAME TO product_audit_details_legacy;
+ALTER TABLE product_audits RENAME TO product_audits_legacy;
+-- Keep the id sequence when the legacy table is dropped
+ALTER SEQUENCE product_audits_id_seq OWNED BY NONE;
+
+-- No foreign key to products: the audit trail outlives the products it describes
+CREATE TABLE product_audits (
+    id BIGINT NOT NULL DEFAULT nextval('product_audits_id_seq'),
+    product_id BIGINT NOT NULL,
+    user_id VARCHAR(255) NOT NULL,
+    action VARCHAR(50) NOT NULL,
+    timestamp TIMESTAMP WITH TIME ZONE NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_product_audits PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+ALTER SEQUENCE product_audits_id_seq OWNED BY product_audits.id;
+
+-- No foreign keys to product_audits either: they would prevent dropping a month's partitions
+CREATE TABLE product_audit_changes (
+    audit_id BIGINT NOT NULL,
+    audit_timestamp TIMESTAMP WITH TIME ZONE NOT NULL,
+    field_name VARCHAR(255) NOT NULL,
+    change_value TEXT
+) PARTITION BY RANGE (audit_timestamp);
+
+CREATE TABLE product_audit_details (
+    audit_id BIGINT NOT NULL,
+    audit_timestamp TIMESTAMP WITH TIME ZONE NOT NULL,
+    field_name VARCHAR(255) NOT NULL,
+    field_value TEXT
+) PARTITION BY RANGE (audit_timestamp);
+
+-- Catch-all for rows outside the premade months; create_monthly_partition moves them out
+CREATE TABLE product_audits_default PARTITION OF product_audits DEFAULT;
+CREATE TABLE product_audit_changes_default PARTITION OF product_audit_changes DEFAULT;
+CREATE TABLE product_audit_details_default PARTITION OF product_audit_details DEFAULT;
+
+-- One partition per month from the oldest existing audit to three months ahead
+DO $$
+DECLARE
+    target_month DATE;
+BEGIN
+    FOR target_month IN
+        SELECT generate_series(
+                   date_trunc('month', COALESCE((SELECT min(timestamp) FROM product_audits_legacy), now()) AT TIME ZONE 'UTC'),
+                   date_trunc('month', now() AT TIME ZONE 'UTC') + INTERVAL '3 months',
+                   INTERVAL '1 month')::date
+    LOOP
+        PERFORM create_monthly_partition('product_audits', 'timestamp', target_month);
+        PERFORM create_monthly_partition('product_audit_changes', 'audit_timestamp', target_month);
+        PERFORM create_monthly_partition('product_audit_details', 'audit_timestamp', target_month);
+    END LOOP;
+END $$;
+
+INSERT INTO product_audits (id, product_id, user_id, action, timestamp, version, created_at)
+SELECT id, product_id, user_id, action, timestamp, version, created_at
+FROM product_audits_legacy;
+
+INSERT INTO product_audit_changes (audit_id, audit_timestamp, field_name, change_value)
+SELECT c.audit_id, a.timestamp, c.field_name, c.change_value
+FROM product_audit_changes_legacy c
+JOIN product_audits_legacy a ON a.id = c.audit_id;
+
+INSERT INTO product_audit_details (audit_id, audit_timestamp, field_name, field_value)
+SELECT d.audit_id, a.timestamp, d.field_name, d.field_value
+FROM product_audit_details_legacy d
+JOIN product_audits_legacy a ON a.id = d.audit_id;
+
+DROP TABLE product_audit_changes_legacy;
+DROP TABLE product_audit_details_legacy;
+DROP TABLE product_audits_legacy;
+
+-- Audits are appended in time order, so a BRIN index on the timestamp stays tiny and selective
+CREATE INDEX idx_product_audits_timestamp ON product_audits USING BRIN (timestamp);
+CREATE INDEX idx_product_audits_product_id ON product_audits(product_id, timestamp);
+CREATE INDEX idx_product_audits_user_id ON product_audits(user_id, timestamp);
+CREATE INDEX idx_product_audits_action ON product_audits(action, timestamp);
+
+CREATE INDEX idx_product_audit_changes_audit_id ON product_audit_changes(audit_id);
+CREATE INDEX idx_product_audit_details_audit_id ON product_audit_details(audit_id);
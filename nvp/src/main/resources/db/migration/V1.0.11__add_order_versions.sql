@@ -0,0 +1,3 @@
+-- Optimistic locking of the order aggregate: every committed change bumps the row's version
+ALTER TABLE orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE order_items ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
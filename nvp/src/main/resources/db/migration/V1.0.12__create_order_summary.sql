@@ -0,0 +1,30 @@
+-- Order-level read model for listings: one narrow row per order, written with the order
+CREATE TABLE order_summary (
+    order_id BIGINT PRIMARY KEY,
+    order_number VARCHAR(255) NOT NULL,
+    customer_id BIGINT NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    order_type VARCHAR(255) NOT NULL,
+    subtotal NUMERIC(38,2) NOT NULL,
+    total NUMERIC(38,2) NOT NULL,
+    item_count INTEGER NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT fk_order_summary_order FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE
+);
+
+INSERT INTO order_summary (order_id, order_number, customer_id, status, order_type, subtotal, total, item_count,
+                           created_at, updated_at)
+SELECT o.id, o.order_number, o.customer_id, o.status, o.order_type, o.subtotal, o.total,
+       (SELECT count(*) FROM order_items i WHERE i.order_id = o.id),
+       o.created_at, o.updated_at
+FROM orders o;
+
+-- Listings page newest first on (created_at, order_id); every listed column is included so pages are
+-- served by index-only scans
+CREATE INDEX idx_order_summary_customer ON order_summary(customer_id, created_at DESC, order_id DESC)
+    INCLUDE (order_number, status, order_type, subtotal, total, item_count, updated_at);
+CREATE INDEX idx_order_summary_status ON order_summary(status, created_at DESC, order_id DESC)
+    INCLUDE (order_number, customer_id, order_type, subtotal, total, item_count, updated_at);
+CREATE INDEX idx_order_summary_created_at ON order_summary(created_at DESC, order_id DESC)
+    INCLUDE (order_number, customer_id, status, order_type, subtotal, total, item_count, updated_at);
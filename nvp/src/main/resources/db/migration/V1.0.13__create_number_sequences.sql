@@ -0,0 +1,7 @@
+-- Document number sequences. Each nextval leases a block of INCREMENT BY numbers to the calling node, which
+-- hands them out from memory (see NumberSequenceService). The increment is read with every lease, so it may be
+-- raised with ALTER SEQUENCE; never lower it without also RESTARTing past every leased block, or the next
+-- nextval lands inside a block a node is still handing out and numbers repeat.
+CREATE SEQUENCE order_number_seq START WITH 1 INCREMENT BY 100;
+CREATE SEQUENCE bulk_order_reference_seq START WITH 1 INCREMENT BY 20;
+CREATE SEQUENCE stock_transfer_reference_seq START WITH 1 INCREMENT BY 20;
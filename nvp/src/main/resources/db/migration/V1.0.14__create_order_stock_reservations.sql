@@ -0,0 +1,10 @@
+-- Stock reserved for a confirmed order, per stock row, so the same quantities can be taken out of stock when
+-- the order is delivered, or released when it is cancelled or refunded. Written by the order pipeline's
+-- reservation stage.
+CREATE TABLE order_stock_reservations (
+    order_id BIGINT NOT NULL REFERENCES orders(id) ON DELETE CASCADE,
+    product_stock_id BIGINT NOT NULL,
+    quantity NUMERIC(24,6) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_order_stock_reservations PRIMARY KEY (order_id, product_stock_id)
+);
@@ -0,0 +1,34 @@
+-- Follow-up work of order status changes. The rows are written in the transaction that relays the status
+-- change from the outbox, so the outbox event is only acknowledged once its work is durably queued, and
+-- each row is marked DONE in the transaction that does the work.
+CREATE TABLE order_pipeline_tasks (
+    id BIGSERIAL PRIMARY KEY,
+    outbox_event_id BIGINT NOT NULL,
+    order_id BIGINT NOT NULL,
+    stage VARCHAR(30) NOT NULL,
+    order_status VARCHAR(30) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    last_error TEXT,
+    occurred_at TIMESTAMP WITH TIME ZONE,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP WITH TIME ZONE,
+    -- A redelivered outbox event does not queue its work twice
+    CONSTRAINT uk_order_pipeline_tasks_event_stage UNIQUE (outbox_event_id, stage)
+);
+
+CREATE INDEX idx_order_pipeline_tasks_due ON order_pipeline_tasks(stage, next_attempt_at)
+    WHERE status = 'PENDING';
+CREATE INDEX idx_order_pipeline_tasks_order ON order_pipeline_tasks(order_id, stage, outbox_event_id)
+    WHERE status = 'PENDING';
+CREATE INDEX idx_order_pipeline_tasks_processed ON order_pipeline_tasks(processed_at)
+    WHERE status = 'DONE';
+
+-- Stages applied to an order, written with their effect so that effect is applied at most once per order
+CREATE TABLE order_follow_ups (
+    order_id BIGINT NOT NULL REFERENCES orders(id) ON DELETE CASCADE,
+    stage VARCHAR(30) NOT NULL,
+    processed_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_order_follow_ups PRIMARY KEY (order_id, stage)
+);
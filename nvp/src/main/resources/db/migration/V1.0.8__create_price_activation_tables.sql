@@ -0,0 +1,38 @@
+-- Moment from which the pending price (prix_ven_nouv / remise_nouv) of a contract line applies
+ALTER TABLE products_customer ADD COLUMN new_price_effective_at TIMESTAMP WITH TIME ZONE;
+
+CREATE INDEX idx_products_customer_pending_effective ON products_customer(new_price_effective_at, id)
+    WHERE prix_ven_nouv IS NOT NULL OR remise_nouv IS NOT NULL;
+
+-- One row per activation run of scheduled customer price changes
+CREATE TABLE price_activation_runs (
+    id BIGSERIAL PRIMARY KEY,
+    effective_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    triggered_by VARCHAR(255) NOT NULL,
+    total_chunks INTEGER NOT NULL DEFAULT 0,
+    rows_applied INTEGER NOT NULL DEFAULT 0,
+    started_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    finished_at TIMESTAMP WITH TIME ZONE
+);
+
+-- One row per id range of a run; doubles as the audit record of what each chunk applied
+CREATE TABLE price_activation_chunks (
+    id BIGSERIAL PRIMARY KEY,
+    run_id BIGINT NOT NULL,
+    chunk_index INTEGER NOT NULL,
+    first_id BIGINT NOT NULL,
+    last_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    rows_applied INTEGER NOT NULL DEFAULT 0,
+    customers_affected INTEGER NOT NULL DEFAULT 0,
+    started_at TIMESTAMP WITH TIME ZONE,
+    finished_at TIMESTAMP WITH TIME ZONE,
+    error_message TEXT,
+    CONSTRAINT fk_price_activation_chunks_run FOREIGN KEY (run_id) REFERENCES price_activation_runs(id) ON DELETE CASCADE,
+    CONSTRAINT uk_price_activation_chunks_run_index UNIQUE (run_id, chunk_index)
+);
+
+CREATE INDEX idx_price_activation_runs_status ON price_activation_runs(status);
+CREATE INDEX idx_price_activation_chunks_run_status ON price_activation_chunks(run_id, status);
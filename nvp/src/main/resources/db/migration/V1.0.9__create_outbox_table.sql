@@ -0,0 +1,19 @@
+-- Domain events written in the same transaction as the change they describe, drained by the outbox relay
+CREATE TABLE outbox (
+    id BIGSERIAL PRIMARY KEY,
+    aggregate_type VARCHAR(100) NOT NULL,
+    aggregate_id VARCHAR(100) NOT NULL,
+    event_type VARCHAR(200) NOT NULL,
+    payload JSONB NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    processed_at TIMESTAMP WITH TIME ZONE,
+    last_error TEXT
+);
+
+-- Only pending rows are polled, so the index stays as small as the backlog
+CREATE INDEX idx_outbox_pending ON outbox(next_attempt_at, id) WHERE status = 'PENDING';
+CREATE INDEX idx_outbox_processed_at ON outbox(processed_at) WHERE status = 'PROCESSED';
+CREATE INDEX idx_outbox_aggregate ON outbox(aggregate_type, aggregate_id);
@@ -0,0 +1,87 @@
+package ma.foodplus.ordering.system.order.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The running totals an {@link Order} keeps as its items change must equal a full pass over the items.
+ */
+class OrderTotalsTest {
+
+    @Test
+    void runningTotalsFollowItemChanges() {
+        Order order = new Order(1L);
+        OrderItem first = item(1L, "12.50", 4);
+        OrderItem second = item(2L, "3.20", 10);
+        OrderItem third = item(3L, "45.00", 1);
+
+        order.addItem(first);
+        assertTotalsMatchItems(order);
+        order.addItems(List.of(second, third));
+        assertTotalsMatchItems(order);
+        order.updateItemQuantity(second, 7);
+        assertTotalsMatchItems(order);
+        order.applyPromotion("P1", "Ten off", List.of(first, third), new BigDecimal("10.00"));
+        assertTotalsMatchItems(order);
+        // A change made on the item itself only adjusts the running sums; the totals follow at the next check
+        third.applyTax(new BigDecimal("9.00"));
+        assertTrue(order.verifyTotals());
+        assertTotalsMatchItems(order);
+        order.removeItem(first);
+        assertTotalsMatchItems(order);
+
+        assertTrue(order.verifyTotals());
+        assertEquals(2, order.getItems().size());
+    }
+
+    @Test
+    void verifyTotalsRepairsDriftedRunningTotals() {
+        Order order = new Order(1L);
+        OrderItem first = item(1L, "12.50", 4);
+        OrderItem second = item(2L, "45.00", 1);
+        order.addItems(List.of(first, second));
+
+        // Repriced while detached, so the order is never told
+        second.setOrder(null);
+        second.setUnitPrice(new BigDecimal("50.00"));
+        second.setOrder(order);
+
+        assertFalse(order.verifyTotals());
+        assertTotalsMatchItems(order);
+    }
+
+    /**
+     * Compares the order totals with a full pass over its items, then requires {@link Order#verifyTotals()}
+     * to agree.
+     */
+    private static void assertTotalsMatchItems(Order order) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal discount = BigDecimal.ZERO;
+        BigDecimal tax = BigDecimal.ZERO;
+        for (OrderItem item : order.getItems()) {
+            subtotal = subtotal.add(item.getOriginalTotalPrice());
+            discount = discount.add(item.getDiscountAmount());
+            tax = tax.add(item.getTaxAmount());
+        }
+        assertAmount(subtotal, order.getSubtotal());
+        assertAmount(discount, order.getTotalDiscount());
+        assertAmount(subtotal.subtract(discount).add(tax), order.getTotal());
+        assertTrue(order.verifyTotals(), "running totals drifted from the items");
+    }
+
+    private static OrderItem item(long id, String unitPrice, int quantity) {
+        OrderItem item = new OrderItem(id, 10L, "Product " + id, new BigDecimal(unitPrice), quantity, "SKU-" + id, BigDecimal.ZERO);
+        item.setId(id);
+        return item;
+    }
+
+    private static void assertAmount(BigDecimal expected, BigDecimal actual) {
+        assertTrue(actual != null && expected.compareTo(actual) == 0, "expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,647 @@
+package ma.foodplus.ordering.system.promos.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ma.foodplus.ordering.system.customer.service.CustomerService;
+import ma.foodplus.ordering.system.order.model.PaymentMethod;
+import ma.foodplus.ordering.system.product.configuration.CacheProperties;
+import ma.foodplus.ordering.system.product.configuration.LocalCacheInvalidationBus;
+import ma.foodplus.ordering.system.product.repository.ProductRepository;
+import ma.foodplus.ordering.system.product.repository.ProductRepository.PromotionLineRow;
+import ma.foodplus.ordering.system.product.service.ProductService;
+import ma.foodplus.ordering.system.promos.configuration.PromotionProperties;
+import ma.foodplus.ordering.system.promos.dto.ApplyPromotionRequest;
+import ma.foodplus.ordering.system.promos.dto.ApplyPromotionResponse;
+import ma.foodplus.ordering.system.promos.dto.LineItemResultDto;
+import ma.foodplus.ordering.system.promos.dto.OrdertemDto;
+import ma.foodplus.ordering.system.promos.event.PromotionChangedEvent;
+import ma.foodplus.ordering.system.promos.model.Condition;
+import ma.foodplus.ordering.system.promos.model.Promotion;
+import ma.foodplus.ordering.system.promos.model.PromotionLine;
+import ma.foodplus.ordering.system.promos.model.PromotionRule;
+import ma.foodplus.ordering.system.promos.model.PromotionTier;
+import ma.foodplus.ordering.system.promos.model.Reward;
+import ma.foodplus.ordering.system.promos.repository.PromoFamilyRepository;
+import ma.foodplus.ordering.system.promos.repository.PromotionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sends the same carts and promotions through the order endpoint ({@link PromotionApplicationService},
+ * {@code /api/v1/orders/promotions/calculate}) and the nested promotion endpoint
+ * ({@link PromotionCalculationService}, {@code /api/v1/promotions/calculate}), with a real catalog, basket
+ * factory and evaluator over mocked repositories. Each case is a parent promotion whose nested promotions
+ * are the rest of the case; the order request carries the catalogue sale prices the nested endpoint uses.
+ * Both must apply the same promotions, grant the same discount per promotion and per line and the same
+ * free items.
+ * <p>
+ * Neither endpoint takes a payment method, so the corpus has no payment method conditions, nor day of
+ * week conditions since both endpoints evaluate at the current time. Evaluator behaviours that differ from
+ * the engine it replaced are covered by their own tests below.
+ */
+class PromotionCalculationDifferentialTest {
+
+    private static final long CUSTOMER_ID = 42L;
+    private static final long PARENT_ID = 1L;
+
+    private static final Map<String, Set<String>> PROMO_FAMILIES = Map.of(
+            "PF-SNACKS", Set.of("F10", "F20"),
+            "PF-DRINKS", Set.of("F30"));
+
+    private final Map<Long, CatalogueRow> catalogue = new HashMap<>();
+
+    private PromotionRepository promotionRepository;
+    private PromotionCompiler compiler;
+    private PromotionCatalog catalog;
+    private RecordingEvaluator evaluator;
+    private PromotionCalculationService calculationService;
+    private PromotionApplicationService applicationService;
+
+    @BeforeEach
+    void setUp() {
+        PromoFamilyRepository promoFamilyRepository = mock(PromoFamilyRepository.class);
+        List<PromoFamilyRepository.MembershipRow> rows = new ArrayList<>();
+        long familyId = 1;
+        for (Map.Entry<String, Set<String>> family : PROMO_FAMILIES.entrySet()) {
+            for (String member : family.getValue()) {
+                rows.add(new Membership(familyId, family.getKey(), true, member));
+            }
+            familyId++;
+        }
+        when(promoFamilyRepository.findAllMembershipRows()).thenReturn(rows);
+        compiler = new PromotionCompiler(new PromoFamilyMembershipIndex(promoFamilyRepository, mock(LocalCacheInvalidationBus.class)));
+
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findPromotionLineRows(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(catalogue::get).filter(Objects::nonNull).map(PromotionLineRow.class::cast).toList();
+        });
+        PromotionBasketFactory basketFactory = new PromotionBasketFactory(productRepository);
+
+        promotionRepository = mock(PromotionRepository.class);
+        catalog = new PromotionCatalog(promotionRepository, compiler, mock(PlatformTransactionManager.class),
+                new CacheProperties(), new SimpleMeterRegistry());
+        CustomerService customerService = mock(CustomerService.class);
+        evaluator = new RecordingEvaluator(catalog, customerService);
+
+        calculationService = new PromotionCalculationService(mock(PromotionService.class), catalog, basketFactory, evaluator);
+        applicationService = new PromotionApplicationService(mock(ProductService.class), promotionRepository,
+                customerService, basketFactory, evaluator, catalog);
+    }
+
+    @AfterEach
+    void tearDown() {
+        evaluator.shutdown();
+    }
+
+    @Test
+    void fixedCorpusMatchesAcrossEndpoints() {
+        List<Item> cart = cart(
+                item(1L, 10L, "12.50", 4, "1"),
+                item(2L, 20L, "3.20", 10, "0"),
+                item(5L, 30L, "45.00", 1, "2"));
+
+        assertSame("bracket percentage on subtotal", cart, List.of(
+                promotion("P1", 1, rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.AMOUNT,
+                        List.of(condition(Condition.ConditionType.CART_SUBTOTAL, Condition.Operator.GREATER_THAN, "50")),
+                        tier("50", percentage("5")), tier("100", percentage("10"))))));
+        assertSame("cumulative quantity slices", cart, List.of(
+                promotion("P1", 1, rule(PromotionRule.CalculationMethod.CUMULATIVE, PromotionRule.BreakpointType.QUANTITY,
+                        List.of(productInCart("PRODUCT", "2", Condition.Operator.GREATER_THAN_OR_EQUAL, "5")),
+                        tier("5", percentage("5")), tier("12", percentage("15"))))));
+        assertSame("cumulative amount slices on paid family", cart, List.of(
+                paidFamily(promotion("P1", 1, rule(PromotionRule.CalculationMethod.CUMULATIVE, PromotionRule.BreakpointType.AMOUNT,
+                        List.of(productInCart("PRODUCT_FAMILY", "10", Condition.Operator.GREATER_THAN, "1")),
+                        tier("20", percentage("10")), tier("40", percentage("20")))), "10")));
+        assertSame("fixed amount above the eligible total", cart, List.of(
+                paidProduct(promotion("P1", 1, rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.QUANTITY,
+                        List.of(anyCart()), tier("1", fixedAmount("100")))), 5L)));
+        assertSame("free product on sku points", cart, List.of(
+                promotion("P1", 1, rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.SKU_POINTS,
+                        List.of(anyCart()), tier("5", freeProduct(7L, "2"))))));
+        assertSame("quantity repetition limit", cart, List.of(
+                withRepetition(promotion("P1", 1, rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.QUANTITY,
+                        List.of(anyCart()), tier("1", percentage("10")))), 12)));
+        assertSame("promo family condition met", cart, List.of(
+                promotion("P1", 1, rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.AMOUNT,
+                        List.of(productInCart("PROMO_FAMILY", "PF-DRINKS", Condition.Operator.GREATER_THAN_OR_EQUAL, "1")),
+                        tier("1", percentage("7.5"))))));
+        assertSame("promo family condition not met", cart(item(1L, 10L, "12.50", 4, "1")), List.of(
+                promotion("P1", 1, rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.AMOUNT,
+                        List.of(productInCart("PROMO_FAMILY", "PF-DRINKS", Condition.Operator.GREATER_THAN_OR_EQUAL, "1")),
+                        tier("1", percentage("7.5"))))));
+        assertSame("any of several conditions", cart, List.of(
+                promotion("P1", 1, anyOf(rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.AMOUNT,
+                        List.of(condition(Condition.ConditionType.CART_SUBTOTAL, Condition.Operator.LESS_THAN, "10"),
+                                productInCart("PROMO_FAMILY", "PF-SNACKS", Condition.Operator.GREATER_THAN_OR_EQUAL, "1")),
+                        tier("1", fixedAmount("4.99")))))));
+        assertSame("nested promotions see earlier discounts", cart, List.of(
+                promotion("P1", 1, rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.AMOUNT,
+                        List.of(anyCart()), tier("1", percentage("10")))),
+                promotion("P2", 2, rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.AMOUNT,
+                        List.of(anyCart()), tier("1", percentage("10"))))));
+        assertSame("exclusive stops evaluation", cart, List.of(
+                exclusive(promotion("P1", 1, rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.AMOUNT,
+                        List.of(anyCart()), tier("1", freeProduct(8L, "1"))))),
+                promotion("P2", 2, rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.AMOUNT,
+                        List.of(anyCart()), tier("1", freeProduct(9L, "1"))))));
+        assertSame("combinability group and skip to sequence", cart, List.of(
+                grouped(skipTo(promotion("P1", 1, rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.AMOUNT,
+                        List.of(anyCart()), tier("1", freeProduct(8L, "1")))), 3), "G"),
+                promotion("P2", 2, rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.AMOUNT,
+                        List.of(anyCart()), tier("1", freeProduct(9L, "1")))),
+                grouped(promotion("P3", 3, rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.AMOUNT,
+                        List.of(anyCart()), tier("1", freeProduct(9L, "2")))), "G"),
+                promotion("P4", 4, rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.AMOUNT,
+                        List.of(anyCart()), tier("1", percentage("5"))))));
+    }
+
+    @Test
+    void randomCorpusMatchesAcrossEndpoints() {
+        Random random = new Random(20260304L);
+        int discounted = 0;
+        for (int i = 0; i < 2000; i++) {
+            List<Item> cart = randomCart(random);
+            int count = i % 2 == 0 ? 1 : 2 + random.nextInt(5);
+            List<Promotion> promotions = new ArrayList<>();
+            for (int p = 0; p < count; p++) {
+                promotions.add(randomPromotion(random, "R" + i + "-" + p, count > 1));
+            }
+            // The nested endpoint evaluates the parent first, the catalog by priority
+            promotions.get(0).setPriority(0);
+            if (assertSame("random case " + i, cart, promotions).signum() > 0) {
+                discounted++;
+            }
+        }
+        assertTrue(discounted > 500, "only " + discounted + " random cases granted a discount");
+    }
+
+    @Test
+    void laterPromotionsSeeEarlierDiscounts() {
+        PromotionBasket basket = basket(PaymentMethod.CASH, line(1L, 10L, "100.00", 1, "0"));
+        PromotionEvaluation evaluation = evaluate(basket, List.of(
+                promotion("P1", 1, rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.AMOUNT,
+                        List.of(paymentMethod("CASH")), tier("1", percentage("10")))),
+                promotion("P2", 2, rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.AMOUNT,
+                        List.of(paymentMethod("CASH")), tier("1", percentage("10"))))));
+
+        assertAmount(new BigDecimal("10"), evaluation.discountsByPromotion().get("P1"));
+        assertAmount(new BigDecimal("9"), evaluation.discountsByPromotion().get("P2"));
+    }
+
+    @Test
+    void promoFamilyConditionCountsMemberQuantities() {
+        Promotion promotion = promotion("P1", 1, rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.AMOUNT,
+                List.of(productInCart("PROMO_FAMILY", "PF-SNACKS", Condition.Operator.GREATER_THAN_OR_EQUAL, "5")),
+                tier("1", percentage("10"))));
+
+        PromotionEvaluation enough = evaluate(basket(PaymentMethod.CASH,
+                line(1L, 10L, "2.00", 3, "0"), line(2L, 20L, "2.00", 2, "0"), line(5L, 30L, "2.00", 9, "0")), List.of(promotion));
+        PromotionEvaluation tooFew = evaluate(basket(PaymentMethod.CASH,
+                line(1L, 10L, "2.00", 3, "0"), line(5L, 30L, "2.00", 9, "0")), List.of(promotion));
+        PromotionEvaluation unknownFamily = evaluate(basket(PaymentMethod.CASH, line(1L, 10L, "2.00", 9, "0")), List.of(
+                promotion("P2", 1, rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.AMOUNT,
+                        List.of(productInCart("PROMO_FAMILY", "PF-UNKNOWN", Condition.Operator.GREATER_THAN_OR_EQUAL, "1")),
+                        tier("1", percentage("10"))))));
+
+        assertEquals(List.of("P1"), enough.appliedPromotionCodes());
+        assertTrue(tooFew.appliedPromotionCodes().isEmpty());
+        assertTrue(unknownFamily.appliedPromotionCodes().isEmpty());
+    }
+
+    @Test
+    void linesWithoutFamilyCodeNeverMatchPromoFamilies() {
+        PromotionBasket basket = new PromotionBasket(null, PaymentMethod.CASH, List.of(
+                new PromotionBasket.Line(1L, 10L, null, "Product 1", new BigDecimal("5.00"), 2, BigDecimal.ZERO)));
+        PromotionEvaluation evaluation = evaluate(basket, List.of(
+                promotion("P1", 1, rule(PromotionRule.CalculationMethod.BRACKET, PromotionRule.BreakpointType.AMOUNT,
+                        List.of(productInCart("PROMO_FAMILY", "PF-SNACKS", Condition.Operator.GREATER_THAN_OR_EQUAL, "1")),
+                        tier("1", percentage("10"))))));
+
+        assertFalse(evaluation.appliedPromotionCodes().contains("P1"));
+    }
+
+    // --- comparison ---
+
+    /**
+     * @return the discount both endpoints granted
+     */
+    private BigDecimal assertSame(String name, List<Item> cart, List<Promotion> promotions) {
+        stock(cart, promotions);
+
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        List<OrdertemDto> orderItems = new ArrayList<>();
+        for (Item item : cart) {
+            quantities.put(item.product().id(), item.quantity());
+            orderItems.add(new OrdertemDto(item.product().id(), null, null, item.quantity(), item.product().salePrice(), null, null));
+        }
+        ApplyPromotionRequest request = new ApplyPromotionRequest();
+        request.setCustomerId(CUSTOMER_ID);
+        request.setOrderItems(orderItems);
+
+        BigDecimal nestedTotal = calculationService.calculateNestedPromotions((int) PARENT_ID, quantities);
+        PromotionEvaluation nested = evaluator.last;
+        ApplyPromotionResponse response = applicationService.calculatePromotions(request);
+        PromotionEvaluation order = evaluator.last;
+
+        String context = "\ncart: " + cart + "\npromotions: " + describe(promotions);
+        if (nestedTotal.compareTo(response.getDiscountTotal()) != 0) {
+            fail(name + ": nested endpoint granted " + nestedTotal + ", order endpoint " + response.getDiscountTotal() + context);
+        }
+        assertEquals(nested.appliedPromotionCodes(), order.appliedPromotionCodes(), name + ": applied promotions" + context);
+        assertEquals(nested.discountsByPromotion(), order.discountsByPromotion(), name + ": discount per promotion" + context);
+        assertEquals(nested.discountsByPromotion(), response.getPromotionDiscounts(), name + ": order response discounts" + context);
+        assertEquals(nested.freeItems(), order.freeItems(), name + ": free items" + context);
+        assertEquals(nested.lines(), order.lines(), name + ": line distribution" + context);
+        List<LineItemResultDto> lineItems = response.getLineItems();
+        assertEquals(nested.lines().size(), lineItems.size(), name + ": order response lines" + context);
+        for (int i = 0; i < lineItems.size(); i++) {
+            PromotionEvaluation.LineResult expected = nested.lines().get(i);
+            assertEquals(expected.line().productId(), lineItems.get(i).getProductId(), name + ": order response line " + i + context);
+            assertEquals(expected.discount(), lineItems.get(i).getTotalDiscount(), name + ": order response line " + i + context);
+            assertEquals(expected.promotionCodes(), lineItems.get(i).getAppliedPromotions(), name + ": order response line " + i + context);
+        }
+        return nestedTotal;
+    }
+
+    /**
+     * Puts the cart's products in the catalogue and the promotions in the repository, the first as the
+     * parent of the others, and drops what the catalog cached for the previous case.
+     */
+    private void stock(List<Item> cart, List<Promotion> promotions) {
+        catalogue.clear();
+        for (Item item : cart) {
+            catalogue.put(item.product().id(), item.product());
+        }
+        Promotion parent = promotions.get(0);
+        parent.setId(PARENT_ID);
+        List<Promotion> nested = promotions.subList(1, promotions.size());
+        for (int i = 0; i < nested.size(); i++) {
+            nested.get(i).setId(PARENT_ID + 1 + i);
+            nested.get(i).setNestedPromotion(true);
+            nested.get(i).setParentPromotionId(PARENT_ID);
+        }
+        when(promotionRepository.findSchedulablePromotions(any())).thenReturn(promotions);
+        when(promotionRepository.findById((int) PARENT_ID)).thenReturn(Optional.of(parent));
+        when(promotionRepository.findByParentPromotionId((int) PARENT_ID)).thenReturn(nested);
+        catalog.onPromotionChanged(new PromotionChangedEvent(PARENT_ID));
+    }
+
+    private PromotionEvaluation evaluate(PromotionBasket basket, List<Promotion> promotions) {
+        List<CompiledPromotion> compiled = new ArrayList<>();
+        for (Promotion promotion : promotions) {
+            compiled.add(compiler.compile(promotion));
+        }
+        // The catalog hands the evaluator its promotions in priority order
+        compiled.sort((a, b) -> Integer.compare(a.getPriority(), b.getPriority()));
+        return evaluator.evaluate(basket, compiled);
+    }
+
+    private static void assertAmount(BigDecimal expected, BigDecimal actual) {
+        assertTrue(actual != null && expected.compareTo(actual) == 0, "expected " + expected + " but was " + actual);
+    }
+
+    private static String describe(List<Promotion> promotions) {
+        StringBuilder description = new StringBuilder();
+        for (Promotion promotion : promotions) {
+            description.append('\n').append(promotion.getPromoCode()).append(" priority ").append(promotion.getPriority());
+            for (PromotionRule rule : promotion.getRules()) {
+                description.append(" rule ").append(rule.getCalculationMethod()).append('/').append(rule.getBreakpointType())
+                        .append(" repetition ").append(rule.getRepetition());
+                for (PromotionTier tier : rule.getTiers()) {
+                    Reward reward = tier.getReward();
+                    description.append(" [").append(tier.getMinimumThreshold()).append(' ').append(reward.getType())
+                            .append(' ').append(reward.getDiscountPercentage()).append(' ').append(reward.getDiscountAmount()).append(']');
+                }
+            }
+        }
+        return description.toString();
+    }
+
+    /**
+     * Keeps the evaluation behind the last endpoint call, which the responses only partly expose.
+     */
+    private static class RecordingEvaluator extends PromotionEvaluator {
+
+        private PromotionEvaluation last;
+
+        RecordingEvaluator(PromotionCatalog catalog, CustomerService customerService) {
+            super(catalog, customerService, new PromotionProperties());
+        }
+
+        @Override
+        public PromotionEvaluation evaluate(PromotionBasket basket, List<CompiledPromotion> promotions, ZonedDateTime at) {
+            last = super.evaluate(basket, promotions, at);
+            return last;
+        }
+    }
+
+    // --- random corpus ---
+
+    private static final long[][] PRODUCTS = {{1, 10}, {2, 20}, {3, 20}, {4, 30}, {5, 30}, {6, 40}};
+
+    private static List<Item> randomCart(Random random) {
+        List<long[]> products = new ArrayList<>(List.of(PRODUCTS));
+        Collections.shuffle(products, random);
+        List<Item> cart = new ArrayList<>();
+        int count = 1 + random.nextInt(5);
+        for (int i = 0; i < count; i++) {
+            long[] product = products.get(i);
+            BigDecimal price = BigDecimal.valueOf(50 + random.nextInt(9950), 2);
+            cart.add(item(product[0], product[1], price.toPlainString(), 1 + random.nextInt(8),
+                    Integer.toString(random.nextInt(4))));
+        }
+        return cart;
+    }
+
+    private static Promotion randomPromotion(Random random, String code, boolean withSelection) {
+        PromotionRule.CalculationMethod method = random.nextBoolean()
+                ? PromotionRule.CalculationMethod.BRACKET : PromotionRule.CalculationMethod.CUMULATIVE;
+        PromotionRule.BreakpointType type = PromotionRule.BreakpointType.values()[random.nextInt(3)];
+        int tierCount = 1 + random.nextInt(3);
+        PromotionTier[] tiers = new PromotionTier[tierCount];
+        int threshold = 0;
+        for (int t = 0; t < tierCount; t++) {
+            threshold += 1 + random.nextInt(type == PromotionRule.BreakpointType.AMOUNT ? 80 : 6);
+            tiers[t] = tier(Integer.toString(threshold), randomReward(random, method));
+        }
+        List<Condition> conditions = new ArrayList<>();
+        int conditionCount = 1 + random.nextInt(2);
+        for (int c = 0; c < conditionCount; c++) {
+            conditions.add(randomCondition(random));
+        }
+        PromotionRule rule = rule(method, type, conditions, tiers);
+        if (random.nextBoolean()) {
+            rule.setConditionLogic(PromotionRule.ConditionLogic.ANY);
+        }
+        Promotion promotion = promotion(code, random.nextInt(10), rule);
+        if (type == PromotionRule.BreakpointType.QUANTITY && random.nextInt(3) == 0) {
+            withRepetition(promotion, 1 + random.nextInt(10));
+        }
+        switch (random.nextInt(4)) {
+            case 0:
+                paidProduct(promotion, PRODUCTS[random.nextInt(PRODUCTS.length)][0]);
+                break;
+            case 1:
+                paidFamily(promotion, Long.toString(PRODUCTS[random.nextInt(PRODUCTS.length)][1]));
+                break;
+            default:
+                break;
+        }
+        if (withSelection) {
+            promotion.setExclusive(random.nextInt(8) == 0);
+            promotion.setCombinabilityGroup(random.nextInt(3) == 0 ? "G" + random.nextInt(2) : null);
+            promotion.setSkipToSequence(random.nextInt(6) == 0 ? random.nextInt(10) : null);
+        }
+        return promotion;
+    }
+
+    private static Reward randomReward(Random random, PromotionRule.CalculationMethod method) {
+        int kind = random.nextInt(method == PromotionRule.CalculationMethod.CUMULATIVE ? 4 : 3);
+        switch (kind) {
+            case 1:
+                return fixedAmount(BigDecimal.valueOf(100 + random.nextInt(5000), 2).toPlainString());
+            case 2:
+                return freeProduct(PRODUCTS[random.nextInt(PRODUCTS.length)][0], Integer.toString(1 + random.nextInt(3)));
+            default:
+                return percentage(BigDecimal.valueOf(50 + random.nextInt(2950), 2).toPlainString());
+        }
+    }
+
+    private static Condition randomCondition(Random random) {
+        Condition.Operator[] operators = {Condition.Operator.GREATER_THAN, Condition.Operator.GREATER_THAN_OR_EQUAL,
+                Condition.Operator.LESS_THAN, Condition.Operator.LESS_THAN_OR_EQUAL, Condition.Operator.EQUAL,
+                Condition.Operator.NOT_EQUAL};
+        Condition.Operator operator = operators[random.nextInt(operators.length)];
+        switch (random.nextInt(4)) {
+            case 0:
+                return condition(Condition.ConditionType.CART_SUBTOTAL, operator, Integer.toString(random.nextInt(400)));
+            case 1:
+                return productInCart("PRODUCT", Long.toString(PRODUCTS[random.nextInt(PRODUCTS.length)][0]),
+                        operator, Integer.toString(random.nextInt(6)));
+            case 2:
+                return productInCart("PRODUCT_FAMILY", Long.toString(PRODUCTS[random.nextInt(PRODUCTS.length)][1]),
+                        operator, Integer.toString(random.nextInt(6)));
+            default:
+                return productInCart("PROMO_FAMILY", random.nextBoolean() ? "PF-SNACKS" : "PF-DRINKS",
+                        Condition.Operator.GREATER_THAN_OR_EQUAL, "1");
+        }
+    }
+
+    // --- builders ---
+
+    private static List<Item> cart(Item... items) {
+        return List.of(items);
+    }
+
+    private static Item item(long productId, long familyId, String salePrice, int quantity, String skuPoints) {
+        return new Item(new CatalogueRow(productId, familyId, new BigDecimal(salePrice), new BigDecimal(skuPoints)), quantity);
+    }
+
+    private static PromotionBasket basket(PaymentMethod paymentMethod, PromotionBasket.Line... lines) {
+        return new PromotionBasket(null, paymentMethod, List.of(lines));
+    }
+
+    private static PromotionBasket.Line line(long productId, long familyId, String unitPrice, int quantity, String skuPoints) {
+        return new PromotionBasket.Line(productId, familyId, "F" + familyId, "Product " + productId,
+                new BigDecimal(unitPrice), quantity, new BigDecimal(skuPoints));
+    }
+
+    private static Promotion promotion(String code, int priority, PromotionRule... rules) {
+        ZonedDateTime now = ZonedDateTime.now();
+        Promotion promotion = new Promotion();
+        promotion.setPromoCode(code);
+        promotion.setName(code);
+        promotion.setPriority(priority);
+        promotion.setActive(true);
+        promotion.setStartDate(now.minusDays(1));
+        promotion.setEndDate(now.plusDays(1));
+        promotion.setRules(new ArrayList<>(List.of(rules)));
+        promotion.setPromotionLines(new ArrayList<>());
+        promotion.setCustomerFamilies(new ArrayList<>());
+        for (PromotionRule rule : rules) {
+            rule.setPromotion(promotion);
+        }
+        return promotion;
+    }
+
+    private static PromotionRule rule(PromotionRule.CalculationMethod method, PromotionRule.BreakpointType type,
+                                      List<Condition> conditions, PromotionTier... tiers) {
+        PromotionRule rule = new PromotionRule("rule", PromotionRule.ConditionLogic.ALL, method, type);
+        rule.setConditions(new ArrayList<>(conditions));
+        rule.setTiers(new ArrayList<>(List.of(tiers)));
+        return rule;
+    }
+
+    private static PromotionRule anyOf(PromotionRule rule) {
+        rule.setConditionLogic(PromotionRule.ConditionLogic.ANY);
+        return rule;
+    }
+
+    private static PromotionTier tier(String threshold, Reward reward) {
+        return new PromotionTier(new BigDecimal(threshold), reward);
+    }
+
+    private static Reward percentage(String percentage) {
+        Reward reward = new Reward();
+        reward.setType(Reward.RewardType.PERCENTAGE);
+        reward.setDiscountPercentage(new BigDecimal(percentage));
+        return reward;
+    }
+
+    private static Reward fixedAmount(String amount) {
+        Reward reward = new Reward();
+        reward.setType(Reward.RewardType.FIXED_AMOUNT);
+        reward.setDiscountAmount(new BigDecimal(amount));
+        return reward;
+    }
+
+    private static Reward freeProduct(long productId, String quantity) {
+        Reward reward = new Reward();
+        reward.setType(Reward.RewardType.FREE_PRODUCT);
+        reward.setTargetEntityId(Long.toString(productId));
+        reward.setDiscountAmount(new BigDecimal(quantity));
+        return reward;
+    }
+
+    private static Condition condition(Condition.ConditionType type, Condition.Operator operator, String value) {
+        return new Condition(type, null, operator, value);
+    }
+
+    private static Condition anyCart() {
+        return condition(Condition.ConditionType.CART_SUBTOTAL, Condition.Operator.GREATER_THAN, "0");
+    }
+
+    private static Condition productInCart(String entityType, String entityId, Condition.Operator operator, String quantity) {
+        Condition condition = condition(Condition.ConditionType.PRODUCT_IN_CART, operator, quantity);
+        condition.setEntityType(entityType);
+        condition.setEntityId(entityId);
+        return condition;
+    }
+
+    private static Condition paymentMethod(String paymentMethod) {
+        Condition condition = condition(Condition.ConditionType.PAYMENT_METHOD, Condition.Operator.EQUAL, paymentMethod);
+        condition.setPaymentMethod(paymentMethod);
+        return condition;
+    }
+
+    private static Promotion paidProduct(Promotion promotion, long productId) {
+        PromotionLine line = new PromotionLine();
+        line.setPaidProductId(productId);
+        line.setPromotion(promotion);
+        promotion.getPromotionLines().add(line);
+        return promotion;
+    }
+
+    private static Promotion paidFamily(Promotion promotion, String familyId) {
+        PromotionLine line = new PromotionLine();
+        line.setPaidFamilyCode(familyId);
+        line.setPromotion(promotion);
+        promotion.getPromotionLines().add(line);
+        return promotion;
+    }
+
+    private static Promotion withRepetition(Promotion promotion, int repetition) {
+        promotion.getRules().forEach(rule -> rule.setRepetition(repetition));
+        return promotion;
+    }
+
+    private static Promotion exclusive(Promotion promotion) {
+        promotion.setExclusive(true);
+        return promotion;
+    }
+
+    private static Promotion grouped(Promotion promotion, String group) {
+        promotion.setCombinabilityGroup(group);
+        return promotion;
+    }
+
+    private static Promotion skipTo(Promotion promotion, int sequence) {
+        promotion.setSkipToSequence(sequence);
+        return promotion;
+    }
+
+    private record Item(CatalogueRow product, int quantity) {
+    }
+
+    private record CatalogueRow(Long id, Long familyId, BigDecimal salePrice, BigDecimal promoSkuPoints)
+            implements PromotionLineRow {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getTitle() {
+            return "Product " + id;
+        }
+
+        @Override
+        public BigDecimal getSalePrice() {
+            return salePrice;
+        }
+
+        @Override
+        public Long getFamilyId() {
+            return familyId;
+        }
+
+        @Override
+        public String getFamilyCode() {
+            return "F" + familyId;
+        }
+
+        @Override
+        public BigDecimal getPromoSkuPoints() {
+            return promoSkuPoints;
+        }
+    }
+
+    private record Membership(Long familyId, String familyCode, Boolean active, String memberCode)
+            implements PromoFamilyRepository.MembershipRow {
+
+        @Override
+        public Long getFamilyId() {
+            return familyId;
+        }
+
+        @Override
+        public String getFamilyCode() {
+            return familyCode;
+        }
+
+        @Override
+        public Boolean getActive() {
+            return active;
+        }
+
+        @Override
+        public String getMemberCode() {
+            return memberCode;
+        }
+    }
+}